@@ -41,10 +41,19 @@ public class DataCarrier<T> {
     }
 
     public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize) {
+        this(name, envPrefix, channelSize, bufferSize, BufferType.ARRAY);
+    }
+
+    /**
+     * @param bufferType the implementation of the buffers in the channels. {@link BufferType#MPSC_RING} avoids scanning
+     * empty slots, but each channel could only be consumed by one consumer thread. {@link BufferType#ELASTIC} only takes
+     * memory for the data not consumed yet.
+     */
+    public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize, BufferType bufferType) {
         this.name = name;
         this.bufferSize = EnvUtil.getInt(envPrefix + "_BUFFER_SIZE", bufferSize);
         this.channelSize = EnvUtil.getInt(envPrefix + "_CHANNEL_SIZE", channelSize);
-        channels = new Channels<T>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), BufferStrategy.BLOCKING);
+        channels = new Channels<T>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), BufferStrategy.BLOCKING, bufferType);
     }
 
     /**
@@ -97,10 +106,23 @@ public class DataCarrier<T> {
      * @param num number of consumer threads
      */
     public DataCarrier consume(Class<? extends IConsumer<T>> consumerClass, int num, long consumeCycle) {
+        return this.consume(consumerClass, num, consumeCycle, SleepWaitStrategy.INSTANCE);
+    }
+
+    /**
+     * set consumeDriver to this Carrier. consumer begin to run when {@link DataCarrier#produce} begin to work.
+     *
+     * @param consumerClass class of consumer
+     * @param num number of consumer threads
+     * @param consumeCycle max wait time of the consumer threads when there is no data
+     * @param waitStrategy how the consumer threads wait for new data
+     */
+    public DataCarrier consume(Class<? extends IConsumer<T>> consumerClass, int num, long consumeCycle,
+        IWaitStrategy waitStrategy) {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumerClass, num, consumeCycle);
+        driver = new ConsumeDriver<T>(this.name, this.channels, consumerClass, num, consumeCycle, waitStrategy);
         driver.begin(channels);
         return this;
     }
@@ -124,10 +146,23 @@ public class DataCarrier<T> {
      * @return
      */
     public DataCarrier consume(IConsumer<T> consumer, int num, long consumeCycle) {
+        return this.consume(consumer, num, consumeCycle, SleepWaitStrategy.INSTANCE);
+    }
+
+    /**
+     * set consumeDriver to this Carrier. consumer begin to run when {@link DataCarrier#produce} begin to work.
+     *
+     * @param consumer single instance of consumer, all consumer threads will all use this instance.
+     * @param num number of consumer threads
+     * @param consumeCycle max wait time of the consumer threads when there is no data
+     * @param waitStrategy how the consumer threads wait for new data
+     * @return
+     */
+    public DataCarrier consume(IConsumer<T> consumer, int num, long consumeCycle, IWaitStrategy waitStrategy) {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle);
+        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle, waitStrategy);
         driver.begin(channels);
         return this;
     }
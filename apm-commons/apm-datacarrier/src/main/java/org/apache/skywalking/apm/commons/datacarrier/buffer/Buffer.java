@@ -27,7 +27,7 @@ import java.util.List;
 /**
  * Created by wusheng on 2016/10/25.
  */
-public class Buffer<T> {
+public class Buffer<T> implements QueueBuffer<T> {
     private final Object[] buffer;
     private BufferStrategy strategy;
     private AtomicRangeInteger index;
@@ -40,15 +40,18 @@ public class Buffer<T> {
         callbacks = new LinkedList<QueueBlockingCallback<T>>();
     }
 
-    void setStrategy(BufferStrategy strategy) {
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
         this.strategy = strategy;
     }
 
-    void addCallback(QueueBlockingCallback<T> callback) {
+    @Override
+    public void addCallback(QueueBlockingCallback<T> callback) {
         callbacks.add(callback);
     }
 
-    boolean save(T data) {
+    @Override
+    public boolean save(T data) {
         int i = index.getAndIncrement();
         if (buffer[i] != null) {
             switch (strategy) {
@@ -77,10 +80,12 @@ public class Buffer<T> {
         return true;
     }
 
+    @Override
     public int getBufferSize() {
         return buffer.length;
     }
 
+    @Override
     public void obtain(List<T> consumeList) {
         this.obtain(consumeList, 0, buffer.length);
     }
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+/**
+ * The implementation type of the {@link QueueBuffer}s in {@link Channels}.
+ */
+public enum BufferType {
+    /**
+     * {@link Buffer}, the slots are scanned one by one by consumers, and could be partitioned to several consumer
+     * threads.
+     */
+    ARRAY,
+    /**
+     * {@link RingBuffer}, a multiple producers and single consumer ring buffer. Only the published range is drained,
+     * so one channel is consumed by one thread at most.
+     */
+    MPSC_RING,
+    /**
+     * {@link ElasticBuffer}, the memory grows with the saved data and is released after consumed, the buffer size is
+     * the upper bound only. Fits lots of mostly idle channels.
+     */
+    ELASTIC
+}
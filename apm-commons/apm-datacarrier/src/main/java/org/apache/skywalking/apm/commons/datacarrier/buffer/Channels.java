@@ -18,7 +18,10 @@
 
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.callback.QueueBlockingCallback;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerSignal;
 import org.apache.skywalking.apm.commons.datacarrier.partition.IDataPartitioner;
 
 /**
@@ -26,19 +29,35 @@ import org.apache.skywalking.apm.commons.datacarrier.partition.IDataPartitioner;
  * is full. The Default is BLOCKING <p> Created by wusheng on 2016/10/25.
  */
 public class Channels<T> {
-    private final Buffer<T>[] bufferChannels;
+    private final QueueBuffer<T>[] bufferChannels;
     private IDataPartitioner<T> dataPartitioner;
     private BufferStrategy strategy;
     private final long size;
+    private volatile ConsumerSignal[] consumerSignals = new ConsumerSignal[0];
 
     public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy) {
+        this(channelSize, bufferSize, partitioner, strategy, BufferType.ARRAY);
+    }
+
+    public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy,
+        BufferType bufferType) {
         this.dataPartitioner = partitioner;
         this.strategy = strategy;
-        bufferChannels = new Buffer[channelSize];
+        @SuppressWarnings("unchecked")
+        QueueBuffer<T>[] bufferChannels = new QueueBuffer[channelSize];
+        this.bufferChannels = bufferChannels;
+        long size = 0;
         for (int i = 0; i < channelSize; i++) {
-            bufferChannels[i] = new Buffer<T>(bufferSize, strategy);
+            if (BufferType.MPSC_RING.equals(bufferType)) {
+                bufferChannels[i] = new RingBuffer<T>(bufferSize, strategy);
+            } else if (BufferType.ELASTIC.equals(bufferType)) {
+                bufferChannels[i] = new ElasticBuffer<T>(bufferSize, strategy);
+            } else {
+                bufferChannels[i] = new Buffer<T>(bufferSize, strategy);
+            }
+            size += bufferChannels[i].getBufferSize();
         }
-        size = channelSize * bufferSize;
+        this.size = size;
     }
 
     public boolean save(T data) {
@@ -52,6 +71,9 @@ public class Channels<T> {
         }
         for (; retryCountDown > 0; retryCountDown--) {
             if (bufferChannels[index].save(data)) {
+                for (ConsumerSignal signal : consumerSignals) {
+                    signal.signal();
+                }
                 return true;
             }
         }
@@ -69,7 +91,7 @@ public class Channels<T> {
      * @param strategy
      */
     public void setStrategy(BufferStrategy strategy) {
-        for (Buffer<T> buffer : bufferChannels) {
+        for (QueueBuffer<T> buffer : bufferChannels) {
             buffer.setStrategy(strategy);
         }
     }
@@ -87,12 +109,40 @@ public class Channels<T> {
         return size;
     }
 
-    public Buffer<T> getBuffer(int index) {
+    public QueueBuffer<T> getBuffer(int index) {
         return this.bufferChannels[index];
     }
 
+    /**
+     * Register the signal of a consumer thread, which consumes these channels. The signal will be notified after data
+     * saved.
+     *
+     * @param signal of the consumer thread
+     */
+    public synchronized void addConsumerSignal(ConsumerSignal signal) {
+        ConsumerSignal[] newSignals = new ConsumerSignal[consumerSignals.length + 1];
+        System.arraycopy(consumerSignals, 0, newSignals, 0, consumerSignals.length);
+        newSignals[consumerSignals.length] = signal;
+        consumerSignals = newSignals;
+    }
+
+    /**
+     * Unregister the signal of a consumer thread, which stops consuming these channels.
+     *
+     * @param signal of the consumer thread
+     */
+    public synchronized void removeConsumerSignal(ConsumerSignal signal) {
+        List<ConsumerSignal> newSignals = new ArrayList<ConsumerSignal>(consumerSignals.length);
+        for (ConsumerSignal consumerSignal : consumerSignals) {
+            if (consumerSignal != signal) {
+                newSignals.add(consumerSignal);
+            }
+        }
+        consumerSignals = newSignals.toArray(new ConsumerSignal[0]);
+    }
+
     public void addCallback(QueueBlockingCallback<T> callback) {
-        for (Buffer<T> channel : bufferChannels) {
+        for (QueueBuffer<T> channel : bufferChannels) {
             channel.addCallback(callback);
         }
     }
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.apm.commons.datacarrier.callback.QueueBlockingCallback;
+
+/**
+ * An unpreallocated buffer, which grows with the saved data and shrinks after they are consumed. The buffer size is the
+ * upper bound, rather than the allocated slots, so an idle buffer costs nearly nothing, no matter how big it could be.
+ *
+ * It fits the case of many buffers, most of which are idle or only hold a few elements, e.g. one buffer per metrics
+ * model in the OAP server.
+ *
+ * {@link BufferStrategy#OVERRIDE} is not supported, there is no slot to override, so it acts as {@link
+ * BufferStrategy#IF_POSSIBLE}.
+ */
+public class ElasticBuffer<T> implements QueueBuffer<T> {
+    private final int bufferSize;
+    private final Queue<T> elements;
+    private final AtomicInteger size;
+    private BufferStrategy strategy;
+    private List<QueueBlockingCallback<T>> callbacks;
+
+    ElasticBuffer(int bufferSize, BufferStrategy strategy) {
+        this.bufferSize = bufferSize;
+        this.elements = new ConcurrentLinkedQueue<T>();
+        this.size = new AtomicInteger(0);
+        this.strategy = strategy;
+        this.callbacks = new LinkedList<QueueBlockingCallback<T>>();
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void addCallback(QueueBlockingCallback<T> callback) {
+        callbacks.add(callback);
+    }
+
+    @Override
+    public boolean save(T data) {
+        boolean isFirstTimeBlocking = true;
+        while (true) {
+            int current = size.get();
+            if (current < bufferSize) {
+                if (size.compareAndSet(current, current + 1)) {
+                    elements.offer(data);
+                    return true;
+                }
+                continue;
+            }
+
+            if (!BufferStrategy.BLOCKING.equals(strategy)) {
+                return false;
+            }
+            if (isFirstTimeBlocking) {
+                isFirstTimeBlocking = false;
+                for (QueueBlockingCallback<T> callback : callbacks) {
+                    callback.notify(data);
+                }
+            }
+            try {
+                Thread.sleep(1L);
+            } catch (InterruptedException e) {
+            }
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return the number of the elements, which are saved but not obtained yet.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Obtain the elements saved before this call. The elements saved during it are left to the next call, so a busy
+     * producer can't keep the consumer here.
+     */
+    @Override
+    public void obtain(List<T> consumeList) {
+        for (int count = size.get(); count > 0; count--) {
+            T data = elements.poll();
+            if (data == null) {
+                // the size is increased before the element is offered
+                break;
+            }
+            size.decrementAndGet();
+            consumeList.add(data);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.List;
+import org.apache.skywalking.apm.commons.datacarrier.callback.QueueBlockingCallback;
+
+/**
+ * QueueBuffer is the storage unit of a channel. Producers {@link #save(Object)} data into it, and the consumer drains
+ * it through {@link #obtain(List)}.
+ */
+public interface QueueBuffer<T> {
+    /**
+     * Save data into the buffer, following the current {@link BufferStrategy} when the buffer is full.
+     *
+     * @param data to save
+     * @return false means the data has been abandoned.
+     */
+    boolean save(T data);
+
+    /**
+     * @param strategy the new strategy used when the buffer is full.
+     */
+    void setStrategy(BufferStrategy strategy);
+
+    void addCallback(QueueBlockingCallback<T> callback);
+
+    /**
+     * @return the max number of elements could be held.
+     */
+    int getBufferSize();
+
+    /**
+     * Move all available data into the given list.
+     *
+     * @param consumeList target list
+     */
+    void obtain(List<T> consumeList);
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.skywalking.apm.commons.datacarrier.callback.QueueBlockingCallback;
+
+/**
+ * A bounded, multiple producers and single consumer ring buffer.
+ *
+ * Every slot carries a sequence number. A producer claims a position by CAS on the producer index, writes the element,
+ * then publishes it by setting the slot sequence to position + 1. The consumer only reads the slots whose sequence has
+ * been published, in position order, and releases them by setting the sequence to position + capacity. So the consumer
+ * never sees a half written slot, and it stops at the first unpublished slot instead of scanning the whole buffer.
+ *
+ * The producer and consumer indexes are padded, same as {@link org.apache.skywalking.apm.commons.datacarrier.common.AtomicRangeInteger},
+ * to avoid false sharing between producers and the consumer.
+ *
+ * {@link BufferStrategy#BLOCKING} producers park when the buffer is full, and are unparked by the consumer after it
+ * releases slots. {@link BufferStrategy#OVERRIDE} is not supported, because overriding a slot is not safe while the
+ * consumer is reading it, so it acts as {@link BufferStrategy#IF_POSSIBLE}.
+ *
+ * Only one thread should call {@link #obtain(List)} at the same time.
+ */
+public class RingBuffer<T> implements QueueBuffer<T> {
+    private static final int VALUE_OFFSET = 7;
+    private static final long MAX_BLOCKING_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLongArray producerIndex;
+    private final AtomicLongArray consumerIndex;
+    private final Queue<Thread> blockedProducers;
+    private BufferStrategy strategy;
+    private List<QueueBlockingCallback<T>> callbacks;
+
+    RingBuffer(int bufferSize, BufferStrategy strategy) {
+        int capacity = capacityOf(bufferSize);
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.producerIndex = new AtomicLongArray(VALUE_OFFSET * 2 + 1);
+        this.consumerIndex = new AtomicLongArray(VALUE_OFFSET * 2 + 1);
+        this.blockedProducers = new ConcurrentLinkedQueue<Thread>();
+        this.strategy = strategy;
+        this.callbacks = new LinkedList<QueueBlockingCallback<T>>();
+    }
+
+    /**
+     * @return the smallest power of 2, which is not less than the given buffer size.
+     */
+    static int capacityOf(int bufferSize) {
+        if (bufferSize <= 1) {
+            return 2;
+        }
+        int capacity = Integer.highestOneBit(bufferSize - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer size is too large: " + bufferSize);
+        }
+        return capacity;
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void addCallback(QueueBlockingCallback<T> callback) {
+        callbacks.add(callback);
+    }
+
+    @Override
+    public boolean save(T data) {
+        boolean isFirstTimeBlocking = true;
+        while (true) {
+            long position = producerIndex.get(VALUE_OFFSET);
+            int slot = (int)(position & mask);
+            long diff = sequences.get(slot) - position;
+            if (diff == 0) {
+                if (producerIndex.compareAndSet(VALUE_OFFSET, position, position + 1)) {
+                    elements[slot] = data;
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // The slot still holds the element of the last round, the buffer is full.
+                if (!BufferStrategy.BLOCKING.equals(strategy)) {
+                    return false;
+                }
+                if (isFirstTimeBlocking) {
+                    isFirstTimeBlocking = false;
+                    for (QueueBlockingCallback<T> callback : callbacks) {
+                        callback.notify(data);
+                    }
+                }
+                waitForRelease(position);
+            }
+            // diff > 0, the position has been claimed by another producer, retry.
+        }
+    }
+
+    /**
+     * Park the current producer until the consumer releases slots. Parking is limited by {@link
+     * #MAX_BLOCKING_PARK_NANOS}, in case the consumer changed.
+     */
+    private void waitForRelease(long position) {
+        Thread current = Thread.currentThread();
+        blockedProducers.offer(current);
+        try {
+            if (position - consumerIndex.get(VALUE_OFFSET) >= elements.length) {
+                LockSupport.parkNanos(this, MAX_BLOCKING_PARK_NANOS);
+            }
+        } finally {
+            blockedProducers.remove(current);
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return elements.length;
+    }
+
+    /**
+     * @return the number of elements which have been claimed but not obtained yet.
+     */
+    public int size() {
+        long size = producerIndex.get(VALUE_OFFSET) - consumerIndex.get(VALUE_OFFSET);
+        return (int)Math.max(0, Math.min(size, elements.length));
+    }
+
+    /**
+     * Drain the published elements in order, at most one round of the ring.
+     */
+    @Override
+    public void obtain(List<T> consumeList) {
+        final int capacity = elements.length;
+        final long start = consumerIndex.get(VALUE_OFFSET);
+        final long limit = start + capacity;
+        long position = start;
+        for (; position < limit; position++) {
+            int slot = (int)(position & mask);
+            if (sequences.get(slot) != position + 1) {
+                break;
+            }
+            consumeList.add((T)elements[slot]);
+            elements[slot] = null;
+            sequences.lazySet(slot, position + capacity);
+        }
+
+        if (position != start) {
+            consumerIndex.set(VALUE_OFFSET, position);
+            if (!blockedProducers.isEmpty()) {
+                for (Thread producer : blockedProducers) {
+                    LockSupport.unpark(producer);
+                }
+            }
+        }
+    }
+}
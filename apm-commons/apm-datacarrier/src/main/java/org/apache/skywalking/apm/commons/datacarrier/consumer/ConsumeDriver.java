@@ -33,18 +33,28 @@ public class ConsumeDriver<T> implements IDriver {
 
     public ConsumeDriver(String name, Channels<T> channels, Class<? extends IConsumer<T>> consumerClass, int num,
         long consumeCycle) {
+        this(name, channels, consumerClass, num, consumeCycle, SleepWaitStrategy.INSTANCE);
+    }
+
+    public ConsumeDriver(String name, Channels<T> channels, Class<? extends IConsumer<T>> consumerClass, int num,
+        long consumeCycle, IWaitStrategy waitStrategy) {
         this(channels, num);
         for (int i = 0; i < num; i++) {
-            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumser." + i + ".Thread", getNewConsumerInstance(consumerClass), consumeCycle);
+            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumser." + i + ".Thread", getNewConsumerInstance(consumerClass), consumeCycle, waitStrategy);
             consumerThreads[i].setDaemon(true);
         }
     }
 
     public ConsumeDriver(String name, Channels<T> channels, IConsumer<T> prototype, int num, long consumeCycle) {
+        this(name, channels, prototype, num, consumeCycle, SleepWaitStrategy.INSTANCE);
+    }
+
+    public ConsumeDriver(String name, Channels<T> channels, IConsumer<T> prototype, int num, long consumeCycle,
+        IWaitStrategy waitStrategy) {
         this(channels, num);
         prototype.init();
         for (int i = 0; i < num; i++) {
-            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumser." + i + ".Thread", prototype, consumeCycle);
+            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumser." + i + ".Thread", prototype, consumeCycle, waitStrategy);
             consumerThreads[i].setDaemon(true);
         }
 
@@ -78,6 +88,7 @@ public class ConsumeDriver<T> implements IDriver {
             lock.lock();
             this.allocateBuffer2Thread();
             for (ConsumerThread consumerThread : consumerThreads) {
+                this.channels.addConsumerSignal(consumerThread.getSignal());
                 consumerThread.start();
             }
             running = true;
@@ -109,7 +120,16 @@ public class ConsumeDriver<T> implements IDriver {
 
             for (int channelIndex = 0; channelIndex < channelSize; channelIndex++) {
                 ArrayList<Integer> threadAllocationPerChannel = threadAllocation[channelIndex];
-                Buffer<T> channel = this.channels.getBuffer(channelIndex);
+                QueueBuffer<T> queueBuffer = this.channels.getBuffer(channelIndex);
+                if (!(queueBuffer instanceof Buffer)) {
+                    /**
+                     * Only {@link Buffer} could be consumed by several consumers in ranges,
+                     * the others are consumed by the first allocated consumer.
+                     */
+                    consumerThreads[threadAllocationPerChannel.get(0)].addDataSource(queueBuffer);
+                    continue;
+                }
+                Buffer<T> channel = (Buffer<T>)queueBuffer;
                 int bufferSize = channel.getBufferSize();
                 int step = bufferSize / threadAllocationPerChannel.size();
                 for (int i = 0; i < threadAllocationPerChannel.size(); i++) {
@@ -141,6 +161,7 @@ public class ConsumeDriver<T> implements IDriver {
             lock.lock();
             this.running = false;
             for (ConsumerThread consumerThread : consumerThreads) {
+                this.channels.removeConsumerSignal(consumerThread.getSignal());
                 consumerThread.shutdown();
             }
         } finally {
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.consumer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ConsumerSignal belongs to one consumer thread. Producers {@link #signal()} it after data saved into the channels, which
+ * the consumer thread is consuming, so the waiting consumer thread could wake up at once, rather than at the end of the
+ * consume cycle.
+ */
+public class ConsumerSignal {
+    private final Thread consumer;
+    private final AtomicBoolean signalled;
+
+    public ConsumerSignal(Thread consumer) {
+        this.consumer = consumer;
+        this.signalled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Notify the consumer that new data arrived. Only the first signal after the consumer reset the status unparks the
+     * consumer thread, the others are just a volatile read.
+     */
+    public void signal() {
+        if (!signalled.get() && signalled.compareAndSet(false, true)) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * @return true if there is signal since last reset.
+     */
+    public boolean isSignalled() {
+        return signalled.get();
+    }
+
+    /**
+     * Reset the status, should be called by the consumer thread before waiting.
+     *
+     * @return true if there is signal since last reset, the consumer should not wait.
+     */
+    public boolean reset() {
+        return signalled.getAndSet(false);
+    }
+
+    /**
+     * Park the consumer thread, until a signal arrives or timeout.
+     *
+     * @param nanos max time to wait
+     */
+    public void park(long nanos) {
+        LockSupport.parkNanos(this, nanos);
+    }
+}
@@ -20,6 +20,7 @@
 package org.apache.skywalking.apm.commons.datacarrier.consumer;
 
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Buffer;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,13 +33,25 @@ public class ConsumerThread<T> extends Thread {
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private final IWaitStrategy waitStrategy;
+    private final ConsumerSignal signal;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
+        this(threadName, consumer, consumeCycle, SleepWaitStrategy.INSTANCE);
+    }
+
+    ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle, IWaitStrategy waitStrategy) {
         super(threadName);
         this.consumer = consumer;
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
+        this.signal = new ConsumerSignal(this);
+    }
+
+    ConsumerSignal getSignal() {
+        return signal;
     }
 
     /**
@@ -49,7 +62,7 @@ public class ConsumerThread<T> extends Thread {
      * @param end
      */
     void addDataSource(Buffer<T> sourceBuffer, int start, int end) {
-        this.dataSources.add(new DataSource(sourceBuffer, start, end));
+        this.dataSources.add(new PartialDataSource(sourceBuffer, start, end));
     }
 
     /**
@@ -57,8 +70,8 @@ public class ConsumerThread<T> extends Thread {
      *
      * @param sourceBuffer
      */
-    void addDataSource(Buffer<T> sourceBuffer) {
-        this.dataSources.add(new DataSource(sourceBuffer, 0, sourceBuffer.getBufferSize()));
+    void addDataSource(QueueBuffer<T> sourceBuffer) {
+        this.dataSources.add(new DataSource(sourceBuffer));
     }
 
     @Override
@@ -68,10 +81,7 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                waitStrategy.waitFor(signal, consumeCycle);
             }
         }
 
@@ -102,22 +112,40 @@ public class ConsumerThread<T> extends Thread {
 
     void shutdown() {
         running = false;
+        signal.signal();
     }
 
     /**
-     * DataSource is a refer to {@link Buffer}.
+     * DataSource is a refer to {@link QueueBuffer}.
      */
     class DataSource {
+        private QueueBuffer<T> sourceBuffer;
+
+        DataSource(QueueBuffer<T> sourceBuffer) {
+            this.sourceBuffer = sourceBuffer;
+        }
+
+        void obtain(List<T> consumeList) {
+            sourceBuffer.obtain(consumeList);
+        }
+    }
+
+    /**
+     * PartialDataSource is a refer to a range of {@link Buffer}.
+     */
+    class PartialDataSource extends DataSource {
         private Buffer<T> sourceBuffer;
         private int start;
         private int end;
 
-        DataSource(Buffer<T> sourceBuffer, int start, int end) {
+        PartialDataSource(Buffer<T> sourceBuffer, int start, int end) {
+            super(sourceBuffer);
             this.sourceBuffer = sourceBuffer;
             this.start = start;
             this.end = end;
         }
 
+        @Override
         void obtain(List<T> consumeList) {
             sourceBuffer.obtain(consumeList, start, end);
         }
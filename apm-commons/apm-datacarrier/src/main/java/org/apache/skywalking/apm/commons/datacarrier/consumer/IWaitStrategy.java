@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.consumer;
+
+/**
+ * The way of a consumer thread waits, when there is no data in the channels. The implementations should be stateless,
+ * so one instance could be shared by several consumer threads.
+ */
+public interface IWaitStrategy {
+    /**
+     * Wait for new data. Called by the consumer thread only.
+     *
+     * @param signal of the current consumer thread
+     * @param consumeCycle the max time to wait, in millis
+     */
+    void waitFor(ConsumerSignal signal, long consumeCycle);
+}
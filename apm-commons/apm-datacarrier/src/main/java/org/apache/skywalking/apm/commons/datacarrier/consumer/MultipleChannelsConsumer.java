@@ -18,28 +18,48 @@
 
 package org.apache.skywalking.apm.commons.datacarrier.consumer;
 
-import org.apache.skywalking.apm.commons.datacarrier.buffer.Buffer;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
  * IConsumer}s
  *
+ * Every target registers its own signal into its channels, which puts the target into the ready list when data saved.
+ * The thread only visits the ready targets, so the cost of a round depends on the active targets, rather than all
+ * targets. All targets are still visited once per {@link #FULL_SCAN_PERIOD}, in case of a signal raced with the
+ * consuming and the data was left in the buffer.
+ *
  * @author wusheng
  */
 public class MultipleChannelsConsumer extends Thread {
+    private static final long FULL_SCAN_PERIOD = 1000L;
+
     private volatile boolean running;
     private volatile ArrayList<Group> consumeTargets;
+    private final Queue<Group> readyTargets;
     private volatile long size;
     private final long consumeCycle;
+    private final IWaitStrategy waitStrategy;
+    private final ConsumerSignal signal;
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
+        this(threadName, consumeCycle, SleepWaitStrategy.INSTANCE);
+    }
+
+    public MultipleChannelsConsumer(String threadName, long consumeCycle, IWaitStrategy waitStrategy) {
         super(threadName);
         this.consumeTargets = new ArrayList<Group>();
+        this.readyTargets = new ConcurrentLinkedQueue<Group>();
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
+        this.signal = new ConsumerSignal(this);
     }
 
     @Override
@@ -47,19 +67,33 @@ public class MultipleChannelsConsumer extends Thread {
         running = true;
 
         final List consumeList = new ArrayList(2000);
+        long lastFullScan = System.currentTimeMillis();
         while (running) {
             boolean hasData = false;
-            for (Group target : consumeTargets) {
+            // Bounded by the number of targets, the targets ready again during this round are left to the next one.
+            for (int i = consumeTargets.size(); i > 0; i--) {
+                Group target = readyTargets.poll();
+                if (target == null) {
+                    break;
+                }
+                // Reset before consuming, the data saved from now on will put the target into the list again.
+                target.ready.set(false);
                 boolean consume = consume(target, consumeList);
                 hasData = hasData || consume;
             }
 
-            if (!hasData) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
+            long now = System.currentTimeMillis();
+            if (now - lastFullScan >= FULL_SCAN_PERIOD) {
+                lastFullScan = now;
+                for (Group target : consumeTargets) {
+                    boolean consume = consume(target, consumeList);
+                    hasData = hasData || consume;
                 }
             }
+
+            if (!hasData && readyTargets.isEmpty()) {
+                waitStrategy.waitFor(signal, consumeCycle);
+            }
         }
 
         // consumer thread is going to stop
@@ -73,7 +107,7 @@ public class MultipleChannelsConsumer extends Thread {
 
     private boolean consume(Group target, List consumeList) {
         for (int i = 0; i < target.channels.getChannelSize(); i++) {
-            Buffer buffer = target.channels.getBuffer(i);
+            QueueBuffer buffer = target.channels.getBuffer(i);
             buffer.obtain(consumeList);
         }
 
@@ -106,6 +140,7 @@ public class MultipleChannelsConsumer extends Thread {
         newList.add(group);
         consumeTargets = newList;
         size += channels.size();
+        channels.addConsumerSignal(new ReadySignal(group));
     }
 
     public long size() {
@@ -114,15 +149,39 @@ public class MultipleChannelsConsumer extends Thread {
 
     void shutdown() {
         running = false;
+        signal.signal();
     }
 
     private class Group {
         private Channels channels;
         private IConsumer consumer;
+        private final AtomicBoolean ready;
 
         public Group(Channels channels, IConsumer consumer) {
             this.channels = channels;
             this.consumer = consumer;
+            this.ready = new AtomicBoolean(false);
+        }
+    }
+
+    /**
+     * The signal of one target. It puts the target into the ready list, if it isn't there, then wakes up the consumer
+     * thread.
+     */
+    private class ReadySignal extends ConsumerSignal {
+        private final Group target;
+
+        private ReadySignal(Group target) {
+            super(MultipleChannelsConsumer.this);
+            this.target = target;
+        }
+
+        @Override
+        public void signal() {
+            if (!target.ready.get() && target.ready.compareAndSet(false, true)) {
+                readyTargets.offer(target);
+            }
+            MultipleChannelsConsumer.this.signal.signal();
         }
     }
 }
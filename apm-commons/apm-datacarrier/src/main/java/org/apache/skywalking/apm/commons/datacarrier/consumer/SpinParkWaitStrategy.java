@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.consumer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spin for a while, then park the consumer thread until the producers signal or the consume cycle ends. More spin times
+ * mean lower latency and more CPU cost. 0 means park at once.
+ */
+public class SpinParkWaitStrategy implements IWaitStrategy {
+    private final int spinTimes;
+
+    public SpinParkWaitStrategy(int spinTimes) {
+        this.spinTimes = spinTimes;
+    }
+
+    @Override
+    public void waitFor(ConsumerSignal signal, long consumeCycle) {
+        if (signal.reset()) {
+            return;
+        }
+        for (int i = 0; i < spinTimes; i++) {
+            if (signal.isSignalled()) {
+                return;
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(consumeCycle);
+        while (!signal.isSignalled()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            signal.park(remaining);
+        }
+    }
+}
@@ -44,7 +44,7 @@ public class DataCarrierTest {
         Channels<SampleData> channels = (Channels<SampleData>)(MemberModifier.field(DataCarrier.class, "channels").get(carrier));
         Assert.assertEquals(channels.getChannelSize(), 5);
 
-        Buffer<SampleData> buffer = channels.getBuffer(0);
+        Buffer<SampleData> buffer = (Buffer<SampleData>)channels.getBuffer(0);
         Assert.assertEquals(buffer.getBufferSize(), 100);
 
         Assert.assertEquals(MemberModifier.field(Buffer.class, "strategy").get(buffer), BufferStrategy.BLOCKING);
@@ -65,13 +65,13 @@ public class DataCarrierTest {
         Assert.assertTrue(carrier.produce(new SampleData().setName("d")));
 
         Channels<SampleData> channels = (Channels<SampleData>)(MemberModifier.field(DataCarrier.class, "channels").get(carrier));
-        Buffer<SampleData> buffer1 = channels.getBuffer(0);
+        Buffer<SampleData> buffer1 = (Buffer<SampleData>)channels.getBuffer(0);
 
         List result = new ArrayList();
         buffer1.obtain(result, 0, 100);
         Assert.assertEquals(2, result.size());
 
-        Buffer<SampleData> buffer2 = channels.getBuffer(1);
+        Buffer<SampleData> buffer2 = (Buffer<SampleData>)channels.getBuffer(1);
         buffer2.obtain(result, 0, 100);
 
         Assert.assertEquals(4, result.size());
@@ -88,11 +88,11 @@ public class DataCarrierTest {
         }
 
         Channels<SampleData> channels = (Channels<SampleData>)(MemberModifier.field(DataCarrier.class, "channels").get(carrier));
-        Buffer<SampleData> buffer1 = channels.getBuffer(0);
+        Buffer<SampleData> buffer1 = (Buffer<SampleData>)channels.getBuffer(0);
         List result = new ArrayList();
         buffer1.obtain(result, 0, 100);
 
-        Buffer<SampleData> buffer2 = channels.getBuffer(1);
+        Buffer<SampleData> buffer2 = (Buffer<SampleData>)channels.getBuffer(1);
         buffer2.obtain(result, 0, 100);
         Assert.assertEquals(200, result.size());
     }
@@ -111,11 +111,11 @@ public class DataCarrierTest {
         }
 
         Channels<SampleData> channels = (Channels<SampleData>)(MemberModifier.field(DataCarrier.class, "channels").get(carrier));
-        Buffer<SampleData> buffer1 = channels.getBuffer(0);
+        Buffer<SampleData> buffer1 = (Buffer<SampleData>)channels.getBuffer(0);
         List result = new ArrayList();
         buffer1.obtain(result, 0, 100);
 
-        Buffer<SampleData> buffer2 = channels.getBuffer(1);
+        Buffer<SampleData> buffer2 = (Buffer<SampleData>)channels.getBuffer(1);
         buffer2.obtain(result, 0, 100);
         Assert.assertEquals(200, result.size());
     }
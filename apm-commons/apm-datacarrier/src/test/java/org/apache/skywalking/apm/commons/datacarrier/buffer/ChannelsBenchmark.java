@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare {@link Buffer} and {@link RingBuffer} in {@link Channels}, with 1, 4 and 16 producers and one consumer
+ * thread, which drains the channels in the same way as the consumer threads.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class ChannelsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ChannelsState {
+        @Param({"ARRAY", "MPSC_RING"})
+        private BufferType bufferType;
+
+        private Channels<SampleData> channels;
+        private volatile boolean running;
+        private Thread consumer;
+        private final SampleData data = new SampleData();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            channels = new Channels<SampleData>(2, 10000, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.BLOCKING, bufferType);
+            running = true;
+            consumer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    List<SampleData> consumeList = new ArrayList<SampleData>(2000);
+                    while (running) {
+                        for (int i = 0; i < channels.getChannelSize(); i++) {
+                            channels.getBuffer(i).obtain(consumeList);
+                        }
+                        consumeList.clear();
+                    }
+                }
+            });
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            running = false;
+            consumer.join();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean producer1(ChannelsState state) {
+        return state.channels.save(state.data);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean producer4(ChannelsState state) {
+        return state.channels.save(state.data);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean producer16(ChannelsState state) {
+        return state.channels.save(state.data);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(ChannelsBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.callback.QueueBlockingCallback;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ElasticBufferTest {
+    @Test
+    public void testSaveAndObtainInOrder() {
+        ElasticBuffer<SampleData> buffer = new ElasticBuffer<SampleData>(8, BufferStrategy.IF_POSSIBLE);
+        Assert.assertEquals(8, buffer.getBufferSize());
+        List<SampleData> result = new ArrayList<SampleData>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertTrue(buffer.save(new SampleData().setIntValue(round * 10 + i)));
+            }
+            Assert.assertEquals(5, buffer.size());
+            buffer.obtain(result);
+            Assert.assertEquals(0, buffer.size());
+        }
+
+        Assert.assertEquals(15, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            Assert.assertEquals(i / 5 * 10 + i % 5, result.get(i).getIntValue());
+        }
+    }
+
+    @Test
+    public void testIfPossibleWhenFull() {
+        ElasticBuffer<SampleData> buffer = new ElasticBuffer<SampleData>(4, BufferStrategy.IF_POSSIBLE);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.save(new SampleData()));
+        }
+        Assert.assertFalse(buffer.save(new SampleData()));
+
+        buffer.setStrategy(BufferStrategy.OVERRIDE);
+        Assert.assertFalse(buffer.save(new SampleData()));
+
+        List<SampleData> result = new ArrayList<SampleData>();
+        buffer.obtain(result);
+        Assert.assertEquals(4, result.size());
+        Assert.assertTrue(buffer.save(new SampleData()));
+    }
+
+    @Test
+    public void testBlockingProducerReleasedByConsumer() throws InterruptedException {
+        final ElasticBuffer<SampleData> buffer = new ElasticBuffer<SampleData>(2, BufferStrategy.BLOCKING);
+        final AtomicBoolean notified = new AtomicBoolean(false);
+        buffer.addCallback(new QueueBlockingCallback<SampleData>() {
+            @Override
+            public void notify(SampleData message) {
+                notified.set(true);
+            }
+        });
+        buffer.save(new SampleData());
+        buffer.save(new SampleData());
+
+        final CountDownLatch saved = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                buffer.save(new SampleData().setName("blocking-data"));
+                saved.countDown();
+            }
+        });
+        producer.start();
+
+        Thread.sleep(200);
+        Assert.assertEquals(1, saved.getCount());
+        Assert.assertTrue(notified.get());
+
+        List<SampleData> result = new ArrayList<SampleData>();
+        buffer.obtain(result);
+        saved.await();
+        buffer.obtain(result);
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("blocking-data", result.get(2).getName());
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final ElasticBuffer<SampleData> buffer = new ElasticBuffer<SampleData>(64, BufferStrategy.BLOCKING);
+        final int producerNum = 4;
+        final int countPerProducer = 10000;
+        final CountDownLatch finished = new CountDownLatch(producerNum);
+        for (int p = 0; p < producerNum; p++) {
+            final int producerId = p;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < countPerProducer; i++) {
+                        buffer.save(new SampleData().setName(String.valueOf(producerId)).setIntValue(i));
+                    }
+                    finished.countDown();
+                }
+            }).start();
+        }
+
+        List<SampleData> result = new ArrayList<SampleData>();
+        while (result.size() < producerNum * countPerProducer) {
+            Assert.assertTrue(buffer.size() <= 64);
+            buffer.obtain(result);
+        }
+        finished.await();
+
+        int[] last = new int[producerNum];
+        for (int p = 0; p < producerNum; p++) {
+            last[p] = -1;
+        }
+        for (SampleData data : result) {
+            int producerId = Integer.parseInt(data.getName());
+            Assert.assertEquals(last[producerId] + 1, data.getIntValue());
+            last[producerId] = data.getIntValue();
+        }
+    }
+}
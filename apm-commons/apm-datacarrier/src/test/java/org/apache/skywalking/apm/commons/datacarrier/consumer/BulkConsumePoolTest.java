@@ -19,6 +19,8 @@
 package org.apache.skywalking.apm.commons.datacarrier.consumer;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.*;
 import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
 import org.junit.*;
@@ -88,4 +90,43 @@ public class BulkConsumePoolTest {
         Assert.assertEquals(5, result1.size());
         Assert.assertEquals(2, result2.size());
     }
+
+    @Test
+    public void testOnlyReadyTargetsConsumed() throws InterruptedException {
+        BulkConsumePool pool = new BulkConsumePool("testReadyPool", 1, 50);
+        final CountDownLatch consumed = new CountDownLatch(3);
+        List<Channels> targets = new ArrayList<Channels>();
+        for (int i = 0; i < 100; i++) {
+            Channels channels = new Channels(1, 100, new SimpleRollingPartitioner(), BufferStrategy.BLOCKING, BufferType.ELASTIC);
+            pool.add("test-ready-" + i, channels,
+                new IConsumer() {
+                    @Override public void init() {
+
+                    }
+
+                    @Override public void consume(List data) {
+                        for (Object datum : data) {
+                            consumed.countDown();
+                        }
+                    }
+
+                    @Override public void onError(List data, Throwable t) {
+
+                    }
+
+                    @Override public void onExit() {
+
+                    }
+                });
+            targets.add(channels);
+        }
+        pool.begin(targets.get(0));
+
+        targets.get(7).save(new Object());
+        targets.get(42).save(new Object());
+        targets.get(42).save(new Object());
+        // Consumed through the ready list, before the full scan of all targets.
+        Assert.assertTrue(consumed.await(500, TimeUnit.MILLISECONDS));
+        pool.close(targets.get(0));
+    }
 }
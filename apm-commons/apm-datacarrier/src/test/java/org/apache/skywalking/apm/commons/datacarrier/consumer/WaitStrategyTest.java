@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.consumer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WaitStrategyTest {
+    private static final long LONG_CONSUME_CYCLE = 10000;
+
+    @Test
+    public void testSignalBeforeWait() {
+        ConsumerSignal signal = new ConsumerSignal(Thread.currentThread());
+        signal.signal();
+        long start = System.nanoTime();
+        new SpinParkWaitStrategy(0).waitFor(signal, LONG_CONSUME_CYCLE);
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(LONG_CONSUME_CYCLE));
+        Assert.assertFalse(signal.isSignalled());
+    }
+
+    @Test
+    public void testWaitTimeout() {
+        ConsumerSignal signal = new ConsumerSignal(Thread.currentThread());
+        long start = System.nanoTime();
+        new SpinParkWaitStrategy(100).waitFor(signal, 50);
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test(timeout = LONG_CONSUME_CYCLE / 2)
+    public void testConsumeDriverWakeUp() throws InterruptedException {
+        DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(1, 100);
+        CountingConsumer consumer = new CountingConsumer(2);
+        carrier.consume(consumer, 1, LONG_CONSUME_CYCLE, new SpinParkWaitStrategy(0));
+
+        // Let the consumer thread run into waiting.
+        Thread.sleep(200);
+        carrier.produce(new SampleData());
+        Thread.sleep(200);
+        carrier.produce(new SampleData());
+
+        consumer.latch.await();
+        carrier.shutdownConsumers();
+    }
+
+    @Test(timeout = LONG_CONSUME_CYCLE / 2)
+    public void testBulkConsumePoolWakeUp() throws InterruptedException {
+        BulkConsumePool pool = new BulkConsumePool("testWakeUpPool", 1, LONG_CONSUME_CYCLE, new SpinParkWaitStrategy(10));
+        Channels<SampleData> c1 = new Channels<SampleData>(2, 10, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.BLOCKING);
+        Channels<SampleData> c2 = new Channels<SampleData>(2, 10, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.BLOCKING);
+        CountingConsumer consumer1 = new CountingConsumer(1);
+        CountingConsumer consumer2 = new CountingConsumer(1);
+        pool.add("test1", c1, consumer1);
+        pool.add("test2", c2, consumer2);
+        pool.begin(c1);
+
+        Thread.sleep(200);
+        c2.save(new SampleData());
+        consumer2.latch.await();
+        c1.save(new SampleData());
+        consumer1.latch.await();
+        pool.close(c1);
+    }
+
+    private static class CountingConsumer implements IConsumer<SampleData> {
+        private final CountDownLatch latch;
+
+        private CountingConsumer(int count) {
+            this.latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void init() {
+
+        }
+
+        @Override
+        public void consume(List<SampleData> data) {
+            for (SampleData one : data) {
+                latch.countDown();
+            }
+        }
+
+        @Override
+        public void onError(List<SampleData> data, Throwable t) {
+
+        }
+
+        @Override
+        public void onExit() {
+
+        }
+    }
+}
@@ -57,6 +57,31 @@ public class Config {
          */
         public static int SAMPLE_N_PER_3_SECS = -1;
 
+        /**
+         * Negative or zero means off, by default. If it's positive, the adaptive sampling replaces {@link
+         * #SAMPLE_N_PER_3_SECS}, which samples about this number of {@link TraceSegment} per second, and lowers the
+         * sampling probability smoothly as the traffic grows.
+         */
+        public static int SAMPLE_SEGMENTS_PER_SECOND = -1;
+
+        /**
+         * In adaptive sampling, the first {@link TraceSegment}s of every endpoint in every second are always sampled,
+         * so the endpoints of low traffic are still visible.
+         */
+        public static int SAMPLE_RESERVOIR_PER_ENDPOINT = 1;
+
+        /**
+         * In adaptive sampling, trace the {@link TraceSegment}s not sampled too, and send them if they have an error
+         * or are slow. Set false to skip tracing them at all, which costs less CPU.
+         */
+        public static boolean SAMPLE_KEEP_ERROR_AND_SLOW_SEGMENTS = true;
+
+        /**
+         * The {@link TraceSegment} lasting more than this threshold, in milliseconds, is slow. Negative or zero means
+         * only keep the error ones.
+         */
+        public static int SAMPLE_SLOW_SEGMENT_THRESHOLD = 3000;
+
         /**
          * If the operation name of the first span is included in this set, this segment should be ignored.
          */
@@ -125,6 +150,15 @@ public class Config {
          * Collector skywalking trace receiver service addresses.
          */
         public static String BACKEND_SERVICE = "";
+        /**
+         * How many long-lived gRPC streams send the trace segments in parallel, each one has its own serialization
+         * thread.
+         */
+        public static int SEGMENT_UPLINK_STREAMS = 2;
+        /**
+         * The max number of serialized segments waiting for one stream to be ready, more are abandoned.
+         */
+        public static int SEGMENT_UPLINK_PENDING_SIZE = 300;
     }
 
     public static class Jvm {
@@ -197,6 +231,12 @@ public class Config {
          */
         public static int PEER_MAX_LENGTH = 200;
 
+        /**
+         * If true, the instance methods are enhanced by inlining the interceptor calls into their code, rather than
+         * delegating the calls to the interceptors. It saves the allocation and reflection of every intercepted call.
+         */
+        public static boolean INLINE_ADVICE = false;
+
         public static class MongoDB {
             /**
              * If true, trace all the parameters in MongoDB access, default is false. Only trace the operation, not
@@ -50,8 +50,10 @@ public class ContextManagerExtendService implements BootService {
             context = new IgnoredTracerContext();
         } else {
             SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
-            if (forceSampling || samplingService.trySampling()) {
+            if (forceSampling || samplingService.trySampling(operationName)) {
                 context = new TracingContext();
+            } else if (samplingService.traceUnsampled()) {
+                context = new TracingContext(false);
             } else {
                 context = new IgnoredTracerContext();
             }
@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.apm.agent.core.context;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
@@ -37,7 +39,6 @@ import org.apache.skywalking.apm.agent.core.context.trace.TraceSegmentRef;
 import org.apache.skywalking.apm.agent.core.context.trace.WithPeerInfo;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryManager;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
-import org.apache.skywalking.apm.agent.core.dictionary.PossibleFound;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
@@ -72,11 +73,13 @@ public class TracingContext implements AbstractTracerContext {
     private TraceSegment segment;
 
     /**
-     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This {@link LinkedList} is the in-memory
-     * storage-structure. <p> I use {@link LinkedList#removeLast()}, {@link LinkedList#addLast(Object)} and {@link
-     * LinkedList#last} instead of {@link #pop()}, {@link #push(AbstractSpan)}, {@link #peek()}
+     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This array is the in-memory
+     * storage-structure, and {@link #activeSpanStackDepth} is the number of spans in it. Use {@link #pop()}, {@link
+     * #push(AbstractSpan)} and {@link #peek()} to access it. The array grows when the stack gets deeper, no node is
+     * allocated per span.
      */
-    private LinkedList<AbstractSpan> activeSpanStack = new LinkedList<AbstractSpan>();
+    private AbstractSpan[] activeSpanStack = new AbstractSpan[8];
+    private int activeSpanStackDepth = 0;
 
     /**
      * A counter for the next span.
@@ -92,10 +95,22 @@ public class TracingContext implements AbstractTracerContext {
 
     private volatile boolean running;
 
+    /**
+     * False means the segment isn't sampled, but traced for keeping it if it has an error or is slow. Such context
+     * doesn't propagate, as an {@link IgnoredTracerContext}, so the other segments don't depend on it. Ref to {@link
+     * SamplingService#traceUnsampled()}
+     */
+    private final boolean sampled;
+
     /**
      * Initialize all fields with default value.
      */
     TracingContext() {
+        this(true);
+    }
+
+    TracingContext(boolean sampled) {
+        this.sampled = sampled;
         this.segment = new TraceSegment();
         this.spanIdGenerator = 0;
         samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
@@ -116,6 +131,9 @@ public class TracingContext implements AbstractTracerContext {
         if (!span.isExit()) {
             throw new IllegalStateException("Inject can be done only in Exit Span");
         }
+        if (!sampled) {
+            return;
+        }
 
         WithPeerInfo spanWithPeer = (WithPeerInfo)span;
         String peer = spanWithPeer.getPeer();
@@ -190,6 +208,9 @@ public class TracingContext implements AbstractTracerContext {
      */
     @Override
     public ContextSnapshot capture() {
+        if (!sampled) {
+            return new ContextSnapshot(null, -1, null);
+        }
         List<TraceSegmentRef> refs = this.segment.getRefs();
         ContextSnapshot snapshot = new ContextSnapshot(segment.getTraceSegmentId(),
             activeSpan().getSpanId(),
@@ -262,31 +283,20 @@ public class TracingContext implements AbstractTracerContext {
         AbstractSpan entrySpan;
         final AbstractSpan parentSpan = peek();
         final int parentSpanId = parentSpan == null ? -1 : parentSpan.getSpanId();
+        int operationId = DictionaryManager.findEndpointSection().findIdOnly(segment.getServiceId(), operationName);
         if (parentSpan != null && parentSpan.isEntry()) {
-            entrySpan = (AbstractTracingSpan)DictionaryManager.findEndpointSection()
-                .findOnly(segment.getServiceId(), operationName)
-                .doInCondition(new PossibleFound.FoundAndObtain() {
-                    @Override public Object doProcess(int operationId) {
-                        return parentSpan.setOperationId(operationId);
-                    }
-                }, new PossibleFound.NotFoundAndObtain() {
-                    @Override public Object doProcess() {
-                        return parentSpan.setOperationName(operationName);
-                    }
-                });
+            if (operationId != DictionaryUtil.nullValue()) {
+                entrySpan = parentSpan.setOperationId(operationId);
+            } else {
+                entrySpan = parentSpan.setOperationName(operationName);
+            }
             return entrySpan.start();
         } else {
-            entrySpan = (AbstractTracingSpan)DictionaryManager.findEndpointSection()
-                .findOnly(segment.getServiceId(), operationName)
-                .doInCondition(new PossibleFound.FoundAndObtain() {
-                    @Override public Object doProcess(int operationId) {
-                        return new EntrySpan(spanIdGenerator++, parentSpanId, operationId);
-                    }
-                }, new PossibleFound.NotFoundAndObtain() {
-                    @Override public Object doProcess() {
-                        return new EntrySpan(spanIdGenerator++, parentSpanId, operationName);
-                    }
-                });
+            if (operationId != DictionaryUtil.nullValue()) {
+                entrySpan = new EntrySpan(spanIdGenerator++, parentSpanId, operationId);
+            } else {
+                entrySpan = new EntrySpan(spanIdGenerator++, parentSpanId, operationName);
+            }
             entrySpan.start();
             return push(entrySpan);
         }
@@ -336,46 +346,21 @@ public class TracingContext implements AbstractTracerContext {
             exitSpan = parentSpan;
         } else {
             final int parentSpanId = parentSpan == null ? -1 : parentSpan.getSpanId();
-            exitSpan = (AbstractSpan)DictionaryManager.findNetworkAddressSection()
-                .find(remotePeer).doInCondition(
-                    new PossibleFound.FoundAndObtain() {
-                        @Override
-                        public Object doProcess(final int peerId) {
-                            return DictionaryManager.findEndpointSection()
-                                .findOnly(segment.getServiceId(), operationName)
-                                .doInCondition(
-                                    new PossibleFound.FoundAndObtain() {
-                                        @Override
-                                        public Object doProcess(int operationId) {
-                                            return new ExitSpan(spanIdGenerator++, parentSpanId, operationId, peerId);
-                                        }
-                                    }, new PossibleFound.NotFoundAndObtain() {
-                                        @Override
-                                        public Object doProcess() {
-                                            return new ExitSpan(spanIdGenerator++, parentSpanId, operationName, peerId);
-                                        }
-                                    });
-                        }
-                    },
-                    new PossibleFound.NotFoundAndObtain() {
-                        @Override
-                        public Object doProcess() {
-                            return DictionaryManager.findEndpointSection()
-                                .findOnly(segment.getServiceId(), operationName)
-                                .doInCondition(
-                                    new PossibleFound.FoundAndObtain() {
-                                        @Override
-                                        public Object doProcess(int operationId) {
-                                            return new ExitSpan(spanIdGenerator++, parentSpanId, operationId, remotePeer);
-                                        }
-                                    }, new PossibleFound.NotFoundAndObtain() {
-                                        @Override
-                                        public Object doProcess() {
-                                            return new ExitSpan(spanIdGenerator++, parentSpanId, operationName, remotePeer);
-                                        }
-                                    });
-                        }
-                    });
+            int peerId = DictionaryManager.findNetworkAddressSection().findId(remotePeer);
+            int operationId = DictionaryManager.findEndpointSection().findIdOnly(segment.getServiceId(), operationName);
+            if (peerId != DictionaryUtil.nullValue()) {
+                if (operationId != DictionaryUtil.nullValue()) {
+                    exitSpan = new ExitSpan(spanIdGenerator++, parentSpanId, operationId, peerId);
+                } else {
+                    exitSpan = new ExitSpan(spanIdGenerator++, parentSpanId, operationName, peerId);
+                }
+            } else {
+                if (operationId != DictionaryUtil.nullValue()) {
+                    exitSpan = new ExitSpan(spanIdGenerator++, parentSpanId, operationId, remotePeer);
+                } else {
+                    exitSpan = new ExitSpan(spanIdGenerator++, parentSpanId, operationName, remotePeer);
+                }
+            }
             push(exitSpan);
         }
         exitSpan.start();
@@ -418,7 +403,7 @@ public class TracingContext implements AbstractTracerContext {
 
         finish();
 
-        return activeSpanStack.isEmpty();
+        return activeSpanStackDepth == 0;
     }
 
     @Override public AbstractTracerContext awaitFinishAsync() {
@@ -449,8 +434,15 @@ public class TracingContext implements AbstractTracerContext {
             asyncFinishLock.lock();
         }
         try {
-            if (activeSpanStack.isEmpty() && running && (!isRunningInAsyncMode || asyncSpanCounter.get() == 0)) {
+            if (activeSpanStackDepth == 0 && running && (!isRunningInAsyncMode || asyncSpanCounter.get() == 0)) {
                 TraceSegment finishedSegment = segment.finish(isLimitMechanismWorking());
+                /*
+                 * The segment not sampled is only sent when it has an error or is slow.
+                 */
+                if (!sampled && !samplingService.keepUnsampled(finishedSegment)) {
+                    finishedSegment.setIgnore(true);
+                }
+
                 /*
                  * Recheck the segment if the segment contains only one span.
                  * Because in the runtime, can't sure this segment is part of distributed trace.
@@ -525,7 +517,12 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack', and remove it.
      */
     private AbstractSpan pop() {
-        return activeSpanStack.removeLast();
+        if (activeSpanStackDepth == 0) {
+            throw new NoSuchElementException();
+        }
+        AbstractSpan span = activeSpanStack[--activeSpanStackDepth];
+        activeSpanStack[activeSpanStackDepth] = null;
+        return span;
     }
 
     /**
@@ -534,7 +531,10 @@ public class TracingContext implements AbstractTracerContext {
      * @param span
      */
     private AbstractSpan push(AbstractSpan span) {
-        activeSpanStack.addLast(span);
+        if (activeSpanStackDepth == activeSpanStack.length) {
+            activeSpanStack = Arrays.copyOf(activeSpanStack, activeSpanStackDepth * 2);
+        }
+        activeSpanStack[activeSpanStackDepth++] = span;
         return span;
     }
 
@@ -542,14 +542,17 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack' only.
      */
     private AbstractSpan peek() {
-        if (activeSpanStack.isEmpty()) {
+        if (activeSpanStackDepth == 0) {
             return null;
         }
-        return activeSpanStack.getLast();
+        return activeSpanStack[activeSpanStackDepth - 1];
     }
 
     private AbstractSpan first() {
-        return activeSpanStack.getFirst();
+        if (activeSpanStackDepth == 0) {
+            throw new NoSuchElementException();
+        }
+        return activeSpanStack[0];
     }
 
     private boolean isLimitMechanismWorking() {
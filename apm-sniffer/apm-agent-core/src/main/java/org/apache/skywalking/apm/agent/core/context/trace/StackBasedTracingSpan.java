@@ -20,7 +20,6 @@ package org.apache.skywalking.apm.agent.core.context.trace;
 
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryManager;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
-import org.apache.skywalking.apm.agent.core.dictionary.PossibleFound;
 import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
 
 /**
@@ -90,20 +89,8 @@ public abstract class StackBasedTracingSpan extends AbstractTracingSpan {
     public boolean finish(TraceSegment owner) {
         if (--stackDepth == 0) {
             if (this.operationId == DictionaryUtil.nullValue()) {
-                this.operationId = (Integer)DictionaryManager.findEndpointSection()
-                    .findOrPrepare4Register(owner.getServiceId(), operationName, this.isEntry(), this.isExit())
-                    .doInCondition(
-                        new PossibleFound.FoundAndObtain() {
-                            @Override public Object doProcess(int value) {
-                                return value;
-                            }
-                        },
-                        new PossibleFound.NotFoundAndObtain() {
-                            @Override public Object doProcess() {
-                                return DictionaryUtil.nullValue();
-                            }
-                        }
-                    );
+                this.operationId = DictionaryManager.findEndpointSection()
+                    .findIdOrPrepare4Register(owner.getServiceId(), operationName, this.isEntry(), this.isExit());
             }
             return super.finish(owner);
         } else {
@@ -112,19 +99,12 @@ public abstract class StackBasedTracingSpan extends AbstractTracingSpan {
     }
 
     @Override public AbstractSpan setPeer(final String remotePeer) {
-        DictionaryManager.findNetworkAddressSection().find(remotePeer).doInCondition(
-            new PossibleFound.Found() {
-                @Override
-                public void doProcess(int remotePeerId) {
-                    peerId = remotePeerId;
-                }
-            }, new PossibleFound.NotFound() {
-                @Override
-                public void doProcess() {
-                    peer = remotePeer;
-                }
-            }
-        );
+        int remotePeerId = DictionaryManager.findNetworkAddressSection().findId(remotePeer);
+        if (remotePeerId != DictionaryUtil.nullValue()) {
+            peerId = remotePeerId;
+        } else {
+            peer = remotePeer;
+        }
         return this;
     }
 }
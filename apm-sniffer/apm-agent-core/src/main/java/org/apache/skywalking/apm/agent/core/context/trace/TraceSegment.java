@@ -19,6 +19,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
@@ -79,7 +80,7 @@ public class TraceSegment {
      */
     public TraceSegment() {
         this.traceSegmentId = GlobalIdGenerator.generate();
-        this.spans = new LinkedList<AbstractTracingSpan>();
+        this.spans = new ArrayList<AbstractTracingSpan>(8);
         this.relatedGlobalTraces = new DistributedTraceIds();
         this.relatedGlobalTraces.append(new NewDistributedTraceId());
         this.createTime = System.currentTimeMillis();
@@ -148,6 +149,18 @@ public class TraceSegment {
         return this.spans != null && this.spans.size() == 1;
     }
 
+    /**
+     * @return true, if any finished span of this segment is marked as error occurred.
+     */
+    public boolean hasErrorSpan() {
+        for (AbstractTracingSpan span : spans) {
+            if (span.errorOccurred) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isIgnore() {
         return ignore;
     }
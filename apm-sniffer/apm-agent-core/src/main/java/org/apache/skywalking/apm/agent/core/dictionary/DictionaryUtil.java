@@ -30,4 +30,11 @@ public class DictionaryUtil {
     public static boolean isNull(int id) {
         return id == nullValue();
     }
+
+    static PossibleFound toPossibleFound(int id) {
+        if (isNull(id)) {
+            return new NotFound();
+        }
+        return new Found(id);
+    }
 }
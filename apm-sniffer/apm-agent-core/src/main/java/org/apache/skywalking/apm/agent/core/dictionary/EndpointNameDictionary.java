@@ -37,30 +37,63 @@ public enum EndpointNameDictionary {
     private Map<OperationNameKey, Integer> endpointDictionary = new ConcurrentHashMap<OperationNameKey, Integer>();
     private Set<OperationNameKey> unRegisterEndpoints = new ConcurrentSet<OperationNameKey>();
 
+    /**
+     * Probe key of {@link #findId0}, reused by the thread to avoid a key allocation per lookup. It is never put into
+     * the dictionary.
+     */
+    private final ThreadLocal<OperationNameKey> lookupKey = new ThreadLocal<OperationNameKey>() {
+        @Override protected OperationNameKey initialValue() {
+            return new OperationNameKey(0, null, false, false);
+        }
+    };
+
     public PossibleFound findOrPrepare4Register(int serviceId, String endpointName,
         boolean isEntry, boolean isExit) {
-        return find0(serviceId, endpointName, isEntry, isExit, true);
+        return DictionaryUtil.toPossibleFound(findId0(serviceId, endpointName, isEntry, isExit, true));
     }
 
     public PossibleFound findOnly(int serviceId, String endpointName) {
-        return find0(serviceId, endpointName, false, false, false);
+        return DictionaryUtil.toPossibleFound(findId0(serviceId, endpointName, false, false, false));
+    }
+
+    /**
+     * Same as {@link #findOrPrepare4Register(int, String, boolean, boolean)}, without the {@link PossibleFound}.
+     *
+     * @return the endpoint id, or {@link DictionaryUtil#nullValue()} if not registered yet.
+     */
+    public int findIdOrPrepare4Register(int serviceId, String endpointName, boolean isEntry, boolean isExit) {
+        return findId0(serviceId, endpointName, isEntry, isExit, true);
     }
 
-    private PossibleFound find0(int serviceId, String endpointName,
+    /**
+     * Same as {@link #findOnly(int, String)}, without the {@link PossibleFound}.
+     *
+     * @return the endpoint id, or {@link DictionaryUtil#nullValue()} if not registered yet.
+     */
+    public int findIdOnly(int serviceId, String endpointName) {
+        return findId0(serviceId, endpointName, false, false, false);
+    }
+
+    private int findId0(int serviceId, String endpointName,
         boolean isEntry, boolean isExit, boolean registerWhenNotFound) {
         if (endpointName == null || endpointName.length() == 0) {
-            return new NotFound();
+            return DictionaryUtil.nullValue();
+        }
+        OperationNameKey key = lookupKey.get().reset(serviceId, endpointName, isEntry, isExit);
+        Integer operationId;
+        try {
+            operationId = endpointDictionary.get(key);
+        } finally {
+            key.reset(0, null, false, false);
         }
-        OperationNameKey key = new OperationNameKey(serviceId, endpointName, isEntry, isExit);
-        Integer operationId = endpointDictionary.get(key);
         if (operationId != null) {
-            return new Found(operationId);
+            return operationId;
         } else {
             if (registerWhenNotFound &&
                 endpointDictionary.size() + unRegisterEndpoints.size() < ENDPOINT_NAME_BUFFER_SIZE) {
-                unRegisterEndpoints.add(key);
+                unRegisterEndpoints.add(new OperationNameKey(serviceId, endpointName, isEntry, isExit));
             }
-            return new NotFound();
+            return DictionaryUtil.nullValue();
         }
     }
 
@@ -95,7 +128,7 @@ public enum EndpointNameDictionary {
         endpointDictionary.clear();
     }
 
-    private class OperationNameKey {
+    private static class OperationNameKey {
         private int serviceId;
         private String endpointName;
         private boolean isEntry;
@@ -108,6 +141,14 @@ public enum EndpointNameDictionary {
             this.isExit = isExit;
         }
 
+        private OperationNameKey reset(int serviceId, String endpointName, boolean isEntry, boolean isExit) {
+            this.serviceId = serviceId;
+            this.endpointName = endpointName;
+            this.isEntry = isEntry;
+            this.isExit = isExit;
+            return this;
+        }
+
         public int getServiceId() {
             return serviceId;
         }
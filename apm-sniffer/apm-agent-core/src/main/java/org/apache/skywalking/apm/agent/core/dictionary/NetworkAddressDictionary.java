@@ -41,14 +41,23 @@ public enum NetworkAddressDictionary {
     private Set<String> unRegisterServices = new ConcurrentSet<String>();
 
     public PossibleFound find(String networkAddress) {
+        return DictionaryUtil.toPossibleFound(findId(networkAddress));
+    }
+
+    /**
+     * Same as {@link #find(String)}, without the {@link PossibleFound}.
+     *
+     * @return the address id, or {@link DictionaryUtil#nullValue()} if not registered yet.
+     */
+    public int findId(String networkAddress) {
         Integer applicationId = serviceDictionary.get(networkAddress);
         if (applicationId != null) {
-            return new Found(applicationId);
+            return applicationId;
         } else {
             if (serviceDictionary.size() + unRegisterServices.size() < SERVICE_CODE_BUFFER_SIZE) {
                 unRegisterServices.add(networkAddress);
             }
-            return new NotFound();
+            return DictionaryUtil.nullValue();
         }
     }
 
@@ -21,15 +21,21 @@ package org.apache.skywalking.apm.agent.core.plugin;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.bytebuddy.description.NamedElement;
+import net.bytebuddy.description.type.TypeDefinition;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.AbstractJunction;
 import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.HierarchyMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.IndirectMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.MultiClassNameMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.NameMatch;
 import org.apache.skywalking.apm.agent.core.plugin.match.ProtectiveShieldMatcher;
 
@@ -40,12 +46,19 @@ import static net.bytebuddy.matcher.ElementMatchers.not;
  * The <code>PluginFinder</code> represents a finder , which assist to find the one from the given {@link
  * AbstractClassEnhancePluginDefine} list.
  *
+ * The matcher built by {@link #buildMatch()} is called for every class loaded by the JVM, so the name based matches are
+ * looked up in one hash set, and all the {@link HierarchyMatch}es share one walk of the super types, rather than one
+ * walk for each of them.
+ *
  * @author wusheng
  */
 public class PluginFinder {
     private final Map<String, LinkedList<AbstractClassEnhancePluginDefine>> nameMatchDefine = new HashMap<String, LinkedList<AbstractClassEnhancePluginDefine>>();
     private final List<AbstractClassEnhancePluginDefine> signatureMatchDefine = new ArrayList<AbstractClassEnhancePluginDefine>();
     private final List<AbstractClassEnhancePluginDefine> bootstrapClassMatchDefine = new ArrayList<AbstractClassEnhancePluginDefine>();
+    private final Set<String> multiClassNames = new HashSet<String>();
+    private final List<HierarchyMatch> hierarchyMatches = new ArrayList<HierarchyMatch>();
+    private final List<IndirectMatch> otherIndirectMatches = new ArrayList<IndirectMatch>();
 
     public PluginFinder(List<AbstractClassEnhancePluginDefine> plugins) {
         for (AbstractClassEnhancePluginDefine plugin : plugins) {
@@ -65,6 +78,13 @@ public class PluginFinder {
                 pluginDefines.add(plugin);
             } else {
                 signatureMatchDefine.add(plugin);
+                if (match instanceof MultiClassNameMatch) {
+                    multiClassNames.addAll(((MultiClassNameMatch)match).getMatchClassNames());
+                } else if (match instanceof HierarchyMatch) {
+                    hierarchyMatches.add((HierarchyMatch)match);
+                } else if (match instanceof IndirectMatch) {
+                    otherIndirectMatches.add((IndirectMatch)match);
+                }
             }
 
             if (plugin.isBootstrapInstrumentation()) {
@@ -98,11 +118,19 @@ public class PluginFinder {
             }
         };
         judge = judge.and(not(isInterface()));
-        for (AbstractClassEnhancePluginDefine define : signatureMatchDefine) {
-            ClassMatch match = define.enhanceClass();
-            if (match instanceof IndirectMatch) {
-                judge = judge.or(((IndirectMatch)match).buildJunction());
-            }
+        if (!multiClassNames.isEmpty()) {
+            judge = judge.or(new AbstractJunction<NamedElement>() {
+                @Override
+                public boolean matches(NamedElement target) {
+                    return multiClassNames.contains(target.getActualName());
+                }
+            });
+        }
+        if (!hierarchyMatches.isEmpty()) {
+            judge = judge.or(new HierarchyJunction(hierarchyMatches));
+        }
+        for (IndirectMatch match : otherIndirectMatches) {
+            judge = judge.or(match.buildJunction());
         }
         return new ProtectiveShieldMatcher(judge);
     }
@@ -110,4 +138,61 @@ public class PluginFinder {
     public List<AbstractClassEnhancePluginDefine> getBootstrapClassMatchDefine() {
         return bootstrapClassMatchDefine;
     }
+
+    /**
+     * Match all the {@link HierarchyMatch}es by one walk of the super types. The super types of the JDK types, whose
+     * names start with <code>java.</code>, are cached by the name, as they are defined by the bootstrap or platform
+     * class loader only, so most of the walks stop at the first JDK type, e.g. <code>java.lang.Object</code>.
+     */
+    private static class HierarchyJunction extends AbstractJunction<TypeDescription> {
+        private final List<HierarchyMatch> matches;
+        private final ConcurrentHashMap<String, Set<String>> jdkSuperTypeNames = new ConcurrentHashMap<String, Set<String>>();
+
+        private HierarchyJunction(List<HierarchyMatch> matches) {
+            this.matches = matches;
+        }
+
+        @Override
+        public boolean matches(TypeDescription target) {
+            if (target.isInterface()) {
+                return false;
+            }
+            Set<String> superTypeNames = new HashSet<String>();
+            collect(target, superTypeNames);
+            for (HierarchyMatch match : matches) {
+                if (match.isMatch(superTypeNames)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void collect(TypeDefinition type, Set<String> names) {
+            String name = type.asErasure().getActualName();
+            if (!names.add(name)) {
+                return;
+            }
+            if (name.startsWith("java.")) {
+                Set<String> superTypeNames = jdkSuperTypeNames.get(name);
+                if (superTypeNames == null) {
+                    superTypeNames = new HashSet<String>();
+                    collectSuperTypes(type, superTypeNames);
+                    jdkSuperTypeNames.putIfAbsent(name, superTypeNames);
+                }
+                names.addAll(superTypeNames);
+            } else {
+                collectSuperTypes(type, names);
+            }
+        }
+
+        private void collectSuperTypes(TypeDefinition type, Set<String> names) {
+            for (TypeDescription.Generic superInterface : type.getInterfaces()) {
+                collect(superInterface, names);
+            }
+            TypeDescription.Generic superClass = type.getSuperClass();
+            if (superClass != null) {
+                collect(superClass, names);
+            }
+        }
+    }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
 
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.DynamicType;
@@ -28,6 +29,7 @@ import net.bytebuddy.implementation.SuperMethodCall;
 import net.bytebuddy.implementation.bind.annotation.Morph;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
+import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 import org.apache.skywalking.apm.agent.core.plugin.AbstractClassEnhancePluginDefine;
@@ -43,8 +45,12 @@ import org.apache.skywalking.apm.util.StringUtil;
 
 import static net.bytebuddy.jar.asm.Opcodes.ACC_PRIVATE;
 import static net.bytebuddy.jar.asm.Opcodes.ACC_VOLATILE;
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.isNative;
 import static net.bytebuddy.matcher.ElementMatchers.isStatic;
 import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.returns;
 
 /**
  * This class controls all enhance operations, including enhance constructors, instance methods and static methods. All
@@ -52,6 +58,10 @@ import static net.bytebuddy.matcher.ElementMatchers.not;
  * InstanceMethodsInterceptPoint} and {@link StaticMethodsInterceptPoint} If plugin is going to enhance constructors,
  * instance methods, or both, {@link ClassEnhancePluginDefine} will add a field of {@link Object} type.
  *
+ * The instance methods are enhanced by delegating to {@link InstMethodsInter}, or by inlining {@link InstMethodsAdvice}
+ * into their code if {@link Config.Plugin#INLINE_ADVICE} is true. The advice only works on the methods with code,
+ * declared by the enhanced class, and not in bootstrap instrumentation, the others are always delegated.
+ *
  * @author wusheng
  */
 public abstract class ClassEnhancePluginDefine extends AbstractClassEnhancePluginDefine {
@@ -190,6 +200,21 @@ public abstract class ClassEnhancePluginDefine extends AbstractClassEnhancePlugi
                                     MethodDelegation.withDefaultConfiguration()
                                         .to(BootstrapInstrumentBoost.forInternalDelegateClass(interceptor))
                                 );
+                    } else if (Config.Plugin.INLINE_ADVICE) {
+                        ElementMatcher.Junction<MethodDescription> inlinable = junction.and(isDeclaredBy(typeDescription))
+                            .and(not(isAbstract())).and(not(isNative()));
+                        InstMethodsDispatcher.FieldOffsetMapping dispatchers = new InstMethodsDispatcher.FieldOffsetMapping(interceptor, classLoader);
+                        newClassBuilder = dispatchers.defineFields(newClassBuilder, typeDescription.getDeclaredMethods().filter(inlinable));
+                        Advice.WithCustomMapping mapping = Advice.withCustomMapping()
+                            .bind(InstMethodsAdvice.Dispatcher.class, dispatchers);
+                        newClassBuilder =
+                            newClassBuilder.visit(mapping.to(InstMethodsAdvice.class).on(inlinable.and(not(returns(void.class)))))
+                                .visit(mapping.to(InstMethodsAdvice.ForVoid.class).on(inlinable.and(returns(void.class))))
+                                .method(junction.and(not(inlinable)))
+                                .intercept(
+                                    MethodDelegation.withDefaultConfiguration()
+                                        .to(new InstMethodsInter(interceptor, classLoader))
+                                );
                     } else {
                         newClassBuilder =
                             newClassBuilder.method(junction)
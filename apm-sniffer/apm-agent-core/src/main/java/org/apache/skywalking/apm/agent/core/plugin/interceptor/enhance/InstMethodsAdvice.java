@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+
+/**
+ * The byte-buddy's advice inlined into the enhanced instance methods, the alternative of {@link InstMethodsInter}. No
+ * {@link java.util.concurrent.Callable} of the origin call is created, and the method is not looked up in every call,
+ * the {@link InstanceMethodsAroundInterceptor} contract is kept by {@link InstMethodsDispatcher}.
+ *
+ * The code is copied into the enhanced classes, so it could only access the public members of the public classes.
+ *
+ * @see ClassEnhancePluginDefine
+ */
+public class InstMethodsAdvice {
+
+    /**
+     * The {@link InstMethodsDispatcher} of the instrumented method, read from the static field of the enhanced class.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.PARAMETER)
+    public @interface Dispatcher {
+    }
+
+    @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class)
+    public static MethodInterceptResult enter(@Dispatcher InstMethodsDispatcher dispatcher,
+        @Advice.Origin Class<?> origin,
+        @Advice.This Object obj,
+        @Advice.AllArguments Object[] allArguments,
+        @Advice.Local("allArguments") Object[] localArguments) {
+        localArguments = allArguments;
+        return dispatcher.beforeMethod(origin, obj, allArguments);
+    }
+
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    public static void exit(@Dispatcher InstMethodsDispatcher dispatcher,
+        @Advice.Origin Class<?> origin,
+        @Advice.This Object obj,
+        @Advice.Local("allArguments") Object[] localArguments,
+        @Advice.Enter MethodInterceptResult skipped,
+        @Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object ret,
+        @Advice.Thrown Throwable throwable) {
+        Object result = dispatcher.afterMethod(origin, obj, localArguments, skipped, ret, throwable);
+        // the throwable is rethrown, the return value is not used, and can't be null for a primitive type
+        if (throwable == null) {
+            ret = result;
+        }
+    }
+
+    /**
+     * The advice of the void methods, which have no return value to bind.
+     */
+    public static class ForVoid {
+        @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class)
+        public static MethodInterceptResult enter(@Dispatcher InstMethodsDispatcher dispatcher,
+            @Advice.Origin Class<?> origin,
+            @Advice.This Object obj,
+            @Advice.AllArguments Object[] allArguments,
+            @Advice.Local("allArguments") Object[] localArguments) {
+            localArguments = allArguments;
+            return dispatcher.beforeMethod(origin, obj, allArguments);
+        }
+
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void exit(@Dispatcher InstMethodsDispatcher dispatcher,
+            @Advice.Origin Class<?> origin,
+            @Advice.This Object obj,
+            @Advice.Local("allArguments") Object[] localArguments,
+            @Advice.Enter MethodInterceptResult skipped,
+            @Advice.Thrown Throwable throwable) {
+            dispatcher.afterMethod(origin, obj, localArguments, skipped, null, throwable);
+        }
+    }
+}
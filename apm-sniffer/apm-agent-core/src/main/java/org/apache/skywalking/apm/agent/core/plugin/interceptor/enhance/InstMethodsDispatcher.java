@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.method.MethodList;
+import net.bytebuddy.description.modifier.Ownership;
+import net.bytebuddy.description.modifier.SyntheticState;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.implementation.LoadedTypeInitializer;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.utility.RandomString;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.plugin.PluginException;
+import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+/**
+ * The bridge between the {@link InstMethodsAdvice} inlined into one instance method and the {@link
+ * InstanceMethodsAroundInterceptor} of it. Same as {@link InstMethodsInter}, but one dispatcher serves one method, so the
+ * {@link Method} and its parameter types are resolved once, rather than passed in and cloned in every call.
+ *
+ * Every dispatcher is held by a private static field of the enhanced class, set when the class is loaded, and read by
+ * the inlined code. So the dispatchers, and the interceptors loaded by the {@link
+ * org.apache.skywalking.apm.agent.core.plugin.loader.AgentClassLoader} of the application class loader, are collected
+ * with the enhanced class, same as the {@link InstMethodsInter} in the field for the method delegation.
+ */
+public class InstMethodsDispatcher {
+    private static final ILog logger = LogManager.getLogger(InstMethodsDispatcher.class);
+
+    private static final String FIELD_PREFIX = "_$InstMethodsDispatcher_";
+
+    private final InstanceMethodsAroundInterceptor interceptor;
+    private final String methodName;
+    private final String methodDescriptor;
+    private volatile Method method;
+    private Class<?>[] parameterTypes;
+
+    private InstMethodsDispatcher(InstanceMethodsAroundInterceptor interceptor, String methodName,
+        String methodDescriptor) {
+        this.interceptor = interceptor;
+        this.methodName = methodName;
+        this.methodDescriptor = methodDescriptor;
+    }
+
+    /**
+     * Call {@link InstanceMethodsAroundInterceptor#beforeMethod}.
+     *
+     * @return the result if the interceptor defined the return value, then the origin method should be skipped,
+     * otherwise null.
+     */
+    public MethodInterceptResult beforeMethod(Class<?> origin, Object obj, Object[] allArguments) {
+        MethodInterceptResult result = new MethodInterceptResult();
+        try {
+            Method method = method(origin);
+            interceptor.beforeMethod((EnhancedInstance)obj, method, allArguments, parameterTypes, result);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] before method[{}] intercept failure", obj.getClass(), methodName);
+        }
+        return result.isContinue() ? null : result;
+    }
+
+    /**
+     * Call {@link InstanceMethodsAroundInterceptor#handleMethodException} if the origin method threw, then {@link
+     * InstanceMethodsAroundInterceptor#afterMethod}.
+     *
+     * @param skipped the result of {@link #beforeMethod(Class, Object, Object[])}.
+     * @param ret the return value of the origin method, ignored if skipped or threw.
+     * @param throwable thrown by the origin method, null if it returned normally.
+     * @return the return value of the enhanced method.
+     */
+    public Object afterMethod(Class<?> origin, Object obj, Object[] allArguments, MethodInterceptResult skipped,
+        Object ret, Throwable throwable) {
+        if (skipped != null) {
+            ret = skipped._ret();
+        } else if (throwable != null) {
+            // the default value of the return type, rather than a returned one
+            ret = null;
+        }
+        Method method;
+        try {
+            method = method(origin);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] after method[{}] intercept failure", obj.getClass(), methodName);
+            return ret;
+        }
+
+        if (throwable != null) {
+            try {
+                interceptor.handleMethodException((EnhancedInstance)obj, method, allArguments, parameterTypes, throwable);
+            } catch (Throwable t) {
+                logger.error(t, "class[{}] handle method[{}] exception failure", obj.getClass(), methodName);
+            }
+        }
+        try {
+            ret = interceptor.afterMethod((EnhancedInstance)obj, method, allArguments, parameterTypes, ret);
+        } catch (Throwable t) {
+            logger.error(t, "class[{}] after method[{}] intercept failure", obj.getClass(), methodName);
+        }
+        return ret;
+    }
+
+    private Method method(Class<?> origin) throws NoSuchMethodException {
+        Method method = this.method;
+        if (method == null) {
+            for (Method declaredMethod : origin.getDeclaredMethods()) {
+                if (declaredMethod.getName().equals(methodName)
+                    && new MethodDescription.ForLoadedMethod(declaredMethod).getDescriptor().equals(methodDescriptor)) {
+                    method = declaredMethod;
+                    break;
+                }
+            }
+            if (method == null) {
+                throw new NoSuchMethodException(origin.getName() + "." + methodName + methodDescriptor);
+            }
+            parameterTypes = method.getParameterTypes();
+            this.method = method;
+        }
+        return method;
+    }
+
+    /**
+     * Bind the {@link InstMethodsAdvice.Dispatcher} parameter of the advice to the static field holding the dispatcher
+     * of the instrumented method.
+     */
+    static class FieldOffsetMapping implements Advice.OffsetMapping {
+        private final InstanceMethodsAroundInterceptor interceptor;
+        private final Map<String, String> fieldNames = new HashMap<String, String>();
+
+        FieldOffsetMapping(String interceptorClassName, ClassLoader classLoader) {
+            try {
+                interceptor = InterceptorInstanceLoader.load(interceptorClassName, classLoader);
+            } catch (Throwable t) {
+                throw new PluginException("Can't create InstanceMethodsAroundInterceptor.", t);
+            }
+        }
+
+        /**
+         * Define the field of the dispatcher for every given method, which is set when the enhanced class is loaded.
+         *
+         * @param methods the methods to inline the advice into.
+         */
+        DynamicType.Builder<?> defineFields(DynamicType.Builder<?> builder,
+            MethodList<MethodDescription.InDefinedShape> methods) {
+            for (MethodDescription method : methods) {
+                String fieldName = FIELD_PREFIX + RandomString.make();
+                fieldNames.put(method.getInternalName() + method.getDescriptor(), fieldName);
+                builder = builder.defineField(fieldName, InstMethodsDispatcher.class, Visibility.PRIVATE, Ownership.STATIC, SyntheticState.SYNTHETIC)
+                    .initializer(new FieldInitializer(fieldName, new InstMethodsDispatcher(interceptor, method.getInternalName(), method.getDescriptor())));
+            }
+            return builder;
+        }
+
+        @Override
+        public Target resolve(TypeDescription instrumentedType, MethodDescription instrumentedMethod,
+            Assigner assigner, Advice.ArgumentHandler argumentHandler, Sort sort) {
+            String fieldName = fieldNames.get(instrumentedMethod.getInternalName() + instrumentedMethod.getDescriptor());
+            if (fieldName == null) {
+                throw new IllegalStateException("No dispatcher field defined for " + instrumentedMethod);
+            }
+            FieldDescription field = instrumentedType.getDeclaredFields().filter(named(fieldName)).getOnly();
+            return new Target.ForField.ReadOnly(field);
+        }
+    }
+
+    /**
+     * Set the dispatcher into its static field, after the enhanced class is loaded.
+     */
+    private static class FieldInitializer implements LoadedTypeInitializer {
+        private final String fieldName;
+        private final InstMethodsDispatcher dispatcher;
+
+        private FieldInitializer(String fieldName, InstMethodsDispatcher dispatcher) {
+            this.fieldName = fieldName;
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public void onLoad(Class<?> type) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(null, dispatcher);
+            } catch (Exception e) {
+                throw new IllegalStateException("Can't set the dispatcher field " + fieldName + " of " + type, e);
+            }
+        }
+
+        @Override
+        public boolean isAlive() {
+            return true;
+        }
+    }
+}
@@ -18,18 +18,22 @@
 
 package org.apache.skywalking.apm.agent.core.plugin.loader;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -43,6 +47,9 @@ import org.apache.skywalking.apm.agent.core.plugin.PluginBootstrap;
  * The <code>AgentClassLoader</code> represents a classloader,
  * which is in charge of finding plugins and interceptors.
  *
+ * The entries of all the jars are indexed by the package once, at the first lookup, so a class or a resource is only
+ * looked up in the jars having its package, and the class file is read from the opened {@link JarFile} directly.
+ *
  * @author wusheng
  */
 public class AgentClassLoader extends ClassLoader {
@@ -57,8 +64,13 @@ public class AgentClassLoader extends ClassLoader {
      */
     private static AgentClassLoader DEFAULT_LOADER;
 
+    private static final int BUFFER_SIZE = 4096;
+
     private List<File> classpath;
-    private List<Jar> allJars;
+    /**
+     * The package(the directory of the entry, "" for the root) to the jars having entries in it.
+     */
+    private volatile Map<String, List<Jar>> packageIndex;
     private ReentrantLock jarScanLock = new ReentrantLock();
 
     /**
@@ -109,41 +121,20 @@ public class AgentClassLoader extends ClassLoader {
         classpath.add(new File(agentDictionary, "activations"));
     }
 
+    AgentClassLoader(ClassLoader parent, List<File> classpath) {
+        super(parent);
+        this.classpath = classpath;
+    }
+
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
-        List<Jar> allJars = getAllJars();
         String path = name.replace('.', '/').concat(".class");
-        for (Jar jar : allJars) {
+        for (Jar jar : findJars(path)) {
             JarEntry entry = jar.jarFile.getJarEntry(path);
             if (entry != null) {
                 try {
-                    URL classFileUrl = new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + path);
-                    byte[] data = null;
-                    BufferedInputStream is = null;
-                    ByteArrayOutputStream baos = null;
-                    try {
-                        is = new BufferedInputStream(classFileUrl.openStream());
-                        baos = new ByteArrayOutputStream();
-                        int ch = 0;
-                        while ((ch = is.read()) != -1) {
-                            baos.write(ch);
-                        }
-                        data = baos.toByteArray();
-                    } finally {
-                        if (is != null)
-                            try {
-                                is.close();
-                            } catch (IOException ignored) {
-                            }
-                        if (baos != null)
-                            try {
-                                baos.close();
-                            } catch (IOException ignored) {
-                            }
-                    }
+                    byte[] data = readEntry(jar.jarFile, entry);
                     return defineClass(name, data, 0, data.length);
-                } catch (MalformedURLException e) {
-                    logger.error(e, "find class fail.");
                 } catch (IOException e) {
                     logger.error(e, "find class fail.");
                 }
@@ -154,12 +145,11 @@ public class AgentClassLoader extends ClassLoader {
 
     @Override
     protected URL findResource(String name) {
-        List<Jar> allJars = getAllJars();
-        for (Jar jar : allJars) {
+        for (Jar jar : findJars(name)) {
             JarEntry entry = jar.jarFile.getJarEntry(name);
             if (entry != null) {
                 try {
-                    return new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name);
+                    return new URL(jar.urlPrefix + name);
                 } catch (MalformedURLException e) {
                     continue;
                 }
@@ -171,11 +161,10 @@ public class AgentClassLoader extends ClassLoader {
     @Override
     protected Enumeration<URL> findResources(String name) throws IOException {
         List<URL> allResources = new LinkedList<URL>();
-        List<Jar> allJars = getAllJars();
-        for (Jar jar : allJars) {
+        for (Jar jar : findJars(name)) {
             JarEntry entry = jar.jarFile.getJarEntry(name);
             if (entry != null) {
-                allResources.add(new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name));
+                allResources.add(new URL(jar.urlPrefix + name));
             }
         }
 
@@ -193,12 +182,41 @@ public class AgentClassLoader extends ClassLoader {
         };
     }
 
-    private List<Jar> getAllJars() {
-        if (allJars == null) {
+    /**
+     * @param path of the entry, such as <code>org/apache/skywalking/Foo.class</code>.
+     * @return the jars having entries in the same package of the given entry.
+     */
+    private List<Jar> findJars(String path) {
+        int index = path.lastIndexOf('/');
+        List<Jar> jars = getPackageIndex().get(index < 0 ? "" : path.substring(0, index));
+        return jars == null ? Collections.<Jar>emptyList() : jars;
+    }
+
+    private byte[] readEntry(JarFile jarFile, JarEntry entry) throws IOException {
+        InputStream is = jarFile.getInputStream(entry);
+        try {
+            long size = entry.getSize();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(size > 0 ? (int)size : BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, length);
+            }
+            return baos.toByteArray();
+        } finally {
+            try {
+                is.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private Map<String, List<Jar>> getPackageIndex() {
+        if (packageIndex == null) {
             jarScanLock.lock();
             try {
-                if (allJars == null) {
-                    allJars = new LinkedList<Jar>();
+                if (packageIndex == null) {
+                    Map<String, List<Jar>> index = new HashMap<String, List<Jar>>();
                     for (File path : classpath) {
                         if (path.exists() && path.isDirectory()) {
                             String[] jarFileNames = path.list(new FilenameFilter() {
@@ -211,7 +229,7 @@ public class AgentClassLoader extends ClassLoader {
                                 try {
                                     File file = new File(path, fileName);
                                     Jar jar = new Jar(new JarFile(file), file);
-                                    allJars.add(jar);
+                                    indexJar(index, jar);
                                     logger.info("{} loaded.", file.toString());
                                 } catch (IOException e) {
                                     logger.error(e, "{} jar file can't be resolved", fileName);
@@ -219,22 +237,45 @@ public class AgentClassLoader extends ClassLoader {
                             }
                         }
                     }
+                    packageIndex = index;
                 }
             } finally {
                 jarScanLock.unlock();
             }
         }
 
-        return allJars;
+        return packageIndex;
+    }
+
+    private void indexJar(Map<String, List<Jar>> index, Jar jar) {
+        Enumeration<JarEntry> entries = jar.jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (entry.isDirectory()) {
+                continue;
+            }
+            String name = entry.getName();
+            int separator = name.lastIndexOf('/');
+            String packageName = separator < 0 ? "" : name.substring(0, separator);
+            List<Jar> jars = index.get(packageName);
+            if (jars == null) {
+                jars = new ArrayList<Jar>(1);
+                index.put(packageName, jars);
+            }
+            // the entries of a jar are indexed together, so only the last one could be the same jar
+            if (jars.isEmpty() || jars.get(jars.size() - 1) != jar) {
+                jars.add(jar);
+            }
+        }
     }
 
     private class Jar {
         private JarFile jarFile;
-        private File sourceFile;
+        private String urlPrefix;
 
         private Jar(JarFile jarFile, File sourceFile) {
             this.jarFile = jarFile;
-            this.sourceFile = sourceFile;
+            this.urlPrefix = "jar:file:" + sourceFile.getAbsolutePath() + "!/";
         }
     }
 }
@@ -22,6 +22,7 @@ package org.apache.skywalking.apm.agent.core.plugin.match;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.description.type.TypeList;
 import net.bytebuddy.matcher.ElementMatcher;
@@ -84,6 +85,19 @@ public class HierarchyMatch implements IndirectMatch {
         return false;
     }
 
+    /**
+     * @param superTypeNames the names of the type itself and all its super classes and interfaces.
+     * @return true if all the parent types are in the given names.
+     */
+    public boolean isMatch(Set<String> superTypeNames) {
+        for (String parentType : parentTypes) {
+            if (!superTypeNames.contains(parentType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void matchHierarchyClass(TypeDescription.Generic clazz, List<String> parentTypes) {
         parentTypes.remove(clazz.asRawType().getTypeName());
         if (parentTypes.size() == 0) {
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.remote;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.commands.CommandService;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.network.common.Commands;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.TraceSegmentReportServiceGrpc;
+
+/**
+ * A long-lived client stream of {@link TraceSegmentReportServiceGrpc}. The serialized segments are written only when
+ * gRPC reports the stream is ready, otherwise they wait in a bounded pending queue, which is drained by the on-ready
+ * callback of gRPC, so the caller never waits for the network. The stream is completed and opened again after the
+ * lifetime, for receiving the commands from the backend. A stream that hasn't been ready for a whole lifetime, while
+ * segments are pending, is stalled by the backend. It is cancelled and reported to {@link GRPCChannelManager} as a
+ * network error, so the channel is connected again.
+ */
+class SegmentUplinkStream {
+    private static final ILog logger = LogManager.getLogger(SegmentUplinkStream.class);
+
+    private final int pendingLimit;
+    private final long lifetime;
+    private final AtomicLong sentCounter;
+    private final AtomicLong droppedCounter;
+    private final LinkedList<UpstreamSegment> pending = new LinkedList<UpstreamSegment>();
+
+    private TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub openedStub;
+    private ClientCallStreamObserver<UpstreamSegment> requestStream;
+    private long openTime;
+    /**
+     * Since when the pending segments can't be written, 0 if there is none.
+     */
+    private long notReadySince;
+
+    SegmentUplinkStream(int pendingLimit, long lifetime, AtomicLong sentCounter, AtomicLong droppedCounter) {
+        this.pendingLimit = pendingLimit;
+        this.lifetime = lifetime;
+        this.sentCounter = sentCounter;
+        this.droppedCounter = droppedCounter;
+    }
+
+    /**
+     * Write the segments through the stream opened by the given stub, a new stream is opened when there isn't one or
+     * the stub is changed because of reconnection. The segments over the pending limit are abandoned.
+     */
+    synchronized void write(List<UpstreamSegment> segments,
+        TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub) {
+        if (openedStub != stub) {
+            close();
+        }
+        if (requestStream == null) {
+            open(stub);
+        }
+
+        int dropped = 0;
+        for (UpstreamSegment segment : segments) {
+            if (pending.size() < pendingLimit) {
+                pending.addLast(segment);
+            } else {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            droppedCounter.addAndGet(dropped);
+            if (logger.isDebugEnable()) {
+                logger.debug("{} trace segments have been abandoned, cause by the stream isn't ready.", dropped);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Complete the stream, the segments still pending are abandoned.
+     */
+    synchronized void close() {
+        if (requestStream != null) {
+            ClientCallStreamObserver<UpstreamSegment> closing = requestStream;
+            requestStream = null;
+            openedStub = null;
+            abandonPending();
+            closing.onCompleted();
+        }
+    }
+
+    private void open(TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub) {
+        openedStub = stub;
+        openTime = System.currentTimeMillis();
+        notReadySince = 0;
+        // the request stream is set by beforeStart
+        stub.collect(new ResponseObserver());
+    }
+
+    /**
+     * Write the pending segments as long as the stream is ready, and complete the expired stream once all segments
+     * are written. Be called by the writer and the on-ready callback of gRPC.
+     */
+    private synchronized void drain() {
+        boolean written = false;
+        while (requestStream != null && !pending.isEmpty() && requestStream.isReady()) {
+            requestStream.onNext(pending.removeFirst());
+            sentCounter.incrementAndGet();
+            written = true;
+        }
+        if (requestStream == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            notReadySince = 0;
+            if (now - openTime > lifetime) {
+                close();
+            }
+        } else if (written || notReadySince == 0) {
+            notReadySince = now;
+        } else if (now - notReadySince > lifetime) {
+            cancelStalled();
+        }
+    }
+
+    private void cancelStalled() {
+        ClientCallStreamObserver<UpstreamSegment> stalled = requestStream;
+        requestStream = null;
+        openedStub = null;
+        abandonPending();
+        stalled.cancel("The stream isn't ready for " + lifetime + "ms.", null);
+
+        if (logger.isWarnEnable()) {
+            logger.warn("The trace segment stream isn't ready for {}ms, cancel it and reconnect.", lifetime);
+        }
+        ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(
+            new StatusRuntimeException(Status.UNAVAILABLE.withDescription("The trace segment stream is stalled.")));
+    }
+
+    private void abandonPending() {
+        if (!pending.isEmpty()) {
+            droppedCounter.addAndGet(pending.size());
+            pending.clear();
+        }
+    }
+
+    private synchronized void streamStarted(ClientCallStreamObserver<UpstreamSegment> stream) {
+        requestStream = stream;
+    }
+
+    /**
+     * @return false if the stream has been closed or cancelled already.
+     */
+    private synchronized boolean streamFailed(ClientCallStreamObserver<UpstreamSegment> stream) {
+        if (requestStream == stream) {
+            requestStream = null;
+            openedStub = null;
+            abandonPending();
+            return true;
+        }
+        return false;
+    }
+
+    private class ResponseObserver implements ClientResponseObserver<UpstreamSegment, Commands> {
+        private ClientCallStreamObserver<UpstreamSegment> stream;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<UpstreamSegment> requestStream) {
+            stream = requestStream;
+            requestStream.setOnReadyHandler(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+            streamStarted(requestStream);
+        }
+
+        @Override
+        public void onNext(Commands commands) {
+            ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!streamFailed(stream) && Status.fromThrowable(throwable).getCode() == Status.Code.CANCELLED) {
+                // The stalled stream cancelled by this side, reported already.
+                return;
+            }
+            if (logger.isErrorEnable()) {
+                logger.error(throwable, "Send UpstreamSegment to collector fail with a grpc internal exception.");
+            }
+            ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
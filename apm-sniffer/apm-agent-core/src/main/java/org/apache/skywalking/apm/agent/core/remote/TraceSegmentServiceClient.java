@@ -19,19 +19,19 @@
 package org.apache.skywalking.apm.agent.core.remote;
 
 import io.grpc.Channel;
-import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.skywalking.apm.agent.core.boot.*;
-import org.apache.skywalking.apm.agent.core.commands.CommandService;
+import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.context.*;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
-import org.apache.skywalking.apm.network.common.Commands;
 import org.apache.skywalking.apm.network.language.agent.*;
 import org.apache.skywalking.apm.network.language.agent.v2.TraceSegmentReportServiceGrpc;
 
@@ -44,11 +44,16 @@ import static org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus.CONN
 @DefaultImplementor
 public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSegment>, TracingContextListener, GRPCChannelListener {
     private static final ILog logger = LogManager.getLogger(TraceSegmentServiceClient.class);
-    private static final int TIMEOUT = 30 * 1000;
+    private static final long STREAM_LIFETIME = 30 * 1000;
 
     private long lastLogTime;
-    private long segmentUplinkedCounter;
-    private long segmentAbandonedCounter;
+    private long lastLoggedSent;
+    private long lastLoggedDropped;
+    private final AtomicLong segmentQueuedCounter = new AtomicLong();
+    private final AtomicLong segmentSentCounter = new AtomicLong();
+    private final AtomicLong segmentDroppedCounter = new AtomicLong();
+    private final AtomicInteger nextStream = new AtomicInteger();
+    private volatile SegmentUplinkStream[] streams;
     private volatile DataCarrier<TraceSegment> carrier;
     private volatile TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub;
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
@@ -61,11 +66,14 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     @Override
     public void boot() throws Throwable {
         lastLogTime = System.currentTimeMillis();
-        segmentUplinkedCounter = 0;
-        segmentAbandonedCounter = 0;
+        streams = new SegmentUplinkStream[Math.max(1, Config.Collector.SEGMENT_UPLINK_STREAMS)];
+        for (int i = 0; i < streams.length; i++) {
+            streams[i] = new SegmentUplinkStream(Config.Collector.SEGMENT_UPLINK_PENDING_SIZE, STREAM_LIFETIME,
+                segmentSentCounter, segmentDroppedCounter);
+        }
         carrier = new DataCarrier<TraceSegment>(CHANNEL_SIZE, BUFFER_SIZE);
         carrier.setBufferStrategy(BufferStrategy.IF_POSSIBLE);
-        carrier.consume(this, 1);
+        carrier.consume(this, streams.length);
     }
 
     @Override
@@ -77,6 +85,9 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     public void shutdown() throws Throwable {
         TracingContext.ListenerManager.remove(this);
         carrier.shutdownConsumers();
+        for (SegmentUplinkStream stream : streams) {
+            stream.close();
+        }
     }
 
     @Override
@@ -84,66 +95,71 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     }
 
+    /**
+     * Serialize the segments in the consumer thread, and hand them to one of the {@link SegmentUplinkStream}s, which
+     * writes them when gRPC is ready. The consumer thread never waits for the collector.
+     */
     @Override
     public void consume(List<TraceSegment> data) {
-        if (CONNECTED.equals(status)) {
-            final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
-            StreamObserver<UpstreamSegment> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(10, TimeUnit.SECONDS).collect(new StreamObserver<Commands>() {
-                @Override
-                public void onNext(Commands commands) {
-                    ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
-                }
-
-                @Override
-                public void onError(Throwable throwable) {
-                    status.finished();
-                    if (logger.isErrorEnable()) {
-                        logger.error(throwable, "Send UpstreamSegment to collector fail with a grpc internal exception.");
-                    }
-                    ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
-                }
-
-                @Override
-                public void onCompleted() {
-                    status.finished();
-                }
-            });
-
-            try {
-                for (TraceSegment segment : data) {
-                    UpstreamSegment upstreamSegment = segment.transform();
-                    upstreamSegmentStreamObserver.onNext(upstreamSegment);
+        TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub = serviceStub;
+        if (CONNECTED.equals(status) && stub != null) {
+            List<UpstreamSegment> upstreamSegments = new ArrayList<UpstreamSegment>(data.size());
+            for (TraceSegment segment : data) {
+                try {
+                    upstreamSegments.add(segment.transform());
+                } catch (Throwable t) {
+                    segmentDroppedCounter.incrementAndGet();
+                    logger.error(t, "Transform UpstreamSegment fail.");
                 }
-            } catch (Throwable t) {
-                logger.error(t, "Transform and send UpstreamSegment to collector fail.");
             }
-
-            upstreamSegmentStreamObserver.onCompleted();
-
-            status.wait4Finish();
-            segmentUplinkedCounter += data.size();
+            SegmentUplinkStream[] streams = this.streams;
+            streams[(nextStream.getAndIncrement() & Integer.MAX_VALUE) % streams.length].write(upstreamSegments, stub);
         } else {
-            segmentAbandonedCounter += data.size();
+            segmentDroppedCounter.addAndGet(data.size());
         }
 
         printUplinkStatus();
     }
 
-    private void printUplinkStatus() {
+    private synchronized void printUplinkStatus() {
         long currentTimeMillis = System.currentTimeMillis();
         if (currentTimeMillis - lastLogTime > 30 * 1000) {
             lastLogTime = currentTimeMillis;
-            if (segmentUplinkedCounter > 0) {
-                logger.debug("{} trace segments have been sent to collector.", segmentUplinkedCounter);
-                segmentUplinkedCounter = 0;
+            long sent = segmentSentCounter.get();
+            if (sent > lastLoggedSent) {
+                logger.debug("{} trace segments have been sent to collector.", sent - lastLoggedSent);
+                lastLoggedSent = sent;
             }
-            if (segmentAbandonedCounter > 0) {
-                logger.debug("{} trace segments have been abandoned, cause by no available channel.", segmentAbandonedCounter);
-                segmentAbandonedCounter = 0;
+            long dropped = segmentDroppedCounter.get();
+            if (dropped > lastLoggedDropped) {
+                logger.debug("{} trace segments have been abandoned, cause by no available channel, full buffer or not ready stream.", dropped - lastLoggedDropped);
+                lastLoggedDropped = dropped;
             }
         }
     }
 
+    /**
+     * @return the number of segments accepted by the buffer since boot.
+     */
+    public long getSegmentQueuedCount() {
+        return segmentQueuedCounter.get();
+    }
+
+    /**
+     * @return the number of segments written to the collector streams since boot.
+     */
+    public long getSegmentSentCount() {
+        return segmentSentCounter.get();
+    }
+
+    /**
+     * @return the number of segments abandoned since boot, because of full buffer, no available channel, not ready
+     * stream or stream error.
+     */
+    public long getSegmentDroppedCount() {
+        return segmentDroppedCounter.get();
+    }
+
     @Override
     public void onError(List<TraceSegment> data, Throwable t) {
         logger.error(t, "Try to send {} trace segments to collector, with unexpected exception.", data.size());
@@ -159,7 +175,10 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
         if (traceSegment.isIgnore()) {
             return;
         }
-        if (!carrier.produce(traceSegment)) {
+        if (carrier.produce(traceSegment)) {
+            segmentQueuedCounter.incrementAndGet();
+        } else {
+            segmentDroppedCounter.incrementAndGet();
             if (logger.isDebugEnable()) {
                 logger.debug("One trace segment has been abandoned, cause by buffer is full.");
             }
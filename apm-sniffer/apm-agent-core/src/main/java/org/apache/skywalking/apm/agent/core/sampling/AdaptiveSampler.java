@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sample the segments to a budget per second. Every endpoint samples the first few segments of every second by its
+ * reservoir, then the rest are sampled by a probability, which is adjusted every second by the traffic observed in the
+ * previous seconds. So the hot endpoints are sampled down smoothly, and the rare ones are always visible.
+ */
+class AdaptiveSampler {
+    /**
+     * The max number of endpoints having a reservoir. The others are sampled by the probability only.
+     */
+    private static final int MAX_RESERVOIRS = 1000;
+    /**
+     * Weight of the last second in the observed traffic rates.
+     */
+    private static final double SMOOTHING = 0.3;
+
+    private final int budget;
+    private final int reservoirSize;
+    private final ConcurrentHashMap<String, AtomicInteger> reservoirs = new ConcurrentHashMap<String, AtomicInteger>();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger forced = new AtomicInteger();
+    private final AtomicInteger candidates = new AtomicInteger();
+    private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+        @Override protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private volatile double probability = 1;
+    private double mandatoryRate = -1;
+    private double candidateRate = -1;
+
+    /**
+     * @param budget the segments sampled per second.
+     * @param reservoirSize the segments of every endpoint sampled per second before the probability applies.
+     */
+    AdaptiveSampler(int budget, int reservoirSize) {
+        this.budget = budget;
+        this.reservoirSize = reservoirSize;
+    }
+
+    boolean trySampling(String endpointName) {
+        if (reservoirSize > 0 && endpointName != null) {
+            AtomicInteger reservoir = reservoirs.get(endpointName);
+            if (reservoir == null && reservoirs.size() < MAX_RESERVOIRS) {
+                reservoirs.putIfAbsent(endpointName, new AtomicInteger());
+                reservoir = reservoirs.get(endpointName);
+            }
+            if (reservoir != null && reservoir.incrementAndGet() <= reservoirSize) {
+                reserved.incrementAndGet();
+                return true;
+            }
+        }
+
+        candidates.incrementAndGet();
+        double current = probability;
+        return current >= 1 || (current > 0 && random.get().nextDouble() < current);
+    }
+
+    /**
+     * The segments sampled by force, because of the upstream decision, take the budget first.
+     */
+    void forceSampled() {
+        forced.incrementAndGet();
+    }
+
+    /**
+     * Start a new second, and adjust the probability to spend the budget left by the reservoirs and the forced
+     * segments on the other ones.
+     */
+    synchronized void adjust() {
+        int mandatory = reserved.getAndSet(0) + forced.getAndSet(0);
+        int candidate = candidates.getAndSet(0);
+        for (AtomicInteger reservoir : reservoirs.values()) {
+            reservoir.set(0);
+        }
+
+        mandatoryRate = smooth(mandatoryRate, mandatory);
+        candidateRate = smooth(candidateRate, candidate);
+        double remaining = budget - mandatoryRate;
+        if (remaining <= 0) {
+            probability = 0;
+        } else if (candidateRate <= remaining) {
+            probability = 1;
+        } else {
+            probability = remaining / candidateRate;
+        }
+    }
+
+    double probability() {
+        return probability;
+    }
+
+    private static double smooth(double rate, int observed) {
+        if (rate < 0) {
+            return observed;
+        }
+        return rate + SMOOTHING * (observed - rate);
+    }
+}
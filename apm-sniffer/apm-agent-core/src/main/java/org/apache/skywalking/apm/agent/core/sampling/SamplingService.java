@@ -39,6 +39,10 @@ import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
  * send all of them to collector, if SAMPLING is on.
  * <p>
  * By default, SAMPLING is on, and  {@link Config.Agent#SAMPLE_N_PER_3_SECS }
+ * <p>
+ * If {@link Config.Agent#SAMPLE_SEGMENTS_PER_SECOND} is set, the {@link AdaptiveSampler} replaces the fixed counter.
+ * The segments not sampled could still be traced, and sent only when they have an error or are slow, see {@link
+ * #keepUnsampled(TraceSegment)}.
  *
  * @author wusheng
  */
@@ -47,7 +51,8 @@ public class SamplingService implements BootService {
     private static final ILog logger = LogManager.getLogger(SamplingService.class);
 
     private volatile boolean on = false;
-    private volatile AtomicInteger samplingFactorHolder;
+    private final AtomicInteger samplingFactorHolder = new AtomicInteger(0);
+    private volatile AdaptiveSampler adaptiveSampler;
     private volatile ScheduledFuture<?> scheduledFuture;
 
     @Override
@@ -64,23 +69,41 @@ public class SamplingService implements BootService {
              */
             scheduledFuture.cancel(true);
         }
-        if (Config.Agent.SAMPLE_N_PER_3_SECS > 0) {
+        adaptiveSampler = null;
+        if (Config.Agent.SAMPLE_SEGMENTS_PER_SECOND > 0) {
+            on = true;
+            final AdaptiveSampler sampler = new AdaptiveSampler(Config.Agent.SAMPLE_SEGMENTS_PER_SECOND,
+                Config.Agent.SAMPLE_RESERVOIR_PER_ENDPOINT);
+            adaptiveSampler = sampler;
+            schedule(new Runnable() {
+                @Override
+                public void run() {
+                    sampler.adjust();
+                }
+            }, 1);
+            logger.debug("Agent adaptive sampling mechanism started. Sample {} traces per second.", Config.Agent.SAMPLE_SEGMENTS_PER_SECOND);
+        } else if (Config.Agent.SAMPLE_N_PER_3_SECS > 0) {
             on = true;
             this.resetSamplingFactor();
-            ScheduledExecutorService service = Executors
-                .newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("SamplingService"));
-            scheduledFuture = service.scheduleAtFixedRate(new RunnableWithExceptionProtection(new Runnable() {
+            schedule(new Runnable() {
                 @Override
                 public void run() {
                     resetSamplingFactor();
                 }
-            }, new RunnableWithExceptionProtection.CallbackWhenException() {
+            }, 3);
+            logger.debug("Agent sampling mechanism started. Sample {} traces in 3 seconds.", Config.Agent.SAMPLE_N_PER_3_SECS);
+        }
+    }
+
+    private void schedule(Runnable task, long periodInSeconds) {
+        ScheduledExecutorService service = Executors
+            .newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("SamplingService"));
+        scheduledFuture = service.scheduleAtFixedRate(new RunnableWithExceptionProtection(task,
+            new RunnableWithExceptionProtection.CallbackWhenException() {
                 @Override public void handle(Throwable t) {
                     logger.error("unexpected exception.", t);
                 }
-            }), 0, 3, TimeUnit.SECONDS);
-            logger.debug("Agent sampling mechanism started. Sample {} traces in 3 seconds.", Config.Agent.SAMPLE_N_PER_3_SECS);
-        }
+            }), 0, periodInSeconds, TimeUnit.SECONDS);
     }
 
     @Override
@@ -96,10 +119,26 @@ public class SamplingService implements BootService {
     }
 
     /**
-     * @return true, if sampling mechanism is on, and getDefault the sampling factor successfully.
+     * @param operationName of the first span.
+     * @return true, if the segment starting with this operation should be sampled.
+     */
+    public boolean trySampling(String operationName) {
+        AdaptiveSampler sampler = adaptiveSampler;
+        if (on && sampler != null) {
+            return sampler.trySampling(operationName);
+        }
+        return trySampling();
+    }
+
+    /**
+     * @return true, if sampling mechanism is on, and getDefault the sampling factor successfully. Always true in
+     * adaptive sampling, which makes the decision once, at {@link #trySampling(String)}.
      */
     public boolean trySampling() {
         if (on) {
+            if (adaptiveSampler != null) {
+                return true;
+            }
             int factor = samplingFactorHolder.get();
             if (factor < Config.Agent.SAMPLE_N_PER_3_SECS) {
                 boolean success = samplingFactorHolder.compareAndSet(factor, factor + 1);
@@ -119,11 +158,36 @@ public class SamplingService implements BootService {
      */
     public void forceSampled() {
         if (on) {
-            samplingFactorHolder.incrementAndGet();
+            AdaptiveSampler sampler = adaptiveSampler;
+            if (sampler != null) {
+                sampler.forceSampled();
+            } else {
+                samplingFactorHolder.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return true, if the segments not sampled should still be traced, for keeping the error and slow ones.
+     */
+    public boolean traceUnsampled() {
+        return on && adaptiveSampler != null && Config.Agent.SAMPLE_KEEP_ERROR_AND_SLOW_SEGMENTS;
+    }
+
+    /**
+     * @param segment finished, but not sampled.
+     * @return true, if the segment has an error span, or lasts longer than {@link
+     * Config.Agent#SAMPLE_SLOW_SEGMENT_THRESHOLD}.
+     */
+    public boolean keepUnsampled(TraceSegment segment) {
+        if (segment.hasErrorSpan()) {
+            return true;
         }
+        return Config.Agent.SAMPLE_SLOW_SEGMENT_THRESHOLD > 0
+            && System.currentTimeMillis() - segment.createTime() >= Config.Agent.SAMPLE_SLOW_SEGMENT_THRESHOLD;
     }
 
     private void resetSamplingFactor() {
-        samplingFactorHolder = new AtomicInteger(0);
+        samplingFactorHolder.set(0);
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context;
+
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
+import org.apache.skywalking.apm.agent.core.dictionary.DictionaryManager;
+import org.apache.skywalking.apm.agent.core.dictionary.PossibleFound;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Span creation and endpoint lookup in the tracing core. Run with the GC profiler, gc.alloc.rate.norm is the bytes
+ * allocated per operation.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class TracingContextBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class AgentState {
+        @Setup
+        public void setup() {
+            // the segment id requires the registered instance id
+            RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 1;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LookupState {
+        private int serviceId = 1;
+        private String endpointName = "/benchmark/endpoint";
+    }
+
+    /**
+     * A segment of an entry span, with a local span and an exit span in it.
+     */
+    @Benchmark
+    public TracingContext segmentWithThreeSpans(AgentState state) {
+        TracingContext context = new TracingContext();
+        AbstractSpan entrySpan = context.createEntrySpan("/benchmark/entry");
+        AbstractSpan localSpan = context.createLocalSpan("benchmark.local()");
+        AbstractSpan exitSpan = context.createExitSpan("/benchmark/exit", "127.0.0.1:8080");
+        context.stopSpan(exitSpan);
+        context.stopSpan(localSpan);
+        context.stopSpan(entrySpan);
+        return context;
+    }
+
+    @Benchmark
+    public int findIdOnly(LookupState state) {
+        return DictionaryManager.findEndpointSection().findIdOnly(state.serviceId, state.endpointName);
+    }
+
+    @Benchmark
+    public Object findOnlyWithCallbacks(LookupState state) {
+        return DictionaryManager.findEndpointSection().findOnly(state.serviceId, state.endpointName).doInCondition(
+            new PossibleFound.FoundAndObtain() {
+                @Override public Object doProcess(int value) {
+                    return value;
+                }
+            }, new PossibleFound.NotFoundAndObtain() {
+                @Override public Object doProcess() {
+                    return 0;
+                }
+            });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(TracingContextBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.ConstructorInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.InstanceMethodsInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance.ClassInstanceMethodsEnhancePluginDefine;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.HierarchyMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.MultiClassNameMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.NameMatch;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PluginFinderTest {
+    private MatchDefine byName;
+    private MatchDefine byMultiName;
+    private MatchDefine byHierarchy;
+    private MatchDefine byJdkHierarchy;
+    private PluginFinder finder;
+
+    @Before
+    public void setUp() {
+        byName = new MatchDefine(NameMatch.byName(NamedTarget.class.getName()));
+        byMultiName = new MatchDefine(MultiClassNameMatch.byMultiClassMatch(NamedTarget.class.getName(), Service.class.getName()));
+        byHierarchy = new MatchDefine(HierarchyMatch.byHierarchyMatch(new String[] {Service.class.getName(), Callable.class.getName()}));
+        byJdkHierarchy = new MatchDefine(HierarchyMatch.byHierarchyMatch(new String[] {"java.util.Collection", "java.io.Serializable"}));
+        List<AbstractClassEnhancePluginDefine> plugins = new ArrayList<AbstractClassEnhancePluginDefine>();
+        plugins.add(byName);
+        plugins.add(byMultiName);
+        plugins.add(byHierarchy);
+        plugins.add(byJdkHierarchy);
+        finder = new PluginFinder(plugins);
+    }
+
+    @Test
+    public void testBuildMatch() {
+        ElementMatcher<? super TypeDescription> matcher = finder.buildMatch();
+        // twice, the second time with the cached super types of the JDK types
+        for (int i = 0; i < 2; i++) {
+            Assert.assertTrue(matcher.matches(describe(NamedTarget.class)));
+            Assert.assertTrue(matcher.matches(describe(Service.class)));
+            Assert.assertTrue(matcher.matches(describe(ServiceImpl.class)));
+            Assert.assertTrue(matcher.matches(describe(SubServiceImpl.class)));
+            Assert.assertTrue(matcher.matches(describe(Values.class)));
+            Assert.assertFalse(matcher.matches(describe(PartialServiceImpl.class)));
+            Assert.assertFalse(matcher.matches(describe(CallableService.class)));
+            Assert.assertFalse(matcher.matches(describe(Object.class)));
+            Assert.assertFalse(matcher.matches(describe(String.class)));
+        }
+    }
+
+    @Test
+    public void testSameAsJunctions() {
+        ElementMatcher<? super TypeDescription> matcher = finder.buildMatch();
+        ElementMatcher.Junction junctions = ((HierarchyMatch)byHierarchy.enhanceClass()).buildJunction()
+            .or(((HierarchyMatch)byJdkHierarchy.enhanceClass()).buildJunction());
+        for (Class<?> type : Arrays.asList(ServiceImpl.class, SubServiceImpl.class, PartialServiceImpl.class, CallableService.class,
+            Values.class, ArrayList.class, Object.class, Integer.class)) {
+            Assert.assertEquals(type.getName(), junctions.matches(describe(type)), matcher.matches(describe(type)));
+        }
+    }
+
+    @Test
+    public void testFind() {
+        Assert.assertEquals(Arrays.asList(byName, byMultiName), finder.find(describe(NamedTarget.class)));
+        Assert.assertEquals(Arrays.asList(byMultiName), finder.find(describe(Service.class)));
+        Assert.assertEquals(Arrays.asList(byHierarchy), finder.find(describe(SubServiceImpl.class)));
+        Assert.assertEquals(Arrays.asList(byJdkHierarchy), finder.find(describe(Values.class)));
+        Assert.assertTrue(finder.find(describe(PartialServiceImpl.class)).isEmpty());
+    }
+
+    private static TypeDescription describe(Class<?> type) {
+        return TypeDescription.ForLoadedType.of(type);
+    }
+
+    public static class MatchDefine extends ClassInstanceMethodsEnhancePluginDefine {
+        private final ClassMatch match;
+
+        public MatchDefine(ClassMatch match) {
+            this.match = match;
+        }
+
+        @Override
+        protected ClassMatch enhanceClass() {
+            return match;
+        }
+
+        @Override
+        public ConstructorInterceptPoint[] getConstructorsInterceptPoints() {
+            return null;
+        }
+
+        @Override
+        public InstanceMethodsInterceptPoint[] getInstanceMethodsInterceptPoints() {
+            return null;
+        }
+    }
+
+    public static class NamedTarget {
+    }
+
+    public interface Service {
+    }
+
+    public interface CallableService extends Service, Callable<String> {
+    }
+
+    public static class ServiceImpl implements CallableService {
+        @Override
+        public String call() {
+            return null;
+        }
+    }
+
+    public static class SubServiceImpl extends ServiceImpl implements Serializable {
+    }
+
+    public static class PartialServiceImpl implements Service {
+    }
+
+    public static class Values extends ArrayList<String> {
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Method;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * A no-op instance method intercepted by a no-op interceptor, delegated to {@link InstMethodsInter} or inlined {@link
+ * InstMethodsAdvice}, compared with the origin method. Run with the GC profiler, gc.alloc.rate.norm is the bytes
+ * allocated per call.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class InstMethodsAdviceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TargetState {
+        private InstMethodsAdviceTest.Api origin;
+        private InstMethodsAdviceTest.Api delegation;
+        private InstMethodsAdviceTest.Api advice;
+        private String value = "value";
+
+        @Setup
+        public void setup() throws Exception {
+            origin = new InstMethodsAdviceTest.Target();
+            delegation = InstMethodsAdviceTest.enhance(false, NoopInterceptor.class);
+            advice = InstMethodsAdviceTest.enhance(true, NoopInterceptor.class);
+        }
+    }
+
+    @Benchmark
+    public String origin(TargetState state) {
+        return state.origin.echo(state.value);
+    }
+
+    @Benchmark
+    public String delegation(TargetState state) {
+        return state.delegation.echo(state.value);
+    }
+
+    @Benchmark
+    public String advice(TargetState state) {
+        return state.advice.echo(state.value);
+    }
+
+    public static class NoopInterceptor implements InstanceMethodsAroundInterceptor {
+        @Override
+        public void beforeMethod(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, MethodInterceptResult result) {
+        }
+
+        @Override
+        public Object afterMethod(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, Object ret) {
+            return ret;
+        }
+
+        @Override
+        public void handleMethodException(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, Throwable t) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(InstMethodsAdviceBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.interceptor.enhance;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.plugin.EnhanceContext;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.ConstructorInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.interceptor.InstanceMethodsInterceptPoint;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.NameMatch;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+/**
+ * The enhanced instance methods should behave the same, whether delegated to {@link InstMethodsInter} or inlined
+ * {@link InstMethodsAdvice}.
+ */
+public class InstMethodsAdviceTest {
+    private static final List<String> CALLS = new ArrayList<String>();
+    private static final List<String> BRIDGES = new ArrayList<String>();
+
+    @Before
+    public void setUp() {
+        CALLS.clear();
+        BRIDGES.clear();
+    }
+
+    @After
+    public void tearDown() {
+        Config.Plugin.INLINE_ADVICE = false;
+    }
+
+    @Test
+    public void testDelegation() throws Exception {
+        assertEnhanced(enhance(false, RecordingInterceptor.class));
+        Assert.assertEquals("[InstMethodsInter, InstMethodsInter]", BRIDGES.subList(BRIDGES.size() - 2, BRIDGES.size()).toString());
+    }
+
+    @Test
+    public void testInlineAdvice() throws Exception {
+        Api target = enhance(true, RecordingInterceptor.class);
+        assertEnhanced(target);
+        // the inherited method has no code in the enhanced class to inline into, so it is still delegated
+        Assert.assertEquals("[InstMethodsDispatcher, InstMethodsInter]", BRIDGES.subList(BRIDGES.size() - 2, BRIDGES.size()).toString());
+
+        // the dispatchers of echo, increase and run are held by the enhanced class itself
+        int dispatchers = 0;
+        for (Field field : target.getClass().getDeclaredFields()) {
+            if (field.getType() == InstMethodsDispatcher.class) {
+                Assert.assertTrue(Modifier.isPrivate(field.getModifiers()));
+                Assert.assertTrue(Modifier.isStatic(field.getModifiers()));
+                field.setAccessible(true);
+                Assert.assertNotNull(field.get(null));
+                dispatchers++;
+            }
+        }
+        Assert.assertEquals(3, dispatchers);
+    }
+
+    private void assertEnhanced(Api target) {
+        Assert.assertTrue(target instanceof EnhancedInstance);
+
+        Assert.assertEquals("hello!", target.echo("hello"));
+        Assert.assertEquals("[before echo [String], after echo hello]", CALLS.toString());
+
+        CALLS.clear();
+        Assert.assertEquals("defined!", target.echo("skip"));
+        Assert.assertEquals("[before echo [String], after echo defined]", CALLS.toString());
+
+        CALLS.clear();
+        Assert.assertEquals(11, target.increase(1));
+        try {
+            target.increase(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("negative", e.getMessage());
+        }
+        Assert.assertEquals("[before increase [int], after increase 2, before increase [int], "
+            + "exception increase negative, after increase null]", CALLS.toString());
+
+        CALLS.clear();
+        target.run();
+        Assert.assertEquals("parent!", target.inherited());
+        Assert.assertEquals("[before run [], after run null, before inherited [], after inherited parent]", CALLS.toString());
+    }
+
+    /**
+     * @return the instance of {@link Target}, enhanced and loaded in a new class loader.
+     */
+    static Api enhance(boolean inlineAdvice, Class<? extends InstanceMethodsAroundInterceptor> interceptor)
+        throws Exception {
+        Config.Plugin.INLINE_ADVICE = inlineAdvice;
+        TargetDefine define = new TargetDefine(interceptor.getName());
+        DynamicType.Builder<?> builder = define.define(TypeDescription.ForLoadedType.of(Target.class),
+            new ByteBuddy().rebase(Target.class), Target.class.getClassLoader(), new EnhanceContext());
+        Class<?> enhanced = builder.make()
+            .load(Target.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+            .getLoaded();
+        return (Api)enhanced.newInstance();
+    }
+
+    public interface Api {
+        String echo(String value);
+
+        int increase(int value);
+
+        void run();
+
+        String inherited();
+    }
+
+    public static class Parent {
+        public String inherited() {
+            return "parent";
+        }
+    }
+
+    public static class Target extends Parent implements Api {
+        @Override
+        public String echo(String value) {
+            return value;
+        }
+
+        @Override
+        public int increase(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("negative");
+            }
+            return value + 1;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+    public static class TargetDefine extends ClassInstanceMethodsEnhancePluginDefine {
+        private final String interceptor;
+
+        public TargetDefine(String interceptor) {
+            this.interceptor = interceptor;
+        }
+
+        @Override
+        protected ClassMatch enhanceClass() {
+            return NameMatch.byName(Target.class.getName());
+        }
+
+        @Override
+        public ConstructorInterceptPoint[] getConstructorsInterceptPoints() {
+            return null;
+        }
+
+        @Override
+        public InstanceMethodsInterceptPoint[] getInstanceMethodsInterceptPoints() {
+            return new InstanceMethodsInterceptPoint[] {
+                new InstanceMethodsInterceptPoint() {
+                    @Override
+                    public ElementMatcher<MethodDescription> getMethodsMatcher() {
+                        return named("echo").or(named("increase")).or(named("run")).or(named("inherited"));
+                    }
+
+                    @Override
+                    public String getMethodsInterceptor() {
+                        return interceptor;
+                    }
+
+                    @Override
+                    public boolean isOverrideArgs() {
+                        return false;
+                    }
+                }
+            };
+        }
+    }
+
+    public static class RecordingInterceptor implements InstanceMethodsAroundInterceptor {
+        @Override
+        public void beforeMethod(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, MethodInterceptResult result) throws Throwable {
+            StringBuilder types = new StringBuilder();
+            for (Class<?> type : argumentsTypes) {
+                types.append(types.length() == 0 ? "" : ", ").append(type.getSimpleName());
+            }
+            CALLS.add("before " + method.getName() + " [" + types + "]");
+            String bridge = new Throwable().getStackTrace()[1].getClassName();
+            BRIDGES.add(bridge.substring(bridge.lastIndexOf('.') + 1));
+            if (allArguments.length > 0 && "skip".equals(allArguments[0])) {
+                result.defineReturnValue("defined");
+            }
+        }
+
+        @Override
+        public Object afterMethod(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, Object ret) throws Throwable {
+            CALLS.add("after " + method.getName() + " " + ret);
+            if (ret instanceof String) {
+                return ret + "!";
+            }
+            if (ret instanceof Integer && (Integer)allArguments[0] > 0) {
+                return (Integer)ret + 9;
+            }
+            return ret;
+        }
+
+        @Override
+        public void handleMethodException(EnhancedInstance objInst, Method method, Object[] allArguments,
+            Class<?>[] argumentsTypes, Throwable t) {
+            CALLS.add("exception " + method.getName() + " " + t.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.loader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import net.bytebuddy.ByteBuddy;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AgentClassLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AgentClassLoader classLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        File plugins = folder.newFolder("plugins");
+        File activations = folder.newFolder("activations");
+
+        Map<String, byte[]> first = new LinkedHashMap<String, byte[]>();
+        first.put("test-plugin.def", "first=test.a.First".getBytes("UTF-8"));
+        first.put("test/a/First.class", classFile("test.a.First"));
+        first.put("test/a/first.txt", "first".getBytes("UTF-8"));
+        writeJar(new File(plugins, "first.jar"), first);
+
+        Map<String, byte[]> second = new LinkedHashMap<String, byte[]>();
+        second.put("test-plugin.def", "second=test.a.Second".getBytes("UTF-8"));
+        second.put("test/a/Second.class", classFile("test.a.Second"));
+        second.put("test/b/Third.class", classFile("test.b.Third"));
+        writeJar(new File(activations, "second.jar"), second);
+
+        File notJar = new File(plugins, "readme.txt");
+        Assert.assertTrue(notJar.createNewFile());
+
+        List<File> classpath = new ArrayList<File>();
+        classpath.add(plugins);
+        classpath.add(activations);
+        classLoader = new AgentClassLoader(AgentClassLoaderTest.class.getClassLoader(), classpath);
+    }
+
+    @Test
+    public void testLoadClass() throws Exception {
+        for (String name : new String[] {"test.a.First", "test.a.Second", "test.b.Third"}) {
+            Class<?> type = classLoader.loadClass(name);
+            Assert.assertEquals(name, type.getName());
+            Assert.assertSame(classLoader, type.getClassLoader());
+        }
+        Assert.assertSame(classLoader.loadClass("test.a.First"), classLoader.loadClass("test.a.First"));
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void testClassNotFound() throws Exception {
+        classLoader.loadClass("test.c.Missing");
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void testClassNotFoundInIndexedPackage() throws Exception {
+        classLoader.loadClass("test.a.Missing");
+    }
+
+    @Test
+    public void testGetResource() throws Exception {
+        URL resource = classLoader.getResource("test/a/first.txt");
+        Assert.assertNotNull(resource);
+        InputStream is = resource.openStream();
+        try {
+            byte[] data = new byte[16];
+            Assert.assertEquals("first", new String(data, 0, is.read(data), "UTF-8"));
+        } finally {
+            is.close();
+        }
+        Assert.assertNull(classLoader.getResource("test/a/missing.txt"));
+        Assert.assertNull(classLoader.getResource("test/c/missing.txt"));
+    }
+
+    @Test
+    public void testGetResources() throws Exception {
+        Enumeration<URL> resources = classLoader.getResources("test-plugin.def");
+        List<URL> urls = Collections.list(resources);
+        Assert.assertEquals(2, urls.size());
+        Assert.assertTrue(urls.get(0).toString().endsWith("first.jar!/test-plugin.def"));
+        Assert.assertTrue(urls.get(1).toString().endsWith("second.jar!/test-plugin.def"));
+    }
+
+    static byte[] classFile(String name) {
+        return new ByteBuddy().subclass(Object.class).name(name).make().getBytes();
+    }
+
+    static void writeJar(File file, Map<String, byte[]> entries) throws IOException {
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                jar.putNextEntry(new JarEntry(entry.getKey()));
+                jar.write(entry.getValue());
+                jar.closeEntry();
+            }
+        } finally {
+            jar.close();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.plugin.loader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.jar.JarFile;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.NamedElement;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.implementation.FixedValue;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.pool.TypePool;
+import org.apache.skywalking.apm.agent.core.plugin.AbstractClassEnhancePluginDefine;
+import org.apache.skywalking.apm.agent.core.plugin.PluginFinder;
+import org.apache.skywalking.apm.agent.core.plugin.PluginFinderTest;
+import org.apache.skywalking.apm.agent.core.plugin.bytebuddy.AbstractJunction;
+import org.apache.skywalking.apm.agent.core.plugin.match.ClassMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.HierarchyMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.IndirectMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.MultiClassNameMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.NameMatch;
+import org.apache.skywalking.apm.agent.core.plugin.match.ProtectiveShieldMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static net.bytebuddy.matcher.ElementMatchers.isInterface;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+/**
+ * The startup of the agent, on a synthetic classpath. The application classes are loaded without the agent, and with
+ * the type matcher of the plugins, which is called for every loaded class, built as an OR chain of the plugin
+ * junctions or by {@link PluginFinder#buildMatch()}. The classes and resources of the plugin jars are loaded by
+ * scanning all the jars, as the {@link AgentClassLoader} did, or by the package index, both with the bootstrap class
+ * loader as the parent, so only the plugin jars are measured. Every operation is a whole startup, so each of them is
+ * measured once.
+ */
+@BenchmarkMode({Mode.SingleShotTime})
+public class AgentStartupBenchmark {
+    private static final int PLUGIN_JARS = 100;
+    private static final int CLASSES_PER_PLUGIN_JAR = 10;
+    private static final int INTERCEPTOR_METHODS = 40;
+    private static final int APPLICATION_INTERFACES = 20;
+    private static final int APPLICATION_BASES = 10;
+    private static final int APPLICATION_CLASSES = 1000;
+    private static final String PLUGIN_DEFINE = "bench-plugin.def";
+
+    @State(Scope.Benchmark)
+    public static class StartupState {
+        private File agentDir;
+        private List<File> classpath;
+        private List<String> pluginClasses;
+        private Map<String, byte[]> applicationClasses;
+        private ElementMatcher<? super TypeDescription> chainedMatcher;
+        private ElementMatcher<? super TypeDescription> indexedMatcher;
+
+        @Setup
+        public void setup() throws IOException {
+            agentDir = File.createTempFile("agent-startup", "");
+            agentDir.delete();
+            File plugins = new File(agentDir, "plugins");
+            plugins.mkdirs();
+            classpath = new ArrayList<File>();
+            classpath.add(plugins);
+            pluginClasses = new ArrayList<String>();
+            for (int i = 0; i < PLUGIN_JARS; i++) {
+                Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+                entries.put(PLUGIN_DEFINE, ("plugin" + i).getBytes("UTF-8"));
+                for (int j = 0; j < CLASSES_PER_PLUGIN_JAR; j++) {
+                    String name = "bench.plugin" + i + ".Interceptor" + j;
+                    entries.put(name.replace('.', '/') + ".class", interceptorClassFile(name));
+                    pluginClasses.add(name);
+                }
+                AgentClassLoaderTest.writeJar(new File(plugins, "plugin" + i + ".jar"), entries);
+            }
+
+            applicationClasses = new LinkedHashMap<String, byte[]>();
+            List<TypeDescription> interfaces = new ArrayList<TypeDescription>();
+            for (int i = 0; i < APPLICATION_INTERFACES; i++) {
+                interfaces.add(add(new ByteBuddy().makeInterface().name("bench.app.Api" + i).make()));
+            }
+            List<TypeDescription> bases = new ArrayList<TypeDescription>();
+            for (int i = 0; i < APPLICATION_BASES; i++) {
+                DynamicType.Builder<?> base = new ByteBuddy().subclass(Object.class).name("bench.app.Base" + i)
+                    .implement(interfaces.get(i));
+                if (i % 2 == 0) {
+                    base = base.implement(Serializable.class);
+                }
+                bases.add(add(base.make()));
+            }
+            for (int i = 0; i < APPLICATION_CLASSES; i++) {
+                DynamicType.Builder<?> service = new ByteBuddy().subclass(bases.get(i % APPLICATION_BASES))
+                    .name("bench.app.Service" + i).implement(interfaces.get(i * 7 % APPLICATION_INTERFACES));
+                if (i % 3 == 0) {
+                    service = service.implement(Callable.class);
+                }
+                add(service.make());
+            }
+
+            List<ClassMatch> matches = new ArrayList<ClassMatch>();
+            for (int i = 0; i < 40; i++) {
+                matches.add(NameMatch.byName("bench.app.Service" + i * 20));
+            }
+            for (int i = 0; i < 20; i++) {
+                matches.add(MultiClassNameMatch.byMultiClassMatch("bench.app.Service" + (i * 30 + 1), "bench.other.Client" + i));
+            }
+            for (int i = 0; i < 30; i++) {
+                matches.add(i % 3 == 0
+                    ? HierarchyMatch.byHierarchyMatch(new String[] {"bench.app.Api" + i % APPLICATION_INTERFACES, Callable.class.getName()})
+                    : HierarchyMatch.byHierarchyMatch(new String[] {"bench.other.Api" + i}));
+            }
+            chainedMatcher = chain(matches);
+            List<AbstractClassEnhancePluginDefine> defines = new ArrayList<AbstractClassEnhancePluginDefine>();
+            for (ClassMatch match : matches) {
+                defines.add(new PluginFinderTest.MatchDefine(match));
+            }
+            indexedMatcher = new PluginFinder(defines).buildMatch();
+        }
+
+        /**
+         * @return a class file of about 4KB, with some methods returning constants.
+         */
+        private static byte[] interceptorClassFile(String name) {
+            DynamicType.Builder<?> builder = new ByteBuddy().subclass(Object.class).name(name);
+            for (int i = 0; i < INTERCEPTOR_METHODS; i++) {
+                builder = builder.defineMethod("method" + i, String.class, Visibility.PUBLIC)
+                    .withParameters(Object.class, Object[].class).intercept(FixedValue.value(name + ".method" + i));
+            }
+            return builder.make().getBytes();
+        }
+
+        @TearDown
+        public void tearDown() {
+            for (File jar : classpath.get(0).listFiles()) {
+                jar.delete();
+            }
+            classpath.get(0).delete();
+            agentDir.delete();
+        }
+
+        private TypeDescription add(DynamicType.Unloaded<?> type) {
+            applicationClasses.put(type.getTypeDescription().getName(), type.getBytes());
+            return type.getTypeDescription();
+        }
+
+        /**
+         * The matcher built as {@link PluginFinder#buildMatch()} did, an OR chain of the junctions of all the plugins.
+         */
+        private static ElementMatcher<? super TypeDescription> chain(List<ClassMatch> matches) {
+            final Set<String> names = new HashSet<String>();
+            List<IndirectMatch> indirectMatches = new ArrayList<IndirectMatch>();
+            for (ClassMatch match : matches) {
+                if (match instanceof NameMatch) {
+                    names.add(((NameMatch)match).getClassName());
+                } else {
+                    indirectMatches.add((IndirectMatch)match);
+                }
+            }
+            ElementMatcher.Junction judge = new AbstractJunction<NamedElement>() {
+                @Override
+                public boolean matches(NamedElement target) {
+                    return names.contains(target.getActualName());
+                }
+            };
+            judge = judge.and(not(isInterface()));
+            for (IndirectMatch match : indirectMatches) {
+                judge = judge.or(match.buildJunction());
+            }
+            return new ProtectiveShieldMatcher(judge);
+        }
+    }
+
+    @Benchmark
+    public int loadWithoutAgent(StartupState state) throws Exception {
+        return loadApplication(state, null);
+    }
+
+    @Benchmark
+    public int loadWithChainedMatcher(StartupState state) throws Exception {
+        return loadApplication(state, state.chainedMatcher);
+    }
+
+    @Benchmark
+    public int loadWithIndexedMatcher(StartupState state) throws Exception {
+        return loadApplication(state, state.indexedMatcher);
+    }
+
+    @Benchmark
+    public int scanPluginJars(StartupState state) throws Exception {
+        return loadPlugins(state, new ScanningClassLoader(state.classpath));
+    }
+
+    @Benchmark
+    public int indexPluginJars(StartupState state) throws Exception {
+        return loadPlugins(state, new AgentClassLoader(null, state.classpath));
+    }
+
+    private static int loadApplication(StartupState state,
+        ElementMatcher<? super TypeDescription> matcher) throws ClassNotFoundException {
+        ApplicationClassLoader classLoader = new ApplicationClassLoader(state.applicationClasses, matcher);
+        for (String name : state.applicationClasses.keySet()) {
+            classLoader.loadClass(name);
+        }
+        return classLoader.matched;
+    }
+
+    private static int loadPlugins(StartupState state, ClassLoader classLoader) throws Exception {
+        int loaded = Collections.list(classLoader.getResources(PLUGIN_DEFINE)).size();
+        for (String name : state.pluginClasses) {
+            classLoader.loadClass(name);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    /**
+     * Defines the application classes, and calls the matcher for every class before defining it, as the agent does.
+     */
+    private static class ApplicationClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+        private final ElementMatcher<? super TypeDescription> matcher;
+        private final TypePool typePool;
+        private int matched;
+
+        private ApplicationClassLoader(Map<String, byte[]> classes, ElementMatcher<? super TypeDescription> matcher) {
+            super(AgentStartupBenchmark.class.getClassLoader());
+            this.classes = classes;
+            this.matcher = matcher;
+            this.typePool = TypePool.Default.of(new ClassFileLocator.Compound(new ClassFileLocator.Simple(classes),
+                ClassFileLocator.ForClassLoader.ofSystemLoader()));
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] data = classes.get(name);
+            if (data == null) {
+                throw new ClassNotFoundException(name);
+            }
+            if (matcher != null && matcher.matches(typePool.describe(name).resolve())) {
+                matched++;
+            }
+            return defineClass(name, data, 0, data.length);
+        }
+    }
+
+    /**
+     * Finds the classes and resources by trying every jar, and reads the class files byte by byte from the jar urls, as
+     * the {@link AgentClassLoader} did.
+     */
+    private static class ScanningClassLoader extends ClassLoader {
+        private final Map<File, JarFile> jars = new LinkedHashMap<File, JarFile>();
+
+        private ScanningClassLoader(List<File> classpath) throws IOException {
+            super(null);
+            for (File path : classpath) {
+                for (File file : path.listFiles()) {
+                    jars.put(file, new JarFile(file));
+                }
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            String path = name.replace('.', '/').concat(".class");
+            for (Map.Entry<File, JarFile> jar : jars.entrySet()) {
+                if (jar.getValue().getJarEntry(path) != null) {
+                    try {
+                        InputStream is = new BufferedInputStream(url(jar.getKey(), path).openStream());
+                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                        try {
+                            int ch;
+                            while ((ch = is.read()) != -1) {
+                                baos.write(ch);
+                            }
+                        } finally {
+                            is.close();
+                        }
+                        byte[] data = baos.toByteArray();
+                        return defineClass(name, data, 0, data.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+            }
+            throw new ClassNotFoundException(name);
+        }
+
+        @Override
+        protected Enumeration<URL> findResources(String name) throws IOException {
+            List<URL> resources = new ArrayList<URL>();
+            for (Map.Entry<File, JarFile> jar : jars.entrySet()) {
+                if (jar.getValue().getJarEntry(name) != null) {
+                    resources.add(url(jar.getKey(), name));
+                }
+            }
+            return Collections.enumeration(resources);
+        }
+
+        private static URL url(File jar, String path) throws IOException {
+            return new URL("jar:file:" + jar.getAbsolutePath() + "!/" + path);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(AgentStartupBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .warmupIterations(10)
+            .measurementIterations(20)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -19,16 +19,19 @@
 package org.apache.skywalking.apm.agent.core.remote;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
 import org.apache.skywalking.apm.agent.core.context.ContextManager;
 import org.apache.skywalking.apm.agent.core.context.tag.Tags;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
 import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
+import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.test.tools.AgentServiceRule;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStorage;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStoragePoint;
@@ -66,10 +69,13 @@ public class TraceSegmentServiceClientTest {
 
     private TraceSegmentServiceClient serviceClient = new TraceSegmentServiceClient();
     private List<UpstreamSegment> upstreamSegments;
+    private int streamCount;
+    private SegmentUplinkStream stream;
 
     private TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase serviceImplBase = new TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase() {
         @Override
         public StreamObserver<UpstreamSegment> collect(final StreamObserver<Commands> responseObserver) {
+            streamCount++;
             return new StreamObserver<UpstreamSegment>() {
                 @Override
                 public void onNext(UpstreamSegment value) {
@@ -104,12 +110,17 @@ public class TraceSegmentServiceClientTest {
     public void setUp() throws Throwable {
         Whitebox.setInternalState(ServiceManager.INSTANCE.findService(GRPCChannelManager.class), "reconnect", false);
         spy(serviceClient);
+        stream = new SegmentUplinkStream(300, 30 * 1000,
+            (AtomicLong)Whitebox.getInternalState(serviceClient, "segmentSentCounter"),
+            (AtomicLong)Whitebox.getInternalState(serviceClient, "segmentDroppedCounter"));
+        Whitebox.setInternalState(serviceClient, "streams", new SegmentUplinkStream[] {stream});
 
         Whitebox.setInternalState(serviceClient, "serviceStub",
             TraceSegmentReportServiceGrpc.newStub(grpcServerRule.getChannel()));
         Whitebox.setInternalState(serviceClient, "status", GRPCChannelStatus.CONNECTED);
 
         upstreamSegments = new ArrayList<UpstreamSegment>();
+        streamCount = 0;
     }
 
     @Test
@@ -136,6 +147,64 @@ public class TraceSegmentServiceClientTest {
         assertThat(spanObject.getSpanType(), is(SpanType.Entry));
         assertThat(spanObject.getSpanId(), is(0));
         assertThat(spanObject.getParentSpanId(), is(-1));
+        assertThat(serviceClient.getSegmentSentCount(), is(1L));
+        assertThat(serviceClient.getSegmentDroppedCount(), is(0L));
+        stream.close();
+    }
+
+    @Test
+    public void testSendTraceSegmentsThroughLongLivedStream() {
+        grpcServerRule.getServiceRegistry().addService(serviceImplBase);
+
+        for (int i = 0; i < 3; i++) {
+            ContextManager.createEntrySpan("/testEntry" + i, null);
+            ContextManager.stopSpan();
+            serviceClient.consume(storage.getTraceSegments().subList(i, i + 1));
+        }
+
+        assertThat(upstreamSegments.size(), is(3));
+        assertThat(streamCount, is(1));
+        stream.close();
+    }
+
+    @Test
+    public void testAbandonTraceSegmentWithoutChannel() {
+        Whitebox.setInternalState(serviceClient, "status", GRPCChannelStatus.DISCONNECT);
+
+        ContextManager.createEntrySpan("/testEntry", null);
+        ContextManager.stopSpan();
+        serviceClient.consume(storage.getTraceSegments());
+
+        assertThat(serviceClient.getSegmentSentCount(), is(0L));
+        assertThat(serviceClient.getSegmentDroppedCount(), is(1L));
+    }
+
+    @Test
+    public void testCancelStalledStream() throws InterruptedException {
+        grpcServerRule.getServiceRegistry().addService(new TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase() {
+            @Override
+            public StreamObserver<UpstreamSegment> collect(StreamObserver<Commands> responseObserver) {
+                streamCount++;
+                // never request any segment, the stream of the client isn't ready
+                ((ServerCallStreamObserver<Commands>)responseObserver).disableAutoInboundFlowControl();
+                return serviceImplBase.collect(responseObserver);
+            }
+        });
+        stream = new SegmentUplinkStream(300, 100,
+            (AtomicLong)Whitebox.getInternalState(serviceClient, "segmentSentCounter"),
+            (AtomicLong)Whitebox.getInternalState(serviceClient, "segmentDroppedCounter"));
+        Whitebox.setInternalState(serviceClient, "streams", new SegmentUplinkStream[] {stream});
+
+        ContextManager.createEntrySpan("/testEntry", null);
+        ContextManager.stopSpan();
+        serviceClient.consume(storage.getTraceSegments());
+        Thread.sleep(200);
+        serviceClient.consume(new ArrayList<TraceSegment>());
+
+        assertThat(upstreamSegments.size(), is(0));
+        assertThat(serviceClient.getSegmentDroppedCount(), is(1L));
+        boolean reconnect = Whitebox.getInternalState(ServiceManager.INSTANCE.findService(GRPCChannelManager.class), "reconnect");
+        assertThat(reconnect, is(true));
     }
 
     @Test
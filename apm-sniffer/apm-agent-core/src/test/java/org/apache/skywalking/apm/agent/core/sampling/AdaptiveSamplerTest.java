@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveSamplerTest {
+
+    @Test
+    public void testSampleAllUnderBudget() {
+        AdaptiveSampler sampler = new AdaptiveSampler(100, 0);
+        for (int i = 0; i < 50; i++) {
+            assertThat(sampler.trySampling("/endpoint"), is(true));
+        }
+        sampler.adjust();
+        assertEquals(1, sampler.probability(), 0);
+    }
+
+    @Test
+    public void testScaleProbabilityWithTraffic() {
+        AdaptiveSampler sampler = new AdaptiveSampler(10, 0);
+        for (int i = 0; i < 1000; i++) {
+            sampler.trySampling("/hot");
+        }
+        sampler.adjust();
+        assertEquals(0.01, sampler.probability(), 0.0001);
+
+        // the rate is smoothed, the probability doesn't jump back to 1 after one quiet second
+        sampler.adjust();
+        assertEquals(10 / 700.0, sampler.probability(), 0.0001);
+    }
+
+    @Test
+    public void testReservoirKeepsRareEndpoints() {
+        AdaptiveSampler sampler = new AdaptiveSampler(1, 1);
+        sampler.forceSampled();
+        sampler.forceSampled();
+        sampler.adjust();
+        assertEquals(0, sampler.probability(), 0);
+
+        assertThat(sampler.trySampling("/hot"), is(true));
+        assertThat(sampler.trySampling("/hot"), is(false));
+        assertThat(sampler.trySampling("/rare"), is(true));
+
+        sampler.adjust();
+        assertThat(sampler.trySampling("/hot"), is(true));
+    }
+}
@@ -101,6 +101,10 @@ storage:
     bulkSize: \${SW_STORAGE_ES_BULK_SIZE:20} # flush the bulk every 20mb
     flushInterval: \${SW_STORAGE_ES_FLUSH_INTERVAL:10} # flush the bulk every 10 seconds whatever the number of requests
     concurrentRequests: \${SW_STORAGE_ES_CONCURRENT_REQUESTS:2} # the number of concurrent requests
+    # Synchronous bulk setting of the persistence timer, the failed items are retried
+    syncBulkActions: \${SW_STORAGE_ES_SYNC_BULK_ACTIONS:1000} # Split the synchronous bulk every 1000 requests
+    syncBulkSize: \${SW_STORAGE_ES_SYNC_BULK_SIZE:5} # Split the synchronous bulk every 5mb
+    syncConcurrentRequests: \${SW_STORAGE_ES_SYNC_CONCURRENT_REQUESTS:2} # the number of concurrent synchronous bulks
     metadataQueryMaxSize: \${SW_STORAGE_ES_QUERY_MAX_SIZE:5000}
     segmentQueryMaxSize: \${SW_STORAGE_ES_QUERY_SEGMENT_SIZE:200}
 EOT
@@ -287,6 +291,8 @@ receiver-trace:
     bufferOffsetMaxFileSize: \${SW_RECEIVER_BUFFER_OFFSET_MAX_FILE_SIZE:100} # Unit is MB
     bufferDataMaxFileSize: \${SW_RECEIVER_BUFFER_DATA_MAX_FILE_SIZE:500} # Unit is MB
     bufferFileCleanWhenRestart: \${SW_RECEIVER_BUFFER_FILE_CLEAN_WHEN_RESTART:false}
+    bufferFileMapped: \${SW_RECEIVER_BUFFER_FILE_MAPPED:false}
+    bufferReplayThreads: \${SW_RECEIVER_BUFFER_REPLAY_THREADS:4}
     sampleRate: \${SW_TRACE_SAMPLE_RATE:10000} # The sample rate precision is 1/10000. 10000 means 100% sample in default.
     slowDBAccessThreshold: \${SW_SLOW_DB_THRESHOLD:default:200,mongodb:100} # The slow database access thresholds. Unit ms.
 receiver-jvm:
@@ -301,6 +307,8 @@ service-mesh:
     bufferOffsetMaxFileSize: \${SW_SERVICE_MESH_OFFSET_MAX_FILE_SIZE:100} # Unit is MB
     bufferDataMaxFileSize: \${SW_SERVICE_MESH_BUFFER_DATA_MAX_FILE_SIZE:500} # Unit is MB
     bufferFileCleanWhenRestart: \${SW_SERVICE_MESH_BUFFER_FILE_CLEAN_WHEN_RESTART:false}
+    bufferFileMapped: \${SW_SERVICE_MESH_BUFFER_FILE_MAPPED:false}
+    bufferReplayThreads: \${SW_SERVICE_MESH_BUFFER_REPLAY_THREADS:4}
 istio-telemetry:
   default:
 query:
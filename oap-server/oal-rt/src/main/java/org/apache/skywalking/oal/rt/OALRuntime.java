@@ -86,14 +86,14 @@ public class OALRuntime implements OALEngine {
     private static final String DYNAMIC_METRICS_BUILDER_CLASS_PACKAGE = "org.apache.skywalking.oal.rt.metrics.builder.";
     private static final String DYNAMIC_DISPATCHER_CLASS_PACKAGE = "org.apache.skywalking.oal.rt.dispatcher.";
     private static final String WITH_METADATA_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata";
-    private static final String STORAGE_BUILDER_INTERFACE = "org.apache.skywalking.oap.server.core.storage.StorageBuilder";
+    private static final String STORAGE_BUILDER_INTERFACE = "org.apache.skywalking.oap.server.core.storage.StorageStreamBuilder";
     private static final String DISPATCHER_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.SourceDispatcher";
     private static final String SOURCE_PACKAGE = "org.apache.skywalking.oap.server.core.source.";
     private static final String METRICS_STREAM_PROCESSOR = "org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor";
     private static final String[] METRICS_CLASS_METHODS =
         {"id", "hashCode", "remoteHashCode", "equals", "serialize", "deserialize", "getMeta", "toHour", "toDay", "toMonth"};
     private static final String[] METRICS_BUILDER_CLASS_METHODS =
-        {"data2Map", "map2Data"};
+        {"data2Map", "map2Data", "data2Stream", "stream2Data"};
     private final ClassPool classPool;
     private ClassLoader currentClassLoader;
     private Configuration configuration;
@@ -312,7 +312,7 @@ public class OALRuntime implements OALEngine {
         try {
             metricsBuilderClass.addInterface(classPool.get(STORAGE_BUILDER_INTERFACE));
         } catch (NotFoundException e) {
-            logger.error("Can't find StorageBuilder interface for " + className + ".", e);
+            logger.error("Can't find StorageStreamBuilder interface for " + className + ".", e);
             throw new OALCompileException(e.getMessage(), e);
         }
 
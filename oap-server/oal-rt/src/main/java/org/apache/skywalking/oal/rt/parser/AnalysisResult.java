@@ -136,8 +136,11 @@ public class AnalysisResult {
                 case "long":
                     serializeFields.addLongField(column.getFieldName());
                     break;
-                case "IntKeyLongValueHashMap":
-                    serializeFields.addIntKeyLongValueHashMapField(column.getFieldName());
+                case "IntKeyLongValueHistogram":
+                    serializeFields.addIntKeyLongValueHistogramField(column.getFieldName());
+                    break;
+                case "QuantileSketch":
+                    serializeFields.addQuantileSketchField(column.getFieldName());
                     break;
                 default:
                     throw new IllegalStateException("Unexpected field type [" + type + "] of persistence column [" + column.getFieldName() + "]");
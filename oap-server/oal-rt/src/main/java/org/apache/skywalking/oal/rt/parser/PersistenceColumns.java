@@ -25,7 +25,8 @@ public class PersistenceColumns {
     private List<PersistenceField> longFields = new LinkedList<>();
     private List<PersistenceField> doubleFields = new LinkedList<>();
     private List<PersistenceField> intFields = new LinkedList<>();
-    private List<PersistenceField> intKeyLongValueHashMap = new LinkedList<>();
+    private List<PersistenceField> intKeyLongValueHistogramFields = new LinkedList<>();
+    private List<PersistenceField> quantileSketchFields = new LinkedList<>();
 
     public void addStringField(String fieldName) {
         stringFields.add(new PersistenceField(fieldName));
@@ -43,8 +44,12 @@ public class PersistenceColumns {
         intFields.add(new PersistenceField(fieldName));
     }
 
-    public void addIntKeyLongValueHashMapField(String fieldName) {
-        intKeyLongValueHashMap.add(new PersistenceField(fieldName));
+    public void addIntKeyLongValueHistogramField(String fieldName) {
+        intKeyLongValueHistogramFields.add(new PersistenceField(fieldName));
+    }
+
+    public void addQuantileSketchField(String fieldName) {
+        quantileSketchFields.add(new PersistenceField(fieldName));
     }
 
     public List<PersistenceField> getStringFields() {
@@ -63,7 +68,11 @@ public class PersistenceColumns {
         return intFields;
     }
 
-    public List<PersistenceField> getIntKeyLongValueHashMapFields() {
-        return intKeyLongValueHashMap;
+    public List<PersistenceField> getIntKeyLongValueHistogramFields() {
+        return intKeyLongValueHistogramFields;
+    }
+
+    public List<PersistenceField> getQuantileSketchFields() {
+        return quantileSketchFields;
     }
 }
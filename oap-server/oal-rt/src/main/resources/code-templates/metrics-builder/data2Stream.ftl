@@ -0,0 +1,29 @@
+public void data2Stream(org.apache.skywalking.oap.server.core.storage.StorageData input, org.apache.skywalking.oap.server.core.storage.StorageStreamWriter writer) throws java.io.IOException {
+    org.apache.skywalking.oal.rt.metrics.${metricsName}Metrics storageData = (org.apache.skywalking.oal.rt.metrics.${metricsName}Metrics)input;
+    <#list fieldsFromSource as field>
+        <#if field.typeName == "long">
+            writer.writeLong("${field.columnName}", storageData.${field.fieldGetter}());
+        <#elseif field.typeName == "int">
+            writer.writeInt("${field.columnName}", storageData.${field.fieldGetter}());
+        <#elseif field.typeName == "double" || field.typeName == "float">
+            writer.writeDouble("${field.columnName}", (double)storageData.${field.fieldGetter}());
+        <#elseif field.typeName == "java.lang.String">
+            writer.writeString("${field.columnName}", storageData.${field.fieldGetter}());
+        <#else>
+            writer.writeStorageData("${field.columnName}", storageData.${field.fieldGetter}());
+        </#if>
+    </#list>
+    <#list persistentFields as field>
+        <#if field.typeName == "long">
+            writer.writeLong("${field.columnName}", storageData.${field.fieldGetter}());
+        <#elseif field.typeName == "int">
+            writer.writeInt("${field.columnName}", storageData.${field.fieldGetter}());
+        <#elseif field.typeName == "double" || field.typeName == "float">
+            writer.writeDouble("${field.columnName}", (double)storageData.${field.fieldGetter}());
+        <#elseif field.typeName == "java.lang.String">
+            writer.writeString("${field.columnName}", storageData.${field.fieldGetter}());
+        <#else>
+            writer.writeStorageData("${field.columnName}", storageData.${field.fieldGetter}());
+        </#if>
+    </#list>
+}
\ No newline at end of file
@@ -15,13 +15,21 @@ public void deserialize(org.apache.skywalking.oap.server.core.remote.grpc.proto.
         ${field.setter}(remoteData.getDataIntegers(${field?index}));
     </#list>
 
-    <#list serializeFields.intKeyLongValueHashMapFields as field>
-        setDetailGroup(new org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap(30));
+    <#if serializeFields.intKeyLongValueHistogramFields?size gt 1>
+        int pairOffset = 0;
+        int pairCount;
+    <#list serializeFields.intKeyLongValueHistogramFields as field>
+        pairCount = remoteData.getDataIntegers(${serializeFields.intFields?size + field?index});
+        ${field.getter}().deserialize(remoteData.getDataIntLongPairListList().subList(pairOffset, pairOffset + pairCount));
+        pairOffset += pairCount;
+    </#list>
+    <#else>
+    <#list serializeFields.intKeyLongValueHistogramFields as field>
+        ${field.getter}().deserialize(remoteData.getDataIntLongPairListList());
+    </#list>
+    </#if>
 
-        java.util.Iterator iterator = remoteData.getDataIntLongPairListList().iterator();
-        while (iterator.hasNext()) {
-            org.apache.skywalking.oap.server.core.remote.grpc.proto.IntKeyLongValuePair element = (org.apache.skywalking.oap.server.core.remote.grpc.proto.IntKeyLongValuePair)(iterator.next());
-            super.getDetailGroup().put(new Integer(element.getKey()), new org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValue(element.getKey(), element.getValue()));
-        }
+    <#list serializeFields.quantileSketchFields as field>
+        ${field.getter}().deserialize(remoteData.getDataBytes(${field?index}));
     </#list>
 }
\ No newline at end of file
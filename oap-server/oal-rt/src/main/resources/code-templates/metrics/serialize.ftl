@@ -15,11 +15,17 @@ public org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builde
     <#list serializeFields.intFields as field>
         remoteBuilder.addDataIntegers(${field.getter}());
     </#list>
-    <#list serializeFields.intKeyLongValueHashMapFields as field>
-        java.util.Iterator iterator = super.getDetailGroup().values().iterator();
-        while (iterator.hasNext()) {
-            remoteBuilder.addDataIntLongPairList(((org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValue)(iterator.next())).serialize());
-        }
+    <#-- the pair counts split the shared pair list, only written for more than one histogram, so a single histogram keeps the layout of the older nodes -->
+    <#if serializeFields.intKeyLongValueHistogramFields?size gt 1>
+    <#list serializeFields.intKeyLongValueHistogramFields as field>
+        remoteBuilder.addDataIntegers(${field.getter}().size());
+    </#list>
+    </#if>
+    <#list serializeFields.intKeyLongValueHistogramFields as field>
+        ${field.getter}().serialize(remoteBuilder);
+    </#list>
+    <#list serializeFields.quantileSketchFields as field>
+        remoteBuilder.addDataBytes(${field.getter}().serialize());
     </#list>
 
     return remoteBuilder;
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.rt;
+
+import freemarker.template.Configuration;
+import freemarker.template.Version;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+import org.apache.skywalking.oal.rt.parser.AnalysisResult;
+import org.apache.skywalking.oal.rt.parser.DeepAnalysis;
+import org.apache.skywalking.oal.rt.parser.MetricsHolder;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MetricsTemplateTest {
+    private static Configuration CONFIGURATION;
+
+    @BeforeClass
+    public static void init() throws IOException {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+
+        MetricsHolder.init();
+
+        CONFIGURATION = new Configuration(new Version("2.3.28"));
+        CONFIGURATION.setEncoding(Locale.ENGLISH, "UTF-8");
+        CONFIGURATION.setClassLoaderForTemplateLoading(OALRuntime.class.getClassLoader(), "/code-templates");
+    }
+
+    @AfterClass
+    public static void clear() {
+        DefaultScopeDefine.reset();
+    }
+
+    /**
+     * The metrics with one histogram keep the remote data layout of the older nodes, without the pair counts.
+     */
+    @Test
+    public void testSingleHistogram() throws Exception {
+        AnalysisResult result = analysis("ServiceP99", "p99");
+
+        String serialize = render("serialize", result);
+        Assert.assertFalse(serialize.contains(".size())"));
+        String deserialize = render("deserialize", result);
+        Assert.assertTrue(deserialize.contains("getDetailGroup().deserialize(remoteData.getDataIntLongPairListList());"));
+        Assert.assertFalse(deserialize.contains("subList"));
+    }
+
+    @Test
+    public void testMultipleHistograms() throws Exception {
+        AnalysisResult result = analysis("ServicePercentile", "percentile");
+
+        String serialize = render("serialize", result);
+        Assert.assertTrue(serialize.contains("remoteBuilder.addDataIntegers(getPercentileValues().size());"));
+        Assert.assertTrue(serialize.contains("remoteBuilder.addDataIntegers(getDetailGroup().size());"));
+        String deserialize = render("deserialize", result);
+        Assert.assertTrue(deserialize.contains("pairCount = remoteData.getDataIntegers(1);"));
+        Assert.assertTrue(deserialize.contains("pairCount = remoteData.getDataIntegers(2);"));
+        Assert.assertTrue(deserialize.contains("subList(pairOffset, pairOffset + pairCount)"));
+    }
+
+    private static AnalysisResult analysis(String metricsName, String functionName) {
+        AnalysisResult result = new AnalysisResult();
+        result.setSourceName("Service");
+        result.setPackageName("service." + metricsName.toLowerCase());
+        result.setSourceAttribute("latency");
+        result.setMetricsName(metricsName);
+        result.setAggregationFunctionName(functionName);
+        result.addFuncArg("10");
+        return new DeepAnalysis().analysis(result);
+    }
+
+    private static String render(String method, AnalysisResult result) throws Exception {
+        StringWriter methodEntity = new StringWriter();
+        CONFIGURATION.getTemplate("metrics/" + method + ".ftl").process(result, methodEntity);
+        return methodEntity.toString();
+    }
+}
@@ -90,6 +90,31 @@ public class DeepAnalysisTest {
         Assert.assertEquals(4, persistentFields.size());
     }
 
+    @Test
+    public void testPercentileAnalysis() {
+        AnalysisResult result = new AnalysisResult();
+        result.setSourceName("Service");
+        result.setPackageName("service.servicepercentile");
+        result.setSourceAttribute("latency");
+        result.setMetricsName("ServicePercentile");
+        result.setAggregationFunctionName("percentile");
+        result.addFuncArg("10");
+
+        DeepAnalysis analysis = new DeepAnalysis();
+        result = analysis.analysis(result);
+
+        EntryMethod method = result.getEntryMethod();
+        Assert.assertEquals("combine", method.getMethodName());
+        Assert.assertEquals("(int)(source.getLatency())", method.getArgsExpressions().get(0));
+        Assert.assertEquals("(int)(10)", method.getArgsExpressions().get(1));
+
+        List<DataColumn> persistentFields = result.getPersistentFields();
+        Assert.assertEquals(4, persistentFields.size());
+
+        PersistenceColumns serializeFields = result.getSerializeFields();
+        Assert.assertEquals(2, serializeFields.getIntKeyLongValueHistogramFields().size());
+    }
+
     @Test
     public void testFilterAnalysis() {
         AnalysisResult result = new AnalysisResult();
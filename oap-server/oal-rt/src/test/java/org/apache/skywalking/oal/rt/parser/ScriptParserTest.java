@@ -65,6 +65,22 @@ public class ScriptParserTest {
         Assert.assertEquals("longAvg", serviceAvg.getAggregationFunctionName());
     }
 
+    @Test
+    public void testParsePercentile() throws IOException {
+        ScriptParser parser = ScriptParser.createFromScriptText(
+            "Service_percentile = from(Service.latency).percentile(10);"
+        );
+        List<AnalysisResult> results = parser.parse().getMetricsStmts();
+
+        AnalysisResult servicePercentile = results.get(0);
+        Assert.assertEquals("ServicePercentile", servicePercentile.getMetricsName());
+        Assert.assertEquals("Service", servicePercentile.getSourceName());
+        Assert.assertEquals("latency", servicePercentile.getSourceAttribute());
+        Assert.assertEquals("percentile", servicePercentile.getAggregationFunctionName());
+        Assert.assertEquals("PercentileMetrics", servicePercentile.getMetricsClassName());
+        Assert.assertEquals(2, servicePercentile.getSerializeFields().getIntKeyLongValueHistogramFields().size());
+    }
+
     @Test
     public void testParse2() throws IOException {
         ScriptParser parser = ScriptParser.createFromScriptText(
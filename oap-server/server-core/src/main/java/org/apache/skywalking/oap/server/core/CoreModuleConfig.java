@@ -38,12 +38,48 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter private int maxConcurrentCallsPerConnection;
     @Setter private int maxMessageSize;
     @Setter private boolean enableDatabaseSession;
+    /**
+     * The max number of metrics kept in the database session of one model.
+     */
+    @Setter private int databaseSessionMaxSize = 50000;
+    /**
+     * The max number of metrics kept in the database sessions of all the models together.
+     */
+    @Setter private int databaseSessionTotalMaxSize = 500000;
+    /**
+     * Skip reading the metrics of the time buckets owned by this OAP node from the storage, they are all in the database
+     * session. Requires the database session enabled.
+     */
+    @Setter private boolean enableOwnerAuthoritative = false;
+    /**
+     * The hour, day and month metrics are rolled up in memory, and flushed into the storage in this period, or once their
+     * time bucket is closed. 0 means flushing them in every persistent period, same as the minute metrics.
+     * Unit is second.
+     */
+    @Setter private long rollupFlushPeriod = 300;
+    /**
+     * The directory to save the metrics rolled up but not flushed yet, so they survive a restart. Empty means not saved.
+     */
+    @Setter private String rollupCheckpointPath;
+    /**
+     * The period of saving the rolled up metrics.
+     * Unit is second.
+     */
+    @Setter private long rollupCheckpointPeriod = 30;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence.
      * Unit is second.
      */
     @Setter private long persistentPeriod = 3;
+    /**
+     * The number of threads preparing the batch requests of different models in parallel.
+     */
+    @Setter private int persistentConcurrency = 2;
+    /**
+     * The max number of requests executed in one storage bulk by the persistence timer.
+     */
+    @Setter private int persistentBulkSize = 5000;
     @Setter private boolean enableDataKeeperExecutor = true;
     @Setter private int recordDataTTL;
     @Setter private int minuteMetricsDataTTL;
@@ -52,6 +88,11 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter private int monthMetricsDataTTL;
     @Setter private int gRPCThreadPoolSize;
     @Setter private int gRPCThreadPoolQueueSize;
+    /**
+     * Pack the stream data sent to the same worker of another OAP node into one message. Only enable it once all OAP
+     * nodes of the cluster are upgraded, the nodes without the batched message support read the single stream data only.
+     */
+    @Setter private boolean enableRemoteBatch = false;
 
     CoreModuleConfig() {
         this.downsampling = new ArrayList<>();
@@ -166,10 +166,16 @@ public class CoreModuleProvider extends ModuleProvider {
 
         annotationScan.registerListener(streamAnnotationListener);
 
-        this.remoteClientManager = new RemoteClientManager(getManager());
+        this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.isEnableRemoteBatch());
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         MetricsStreamProcessor.getInstance().setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
+        MetricsStreamProcessor.getInstance().setDatabaseSessionMaxSize(moduleConfig.getDatabaseSessionMaxSize());
+        MetricsStreamProcessor.getInstance().setDatabaseSessionTotalMaxSize(moduleConfig.getDatabaseSessionTotalMaxSize());
+        MetricsStreamProcessor.getInstance().setOwnerAuthoritative(moduleConfig.isEnableOwnerAuthoritative());
+        MetricsStreamProcessor.getInstance().setRollupFlushPeriod(moduleConfig.getRollupFlushPeriod() * 1000);
+        MetricsStreamProcessor.getInstance().setRollupCheckpointPath(moduleConfig.getRollupCheckpointPath());
+        MetricsStreamProcessor.getInstance().setRollupCheckpointPeriod(moduleConfig.getRollupCheckpointPeriod() * 1000);
     }
 
     @Override public void start() throws ModuleStartException {
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import java.util.function.Function;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * Merge cache shared by all the threads consuming one metrics stream.
+ *
+ * The cache is split into lock striped partitions by the hash code of the metrics, two writers only contend when they
+ * hit the same partition. {@link #read()} takes the data away by swapping each partition for an empty map, the writers
+ * of one partition are only blocked for the swap, they never wait for the reader to finish the last round.
+ */
+public class ConcurrentMergeDataCache<METRICS extends Metrics> {
+
+    private final Partition<METRICS>[] partitions;
+    private final int mask;
+
+    /**
+     * @param concurrency the expected number of threads writing this cache at the same time.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMergeDataCache(int concurrency) {
+        int size = 1;
+        while (size < concurrency * 4) {
+            size <<= 1;
+        }
+        this.partitions = new Partition[size];
+        for (int i = 0; i < size; i++) {
+            partitions[i] = new Partition<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Combine the given metrics into the cached one with the same id, or cache it if it is the first of its id in this
+     * round.
+     */
+    public void accept(METRICS data) {
+        Partition<METRICS> partition = partitionOf(data);
+        synchronized (partition) {
+            METRICS existing = partition.data.get(data);
+            if (existing == null) {
+                partition.data.put(data, data);
+            } else {
+                existing.combine(data);
+            }
+        }
+    }
+
+    /**
+     * Take all the cached metrics of this round, the cache keeps accepting data for the next round meanwhile. The
+     * returned metrics are not referenced by the cache anymore, the caller owns them.
+     */
+    public List<METRICS> read() {
+        List<METRICS> result = new ArrayList<>();
+        for (Partition<METRICS> partition : partitions) {
+            Map<METRICS, METRICS> last;
+            synchronized (partition) {
+                last = partition.data;
+                if (last.isEmpty()) {
+                    continue;
+                }
+                partition.data = new HashMap<>(last.size());
+            }
+            result.addAll(last.values());
+        }
+        return result;
+    }
+
+    /**
+     * Copy the cached metrics without taking them away. The copier runs while the partition of the metrics is locked,
+     * so it sees a consistent metrics, and should be short.
+     */
+    public <R> List<R> copy(Function<METRICS, R> copier) {
+        List<R> result = new ArrayList<>();
+        for (Partition<METRICS> partition : partitions) {
+            synchronized (partition) {
+                for (METRICS data : partition.data.values()) {
+                    result.add(copier.apply(data));
+                }
+            }
+        }
+        return result;
+    }
+
+    private Partition<METRICS> partitionOf(METRICS data) {
+        int hash = data.hashCode();
+        return partitions[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static class Partition<METRICS> {
+        private Map<METRICS, METRICS> data = new HashMap<>();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The max number of metrics kept by the database sessions of all the models together. Every {@link
+ * MetricsSessionCache} has its own max size too, the budget bounds the sum of them, which would grow with the number of
+ * models and downsamplings otherwise.
+ *
+ * Thread safe, the persistent workers of different models are prepared in parallel.
+ */
+public class MetricsSessionBudget {
+
+    private final int maxSize;
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    public MetricsSessionBudget(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return true if one more metrics could be cached, the caller must {@link #release(int)} it once evicted.
+     */
+    boolean acquire() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(int count) {
+        size.addAndGet(-count);
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
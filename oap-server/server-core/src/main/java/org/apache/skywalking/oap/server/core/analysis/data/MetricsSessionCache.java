@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * The metrics already in the storage, kept by the persistent worker of one model to avoid reading them again in the
+ * next rounds.
+ *
+ * The size of the cache is limited by its own max size and by the {@link MetricsSessionBudget} shared with the caches of
+ * the other models, the earliest cached metrics are evicted first when either is full. The metrics are also
+ * evicted when their time bucket is not hot anymore, they are not expected to be updated again, and reading them from
+ * the storage is still correct if they are. The cache remembers the latest time bucket it has evicted, so the caller
+ * could tell whether the cache holds every stored metrics of a time bucket, see {@link #isComplete(long)}.
+ *
+ * Not thread safe, it is only accessed by the persistence of its model.
+ */
+public class MetricsSessionCache {
+
+    private final int maxSize;
+    private final MetricsSessionBudget budget;
+    private final Downsampling downsampling;
+    private final long hotPeriod;
+    private final LinkedHashMap<Metrics, Metrics> data;
+    private long evictedTimeBucket = 0;
+
+    /**
+     * @param maxSize the max number of cached metrics.
+     * @param downsampling of the cached metrics.
+     * @param hotPeriod in milliseconds, the metrics in the time bucket of now minus this period are still cached.
+     */
+    public MetricsSessionCache(int maxSize, Downsampling downsampling, long hotPeriod) {
+        this(maxSize, new MetricsSessionBudget(Integer.MAX_VALUE), downsampling, hotPeriod);
+    }
+
+    /**
+     * @param budget shared with the caches of the other models.
+     */
+    public MetricsSessionCache(int maxSize, MetricsSessionBudget budget, Downsampling downsampling, long hotPeriod) {
+        this.maxSize = maxSize;
+        this.budget = budget;
+        this.downsampling = downsampling;
+        this.hotPeriod = hotPeriod;
+        this.data = new LinkedHashMap<>();
+    }
+
+    public Metrics get(Metrics metrics) {
+        return data.get(metrics);
+    }
+
+    public void put(Metrics metrics) {
+        if (!data.containsKey(metrics) && (data.size() >= maxSize || !budget.acquire())) {
+            // Full, take over the slot of the earliest one.
+            Iterator<Metrics> iterator = data.values().iterator();
+            if (!iterator.hasNext()) {
+                evicted(metrics);
+                return;
+            }
+            evicted(iterator.next());
+            iterator.remove();
+        }
+        data.put(metrics, metrics);
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Evict the metrics whose time bucket is earlier than the time bucket of now minus the hot period.
+     */
+    public void removeExpired(long now) {
+        long hotTimeBucket = TimeBucket.getTimeBucket(now - hotPeriod, downsampling);
+        int size = data.size();
+        data.values().removeIf(metrics -> {
+            if (metrics.getTimeBucket() < hotTimeBucket) {
+                evicted(metrics);
+                return true;
+            }
+            return false;
+        });
+        budget.release(size - data.size());
+    }
+
+    /**
+     * @return true if no metrics of the given time bucket has ever been evicted, then all the metrics of this time bucket
+     * put into the cache are still there.
+     */
+    public boolean isComplete(long timeBucket) {
+        return timeBucket > evictedTimeBucket;
+    }
+
+    private void evicted(Metrics metrics) {
+        evictedTimeBucket = Math.max(evictedTimeBucket, metrics.getTimeBucket());
+    }
+}
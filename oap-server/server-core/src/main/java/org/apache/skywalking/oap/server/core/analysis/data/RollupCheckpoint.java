@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.slf4j.*;
+
+/**
+ * The metrics rolled up in memory but not flushed into the storage yet, saved in a file of the model, so they survive
+ * the restart of the OAP server. The file holds the serialized metrics, each one is prefixed with its length, and is
+ * replaced as a whole by moving a completed temporary file.
+ *
+ * Not thread safe, it is only accessed by the persistence of its model.
+ */
+public class RollupCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupCheckpoint.class);
+
+    private final File file;
+    private final File tempFile;
+    private final Class<? extends Metrics> metricsClass;
+
+    public RollupCheckpoint(File directory, String modelName, Class<? extends Metrics> metricsClass) {
+        this.file = new File(directory, modelName + ".checkpoint");
+        this.tempFile = new File(directory, modelName + ".checkpoint.tmp");
+        this.metricsClass = metricsClass;
+    }
+
+    /**
+     * Replace the saved metrics by the given ones. The file is deleted if there is nothing to save.
+     */
+    public void save(List<RemoteData> metrics) throws IOException {
+        if (metrics.isEmpty()) {
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+
+        File directory = file.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Create the rollup checkpoint directory " + directory.getAbsolutePath() + " failure.");
+        }
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            for (RemoteData data : metrics) {
+                data.writeDelimitedTo(output);
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the saved metrics, empty if there isn't any. A broken file is loaded as far as it could be.
+     */
+    public List<Metrics> load() {
+        List<Metrics> metrics = new ArrayList<>();
+        if (!file.exists()) {
+            return metrics;
+        }
+
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            RemoteData data;
+            while ((data = RemoteData.parseDelimitedFrom(input)) != null) {
+                Metrics metric = metricsClass.newInstance();
+                metric.deserialize(data);
+                metrics.add(metric);
+            }
+        } catch (IOException | InstantiationException | IllegalAccessException | RuntimeException e) {
+            logger.warn("Load the rollup checkpoint file {} failure, {} metrics loaded.", file.getAbsolutePath(), metrics.size(), e);
+        }
+        return metrics;
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis.manual.segment;
 
+import java.io.IOException;
 import java.util.*;
 import lombok.*;
 import org.apache.skywalking.apm.util.StringUtil;
@@ -26,7 +27,7 @@ import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcessor;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
-import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 
@@ -67,7 +68,7 @@ public class SegmentRecord extends Record {
         return segmentId;
     }
 
-    public static class Builder implements StorageBuilder<SegmentRecord> {
+    public static class Builder implements StorageStreamBuilder<SegmentRecord> {
 
         @Override public Map<String, Object> data2Map(SegmentRecord storageData) {
             Map<String, Object> map = new HashMap<>();
@@ -112,5 +113,48 @@ public class SegmentRecord extends Record {
             record.setVersion(((Number)dbMap.get(VERSION)).intValue());
             return record;
         }
+
+        @Override public void data2Stream(SegmentRecord storageData, StorageStreamWriter writer) throws IOException {
+            writer.writeString(SEGMENT_ID, storageData.getSegmentId());
+            writer.writeString(TRACE_ID, storageData.getTraceId());
+            writer.writeInt(SERVICE_ID, storageData.getServiceId());
+            writer.writeInt(SERVICE_INSTANCE_ID, storageData.getServiceInstanceId());
+            writer.writeString(ENDPOINT_NAME, storageData.getEndpointName());
+            writer.writeInt(ENDPOINT_ID, storageData.getEndpointId());
+            writer.writeLong(START_TIME, storageData.getStartTime());
+            writer.writeLong(END_TIME, storageData.getEndTime());
+            writer.writeInt(LATENCY, storageData.getLatency());
+            writer.writeInt(IS_ERROR, storageData.getIsError());
+            writer.writeLong(TIME_BUCKET, storageData.getTimeBucket());
+            if (CollectionUtils.isEmpty(storageData.getDataBinary())) {
+                writer.writeString(DATA_BINARY, Const.EMPTY_STRING);
+            } else {
+                writer.writeBinary(DATA_BINARY, storageData.getDataBinary());
+            }
+            writer.writeInt(VERSION, storageData.getVersion());
+        }
+
+        @Override public SegmentRecord stream2Data(StorageStreamReader reader) throws IOException {
+            SegmentRecord record = new SegmentRecord();
+            record.setSegmentId(reader.readString(SEGMENT_ID));
+            record.setTraceId(reader.readString(TRACE_ID));
+            record.setServiceId(reader.readInt(SERVICE_ID));
+            record.setServiceInstanceId(reader.readInt(SERVICE_INSTANCE_ID));
+            record.setEndpointName(reader.readString(ENDPOINT_NAME));
+            record.setEndpointId(reader.readInt(ENDPOINT_ID));
+            record.setStartTime(reader.readLong(START_TIME));
+            record.setEndTime(reader.readLong(END_TIME));
+            record.setLatency(reader.readInt(LATENCY));
+            record.setIsError(reader.readInt(IS_ERROR));
+            record.setTimeBucket(reader.readLong(TIME_BUCKET));
+            String dataBinary = reader.readString(DATA_BINARY);
+            if (StringUtil.isEmpty(dataBinary)) {
+                record.setDataBinary(new byte[] {});
+            } else {
+                record.setDataBinary(Base64.getDecoder().decode(dataBinary));
+            }
+            record.setVersion(reader.readInt(VERSION));
+            return record;
+        }
     }
 }
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.*;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * IntKeyLongValueHistogram is an int to long histogram based on open addressing over primitive arrays. Adding a value,
+ * merging another histogram and reading a bucket never box the key or allocate a bucket object, which makes it fit the
+ * hot path of the percentile and thermodynamic metrics.
+ *
+ * The storage format is the same as {@link IntKeyLongValueHashMap}, such as `1,100|2,200`, with the keys in ascending
+ * order.
+ */
+public class IntKeyLongValueHistogram implements StorageDataType {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private int[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int threshold;
+
+    public IntKeyLongValueHistogram() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntKeyLongValueHistogram(int initialCapacity) {
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    public IntKeyLongValueHistogram(String data) {
+        this();
+        toObject(data);
+    }
+
+    /**
+     * Add the delta to the bucket of the given key, the bucket is created if absent.
+     */
+    public void addValue(int key, long delta) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = delta;
+        used[slot] = true;
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    /**
+     * @return the value of the given key, or 0 if the bucket doesn't exist.
+     */
+    public long get(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the sum of all bucket values.
+     */
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                total += values[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Add all buckets of the source into this histogram.
+     */
+    public void merge(IntKeyLongValueHistogram source) {
+        for (int i = 0; i < source.keys.length; i++) {
+            if (source.used[i]) {
+                addValue(source.keys[i], source.values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return all keys in ascending order.
+     */
+    public int[] sortedKeys() {
+        int[] sortedKeys = new int[size];
+        int index = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                sortedKeys[index++] = keys[i];
+            }
+        }
+        Arrays.sort(sortedKeys);
+        return sortedKeys;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public void serialize(RemoteData.Builder remoteBuilder) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                remoteBuilder.addDataIntLongPairList(IntKeyLongValuePair.newBuilder().setKey(keys[i]).setValue(values[i]));
+            }
+        }
+    }
+
+    public void deserialize(List<IntKeyLongValuePair> pairs) {
+        clear();
+        for (IntKeyLongValuePair pair : pairs) {
+            addValue(pair.getKey(), pair.getValue());
+        }
+    }
+
+    @Override public String toStorageData() {
+        StringBuilder data = new StringBuilder();
+
+        int[] sortedKeys = sortedKeys();
+        for (int i = 0; i < sortedKeys.length; i++) {
+            if (i > 0) {
+                data.append(Const.ARRAY_SPLIT);
+            }
+            data.append(sortedKeys[i]).append(Const.KEY_VALUE_SPLIT).append(get(sortedKeys[i]));
+        }
+        return data.toString();
+    }
+
+    /**
+     * Parse the `key,value|key,value` format in place, without splitting the data into intermediate strings.
+     */
+    @Override public void toObject(String data) {
+        int length = data.length();
+        int position = 0;
+        while (position < length) {
+            int keyEnd = data.indexOf(Const.KEY_VALUE_SPLIT, position);
+            if (keyEnd < 0) {
+                throw new IllegalArgumentException("Illegal histogram data: " + data);
+            }
+            int valueEnd = data.indexOf(Const.ARRAY_SPLIT, keyEnd);
+            if (valueEnd < 0) {
+                valueEnd = length;
+            }
+
+            addValue(parseInt(data, position, keyEnd), parseLong(data, keyEnd + 1, valueEnd));
+            position = valueEnd + 1;
+        }
+    }
+
+    @Override public void copyFrom(Object source) {
+        IntKeyLongValueHistogram histogram = (IntKeyLongValueHistogram)source;
+        this.keys = histogram.keys.clone();
+        this.values = histogram.values.clone();
+        this.used = histogram.used.clone();
+        this.size = histogram.size;
+        this.threshold = histogram.threshold;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                addValue(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        threshold = capacity * 3 / 4;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = 2;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private static int parseInt(String data, int begin, int end) {
+        long value = parseLong(data, begin, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Illegal histogram key: " + data.substring(begin, end));
+        }
+        return (int)value;
+    }
+
+    private static long parseLong(String data, int begin, int end) {
+        boolean negative = begin < end && data.charAt(begin) == '-';
+        int position = negative ? begin + 1 : begin;
+        if (position >= end) {
+            throw new IllegalArgumentException("Illegal histogram data: " + data);
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = data.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Illegal histogram data: " + data);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
@@ -16,11 +16,11 @@
  *
  */
 
-package org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator;
+package org.apache.skywalking.oap.server.core.analysis.metrics;
 
 /**
- * @author peng-yongsheng
+ * MultiIntValuesHolder always holds a set of int values, such as the values of different percentile ranks.
  */
-public interface StandardBuilder {
-    void toBuilder();
+public interface MultiIntValuesHolder {
+    int[] getValues();
 }
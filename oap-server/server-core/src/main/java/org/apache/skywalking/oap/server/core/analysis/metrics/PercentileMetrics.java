@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import lombok.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+/**
+ * PercentileMetrics calculates the p50/p75/p90/p95/p99 percentiles from one shared histogram, rather than keeping,
+ * transferring and persisting one histogram per {@link PxxMetrics}.
+ *
+ * The value column holds the result of all ranks, keyed by the rank, such as `50,120|75,200|90,340|95,500|99,1200`.
+ * The ranks are fixed as {@link #RANKS}, the OAL function doesn't take them as an argument.
+ */
+@MetricsFunction(functionName = "percentile")
+public abstract class PercentileMetrics extends GroupMetrics implements MultiIntValuesHolder {
+
+    protected static final String DETAIL_GROUP = "detail_group";
+    protected static final String VALUE = "value";
+    protected static final String PRECISION = "precision";
+
+    public static final int[] RANKS = {50, 75, 90, 95, 99};
+
+    @Getter @Setter @Column(columnName = VALUE, isValue = true) private IntKeyLongValueHistogram percentileValues;
+    @Getter @Setter @Column(columnName = PRECISION) private int precision;
+    @Getter @Setter @Column(columnName = DETAIL_GROUP) private IntKeyLongValueHistogram detailGroup;
+
+    private boolean isCalculated;
+
+    public PercentileMetrics() {
+        percentileValues = new IntKeyLongValueHistogram(RANKS.length);
+        detailGroup = new IntKeyLongValueHistogram();
+    }
+
+    @Entrance
+    public final void combine(@SourceFrom int value, @Arg int precision) {
+        this.isCalculated = false;
+        this.precision = precision;
+
+        detailGroup.addValue(value / precision, 1);
+    }
+
+    @Override
+    public void combine(Metrics metrics) {
+        this.isCalculated = false;
+
+        PercentileMetrics percentileMetrics = (PercentileMetrics)metrics;
+        combine(percentileMetrics.getDetailGroup(), this.detailGroup);
+    }
+
+    /**
+     * Walk the histogram once in the ascending order of the buckets, and set the value of every rank on the way.
+     */
+    @Override
+    public final void calculate() {
+        if (isCalculated) {
+            return;
+        }
+
+        long total = detailGroup.total();
+        percentileValues.clear();
+
+        int rankIndex = 0;
+        int roof = Math.round(total * RANKS[rankIndex] * 1.0f / 100);
+        long count = 0;
+        for (int key : detailGroup.sortedKeys()) {
+            count += detailGroup.get(key);
+            while (count >= roof) {
+                percentileValues.addValue(RANKS[rankIndex], key * precision);
+                if (++rankIndex == RANKS.length) {
+                    isCalculated = true;
+                    return;
+                }
+                roof = Math.round(total * RANKS[rankIndex] * 1.0f / 100);
+            }
+        }
+        isCalculated = true;
+    }
+
+    /**
+     * @return the values of {@link #RANKS}, in the same order.
+     */
+    @Override
+    public int[] getValues() {
+        int[] values = new int[RANKS.length];
+        for (int i = 0; i < RANKS.length; i++) {
+            values[i] = (int)percentileValues.get(RANKS[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import lombok.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+/**
+ * PercentileSketchMetrics calculates the p50/p75/p90/p95/p99 percentiles from a {@link QuantileSketch}. Compared to
+ * {@link PercentileMetrics}, the memory and storage size don't grow with the spread of the values, at the cost of a
+ * relative error of {@link QuantileSketch#RELATIVE_ACCURACY}.
+ *
+ * The value column holds the result of all ranks, keyed by the rank, same as {@link PercentileMetrics}.
+ */
+@MetricsFunction(functionName = "percentileSketch")
+public abstract class PercentileSketchMetrics extends Metrics implements MultiIntValuesHolder {
+
+    protected static final String SKETCH = "sketch";
+    protected static final String VALUE = "value";
+
+    @Getter @Setter @Column(columnName = VALUE, isValue = true) private IntKeyLongValueHistogram percentileValues;
+    @Getter @Setter @Column(columnName = SKETCH) private QuantileSketch sketch;
+
+    private boolean isCalculated;
+
+    public PercentileSketchMetrics() {
+        percentileValues = new IntKeyLongValueHistogram(PercentileMetrics.RANKS.length);
+        sketch = new QuantileSketch();
+    }
+
+    @Entrance
+    public final void combine(@SourceFrom int value) {
+        this.isCalculated = false;
+
+        sketch.add(value, 1);
+    }
+
+    @Override
+    public void combine(Metrics metrics) {
+        this.isCalculated = false;
+
+        PercentileSketchMetrics sketchMetrics = (PercentileSketchMetrics)metrics;
+        sketch.merge(sketchMetrics.getSketch());
+    }
+
+    @Override
+    public final void calculate() {
+        if (isCalculated) {
+            return;
+        }
+
+        percentileValues.clear();
+        for (int rank : PercentileMetrics.RANKS) {
+            percentileValues.addValue(rank, sketch.getValueAtRank(rank));
+        }
+        isCalculated = true;
+    }
+
+    /**
+     * @return the values of {@link PercentileMetrics#RANKS}, in the same order.
+     */
+    @Override
+    public int[] getValues() {
+        int[] values = new int[PercentileMetrics.RANKS.length];
+        for (int i = 0; i < PercentileMetrics.RANKS.length; i++) {
+            values[i] = (int)percentileValues.get(PercentileMetrics.RANKS[i]);
+        }
+        return values;
+    }
+}
@@ -40,14 +40,14 @@ public abstract class PxxMetrics extends GroupMetrics implements IntValueHolder
 
     @Getter @Setter @Column(columnName = VALUE, isValue = true, function = Function.Avg) private int value;
     @Getter @Setter @Column(columnName = PRECISION) private int precision;
-    @Getter @Setter @Column(columnName = DETAIL_GROUP) private IntKeyLongValueHashMap detailGroup;
+    @Getter @Setter @Column(columnName = DETAIL_GROUP) private IntKeyLongValueHistogram detailGroup;
 
     private final int percentileRank;
     private boolean isCalculated;
 
     public PxxMetrics(int percentileRank) {
         this.percentileRank = percentileRank;
-        detailGroup = new IntKeyLongValueHashMap(30);
+        detailGroup = new IntKeyLongValueHistogram();
     }
 
     @Entrance
@@ -55,14 +55,7 @@ public abstract class PxxMetrics extends GroupMetrics implements IntValueHolder
         this.isCalculated = false;
         this.precision = precision;
 
-        int index = value / precision;
-        IntKeyLongValue element = detailGroup.get(index);
-        if (element == null) {
-            element = new IntKeyLongValue(index, 1);
-            detailGroup.put(element.getKey(), element);
-        } else {
-            element.addValue(1);
-        }
+        detailGroup.addValue(value / precision, 1);
     }
 
     @Override
@@ -77,14 +70,14 @@ public abstract class PxxMetrics extends GroupMetrics implements IntValueHolder
     public final void calculate() {
 
         if (!isCalculated) {
-            int total = detailGroup.values().stream().mapToInt(element -> (int)element.getValue()).sum();
+            long total = detailGroup.total();
             int roof = Math.round(total * percentileRank * 1.0f / 100);
 
-            int count = 0;
-            for (IntKeyLongValue element : detailGroup.values()) {
-                count += element.getValue();
+            long count = 0;
+            for (int key : detailGroup.sortedKeys()) {
+                count += detailGroup.get(key);
                 if (count >= roof) {
-                    value = element.getKey() * precision;
+                    value = key * precision;
                     return;
                 }
             }
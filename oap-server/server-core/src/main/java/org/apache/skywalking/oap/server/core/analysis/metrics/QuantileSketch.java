@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import com.google.protobuf.*;
+import java.io.IOException;
+import java.util.Base64;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * QuantileSketch is a mergeable quantile sketch with bounded relative error, following the idea of DDSketch.
+ *
+ * A positive value v is counted in the bucket ceil(log(v) / log(gamma)), gamma = (1 + a) / (1 - a), and read back as
+ * the middle of that bucket, so any quantile is within the relative accuracy a of the real value. Values less than 1
+ * are counted in a separate zero bucket. The buckets only depend on the value, not on the data set, so merging two
+ * sketches is exact, and the number of buckets is bounded by the value range rather than the data spread, such as
+ * about 1100 buckets at most for all positive int values.
+ *
+ * The storage data is the Base64 encoding of the binary format, which is a version byte, followed by the zero count,
+ * the index of the first bucket, the number of buckets and the count of each bucket, all in varint.
+ */
+public class QuantileSketch implements StorageDataType {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int ENCODING_VERSION = 1;
+    private static final long[] EMPTY_COUNTS = new long[0];
+
+    private long zeroCount;
+    private long[] counts = EMPTY_COUNTS;
+    private int offset;
+    private long count;
+
+    public QuantileSketch() {
+    }
+
+    public QuantileSketch(String data) {
+        toObject(data);
+    }
+
+    public void add(long value, long times) {
+        if (value < 1) {
+            zeroCount += times;
+        } else {
+            int index = indexOf(value);
+            ensureCapacity(index, index);
+            counts[index - offset] += times;
+        }
+        count += times;
+    }
+
+    /**
+     * Add all buckets of the source into this sketch. The result is the same as adding all values into one sketch.
+     */
+    public void merge(QuantileSketch source) {
+        if (source.counts.length > 0) {
+            ensureCapacity(source.offset, source.offset + source.counts.length - 1);
+            for (int i = 0; i < source.counts.length; i++) {
+                counts[source.offset + i - offset] += source.counts[i];
+            }
+        }
+        zeroCount += source.zeroCount;
+        count += source.count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param percentileRank in [0, 100]
+     * @return the value below which the given percentage of the values fall, or 0 if the sketch is empty.
+     */
+    public long getValueAtRank(int percentileRank) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long roof = Math.round(count * percentileRank * 1.0f / 100);
+        long cumulated = zeroCount;
+        if (cumulated >= roof && zeroCount > 0) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            cumulated += counts[i];
+            if (cumulated >= roof && counts[i] > 0) {
+                return valueOf(offset + i);
+            }
+        }
+        return valueOf(offset + counts.length - 1);
+    }
+
+    public ByteString serialize() {
+        return UnsafeByteOperations.unsafeWrap(toBytes());
+    }
+
+    public void deserialize(ByteString data) {
+        fromBytes(data.newCodedInput());
+    }
+
+    @Override public String toStorageData() {
+        return Base64.getEncoder().encodeToString(toBytes());
+    }
+
+    @Override public void toObject(String data) {
+        if (data.isEmpty()) {
+            clear();
+        } else {
+            fromBytes(CodedInputStream.newInstance(Base64.getDecoder().decode(data)));
+        }
+    }
+
+    @Override public void copyFrom(Object source) {
+        QuantileSketch sketch = (QuantileSketch)source;
+        this.zeroCount = sketch.zeroCount;
+        this.counts = sketch.counts.clone();
+        this.offset = sketch.offset;
+        this.count = sketch.count;
+    }
+
+    private byte[] toBytes() {
+        int first = 0;
+        int last = counts.length - 1;
+        while (first <= last && counts[first] == 0) {
+            first++;
+        }
+        while (last >= first && counts[last] == 0) {
+            last--;
+        }
+        int numOfBuckets = last - first + 1;
+
+        int size = 1 + CodedOutputStream.computeUInt64SizeNoTag(zeroCount)
+            + CodedOutputStream.computeUInt32SizeNoTag(offset + first)
+            + CodedOutputStream.computeUInt32SizeNoTag(numOfBuckets);
+        for (int i = first; i <= last; i++) {
+            size += CodedOutputStream.computeUInt64SizeNoTag(counts[i]);
+        }
+
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            output.writeRawByte(ENCODING_VERSION);
+            output.writeUInt64NoTag(zeroCount);
+            output.writeUInt32NoTag(offset + first);
+            output.writeUInt32NoTag(numOfBuckets);
+            for (int i = first; i <= last; i++) {
+                output.writeUInt64NoTag(counts[i]);
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return bytes;
+    }
+
+    private void fromBytes(CodedInputStream input) {
+        try {
+            int version = input.readRawByte();
+            if (version != ENCODING_VERSION) {
+                throw new IllegalArgumentException("Unsupported quantile sketch encoding version: " + version);
+            }
+
+            zeroCount = input.readUInt64();
+            offset = input.readUInt32();
+            int numOfBuckets = input.readUInt32();
+            counts = numOfBuckets == 0 ? EMPTY_COUNTS : new long[numOfBuckets];
+            count = zeroCount;
+            for (int i = 0; i < numOfBuckets; i++) {
+                counts[i] = input.readUInt64();
+                count += counts[i];
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Illegal quantile sketch data", e);
+        }
+    }
+
+    private void clear() {
+        zeroCount = 0;
+        counts = EMPTY_COUNTS;
+        offset = 0;
+        count = 0;
+    }
+
+    /**
+     * Make sure the buckets cover [minIndex, maxIndex]. When growing, leave some room on the growing side, as the
+     * following values are usually close to this one.
+     */
+    private void ensureCapacity(int minIndex, int maxIndex) {
+        if (counts.length == 0) {
+            counts = new long[maxIndex - minIndex + 1];
+            offset = minIndex;
+            return;
+        }
+
+        int currentMax = offset + counts.length - 1;
+        if (minIndex >= offset && maxIndex <= currentMax) {
+            return;
+        }
+
+        int newOffset = minIndex < offset ? Math.max(0, minIndex - 8) : offset;
+        int newMax = maxIndex > currentMax ? maxIndex + 8 : currentMax;
+        long[] newCounts = new long[newMax - newOffset + 1];
+        System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+        counts = newCounts;
+        offset = newOffset;
+    }
+
+    static int indexOf(long value) {
+        return (int)Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    static long valueOf(int index) {
+        return Math.round(2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+    }
+}
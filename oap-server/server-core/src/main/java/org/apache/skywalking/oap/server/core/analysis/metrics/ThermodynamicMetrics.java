@@ -41,7 +41,7 @@ public abstract class ThermodynamicMetrics extends GroupMetrics {
 
     @Getter @Setter @Column(columnName = STEP) private int step = 0;
     @Getter @Setter @Column(columnName = NUM_OF_STEPS) private int numOfSteps = 0;
-    @Getter @Setter @Column(columnName = DETAIL_GROUP, isValue = true) private IntKeyLongValueHashMap detailGroup = new IntKeyLongValueHashMap(30);
+    @Getter @Setter @Column(columnName = DETAIL_GROUP, isValue = true) private IntKeyLongValueHistogram detailGroup = new IntKeyLongValueHistogram();
 
     /**
      * Data will be grouped in
@@ -67,13 +67,7 @@ public abstract class ThermodynamicMetrics extends GroupMetrics {
             index = numOfSteps;
         }
 
-        IntKeyLongValue element = detailGroup.get(index);
-        if (element == null) {
-            element = new IntKeyLongValue(index, 1);
-            detailGroup.put(element.getKey(), element);
-        } else {
-            element.addValue(1);
-        }
+        detailGroup.addValue(index, 1);
     }
 
     @Override
@@ -20,9 +20,10 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferType;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
-import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
+import org.apache.skywalking.oap.server.core.analysis.data.ConcurrentMergeDataCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
@@ -39,17 +40,19 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
 
     private AbstractWorker<Metrics> nextWorker;
     private final DataCarrier<Metrics> dataCarrier;
-    private final MergeDataCache<Metrics> mergeDataCache;
+    private final ConcurrentMergeDataCache<Metrics> mergeDataCache;
     private CounterMetrics aggregationCounter;
 
     MetricsAggregateWorker(ModuleDefineHolder moduleDefineHolder, AbstractWorker<Metrics> nextWorker, String modelName) {
         super(moduleDefineHolder);
         this.nextWorker = nextWorker;
-        this.mergeDataCache = new MergeDataCache<>();
         String name = "METRICS_L1_AGGREGATION";
-        this.dataCarrier = new DataCarrier<>("MetricsAggregateWorker." + modelName, name, 2, 10000);
+        int channelSize = 2;
+        // The bulk consume pool assigns all the channels of a carrier to one consumer thread, the only writer of the cache.
+        this.mergeDataCache = new ConcurrentMergeDataCache<>(1);
+        this.dataCarrier = new DataCarrier<>("MetricsAggregateWorker." + modelName, name, channelSize, 10000, BufferType.ELASTIC);
 
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20);
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20, new SpinParkWaitStrategy(0));
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
@@ -76,35 +79,22 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
         }
     }
 
+    /**
+     * Flush the cache at the end of every batch consumed. The channels of this worker are consumed by the same thread of
+     * the pool, so the cache is read and written by that thread only.
+     */
     private void sendToNext() {
-        mergeDataCache.switchPointer();
-        while (mergeDataCache.getLast().isWriting()) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                logger.error(e.getMessage(), e);
-            }
-        }
-
-        mergeDataCache.getLast().collection().forEach(data -> {
+        mergeDataCache.read().forEach(data -> {
             if (logger.isDebugEnabled()) {
                 logger.debug(data.toString());
             }
 
             nextWorker.in(data);
         });
-        mergeDataCache.finishReadingLast();
     }
 
     private void aggregate(Metrics metrics) {
-        mergeDataCache.writing();
-        if (mergeDataCache.containsKey(metrics)) {
-            mergeDataCache.get(metrics).combine(metrics);
-        } else {
-            mergeDataCache.put(metrics);
-        }
-
-        mergeDataCache.finishWriting();
+        mergeDataCache.accept(metrics);
     }
 
     private class AggregatorConsumer implements IConsumer<Metrics> {
@@ -20,43 +20,98 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferType;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
-import org.apache.skywalking.oap.server.core.UnexpectedException;
-import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
+import org.apache.skywalking.oap.server.core.*;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
  * @author peng-yongsheng
  */
-public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDataCache<Metrics>> {
+public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
     private static final Logger logger = LoggerFactory.getLogger(MetricsPersistentWorker.class);
 
     private final Model model;
-    private final Map<Metrics, Metrics> databaseSession;
-    private final MergeDataCache<Metrics> mergeDataCache;
+    private final MetricsSessionCache databaseSession;
+    /**
+     * The metrics inserted in this round, put into the database session once their requests are executed.
+     */
+    private final Map<PrepareRequest, Metrics> insertedMetrics;
+    private final ConcurrentMergeDataCache<Metrics> mergeDataCache;
+    private List<Metrics> lastCollection;
     private final IMetricsDAO metricsDAO;
     private final AbstractWorker<Metrics> nextAlarmWorker;
     private final AbstractWorker<ExportEvent> nextExportWorker;
     private final DataCarrier<Metrics> dataCarrier;
     private final MetricsTransWorker transWorker;
     private final boolean enableDatabaseSession;
+    private final boolean ownerAuthoritative;
+    private final long startTime;
+    private RemoteClientManager remoteClientManager;
+    private final CounterMetrics sessionHitCounter;
+    private final CounterMetrics sessionMissCounter;
+    private final CounterMetrics sessionOwnerCounter;
+    private final long rollupPeriod;
+    private final long rollupClosePeriod;
+    private final AtomicLong earliestTimeBucket;
+    private long lastFlushTime;
+    private boolean flushed;
+    private final RollupCheckpoint rollupCheckpoint;
+    private final long checkpointPeriod;
+    private long lastCheckpointTime;
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO, AbstractWorker<Metrics> nextAlarmWorker,
-        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession) {
+        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession,
+        int databaseSessionMaxSize, MetricsSessionBudget databaseSessionBudget, boolean ownerAuthoritative) {
+        this(moduleDefineHolder, model, metricsDAO, nextAlarmWorker, nextExportWorker, transWorker, enableDatabaseSession,
+            databaseSessionMaxSize, databaseSessionBudget, ownerAuthoritative, 0, null, 0);
+    }
+
+    /**
+     * @param databaseSessionBudget shared by the database sessions of all the models.
+     * @param rollupPeriod in milliseconds. If positive, the metrics are rolled up in memory, and flushed into the storage
+     * in this period, or once the earliest time bucket in memory is closed. Used by the hour, day and month metrics,
+     * which are updated after every flush of the minute metrics.
+     * @param rollupCheckpoint to save the metrics rolled up but not flushed yet, null if not required.
+     * @param checkpointPeriod in milliseconds, the period of saving the checkpoint between flushes.
+     */
+    MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO, AbstractWorker<Metrics> nextAlarmWorker,
+        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession,
+        int databaseSessionMaxSize, MetricsSessionBudget databaseSessionBudget, boolean ownerAuthoritative,
+        long rollupPeriod, RollupCheckpoint rollupCheckpoint,
+        long checkpointPeriod) {
         super(moduleDefineHolder);
         this.model = model;
-        this.databaseSession = new HashMap<>(100);
+        // Keep the metrics of the last time bucket a while, the late data of it is still arriving.
+        this.databaseSession = new MetricsSessionCache(databaseSessionMaxSize, databaseSessionBudget, model.getDownsampling(), 70000);
+        this.insertedMetrics = new IdentityHashMap<>();
         this.enableDatabaseSession = enableDatabaseSession;
-        this.mergeDataCache = new MergeDataCache<>();
+        this.ownerAuthoritative = enableDatabaseSession && ownerAuthoritative;
+        this.startTime = System.currentTimeMillis();
+        this.mergeDataCache = new ConcurrentMergeDataCache<>(1);
+        this.rollupPeriod = rollupPeriod;
+        // Same as the database session, the late data of the last time bucket is still arriving after it ends.
+        this.rollupClosePeriod = 70000;
+        this.earliestTimeBucket = new AtomicLong(Long.MAX_VALUE);
+        this.lastFlushTime = startTime;
+        this.rollupCheckpoint = rollupCheckpoint;
+        this.checkpointPeriod = checkpointPeriod;
+        this.lastCheckpointTime = startTime;
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = nextAlarmWorker;
         this.nextExportWorker = nextExportWorker;
@@ -67,15 +122,35 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         if (size == 0) {
             size = 1;
         }
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20);
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20, new SpinParkWaitStrategy(0));
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
             throw new UnexpectedException(e.getMessage(), e);
         }
 
-        this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000);
+        this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000, BufferType.ELASTIC);
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer(this));
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        sessionHitCounter = metricsCreator.createCounter("metrics_persistent_session", "The number of metrics found in the database session",
+            new MetricsTag.Keys("metricName", "status"), new MetricsTag.Values(model.getName(), "hit"));
+        sessionMissCounter = metricsCreator.createCounter("metrics_persistent_session", "The number of metrics found in the database session",
+            new MetricsTag.Keys("metricName", "status"), new MetricsTag.Values(model.getName(), "miss"));
+        sessionOwnerCounter = metricsCreator.createCounter("metrics_persistent_session", "The number of metrics found in the database session",
+            new MetricsTag.Keys("metricName", "status"), new MetricsTag.Values(model.getName(), "owner"));
+
+        if (rollupCheckpoint != null) {
+            List<Metrics> restored = rollupCheckpoint.load();
+            if (!restored.isEmpty()) {
+                logger.info("Restore {} rolled up metrics of model {} from the checkpoint.", restored.size(), model.getName());
+                restored.forEach(this::cacheData);
+            }
+        }
+    }
+
+    @Override public Model getModel() {
+        return model;
     }
 
     @Override void onWork(Metrics metrics) {
@@ -86,8 +161,40 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         dataCarrier.produce(metrics);
     }
 
-    @Override public MergeDataCache<Metrics> getCache() {
-        return mergeDataCache;
+    /**
+     * Called by the persistence timer only, the consumer keeps writing into the cache while the last round is in
+     * preparation. In rollup mode, the cache keeps combining the metrics across rounds until it should be flushed.
+     */
+    @Override public boolean flushAndSwitch() {
+        // Left by a round not executed to the end, not sure whether they are inserted.
+        insertedMetrics.clear();
+        long now = System.currentTimeMillis();
+        if (rollupPeriod > 0 && now - lastFlushTime < rollupPeriod && !isRollupClosed(now)) {
+            return false;
+        }
+        lastFlushTime = now;
+        flushed = true;
+        // Reset before reading, the metrics cached from now on may be left to the next flush.
+        earliestTimeBucket.set(Long.MAX_VALUE);
+        lastCollection = mergeDataCache.read();
+        return !lastCollection.isEmpty();
+    }
+
+    /**
+     * @return true if the earliest time bucket in memory has ended for a while, and is not expected to be updated.
+     */
+    private boolean isRollupClosed(long now) {
+        return earliestTimeBucket.get() < TimeBucket.getTimeBucket(now - rollupClosePeriod, model.getDownsampling());
+    }
+
+    @Override public void buildBatchRequests(List<PrepareRequest> prepareRequests) {
+        try {
+            if (lastCollection != null) {
+                prepareBatch(lastCollection, prepareRequests);
+            }
+        } finally {
+            lastCollection = null;
+        }
     }
 
     @Override public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
@@ -97,6 +204,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         int batchGetSize = 2000;
         Metrics[] metrics = null;
         for (Metrics data : lastCollection) {
+            data.calculate();
             if (Objects.nonNull(nextExportWorker)) {
                 ExportEvent event = new ExportEvent(data, ExportEvent.EventType.INCREMENT);
                 nextExportWorker.in(event);
@@ -118,18 +226,22 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
 
             if (mod == metrics.length - 1) {
                 try {
-                    syncStorageToCache(metrics);
+                    Map<Metrics, Metrics> storedMetrics = syncStorageToCache(metrics);
 
                     for (Metrics metric : metrics) {
-                        Metrics cacheMetric = databaseSession.get(metric);
+                        Metrics cacheMetric = storedMetrics.get(metric);
                         if (cacheMetric != null) {
                             cacheMetric.combine(metric);
                             cacheMetric.calculate();
                             prepareRequests.add(metricsDAO.prepareBatchUpdate(model, cacheMetric));
                             nextWorker(cacheMetric);
                         } else {
-                            prepareRequests.add(metricsDAO.prepareBatchInsert(model, metric));
+                            PrepareRequest insertRequest = metricsDAO.prepareBatchInsert(model, metric);
+                            prepareRequests.add(insertRequest);
                             nextWorker(metric);
+                            if (enableDatabaseSession) {
+                                insertedMetrics.put(insertRequest, metric);
+                            }
                         }
                     }
                 } catch (Throwable t) {
@@ -155,51 +267,105 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         }
     }
 
+    /**
+     * Only combine here, the cached metrics are calculated once per round in {@link #prepareBatch(Collection, List)}.
+     */
     @Override public void cacheData(Metrics input) {
-        mergeDataCache.writing();
-        if (mergeDataCache.containsKey(input)) {
-            Metrics metrics = mergeDataCache.get(input);
-            metrics.combine(input);
-            metrics.calculate();
-        } else {
-            input.calculate();
-            mergeDataCache.put(input);
+        mergeDataCache.accept(input);
+        if (rollupPeriod > 0 && input.getTimeBucket() < earliestTimeBucket.get()) {
+            earliestTimeBucket.accumulateAndGet(input.getTimeBucket(), Math::min);
         }
-
-        mergeDataCache.finishWriting();
     }
 
-    private void syncStorageToCache(Metrics[] metrics) throws IOException {
-        if (!enableDatabaseSession) {
-            databaseSession.clear();
-        }
+    /**
+     * @return the stored metrics of the given batch, found in the database session or read from the storage. The
+     * session is limited in size, so the batch must not look them up from the session again.
+     */
+    private Map<Metrics, Metrics> syncStorageToCache(Metrics[] metrics) throws IOException {
+        Map<Metrics, Metrics> storedMetrics = new HashMap<>(metrics.length);
+        long ownedTimeBucket = ownedTimeBucket();
 
+        int owned = 0;
         List<String> notInCacheIds = new ArrayList<>();
         for (Metrics metric : metrics) {
-            if (!databaseSession.containsKey(metric)) {
+            Metrics cacheMetric = enableDatabaseSession ? databaseSession.get(metric) : null;
+            if (cacheMetric != null) {
+                storedMetrics.put(cacheMetric, cacheMetric);
+            } else if (metric.getTimeBucket() > ownedTimeBucket && databaseSession.isComplete(metric.getTimeBucket())) {
+                // Every stored metrics of this time bucket is written by this node and still in the session.
+                owned++;
+            } else {
                 notInCacheIds.add(metric.id());
             }
         }
+        if (enableDatabaseSession) {
+            sessionHitCounter.inc(metrics.length - notInCacheIds.size() - owned);
+            sessionMissCounter.inc(notInCacheIds.size());
+            sessionOwnerCounter.inc(owned);
+        }
 
         if (notInCacheIds.size() > 0) {
             List<Metrics> metricsList = metricsDAO.multiGet(model, notInCacheIds);
             for (Metrics metric : metricsList) {
-                databaseSession.put(metric, metric);
+                storedMetrics.put(metric, metric);
+                if (enableDatabaseSession) {
+                    databaseSession.put(metric);
+                }
             }
         }
+        return storedMetrics;
+    }
+
+    /**
+     * In owner authoritative mode, the metrics of one entity are always routed to the same OAP node as long as the
+     * cluster doesn't change, so the node owns the time buckets that began after it started and after the last change
+     * of the cluster. The margin covers the other nodes refreshing their server list and flushing their L1 aggregation.
+     *
+     * @return the latest time bucket which may have been written by another node or by this node before restart.
+     */
+    private long ownedTimeBucket() {
+        if (!ownerAuthoritative) {
+            return Long.MAX_VALUE;
+        }
+        if (remoteClientManager == null) {
+            remoteClientManager = getModuleDefineHolder().find(CoreModule.NAME).provider().getService(RemoteClientManager.class);
+        }
+        long lastRebuildTime = remoteClientManager.getLastRebuildTime();
+        if (lastRebuildTime == 0) {
+            return Long.MAX_VALUE;
+        }
+        return TimeBucket.getTimeBucket(Math.max(startTime, lastRebuildTime) + 30000, model.getDownsampling());
     }
 
     @Override public void endOfRound(long tookTime) {
+        long now = System.currentTimeMillis();
         if (enableDatabaseSession) {
-            Iterator<Metrics> iterator = databaseSession.values().iterator();
-            while (iterator.hasNext()) {
-                Metrics metrics = iterator.next();
-                metrics.setSurvivalTime(tookTime + metrics.getSurvivalTime());
-                if (metrics.getSurvivalTime() > 70000) {
-                    iterator.remove();
-                }
+            databaseSession.removeExpired(now);
+        }
+        // The flushed metrics must be removed from the checkpoint at once. This runs before the batch requests are
+        // executed, so a crash in between loses the flushed metrics rather than writing them twice.
+        if (rollupCheckpoint != null && (flushed || now - lastCheckpointTime >= checkpointPeriod)) {
+            lastCheckpointTime = now;
+            try {
+                rollupCheckpoint.save(mergeDataCache.copy(metrics -> metrics.serialize().build()));
+            } catch (Throwable t) {
+                logger.error("Save the rollup checkpoint of model " + model.getName() + " failure.", t);
             }
         }
+        flushed = false;
+    }
+
+    /**
+     * The metrics inserted in this round are not read back in the next rounds, unless the insert failed. A failed one
+     * kept in the database session would be updated rather than inserted again, the update of a missing row is lost.
+     */
+    @Override public void endOfExecution(Set<PrepareRequest> failedRequests) {
+        insertedMetrics.forEach((insertRequest, metric) -> {
+            if (!failedRequests.contains(insertRequest)) {
+                databaseSession.put(metric);
+            }
+        });
+        insertedMetrics.clear();
     }
 
     private class PersistentConsumer implements IConsumer<Metrics> {
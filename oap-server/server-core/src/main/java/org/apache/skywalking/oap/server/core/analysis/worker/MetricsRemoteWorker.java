@@ -44,7 +44,7 @@ public class MetricsRemoteWorker extends AbstractWorker<Metrics> {
 
     @Override public final void in(Metrics metrics) {
         try {
-            remoteSender.send(remoteReceiverWorkerName, metrics, Selector.HashCode);
+            remoteSender.send(remoteReceiverWorkerName, metrics, Selector.ConsistentHash);
         } catch (Throwable e) {
             logger.error(e.getMessage(), e);
         }
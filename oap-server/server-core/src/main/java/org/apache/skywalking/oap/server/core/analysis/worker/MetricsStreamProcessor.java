@@ -18,10 +18,13 @@
 
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
+import java.io.File;
 import java.util.*;
 import lombok.*;
 import org.apache.skywalking.oap.server.core.*;
 import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.analysis.data.MetricsSessionBudget;
+import org.apache.skywalking.oap.server.core.analysis.data.RollupCheckpoint;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.config.DownsamplingConfigService;
 import org.apache.skywalking.oap.server.core.storage.*;
@@ -40,6 +43,25 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     private Map<Class<? extends Metrics>, MetricsAggregateWorker> entryWorkers = new HashMap<>();
     @Getter private List<MetricsPersistentWorker> persistentWorkers = new ArrayList<>();
     @Setter @Getter private boolean enableDatabaseSession;
+    @Setter @Getter private int databaseSessionMaxSize;
+    /**
+     * The max number of metrics kept by the database sessions of all the models together.
+     */
+    @Setter @Getter private int databaseSessionTotalMaxSize;
+    private MetricsSessionBudget databaseSessionBudget;
+    @Setter @Getter private boolean ownerAuthoritative;
+    /**
+     * In milliseconds, the period of flushing the hour, day and month metrics rolled up in memory. 0 means every round.
+     */
+    @Setter @Getter private long rollupFlushPeriod;
+    /**
+     * The directory of the rollup checkpoint files, null or empty means no checkpoint.
+     */
+    @Setter @Getter private String rollupCheckpointPath;
+    /**
+     * In milliseconds, the period of saving the rollup checkpoint.
+     */
+    @Setter @Getter private long rollupCheckpointPeriod;
 
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
@@ -75,15 +97,15 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         if (configService.shouldToHour()) {
             Model model = modelSetter.putIfAbsent(metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Hour), false);
-            hourPersistentWorker = worker(moduleDefineHolder, metricsDAO, model);
+            hourPersistentWorker = worker(moduleDefineHolder, metricsDAO, model, metricsClass);
         }
         if (configService.shouldToDay()) {
             Model model = modelSetter.putIfAbsent(metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Day), false);
-            dayPersistentWorker = worker(moduleDefineHolder, metricsDAO, model);
+            dayPersistentWorker = worker(moduleDefineHolder, metricsDAO, model, metricsClass);
         }
         if (configService.shouldToMonth()) {
             Model model = modelSetter.putIfAbsent(metricsClass, stream.scopeId(), new Storage(stream.name(), true, true, Downsampling.Month), false);
-            monthPersistentWorker = worker(moduleDefineHolder, metricsDAO, model);
+            monthPersistentWorker = worker(moduleDefineHolder, metricsDAO, model, metricsClass);
         }
 
         MetricsTransWorker transWorker = new MetricsTransWorker(moduleDefineHolder, stream.name(), hourPersistentWorker, dayPersistentWorker, monthPersistentWorker);
@@ -101,18 +123,30 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
         entryWorkers.put(metricsClass, aggregateWorker);
     }
 
+    private MetricsSessionBudget databaseSessionBudget() {
+        if (databaseSessionBudget == null) {
+            databaseSessionBudget = new MetricsSessionBudget(databaseSessionTotalMaxSize);
+        }
+        return databaseSessionBudget;
+    }
+
     private MetricsPersistentWorker minutePersistentWorker(ModuleDefineHolder moduleDefineHolder, IMetricsDAO metricsDAO, Model model, MetricsTransWorker transWorker) {
         AlarmNotifyWorker alarmNotifyWorker = new AlarmNotifyWorker(moduleDefineHolder);
         ExportWorker exportWorker = new ExportWorker(moduleDefineHolder);
 
-        MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession);
+        MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession, databaseSessionMaxSize, databaseSessionBudget(), ownerAuthoritative);
         persistentWorkers.add(minutePersistentWorker);
 
         return minutePersistentWorker;
     }
 
-    private MetricsPersistentWorker worker(ModuleDefineHolder moduleDefineHolder, IMetricsDAO metricsDAO, Model model) {
-        MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, null, null, null, enableDatabaseSession);
+    private MetricsPersistentWorker worker(ModuleDefineHolder moduleDefineHolder, IMetricsDAO metricsDAO, Model model, Class<? extends Metrics> metricsClass) {
+        RollupCheckpoint rollupCheckpoint = null;
+        if (rollupFlushPeriod > 0 && rollupCheckpointPath != null && !rollupCheckpointPath.isEmpty()) {
+            rollupCheckpoint = new RollupCheckpoint(new File(rollupCheckpointPath), model.getName(), metricsClass);
+        }
+        MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, null, null, null, enableDatabaseSession, databaseSessionMaxSize, databaseSessionBudget(), ownerAuthoritative,
+            rollupFlushPeriod, rollupCheckpoint, rollupCheckpointPeriod);
         persistentWorkers.add(persistentWorker);
 
         return persistentWorker;
@@ -19,19 +19,16 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.*;
-import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
-import org.slf4j.*;
 
 /**
  * @author peng-yongsheng
  */
-public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends Window<INPUT>> extends AbstractWorker<INPUT> {
-
-    private static final Logger logger = LoggerFactory.getLogger(PersistenceWorker.class);
+public abstract class PersistenceWorker<INPUT extends StorageData> extends AbstractWorker<INPUT> {
 
     PersistenceWorker(ModuleDefineHolder moduleDefineHolder) {
         super(moduleDefineHolder);
@@ -41,42 +38,27 @@ public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends
         cacheData(input);
     }
 
-    public abstract void cacheData(INPUT input);
+    public abstract Model getModel();
 
-    public abstract CACHE getCache();
+    public abstract void cacheData(INPUT input);
 
     public abstract void endOfRound(long tookTime);
 
-    public boolean flushAndSwitch() {
-        boolean isSwitch;
-        try {
-            if (isSwitch = getCache().trySwitchPointer()) {
-                getCache().switchPointer();
-            }
-        } finally {
-            getCache().trySwitchPointerFinally();
-        }
-        return isSwitch;
-    }
+    /**
+     * Called after all the requests built in this round are executed.
+     *
+     * @param failedRequests the requests of all the workers not written into the storage.
+     */
+    public abstract void endOfExecution(Set<PrepareRequest> failedRequests);
 
-    public abstract void prepareBatch(Collection<INPUT> lastCollection, List<PrepareRequest> prepareRequests);
+    /**
+     * Take the data cached since the last round away from the writing path.
+     *
+     * @return true if there is data ready for {@link #buildBatchRequests(List)}.
+     */
+    public abstract boolean flushAndSwitch();
 
-    public final void buildBatchRequests(List<PrepareRequest> prepareRequests) {
-        try {
-            SWCollection<INPUT> last = getCache().getLast();
-            while (last.isWriting()) {
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    logger.warn("thread wake up");
-                }
-            }
+    public abstract void prepareBatch(Collection<INPUT> lastCollection, List<PrepareRequest> prepareRequests);
 
-            if (last.collection() != null) {
-                prepareBatch(last.collection(), prepareRequests);
-            }
-        } finally {
-            getCache().finishReadingLast();
-        }
-    }
+    public abstract void buildBatchRequests(List<PrepareRequest> prepareRequests);
 }
@@ -21,7 +21,7 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 import java.util.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
-import org.apache.skywalking.oap.server.core.analysis.data.LimitedSizeDataCache;
+import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
 import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
@@ -34,7 +34,7 @@ import org.slf4j.*;
  *
  * @author wusheng, peng-yongsheng
  */
-public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<TopN>> {
+public class TopNWorker extends PersistenceWorker<TopN> {
 
     private static final Logger logger = LoggerFactory.getLogger(TopNWorker.class);
 
@@ -58,6 +58,10 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
         this.reportCycle = 10 * 60 * 1000L;
     }
 
+    @Override public Model getModel() {
+        return model;
+    }
+
     @Override public void cacheData(TopN data) {
         limitedSizeDataCache.writing();
         try {
@@ -67,13 +71,9 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
         }
     }
 
-    @Override public LimitedSizeDataCache<TopN> getCache() {
-        return limitedSizeDataCache;
-    }
-
     /**
-     * The top N worker persistent cycle is much less than the others, override `flushAndSwitch` to extend the execute
-     * time windows.
+     * The top N worker persistent cycle is much less than the others, `flushAndSwitch` extends the execute time
+     * windows.
      *
      * Switch and persistent attempt happens based on reportCycle.
      */
@@ -83,7 +83,35 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
             return false;
         }
         lastReportTimestamp = now;
-        return super.flushAndSwitch();
+
+        boolean isSwitch;
+        try {
+            if (isSwitch = limitedSizeDataCache.trySwitchPointer()) {
+                limitedSizeDataCache.switchPointer();
+            }
+        } finally {
+            limitedSizeDataCache.trySwitchPointerFinally();
+        }
+        return isSwitch;
+    }
+
+    @Override public void buildBatchRequests(List<PrepareRequest> prepareRequests) {
+        try {
+            SWCollection<TopN> last = limitedSizeDataCache.getLast();
+            while (last.isWriting()) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    logger.warn("thread wake up");
+                }
+            }
+
+            if (last.collection() != null) {
+                prepareBatch(last.collection(), prepareRequests);
+            }
+        } finally {
+            limitedSizeDataCache.finishReadingLast();
+        }
     }
 
     @Override public void prepareBatch(Collection<TopN> lastCollection, List<PrepareRequest> prepareRequests) {
@@ -102,6 +130,9 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
     @Override public void endOfRound(long tookTime) {
     }
 
+    @Override public void endOfExecution(Set<PrepareRequest> failedRequests) {
+    }
+
     @Override public void in(TopN n) {
         dataCarrier.produce(n);
     }
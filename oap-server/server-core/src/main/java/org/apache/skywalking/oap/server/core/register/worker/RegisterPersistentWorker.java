@@ -58,7 +58,7 @@ public class RegisterPersistentWorker extends AbstractWorker<RegisterSource> {
         if (size == 0) {
             size = 1;
         }
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 200);
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 200, new SpinParkWaitStrategy(0));
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
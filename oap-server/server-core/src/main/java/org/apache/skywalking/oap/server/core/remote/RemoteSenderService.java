@@ -31,12 +31,14 @@ public class RemoteSenderService implements Service {
 
     private final ModuleManager moduleManager;
     private final HashCodeSelector hashCodeSelector;
+    private final ConsistentHashSelector consistentHashSelector;
     private final ForeverFirstSelector foreverFirstSelector;
     private final RollingSelector rollingSelector;
 
     public RemoteSenderService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
         this.hashCodeSelector = new HashCodeSelector();
+        this.consistentHashSelector = new ConsistentHashSelector();
         this.foreverFirstSelector = new ForeverFirstSelector();
         this.rollingSelector = new RollingSelector();
     }
@@ -50,6 +52,10 @@ public class RemoteSenderService implements Service {
                 remoteClient = hashCodeSelector.select(clientManager.getRemoteClient(), streamData);
                 remoteClient.push(nextWorkName, streamData);
                 break;
+            case ConsistentHash:
+                remoteClient = consistentHashSelector.select(clientManager.getRemoteClient(), streamData);
+                remoteClient.push(nextWorkName, streamData);
+                break;
             case Rolling:
                 remoteClient = rollingSelector.select(clientManager.getRemoteClient(), streamData);
                 remoteClient.push(nextWorkName, streamData);
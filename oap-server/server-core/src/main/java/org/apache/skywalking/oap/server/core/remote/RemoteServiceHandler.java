@@ -85,26 +85,17 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
 
         return new StreamObserver<RemoteMessage>() {
             @Override public void onNext(RemoteMessage message) {
-                remoteInCounter.inc();
                 HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
                 try {
                     String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
+                    RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
 
-                    try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
-                        AbstractWorker nextWorker = handleWorker.getWorker();
-                        StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                        streamData.deserialize(remoteData);
-                        if (nextWorker != null) {
-                            nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            logger.warn("Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.", nextWorkerName);
+                    if (message.getRemoteDataListCount() > 0) {
+                        for (RemoteData remoteData : message.getRemoteDataListList()) {
+                            handle(nextWorkerName, handleWorker, remoteData);
                         }
-                    } catch (Throwable t) {
-                        remoteInErrorCounter.inc();
-                        logger.error(t.getMessage(), t);
+                    } else {
+                        handle(nextWorkerName, handleWorker, message.getRemoteData());
                     }
                 } finally {
                     timer.finish();
@@ -121,4 +112,22 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             }
         };
     }
+
+    private void handle(String nextWorkerName, RemoteHandleWorker handleWorker, RemoteData remoteData) {
+        remoteInCounter.inc();
+        try {
+            AbstractWorker nextWorker = handleWorker.getWorker();
+            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+            streamData.deserialize(remoteData);
+            if (nextWorker != null) {
+                nextWorker.in(streamData);
+            } else {
+                remoteInTargetNotFoundCounter.inc();
+                logger.warn("Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.", nextWorkerName);
+            }
+        } catch (Throwable t) {
+            remoteInErrorCounter.inc();
+            logger.error(t.getMessage(), t);
+        }
+    }
 }
@@ -20,15 +20,21 @@ package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.SpinParkWaitStrategy;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
@@ -42,7 +48,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
- * buffering the message and sending the message by batch.
+ * buffering the message and sending the message by batch. The serialized stream data are queued with the name of the
+ * next worker. When the remote batch is enabled, the stream data of the same next worker in one batch are packed into
+ * one message, otherwise each stream data is sent in its own message, which all the OAP nodes could read.
  *
  * @author peng-yongsheng
  */
@@ -53,18 +61,20 @@ public class GRPCRemoteClient implements RemoteClient {
     private final int channelSize;
     private final int bufferSize;
     private final Address address;
+    private final boolean remoteBatch;
     private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
     private GRPCClient client;
-    private DataCarrier<RemoteMessage> carrier;
+    private DataCarrier<RemoteStreamData> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
 
     public GRPCRemoteClient(ModuleDefineHolder moduleDefineHolder, Address address, int channelSize,
-        int bufferSize) {
+        int bufferSize, boolean remoteBatch) {
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
+        this.remoteBatch = remoteBatch;
 
         remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
             .createCounter("remote_out_count", "The number(client side) of inside remote inside aggregate rpc.",
@@ -77,7 +87,7 @@ public class GRPCRemoteClient implements RemoteClient {
     @Override public void connect() {
         if (!isConnect) {
             this.getClient().connect();
-            this.getDataCarrier().consume(new RemoteMessageConsumer(), 1);
+            this.getDataCarrier().consume(new RemoteMessageConsumer(), 1, 20, new SpinParkWaitStrategy(1000));
             this.isConnect = true;
         }
     }
@@ -106,7 +116,7 @@ public class GRPCRemoteClient implements RemoteClient {
         return RemoteServiceGrpc.newStub(getChannel());
     }
 
-    DataCarrier<RemoteMessage> getDataCarrier() {
+    DataCarrier<RemoteStreamData> getDataCarrier() {
         if (Objects.isNull(this.carrier)) {
             synchronized (GRPCRemoteClient.class) {
                 if (Objects.isNull(this.carrier)) {
@@ -125,23 +135,40 @@ public class GRPCRemoteClient implements RemoteClient {
      * @param streamData the entity contains the values.
      */
     @Override public void push(String nextWorkerName, StreamData streamData) {
-        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
-        builder.setNextWorkerName(nextWorkerName);
-        builder.setRemoteData(streamData.serialize());
+        this.getDataCarrier().produce(new RemoteStreamData(nextWorkerName, streamData.serialize()));
+    }
+
+    /**
+     * The serialized stream data waiting in the queue, the message is built by the consumer for all the stream data of
+     * the same next worker.
+     */
+    private static class RemoteStreamData {
+        private final String nextWorkerName;
+        private final RemoteData.Builder remoteData;
 
-        this.getDataCarrier().produce(builder.build());
+        private RemoteStreamData(String nextWorkerName, RemoteData.Builder remoteData) {
+            this.nextWorkerName = nextWorkerName;
+            this.remoteData = remoteData;
+        }
     }
 
-    class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
+    class RemoteMessageConsumer implements IConsumer<RemoteStreamData> {
         @Override public void init() {
         }
 
-        @Override public void consume(List<RemoteMessage> remoteMessages) {
+        @Override public void consume(List<RemoteStreamData> remoteStreamDataList) {
             try {
                 StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
-                    remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                if (remoteBatch) {
+                    Map<String, List<RemoteData.Builder>> batches = new LinkedHashMap<>();
+                    for (RemoteStreamData remoteStreamData : remoteStreamDataList) {
+                        batches.computeIfAbsent(remoteStreamData.nextWorkerName, name -> new ArrayList<>()).add(remoteStreamData.remoteData);
+                    }
+                    batches.forEach((nextWorkerName, batch) -> send(streamObserver, nextWorkerName, batch));
+                } else {
+                    for (RemoteStreamData remoteStreamData : remoteStreamDataList) {
+                        send(streamObserver, remoteStreamData.nextWorkerName, Collections.singletonList(remoteStreamData.remoteData));
+                    }
                 }
                 streamObserver.onCompleted();
             } catch (Throwable t) {
@@ -150,7 +177,23 @@ public class GRPCRemoteClient implements RemoteClient {
             }
         }
 
-        @Override public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
+        /**
+         * A single stream data is always set in the remoteData field, only the batch of several stream data uses the
+         * remoteDataList field, which the OAP nodes without the batch support don't read.
+         */
+        private void send(StreamObserver<RemoteMessage> streamObserver, String nextWorkerName,
+            List<RemoteData.Builder> batch) {
+            RemoteMessage.Builder message = RemoteMessage.newBuilder().setNextWorkerName(nextWorkerName);
+            if (batch.size() == 1) {
+                message.setRemoteData(batch.get(0));
+            } else {
+                batch.forEach(message::addRemoteDataList);
+            }
+            remoteOutCounter.inc(batch.size());
+            streamObserver.onNext(message.build());
+        }
+
+        @Override public void onError(List<RemoteStreamData> remoteStreamDataList, Throwable t) {
             logger.error(t.getMessage(), t);
         }
 
@@ -52,14 +52,17 @@ public class RemoteClientManager implements Service {
     private static final Logger logger = LoggerFactory.getLogger(RemoteClientManager.class);
 
     private final ModuleDefineHolder moduleDefineHolder;
+    private final boolean remoteBatch;
     private ClusterNodesQuery clusterNodesQuery;
     private final List<RemoteClient> clientsA;
     private final List<RemoteClient> clientsB;
     private volatile List<RemoteClient> usingClients;
+    private volatile long lastRebuildTime = 0;
     private GaugeMetrics gauge;
 
-    public RemoteClientManager(ModuleDefineHolder moduleDefineHolder) {
+    public RemoteClientManager(ModuleDefineHolder moduleDefineHolder, boolean remoteBatch) {
         this.moduleDefineHolder = moduleDefineHolder;
+        this.remoteBatch = remoteBatch;
         this.clientsA = new LinkedList<>();
         this.clientsB = new LinkedList<>();
         this.usingClients = clientsA;
@@ -150,6 +153,14 @@ public class RemoteClientManager implements Service {
         return usingClients;
     }
 
+    /**
+     * @return the timestamp of the last change of the OAP server list, the stream data may have been sent to a
+     * different server before it. 0 if the list has never been built.
+     */
+    public long getLastRebuildTime() {
+        return lastRebuildTime;
+    }
+
     private List<RemoteClient> getFreeClients() {
         if (usingClients.equals(clientsA)) {
             return clientsB;
@@ -203,7 +214,7 @@ public class RemoteClientManager implements Service {
                         RemoteClient client = new SelfRemoteClient(moduleDefineHolder, address);
                         getFreeClients().add(client);
                     } else {
-                        RemoteClient client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000);
+                        RemoteClient client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteBatch);
                         client.connect();
                         getFreeClients().add(client);
                     }
@@ -213,6 +224,7 @@ public class RemoteClientManager implements Service {
 
         Collections.sort(getFreeClients());
         switchCurrentClients();
+        lastRebuildTime = System.currentTimeMillis();
 
         tempRemoteClients.forEach((address, action) -> {
             if (Action.Close.equals(action) && remoteClients.containsKey(address)) {
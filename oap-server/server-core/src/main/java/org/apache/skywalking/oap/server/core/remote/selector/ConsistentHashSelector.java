@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * Select the client by a consistent hash ring of the client addresses. Every client owns {@link #VIRTUAL_NODES}
+ * points of the ring, and the data goes to the owner of the first point after its {@link StreamData#remoteHashCode()}.
+ * When a node joins or leaves the cluster, only about 1/N of the data moves to another node, rather than almost all of
+ * them by {@link HashCodeSelector}, so the caches of the other nodes are still valid.
+ *
+ * The ring is built again when the ordered client list is changed. {@link
+ * org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager} swaps two list instances and refills the
+ * free one, so neither the list instance nor its size tells whether the clients are changed.
+ */
+public class ConsistentHashSelector implements RemoteClientSelector {
+
+    static final int VIRTUAL_NODES = 160;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    private volatile Ring ring;
+
+    @Override public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        Ring current = ring;
+        if (current == null || !current.isBuiltFrom(clients)) {
+            current = new Ring(clients);
+            ring = current;
+        }
+        return current.select(mix(streamData.remoteHashCode()));
+    }
+
+    /**
+     * The finalization mix of MurmurHash3, {@link StreamData#remoteHashCode()} is mostly {@link String#hashCode()},
+     * which isn't spread enough on the ring.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static class Ring {
+        private final RemoteClient[] clients;
+        private final int[] points;
+        private final RemoteClient[] owners;
+
+        private Ring(List<RemoteClient> clients) {
+            this.clients = clients.toArray(new RemoteClient[0]);
+            int size = this.clients.length;
+
+            long[] sorted = new long[size * VIRTUAL_NODES];
+            int index = 0;
+            for (int i = 0; i < size; i++) {
+                String address = this.clients[i].getAddress().toString();
+                for (int j = 0; j < VIRTUAL_NODES; j++) {
+                    int point = HASH_FUNCTION.hashString(address + "#" + j, StandardCharsets.UTF_8).asInt();
+                    // the point in the high bits, the client index in the low bits
+                    sorted[index++] = ((long)point << 32) | i;
+                }
+            }
+            Arrays.sort(sorted);
+
+            this.points = new int[sorted.length];
+            this.owners = new RemoteClient[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                points[i] = (int)(sorted[i] >> 32);
+                owners[i] = this.clients[(int)sorted[i]];
+            }
+        }
+
+        /**
+         * @return true if the clients are the same ones, in the same order, as this ring is built from.
+         */
+        private boolean isBuiltFrom(List<RemoteClient> clients) {
+            if (clients.size() != this.clients.length) {
+                return false;
+            }
+            int i = 0;
+            for (RemoteClient client : clients) {
+                if (client != this.clients[i++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private RemoteClient select(int hash) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index == points.length) {
+                index = 0;
+            }
+            return owners[index];
+        }
+    }
+}
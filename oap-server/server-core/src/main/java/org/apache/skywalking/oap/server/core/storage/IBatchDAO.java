@@ -28,5 +28,10 @@ public interface IBatchDAO extends DAO {
 
     void asynchronous(InsertRequest insertRequest);
 
-    void synchronous(List<PrepareRequest> prepareRequests);
+    /**
+     * Execute the requests and return after they are all done.
+     *
+     * @return the requests not written into the storage, or the ones not sure to be.
+     */
+    List<PrepareRequest> synchronous(List<PrepareRequest> prepareRequests);
 }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.storage;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.*;
 import java.util.concurrent.*;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
@@ -31,6 +32,10 @@ import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
+ * Persistence timer prepares the batch requests of the persistence workers in parallel, and executes the prepared
+ * requests in bulks of limited size, so the storage round trips of one model are overlapped with the preparation of
+ * the others.
+ *
  * @author peng-yongsheng
  */
 public enum PersistenceTimer {
@@ -40,11 +45,15 @@ public enum PersistenceTimer {
 
     private Boolean isStarted = false;
     private final Boolean debug;
+    private MetricsCreator metricsCreator;
     private CounterMetrics errorCounter;
     private HistogramMetrics prepareLatency;
     private HistogramMetrics executeLatency;
-    private long lastTime = System.currentTimeMillis();
-    private final List<PrepareRequest> prepareRequests = new ArrayList<>(50000);
+    private final Map<String, HistogramMetrics> flushLatencies = new ConcurrentHashMap<>();
+    private ExecutorService prepareExecutorService;
+    private int maxPreparingSize;
+    private int bulkSize;
+    private volatile long lastTime = System.currentTimeMillis();
 
     PersistenceTimer() {
         this.debug = System.getProperty("debug") != null;
@@ -54,7 +63,7 @@ public enum PersistenceTimer {
         logger.info("persistence timer start");
         IBatchDAO batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
-        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
         errorCounter = metricsCreator.createCounter("persistence_timer_bulk_error_count", "Error execution of the prepare stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         prepareLatency = metricsCreator.createHistogramMetric("persistence_timer_bulk_prepare_latency", "Latency of the prepare stage in persistence timer",
@@ -63,6 +72,13 @@ public enum PersistenceTimer {
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
 
         if (!isStarted) {
+            int concurrency = Math.max(moduleConfig.getPersistentConcurrency(), 1);
+            // Keep the next models preparing while the persistence thread is executing a bulk.
+            maxPreparingSize = concurrency * 2;
+            bulkSize = Math.max(moduleConfig.getPersistentBulkSize(), 1);
+            prepareExecutorService = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("persistence-prepare-%s").build());
+
             Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
                 new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO),
                     t -> logger.error("Extract data and save failure.", t)), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS);
@@ -79,39 +95,38 @@ public enum PersistenceTimer {
         long startTime = System.currentTimeMillis();
 
         try {
-            HistogramMetrics.Timer timer = prepareLatency.createTimer();
-
-            try {
-                List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
-                persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
-                persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
-
-                persistenceWorkers.forEach(worker -> {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("extract {} worker data and save", worker.getClass().getName());
-                    }
-
-                    if (worker.flushAndSwitch()) {
-                        worker.buildBatchRequests(prepareRequests);
-                    }
+            List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
+            persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
+            persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
+
+            CompletionService<List<PrepareRequest>> completionService = new ExecutorCompletionService<>(prepareExecutorService);
+            Iterator<PersistenceWorker> workerIterator = persistenceWorkers.iterator();
+            int preparing = 0;
+            while (preparing < maxPreparingSize && workerIterator.hasNext()) {
+                completionService.submit(prepareTask(workerIterator.next()));
+                preparing++;
+            }
 
-                    worker.endOfRound(System.currentTimeMillis() - lastTime);
-                });
+            Set<PrepareRequest> failedRequests = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<PrepareRequest> prepareRequests = new ArrayList<>(bulkSize);
+            while (preparing > 0) {
+                List<PrepareRequest> prepared = completionService.take().get();
+                preparing--;
+                if (workerIterator.hasNext()) {
+                    completionService.submit(prepareTask(workerIterator.next()));
+                    preparing++;
+                }
 
-                if (debug) {
-                    logger.info("build batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
+                prepareRequests.addAll(prepared);
+                if (prepareRequests.size() >= bulkSize) {
+                    execute(batchDAO, prepareRequests, failedRequests);
+                    prepareRequests = new ArrayList<>(bulkSize);
                 }
-            } finally {
-                timer.finish();
             }
+            execute(batchDAO, prepareRequests, failedRequests);
 
-            HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
-            try {
-                if (CollectionUtils.isNotEmpty(prepareRequests)) {
-                    batchDAO.synchronous(prepareRequests);
-                }
-            } finally {
-                executeLatencyTimer.finish();
+            for (PersistenceWorker worker : persistenceWorkers) {
+                worker.endOfExecution(failedRequests);
             }
         } catch (Throwable e) {
             errorCounter.inc();
@@ -121,7 +136,6 @@ public enum PersistenceTimer {
                 logger.debug("Persistence data save finish");
             }
 
-            prepareRequests.clear();
             lastTime = System.currentTimeMillis();
         }
 
@@ -129,4 +143,57 @@ public enum PersistenceTimer {
             logger.info("Batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
         }
     }
+
+    /**
+     * The task never fails, the error of one model should not stop the others being persisted.
+     */
+    private Callable<List<PrepareRequest>> prepareTask(PersistenceWorker worker) {
+        return () -> {
+            if (logger.isDebugEnabled()) {
+                logger.debug("extract {} worker data and save", worker.getClass().getName());
+            }
+
+            List<PrepareRequest> prepareRequests = new ArrayList<>();
+            HistogramMetrics.Timer timer = prepareLatency.createTimer();
+            HistogramMetrics.Timer flushTimer = flushLatency(worker).createTimer();
+            try {
+                if (worker.flushAndSwitch()) {
+                    worker.buildBatchRequests(prepareRequests);
+                }
+            } catch (Throwable t) {
+                errorCounter.inc();
+                logger.error(t.getMessage(), t);
+            } finally {
+                flushTimer.finish();
+                timer.finish();
+                worker.endOfRound(System.currentTimeMillis() - lastTime);
+            }
+            return prepareRequests;
+        };
+    }
+
+    private HistogramMetrics flushLatency(PersistenceWorker worker) {
+        String modelName = worker.getModel().getName();
+        return flushLatencies.computeIfAbsent(modelName, name -> metricsCreator.createHistogramMetric(
+            "persistence_timer_model_flush_latency", "Latency of preparing the batch requests of one model in persistence timer",
+            new MetricsTag.Keys("metricName"), new MetricsTag.Values(name)));
+    }
+
+    private void execute(IBatchDAO batchDAO, List<PrepareRequest> prepareRequests,
+        Set<PrepareRequest> failedRequests) {
+        if (CollectionUtils.isEmpty(prepareRequests)) {
+            return;
+        }
+
+        HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
+        try {
+            failedRequests.addAll(batchDAO.synchronous(prepareRequests));
+        } catch (Throwable t) {
+            errorCounter.inc();
+            logger.error(t.getMessage(), t);
+            failedRequests.addAll(prepareRequests);
+        } finally {
+            executeLatencyTimer.finish();
+        }
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage;
+
+import java.io.IOException;
+
+/**
+ * Optional codec of the {@link StorageBuilder}, the fields are written to and read from the storage directly, without
+ * the intermediate map, the boxed values and the lookup by string key. The storage implementation uses it when the
+ * builder implements it, and falls back to {@link #data2Map(StorageData)} and {@link #map2Data(java.util.Map)}
+ * otherwise.
+ *
+ * The column names are the same as the keys of the map.
+ */
+public interface StorageStreamBuilder<T extends StorageData> extends StorageBuilder<T> {
+
+    void data2Stream(T storageData, StorageStreamWriter writer) throws IOException;
+
+    T stream2Data(StorageStreamReader reader) throws IOException;
+}
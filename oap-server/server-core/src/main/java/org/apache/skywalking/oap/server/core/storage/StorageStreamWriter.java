@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage;
+
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * The methods are named by the type rather than overloaded, because the generated builders are compiled by javassist,
+ * which doesn't resolve the overloads of primitive types reliably.
+ */
+public interface StorageStreamWriter {
+
+    void writeInt(String column, int value) throws IOException;
+
+    void writeLong(String column, long value) throws IOException;
+
+    void writeDouble(String column, double value) throws IOException;
+
+    void writeString(String column, String value) throws IOException;
+
+    /**
+     * Write the value as the Base64 string, the same as the map. The writer could encode it into the storage request
+     * directly.
+     */
+    void writeBinary(String column, byte[] value) throws IOException;
+
+    /**
+     * Write the {@link StorageDataType#toStorageData()} of the value, or null.
+     */
+    void writeStorageData(String column, StorageDataType value) throws IOException;
+}
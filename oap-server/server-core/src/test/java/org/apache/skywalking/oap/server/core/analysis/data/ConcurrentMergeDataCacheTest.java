@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class ConcurrentMergeDataCacheTest {
+
+    @Test
+    public void testCombine() {
+        ConcurrentMergeDataCache<MockMetrics> cache = new ConcurrentMergeDataCache<>(2);
+        cache.accept(new MockMetrics(1, 1));
+        cache.accept(new MockMetrics(2, 5));
+        cache.accept(new MockMetrics(1, 2));
+
+        List<MockMetrics> metrics = cache.read();
+        Assert.assertEquals(2, metrics.size());
+        for (MockMetrics metric : metrics) {
+            Assert.assertEquals(metric.key == 1 ? 3 : 5, metric.value);
+        }
+
+        Assert.assertTrue(cache.read().isEmpty());
+    }
+
+    @Test
+    public void testReadWhileWriting() throws Exception {
+        final ConcurrentMergeDataCache<MockMetrics> cache = new ConcurrentMergeDataCache<>(4);
+        final int writers = 4;
+        final int times = 20000;
+        final int keys = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < times; i++) {
+                    cache.accept(new MockMetrics(i % keys, 1));
+                }
+                return null;
+            }));
+        }
+
+        long[] total = new long[keys];
+        start.countDown();
+        boolean finished = false;
+        while (!finished) {
+            finished = true;
+            for (Future<?> future : futures) {
+                finished &= future.isDone();
+            }
+            for (MockMetrics metrics : cache.read()) {
+                total[metrics.key] += metrics.value;
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        for (MockMetrics metrics : cache.read()) {
+            total[metrics.key] += metrics.value;
+        }
+        executor.shutdown();
+
+        for (int key = 0; key < keys; key++) {
+            Assert.assertEquals(writers * times / keys, total[key]);
+        }
+    }
+
+    private static class MockMetrics extends Metrics {
+        private final int key;
+        private long value;
+
+        private MockMetrics(int key, long value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override public String id() {
+            return String.valueOf(key);
+        }
+
+        @Override public void combine(Metrics metrics) {
+            value += ((MockMetrics)metrics).value;
+        }
+
+        @Override public void calculate() {
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return key;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof MockMetrics && ((MockMetrics)o).key == key;
+        }
+
+        @Override public int hashCode() {
+            return key;
+        }
+    }
+}
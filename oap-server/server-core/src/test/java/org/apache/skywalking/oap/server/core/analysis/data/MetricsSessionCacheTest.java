@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.Calendar;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class MetricsSessionCacheTest {
+
+    @Test
+    public void testMaxSize() {
+        MetricsSessionCache cache = new MetricsSessionCache(3, Downsampling.Minute, 70000);
+        for (int i = 1; i <= 5; i++) {
+            cache.put(new MockMetrics(i, 201909011200L));
+        }
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNull(cache.get(new MockMetrics(1, 201909011200L)));
+        Assert.assertNull(cache.get(new MockMetrics(2, 201909011200L)));
+        Assert.assertNotNull(cache.get(new MockMetrics(5, 201909011200L)));
+        Assert.assertFalse(cache.isComplete(201909011200L));
+        Assert.assertTrue(cache.isComplete(201909011201L));
+    }
+
+    @Test
+    public void testSharedBudget() {
+        MetricsSessionBudget budget = new MetricsSessionBudget(4);
+        MetricsSessionCache cache1 = new MetricsSessionCache(10, budget, Downsampling.Minute, 70000);
+        MetricsSessionCache cache2 = new MetricsSessionCache(10, budget, Downsampling.Hour, 70000);
+        for (int i = 1; i <= 3; i++) {
+            cache1.put(new MockMetrics(i, 201909011200L));
+        }
+        for (int i = 1; i <= 3; i++) {
+            cache2.put(new MockMetrics(i, 2019090112L));
+        }
+
+        // The budget is taken by the first cache, the second one keeps only its latest metrics.
+        Assert.assertEquals(4, budget.size());
+        Assert.assertEquals(3, cache1.size());
+        Assert.assertEquals(1, cache2.size());
+        Assert.assertNotNull(cache2.get(new MockMetrics(3, 2019090112L)));
+        Assert.assertFalse(cache2.isComplete(2019090112L));
+        Assert.assertTrue(cache1.isComplete(201909011200L));
+
+        // The expired metrics give their budget back.
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2019, Calendar.SEPTEMBER, 1, 12, 5, 0);
+        cache1.removeExpired(calendar.getTimeInMillis());
+        Assert.assertEquals(1, budget.size());
+        cache2.put(new MockMetrics(4, 2019090112L));
+        Assert.assertEquals(2, cache2.size());
+    }
+
+    @Test
+    public void testRemoveExpired() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2019, Calendar.SEPTEMBER, 1, 12, 2, 30);
+        long now = calendar.getTimeInMillis();
+
+        MetricsSessionCache cache = new MetricsSessionCache(10, Downsampling.Minute, 70000);
+        cache.put(new MockMetrics(1, 201909011200L));
+        cache.put(new MockMetrics(2, 201909011201L));
+        cache.put(new MockMetrics(3, 201909011202L));
+        cache.removeExpired(now);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(new MockMetrics(1, 201909011200L)));
+        Assert.assertNotNull(cache.get(new MockMetrics(2, 201909011201L)));
+        Assert.assertFalse(cache.isComplete(201909011200L));
+        Assert.assertTrue(cache.isComplete(201909011201L));
+
+        cache = new MetricsSessionCache(10, Downsampling.Hour, 70000);
+        cache.put(new MockMetrics(1, 2019090111L));
+        cache.put(new MockMetrics(2, 2019090112L));
+        cache.removeExpired(now);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNotNull(cache.get(new MockMetrics(2, 2019090112L)));
+    }
+
+    private static class MockMetrics extends Metrics {
+        private final int key;
+
+        private MockMetrics(int key, long timeBucket) {
+            this.key = key;
+            setTimeBucket(timeBucket);
+        }
+
+        @Override public String id() {
+            return String.valueOf(key);
+        }
+
+        @Override public void combine(Metrics metrics) {
+        }
+
+        @Override public void calculate() {
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return key;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof MockMetrics && ((MockMetrics)o).key == key;
+        }
+
+        @Override public int hashCode() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class RollupCheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File directory = new File(folder.getRoot(), "rollup");
+        RollupCheckpoint checkpoint = new RollupCheckpoint(directory, "mock_hour", MockMetrics.class);
+        Assert.assertTrue(checkpoint.load().isEmpty());
+
+        ConcurrentMergeDataCache<MockMetrics> cache = new ConcurrentMergeDataCache<>(1);
+        cache.accept(new MockMetrics("a", 2019101510, 1));
+        cache.accept(new MockMetrics("b", 2019101510, 5));
+        cache.accept(new MockMetrics("a", 2019101510, 2));
+        checkpoint.save(cache.copy(metrics -> metrics.serialize().build()));
+
+        Map<String, Long> loaded = new RollupCheckpoint(directory, "mock_hour", MockMetrics.class).load().stream()
+            .collect(Collectors.toMap(Metrics::id, metrics -> ((MockMetrics)metrics).value));
+        Assert.assertEquals(2, loaded.size());
+        Assert.assertEquals(3L, (long)loaded.get("a"));
+        Assert.assertEquals(5L, (long)loaded.get("b"));
+
+        // The copy doesn't take the metrics away.
+        Assert.assertEquals(2, cache.read().size());
+        checkpoint.save(cache.copy(metrics -> metrics.serialize().build()));
+        Assert.assertTrue(checkpoint.load().isEmpty());
+        Assert.assertFalse(new File(directory, "mock_hour.checkpoint").exists());
+    }
+
+    @Test
+    public void testLoadBrokenFile() throws IOException {
+        File directory = folder.getRoot();
+        RollupCheckpoint checkpoint = new RollupCheckpoint(directory, "mock_day", MockMetrics.class);
+        checkpoint.save(Arrays.asList(new MockMetrics("a", 20191015, 1).serialize().build(),
+            new MockMetrics("b", 20191015, 2).serialize().build()));
+
+        File file = new File(directory, "mock_day.checkpoint");
+        byte[] content = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length - 3));
+
+        List<Metrics> loaded = checkpoint.load();
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertEquals("a", loaded.get(0).id());
+    }
+
+    public static class MockMetrics extends Metrics {
+        private String key;
+        private long value;
+
+        public MockMetrics() {
+        }
+
+        public MockMetrics(String key, long timeBucket, long value) {
+            this.key = key;
+            this.value = value;
+            setTimeBucket(timeBucket);
+        }
+
+        @Override public String id() {
+            return key;
+        }
+
+        @Override public void combine(Metrics metrics) {
+            value += ((MockMetrics)metrics).value;
+        }
+
+        @Override public void calculate() {
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+            key = remoteData.getDataStrings(0);
+            setTimeBucket(remoteData.getDataLongs(0));
+            value = remoteData.getDataLongs(1);
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder().addDataStrings(key).addDataLongs(getTimeBucket()).addDataLongs(value);
+        }
+
+        @Override public int remoteHashCode() {
+            return key.hashCode();
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof MockMetrics && ((MockMetrics)o).key.equals(key);
+        }
+
+        @Override public int hashCode() {
+            return key.hashCode();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class IntKeyLongValueHistogramTestCase {
+
+    private IntKeyLongValueHistogram histogram;
+
+    @Before
+    public void init() {
+        histogram = new IntKeyLongValueHistogram();
+        histogram.addValue(5, 500);
+        histogram.addValue(6, 600);
+        histogram.addValue(1, 100);
+        histogram.addValue(2, 200);
+        histogram.addValue(7, 700);
+    }
+
+    @Test
+    public void addValue() {
+        histogram.addValue(5, 1);
+        histogram.addValue(-3, 30);
+
+        Assert.assertEquals(6, histogram.size());
+        Assert.assertEquals(501, histogram.get(5));
+        Assert.assertEquals(30, histogram.get(-3));
+        Assert.assertEquals(0, histogram.get(3));
+        Assert.assertFalse(histogram.containsKey(3));
+        Assert.assertEquals(2131, histogram.total());
+    }
+
+    @Test
+    public void grow() {
+        IntKeyLongValueHistogram histogram = new IntKeyLongValueHistogram(2);
+        for (int i = 0; i < 1000; i++) {
+            histogram.addValue(i * 31, i);
+        }
+
+        Assert.assertEquals(1000, histogram.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, histogram.get(i * 31));
+        }
+    }
+
+    @Test
+    public void merge() {
+        IntKeyLongValueHistogram source = new IntKeyLongValueHistogram();
+        source.addValue(1, 1);
+        source.addValue(3, 300);
+
+        histogram.merge(source);
+
+        Assert.assertEquals("1,101|2,200|3,300|5,500|6,600|7,700", histogram.toStorageData());
+    }
+
+    @Test
+    public void toStorageData() {
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", histogram.toStorageData());
+        Assert.assertEquals("", new IntKeyLongValueHistogram().toStorageData());
+    }
+
+    @Test
+    public void toObject() {
+        IntKeyLongValueHistogram histogram = new IntKeyLongValueHistogram("1,100|2,200|5,500|-6,600|7,-700");
+
+        Assert.assertEquals(5, histogram.size());
+        Assert.assertEquals(100, histogram.get(1));
+        Assert.assertEquals(200, histogram.get(2));
+        Assert.assertEquals(500, histogram.get(5));
+        Assert.assertEquals(600, histogram.get(-6));
+        Assert.assertEquals(-700, histogram.get(7));
+
+        Assert.assertTrue(new IntKeyLongValueHistogram("").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toObjectWithIllegalData() {
+        new IntKeyLongValueHistogram("1,100|2");
+    }
+
+    @Test
+    public void copyFrom() {
+        IntKeyLongValueHistogram histogram = new IntKeyLongValueHistogram();
+        histogram.copyFrom(this.histogram);
+        this.histogram.addValue(1, 1);
+
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", histogram.toStorageData());
+    }
+
+    @Test
+    public void serialize() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        histogram.serialize(remoteBuilder);
+
+        IntKeyLongValueHistogram histogram = new IntKeyLongValueHistogram();
+        histogram.addValue(9, 900);
+        histogram.deserialize(remoteBuilder.build().getDataIntLongPairListList());
+
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", histogram.toStorageData());
+    }
+}
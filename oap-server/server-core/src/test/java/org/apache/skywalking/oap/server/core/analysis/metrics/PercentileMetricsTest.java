@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class PercentileMetricsTest {
+    private int precision = 10;//ms
+
+    @Test
+    public void percentileTest() {
+        PercentileMetricsMocker metricsMocker = new PercentileMetricsMocker();
+
+        metricsMocker.combine(110, precision);
+        metricsMocker.combine(100, precision);
+        metricsMocker.combine(100, precision);
+        metricsMocker.combine(100, precision);
+        metricsMocker.combine(50, precision);
+        metricsMocker.combine(50, precision);
+        metricsMocker.combine(50, precision);
+        metricsMocker.combine(61, precision);
+        metricsMocker.combine(61, precision);
+        metricsMocker.combine(71, precision);
+        metricsMocker.combine(100, precision);
+
+        metricsMocker.calculate();
+
+        // precision = 10, 71 ~= 70
+        Assert.assertArrayEquals(new int[] {70, 100, 100, 100, 110}, metricsMocker.getValues());
+        Assert.assertEquals("50,70|75,100|90,100|95,100|99,110", metricsMocker.getPercentileValues().toStorageData());
+    }
+
+    @Test
+    public void sameAsPxxTest() {
+        Random random = new Random(1);
+
+        PercentileMetricsMocker percentileMocker = new PercentileMetricsMocker();
+        PercentileMetricsMocker anotherPercentileMocker = new PercentileMetricsMocker();
+        PxxMetricsTest.PxxMetricsMocker[] pxxMockers = new PxxMetricsTest.PxxMetricsMocker[PercentileMetrics.RANKS.length];
+        for (int i = 0; i < pxxMockers.length; i++) {
+            pxxMockers[i] = new PxxMetricsTest().new PxxMetricsMocker(PercentileMetrics.RANKS[i]);
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            int latency = random.nextInt(3000);
+            if (i % 2 == 0) {
+                percentileMocker.combine(latency, precision);
+            } else {
+                anotherPercentileMocker.combine(latency, precision);
+            }
+            for (PxxMetricsTest.PxxMetricsMocker pxxMocker : pxxMockers) {
+                pxxMocker.combine(latency, precision);
+            }
+        }
+        percentileMocker.combine(anotherPercentileMocker);
+        percentileMocker.calculate();
+
+        int[] values = percentileMocker.getValues();
+        for (int i = 0; i < pxxMockers.length; i++) {
+            pxxMockers[i].calculate();
+            Assert.assertEquals(pxxMockers[i].getValue(), values[i]);
+        }
+    }
+
+    @Test
+    public void emptyTest() {
+        PercentileMetricsMocker metricsMocker = new PercentileMetricsMocker();
+        metricsMocker.calculate();
+
+        Assert.assertArrayEquals(new int[] {0, 0, 0, 0, 0}, metricsMocker.getValues());
+    }
+
+    public class PercentileMetricsMocker extends PercentileMetrics {
+
+        @Override public String id() {
+            return null;
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.*;
+import org.junit.*;
+
+public class QuantileSketchTestCase {
+
+    @Test
+    public void relativeError() {
+        Random random = new Random(1);
+        QuantileSketch sketch = new QuantileSketch();
+        int[] values = new int[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int)Math.exp(random.nextDouble() * 14);
+            sketch.add(values[i], 1);
+        }
+        Arrays.sort(values);
+
+        for (int rank : new int[] {1, 10, 50, 75, 90, 95, 99, 100}) {
+            int expected = values[Math.max(0, Math.round(values.length * rank * 1.0f / 100) - 1)];
+            long actual = sketch.getValueAtRank(rank);
+            Assert.assertEquals("p" + rank, expected, actual, expected * QuantileSketch.RELATIVE_ACCURACY + 1);
+        }
+    }
+
+    @Test
+    public void zeroAndEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+        Assert.assertEquals(0, sketch.getValueAtRank(99));
+
+        sketch.add(0, 3);
+        sketch.add(100, 1);
+        Assert.assertEquals(0, sketch.getValueAtRank(50));
+        Assert.assertEquals(100, sketch.getValueAtRank(99));
+        Assert.assertEquals(4, sketch.getCount());
+    }
+
+    @Test
+    public void mergeIsExact() {
+        Random random = new Random(2);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(100);
+            all.add(value, 1);
+            low.add(value, 1);
+
+            value = 100000 + random.nextInt(100000);
+            all.add(value, 1);
+            high.add(value, 1);
+        }
+
+        QuantileSketch merged = new QuantileSketch();
+        merged.merge(high);
+        merged.merge(low);
+
+        Assert.assertEquals(all.toStorageData(), merged.toStorageData());
+        Assert.assertEquals(all.getCount(), merged.getCount());
+    }
+
+    @Test
+    public void bounded() {
+        Assert.assertTrue(QuantileSketch.indexOf(Integer.MAX_VALUE) < 1100);
+
+        QuantileSketch sketch = new QuantileSketch();
+        for (int value = 1; value > 0 && value < Integer.MAX_VALUE; value = value * 2 + 1) {
+            sketch.add(value, 1);
+        }
+        Assert.assertTrue(sketch.toStorageData().length() < 1100 * 2);
+    }
+
+    @Test
+    public void encoding() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0, 2);
+        sketch.add(15, 3);
+        sketch.add(3000, 400);
+
+        QuantileSketch fromStorage = new QuantileSketch(sketch.toStorageData());
+        Assert.assertEquals(sketch.toStorageData(), fromStorage.toStorageData());
+        Assert.assertEquals(405, fromStorage.getCount());
+
+        QuantileSketch fromRemote = new QuantileSketch();
+        fromRemote.deserialize(sketch.serialize());
+        Assert.assertEquals(sketch.toStorageData(), fromRemote.toStorageData());
+
+        QuantileSketch copy = new QuantileSketch();
+        copy.copyFrom(sketch);
+        sketch.add(1, 1);
+        Assert.assertEquals(fromStorage.toStorageData(), copy.toStorageData());
+
+        Assert.assertEquals(0, new QuantileSketch("").getCount());
+        Assert.assertEquals(0, new QuantileSketch(new QuantileSketch().toStorageData()).getCount());
+    }
+}
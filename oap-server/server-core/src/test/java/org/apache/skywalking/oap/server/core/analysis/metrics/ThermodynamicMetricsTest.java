@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
-import java.util.Map;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.junit.*;
 
@@ -47,13 +46,13 @@ public class ThermodynamicMetricsTest {
         metricsMocker.combine(100, step, maxNumOfSteps);
         metricsMocker.combine(100, step, maxNumOfSteps);
 
-        Map<Integer, IntKeyLongValue> index = metricsMocker.getDetailGroup();
+        IntKeyLongValueHistogram index = metricsMocker.getDetailGroup();
         Assert.assertEquals(4, index.size());
 
-        Assert.assertEquals(1, index.get(2).getValue());
-        Assert.assertEquals(3, index.get(5).getValue());
-        Assert.assertEquals(1, index.get(6).getValue());
-        Assert.assertEquals(8, index.get(10).getValue());
+        Assert.assertEquals(1, index.get(2));
+        Assert.assertEquals(3, index.get(5));
+        Assert.assertEquals(1, index.get(6));
+        Assert.assertEquals(8, index.get(10));
     }
 
     @Test
@@ -79,13 +78,13 @@ public class ThermodynamicMetricsTest {
 
         metricsMocker.combine(metricsMocker1);
 
-        Map<Integer, IntKeyLongValue> index = metricsMocker.getDetailGroup();
+        IntKeyLongValueHistogram index = metricsMocker.getDetailGroup();
         Assert.assertEquals(4, index.size());
 
-        Assert.assertEquals(1, index.get(2).getValue());
-        Assert.assertEquals(3, index.get(5).getValue());
-        Assert.assertEquals(1, index.get(6).getValue());
-        Assert.assertEquals(8, index.get(10).getValue());
+        Assert.assertEquals(1, index.get(2));
+        Assert.assertEquals(3, index.get(5));
+        Assert.assertEquals(1, index.get(6));
+        Assert.assertEquals(8, index.get(10));
     }
 
     public class ThermodynamicMetricsMocker extends ThermodynamicMetrics {
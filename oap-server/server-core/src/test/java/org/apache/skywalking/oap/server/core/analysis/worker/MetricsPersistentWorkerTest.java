@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.analysis.data.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.*;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * The rollup mode of the hour, day and month metrics, which are flushed in a period or once the earliest time bucket is
+ * closed.
+ */
+public class MetricsPersistentWorkerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ModuleManagerTesting moduleManager;
+    private Model model;
+    private IMetricsDAO metricsDAO;
+
+    @Before
+    public void setUp() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+
+        model = new Model("mock_hour", Collections.emptyList(), true, false, 0, Downsampling.Hour, false);
+        metricsDAO = mock(IMetricsDAO.class);
+    }
+
+    @Test
+    public void testNoFlushInsidePeriod() {
+        MetricsPersistentWorker worker = worker(3600000, null);
+        worker.cacheData(metrics("a", currentHour()));
+
+        Assert.assertFalse(worker.flushAndSwitch());
+        Assert.assertTrue(flush(worker).isEmpty());
+    }
+
+    @Test
+    public void testFlushClosedTimeBucket() throws IOException {
+        MetricsPersistentWorker worker = worker(3600000, null);
+        worker.cacheData(metrics("a", currentHour()));
+        worker.cacheData(metrics("b", closedHour()));
+
+        Assert.assertTrue(worker.flushAndSwitch());
+        Assert.assertEquals(Arrays.asList("a", "b"), flush(worker));
+
+        // Only the metrics of the current hour are cached after the flush.
+        worker.cacheData(metrics("a", currentHour()));
+        Assert.assertFalse(worker.flushAndSwitch());
+    }
+
+    @Test
+    public void testFlushAfterPeriod() throws IOException, InterruptedException {
+        MetricsPersistentWorker worker = worker(500, null);
+        worker.cacheData(metrics("a", currentHour()));
+        Assert.assertFalse(worker.flushAndSwitch());
+
+        Thread.sleep(600);
+        Assert.assertTrue(worker.flushAndSwitch());
+        Assert.assertEquals(Collections.singletonList("a"), flush(worker));
+    }
+
+    @Test
+    public void testFlushEveryRoundWithoutRollup() throws IOException {
+        MetricsPersistentWorker worker = worker(0, null);
+        worker.cacheData(metrics("a", currentHour()));
+        Assert.assertTrue(worker.flushAndSwitch());
+        Assert.assertEquals(Collections.singletonList("a"), flush(worker));
+
+        worker.cacheData(metrics("b", currentHour()));
+        Assert.assertTrue(worker.flushAndSwitch());
+        Assert.assertEquals(Collections.singletonList("b"), flush(worker));
+
+        Assert.assertFalse(worker.flushAndSwitch());
+    }
+
+    @Test
+    public void testRestoreFromCheckpoint() throws IOException {
+        RollupCheckpoint checkpoint = new RollupCheckpoint(folder.getRoot(), model.getName(), RollupCheckpointTest.MockMetrics.class);
+        checkpoint.save(Arrays.asList(metrics("a", closedHour()).serialize().build(), metrics("b", currentHour()).serialize().build()));
+
+        MetricsPersistentWorker worker = worker(3600000,
+            new RollupCheckpoint(folder.getRoot(), model.getName(), RollupCheckpointTest.MockMetrics.class));
+        // The restored metrics are cached, and the closed time bucket of them triggers the flush.
+        Assert.assertTrue(worker.flushAndSwitch());
+        Assert.assertEquals(Arrays.asList("a", "b"), flush(worker));
+
+        // The flushed metrics are removed from the checkpoint at the end of the round.
+        worker.endOfRound(0);
+        Assert.assertTrue(checkpoint.load().isEmpty());
+    }
+
+    @Test
+    public void testSessionKeepsTheExecutedInsertsOnly() throws IOException {
+        MetricsPersistentWorker worker = new MetricsPersistentWorker(moduleManager, model, metricsDAO, null, null, null, true, 100, new MetricsSessionBudget(100), false,
+            0, null, 30000);
+        Map<String, InsertRequest> insertRequests = new HashMap<>();
+        when(metricsDAO.prepareBatchInsert(eq(model), any(Metrics.class))).thenAnswer(
+            invocation -> insertRequests.computeIfAbsent(((Metrics)invocation.getArguments()[1]).id(), id -> mock(InsertRequest.class)));
+
+        worker.cacheData(metrics("a", currentHour()));
+        worker.cacheData(metrics("b", currentHour()));
+        Assert.assertTrue(worker.flushAndSwitch());
+        worker.buildBatchRequests(new ArrayList<>());
+        worker.endOfExecution(Collections.singleton(insertRequests.get("b")));
+
+        worker.cacheData(metrics("a", currentHour()));
+        worker.cacheData(metrics("b", currentHour()));
+        Assert.assertTrue(worker.flushAndSwitch());
+        worker.buildBatchRequests(new ArrayList<>());
+
+        // The failed insert is read from the storage again, the executed one is updated from the session.
+        verify(metricsDAO).multiGet(model, Arrays.asList("a", "b"));
+        verify(metricsDAO).multiGet(model, Collections.singletonList("b"));
+        ArgumentCaptor<Metrics> updated = ArgumentCaptor.forClass(Metrics.class);
+        verify(metricsDAO).prepareBatchUpdate(eq(model), updated.capture());
+        Assert.assertEquals("a", updated.getValue().id());
+    }
+
+    private MetricsPersistentWorker worker(long rollupPeriod, RollupCheckpoint checkpoint) {
+        return new MetricsPersistentWorker(moduleManager, model, metricsDAO, null, null, null, false, 100, new MetricsSessionBudget(100), false,
+            rollupPeriod, checkpoint, 30000);
+    }
+
+    /**
+     * @return the sorted ids of the metrics inserted by the flush.
+     */
+    private List<String> flush(MetricsPersistentWorker worker) {
+        reset(metricsDAO);
+        worker.buildBatchRequests(new ArrayList<PrepareRequest>());
+        ArgumentCaptor<Metrics> inserted = ArgumentCaptor.forClass(Metrics.class);
+        try {
+            verify(metricsDAO, atLeast(0)).prepareBatchInsert(eq(model), inserted.capture());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return inserted.getAllValues().stream().map(Metrics::id).sorted().collect(Collectors.toList());
+    }
+
+    private static Metrics metrics(String id, long timeBucket) {
+        return new RollupCheckpointTest.MockMetrics(id, timeBucket, 1);
+    }
+
+    private static long currentHour() {
+        return TimeBucket.getTimeBucket(System.currentTimeMillis(), Downsampling.Hour);
+    }
+
+    private static long closedHour() {
+        return TimeBucket.getTimeBucket(System.currentTimeMillis() - 2 * 3600000, Downsampling.Hour);
+    }
+}
@@ -22,6 +22,7 @@ import io.grpc.inprocess.*;
 import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcCleanupRule;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.*;
@@ -114,7 +115,16 @@ public class RemoteServiceHandlerTestCase {
         remoteMessage.setRemoteData(remoteData);
 
         streamObserver.onNext(remoteMessage.build());
+
+        RemoteMessage.Builder batchMessage = RemoteMessage.newBuilder();
+        batchMessage.setNextWorkerName(testWorkerId);
+        batchMessage.addRemoteDataList(remoteData);
+        batchMessage.addRemoteDataList(remoteData);
+
+        streamObserver.onNext(batchMessage.build());
         streamObserver.onCompleted();
+
+        Assert.assertEquals(3, worker.received.get());
     }
 
     static class TestRemoteData extends StreamData {
@@ -146,6 +156,7 @@ public class RemoteServiceHandlerTestCase {
     }
 
     static class TestWorker extends AbstractWorker {
+        private final AtomicInteger received = new AtomicInteger();
 
         public TestWorker(ModuleDefineHolder moduleDefineHolder) {
             super(moduleDefineHolder);
@@ -158,6 +169,7 @@ public class RemoteServiceHandlerTestCase {
             Assert.assertEquals("test2", data.str2);
             Assert.assertEquals(10, data.long1);
             Assert.assertEquals(20, data.long2);
+            received.incrementAndGet();
         }
     }
 }
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.testing.GrpcServerRule;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
@@ -40,6 +41,7 @@ public class GRPCRemoteClientTestCase {
 
     private final String nextWorkerName = "mock-worker";
     private ModuleManagerTesting moduleManager;
+    private TestWorker worker;
     @Rule public final GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
 
     @Before
@@ -52,12 +54,21 @@ public class GRPCRemoteClientTestCase {
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstancesService);
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstancesService);
 
-        TestWorker worker = new TestWorker(moduleManager);
+        worker = new TestWorker(moduleManager);
         workerInstancesService.put(nextWorkerName, worker, TestStreamData.class);
     }
 
     @Test
     public void testPush() throws InterruptedException {
+        push(false);
+    }
+
+    @Test
+    public void testPushInBatch() throws InterruptedException {
+        push(true);
+    }
+
+    private void push(boolean remoteBatch) throws InterruptedException {
         MetricsCreator metricsCreator = mock(MetricsCreator.class);
         when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
             @Override public void inc() {
@@ -86,7 +97,7 @@ public class GRPCRemoteClientTestCase {
         grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
 
         Address address = new Address("not-important", 11, false);
-        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10));
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, remoteBatch));
         remoteClient.connect();
 
         doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
@@ -96,6 +107,7 @@ public class GRPCRemoteClientTestCase {
         }
 
         TimeUnit.SECONDS.sleep(2);
+        Assert.assertEquals(12, worker.received.get());
     }
 
     public static class TestStreamData extends StreamData {
@@ -118,6 +130,7 @@ public class GRPCRemoteClientTestCase {
     }
 
     class TestWorker extends AbstractWorker {
+        private final AtomicInteger received = new AtomicInteger();
 
         public TestWorker(ModuleDefineHolder moduleDefineHolder) {
             super(moduleDefineHolder);
@@ -126,6 +139,7 @@ public class GRPCRemoteClientTestCase {
         @Override public void in(Object o) {
             TestStreamData streamData = (TestStreamData)o;
             Assert.assertEquals(987, streamData.value);
+            received.incrementAndGet();
         }
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulate the metrics routing of clusters in different sizes, measure how many keys move when a node joins or
+ * leaves, and how even the keys are spread.
+ */
+public class ConsistentHashSelectorTestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsistentHashSelectorTestCase.class);
+
+    private static final int KEYS = 100000;
+    private static final int[] CLUSTER_SIZES = {2, 3, 5, 8, 16, 32};
+
+    @Test
+    public void moveOnlyTheKeysOfTheJoinedNode() {
+        List<StreamData> keys = keys();
+        for (int size : CLUSTER_SIZES) {
+            List<RemoteClient> clients = clients(size);
+            Map<StreamData, RemoteClient> before = route(new ConsistentHashSelector(), clients, keys);
+
+            List<RemoteClient> joined = new ArrayList<>(clients);
+            RemoteClient newNode = new MockRemoteClient(size);
+            joined.add(newNode);
+            ConsistentHashSelector selector = new ConsistentHashSelector();
+            Map<StreamData, RemoteClient> after = route(selector, joined, keys);
+
+            int moved = 0;
+            for (StreamData key : keys) {
+                if (before.get(key) != after.get(key)) {
+                    Assert.assertSame(newNode, after.get(key));
+                    moved++;
+                }
+            }
+            double movedRatio = (double)moved / KEYS;
+            double hashCodeMovedRatio = movedRatio(new HashCodeSelector(), clients, joined, keys);
+            logger.info("Join the cluster of {} nodes, moved keys: consistent hash {}, hash code {}, expected {}",
+                size, movedRatio, hashCodeMovedRatio, 1.0 / (size + 1));
+
+            Assert.assertTrue(movedRatio < 1.5 / (size + 1));
+            Assert.assertTrue(hashCodeMovedRatio > 0.5);
+        }
+    }
+
+    @Test
+    public void moveOnlyTheKeysOfTheLeftNode() {
+        List<StreamData> keys = keys();
+        for (int size : CLUSTER_SIZES) {
+            List<RemoteClient> clients = clients(size);
+            Map<StreamData, RemoteClient> before = route(new ConsistentHashSelector(), clients, keys);
+
+            List<RemoteClient> left = new ArrayList<>(clients);
+            RemoteClient leftNode = left.remove(size / 2);
+            Map<StreamData, RemoteClient> after = route(new ConsistentHashSelector(), left, keys);
+
+            int moved = 0;
+            for (StreamData key : keys) {
+                if (before.get(key) != after.get(key)) {
+                    Assert.assertSame(leftNode, before.get(key));
+                    moved++;
+                }
+            }
+            logger.info("Leave the cluster of {} nodes, moved keys: {}, expected {}", size, (double)moved / KEYS, 1.0 / size);
+        }
+    }
+
+    @Test
+    public void spreadTheKeysEvenly() {
+        List<StreamData> keys = keys();
+        for (int size : CLUSTER_SIZES) {
+            Map<RemoteClient, Integer> loads = new HashMap<>();
+            for (RemoteClient client : route(new ConsistentHashSelector(), clients(size), keys).values()) {
+                loads.merge(client, 1, Integer::sum);
+            }
+
+            double average = (double)KEYS / size;
+            int max = 0;
+            for (int load : loads.values()) {
+                max = Math.max(max, load);
+            }
+            logger.info("The cluster of {} nodes, max load / average load: {}", size, max / average);
+
+            Assert.assertEquals(size, loads.size());
+            Assert.assertTrue(max / average < 1.3);
+        }
+    }
+
+    @Test
+    public void rebuildWhenClientsChanged() {
+        ConsistentHashSelector selector = new ConsistentHashSelector();
+        List<RemoteClient> clients = clients(1);
+        StreamData key = keys().get(0);
+        Assert.assertSame(clients.get(0), selector.select(clients, key));
+
+        List<RemoteClient> others = new ArrayList<>();
+        others.add(new MockRemoteClient(1));
+        Assert.assertSame(others.get(0), selector.select(others, key));
+    }
+
+    @Test
+    public void rebuildWhenTheSameListIsRefilled() {
+        ConsistentHashSelector selector = new ConsistentHashSelector();
+        List<RemoteClient> clients = clients(2);
+        List<StreamData> keys = keys();
+        route(selector, clients, keys);
+
+        // one node is replaced by another, the list instance and its size are kept
+        RemoteClient leftNode = clients.remove(1);
+        RemoteClient newNode = new MockRemoteClient(2);
+        clients.add(newNode);
+        Map<StreamData, RemoteClient> after = route(selector, clients, keys);
+
+        Assert.assertEquals(route(new ConsistentHashSelector(), clients, keys), after);
+        Assert.assertFalse(after.containsValue(leftNode));
+        Assert.assertTrue(after.containsValue(newNode));
+    }
+
+    private static double movedRatio(RemoteClientSelector selector, List<RemoteClient> before,
+        List<RemoteClient> after, List<StreamData> keys) {
+        int moved = 0;
+        for (StreamData key : keys) {
+            if (selector.select(before, key) != selector.select(after, key)) {
+                moved++;
+            }
+        }
+        return (double)moved / keys.size();
+    }
+
+    private static Map<StreamData, RemoteClient> route(RemoteClientSelector selector, List<RemoteClient> clients,
+        List<StreamData> keys) {
+        Map<StreamData, RemoteClient> routes = new HashMap<>();
+        for (StreamData key : keys) {
+            routes.put(key, selector.select(clients, key));
+        }
+        return routes;
+    }
+
+    private static List<StreamData> keys() {
+        List<StreamData> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            // the id of a metrics is the time bucket and the entity id
+            keys.add(new MockStreamData(("201910171200" + "_" + i).hashCode()));
+        }
+        return keys;
+    }
+
+    private static List<RemoteClient> clients(int size) {
+        List<RemoteClient> clients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            clients.add(new MockRemoteClient(i));
+        }
+        return clients;
+    }
+
+    private static class MockStreamData extends StreamData {
+        private final int remoteHashCode;
+
+        private MockStreamData(int remoteHashCode) {
+            this.remoteHashCode = remoteHashCode;
+        }
+
+        @Override public int remoteHashCode() {
+            return remoteHashCode;
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+    }
+
+    private static class MockRemoteClient implements RemoteClient {
+        private final Address address;
+
+        private MockRemoteClient(int index) {
+            this.address = new Address("10.0.0." + index, 11800, false);
+        }
+
+        @Override public Address getAddress() {
+            return address;
+        }
+
+        @Override public void connect() {
+        }
+
+        @Override public void close() {
+        }
+
+        @Override public void push(String nextWorkerName, StreamData streamData) {
+        }
+
+        @Override public int compareTo(RemoteClient o) {
+            return address.compareTo(o.getAddress());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.GeneratedMessageV3;
+import java.util.concurrent.*;
+import org.slf4j.*;
+
+/**
+ * Replay the buffer data read from the files in a worker pool. The reader submits the records in the file order, with
+ * the position after each record, and is blocked when there are too many records being replayed.
+ *
+ * The record which can't be replayed yet, such as its service hasn't been registered, is parked in a delayed retry
+ * queue, so it doesn't block the records behind it. It is given up after {@link #MAX_ATTEMPTS} attempts, same as
+ * before. The replayed position only moves past the contiguous replayed records, so the records being replayed or
+ * retried are read again after restart.
+ */
+class BufferDataReplayer<MESSAGE_TYPE extends GeneratedMessageV3, POSITION> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferDataReplayer.class);
+
+    static final int MAX_ATTEMPTS = 10;
+    private static final long RETRY_DELAY = 500;
+
+    private final DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
+    private final Entry<MESSAGE_TYPE, POSITION>[] window;
+    private final Semaphore permits;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryQueue;
+    private long submitted = 0;
+    private long replayed = 0;
+    private volatile long replayedCount = 0;
+    private volatile POSITION replayedPosition;
+
+    @SuppressWarnings("unchecked")
+    BufferDataReplayer(String name, int threads, int readAhead, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        this.callBack = callBack;
+        this.window = new Entry[readAhead];
+        this.permits = new Semaphore(readAhead);
+        this.workers = Executors.newFixedThreadPool(Math.max(threads, 1), new ThreadFactoryBuilder()
+            .setNameFormat(name + "-replay-%s").setDaemon(true).build());
+        this.retryQueue = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat(name + "-replay-retry").setDaemon(true).build());
+    }
+
+    /**
+     * Submit the record, blocked until there is room in the read ahead window.
+     *
+     * @param position the position after the record.
+     * @return the number of submitted records.
+     */
+    long submit(BufferData<MESSAGE_TYPE> bufferData, POSITION position) throws InterruptedException {
+        permits.acquire();
+        Entry<MESSAGE_TYPE, POSITION> entry = new Entry<>(bufferData, position);
+        long count;
+        synchronized (this) {
+            window[(int)(submitted % window.length)] = entry;
+            count = ++submitted;
+        }
+        workers.execute(() -> replay(entry));
+        return count;
+    }
+
+    /**
+     * @return the number of records replayed or given up, without any gap before them.
+     */
+    long replayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * @return the position after the last contiguous replayed record, null if there isn't any.
+     */
+    POSITION replayedPosition() {
+        return replayedPosition;
+    }
+
+    private void replay(Entry<MESSAGE_TYPE, POSITION> entry) {
+        boolean isComplete;
+        try {
+            isComplete = callBack.call(entry.bufferData);
+        } catch (Throwable t) {
+            logger.error("Replay buffer data failure.", t);
+            isComplete = true;
+        }
+
+        if (!isComplete && ++entry.attempts < MAX_ATTEMPTS) {
+            retryQueue.schedule(() -> workers.execute(() -> replay(entry)), RETRY_DELAY, TimeUnit.MILLISECONDS);
+        } else {
+            complete(entry);
+        }
+    }
+
+    private synchronized void complete(Entry<MESSAGE_TYPE, POSITION> entry) {
+        entry.complete = true;
+
+        int released = 0;
+        while (replayed < submitted) {
+            int index = (int)(replayed % window.length);
+            Entry<MESSAGE_TYPE, POSITION> head = window[index];
+            if (!head.complete) {
+                break;
+            }
+            replayedPosition = head.position;
+            window[index] = null;
+            replayed++;
+            released++;
+        }
+
+        if (released > 0) {
+            replayedCount = replayed;
+            permits.release(released);
+        }
+    }
+
+    private static class Entry<MESSAGE_TYPE extends GeneratedMessageV3, POSITION> {
+        private final BufferData<MESSAGE_TYPE> bufferData;
+        private final POSITION position;
+        private int attempts = 0;
+        private boolean complete = false;
+
+        private Entry(BufferData<MESSAGE_TYPE> bufferData, POSITION position) {
+            this.bufferData = bufferData;
+            this.position = position;
+        }
+    }
+}
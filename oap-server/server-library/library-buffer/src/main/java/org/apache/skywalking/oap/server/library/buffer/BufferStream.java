@@ -21,10 +21,15 @@ package org.apache.skywalking.oap.server.library.buffer;
 import com.google.protobuf.*;
 import java.io.*;
 import java.nio.channels.FileLock;
+import java.util.List;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.*;
 
 /**
+ * Buffer the messages in the files, then read them back by the {@link DataStreamReader.CallBack}. The memory mapped
+ * backend, see {@link MappedDataStream}, is used when {@link Builder#mappedFile(boolean)} is true. Its files are not
+ * compatible with the default backend, so make sure the buffer has been read out before switching it.
+ *
  * @author peng-yongsheng
  */
 public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
@@ -35,16 +40,22 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
     private final boolean cleanWhenRestart;
     private final int dataFileMaxSize;
     private final int offsetFileMaxSize;
+    private final boolean mappedFile;
+    private final int replayThreads;
     private final Parser<MESSAGE_TYPE> parser;
     private final DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
     private DataStream<MESSAGE_TYPE> dataStream;
+    private MappedDataStream<MESSAGE_TYPE> mappedDataStream;
 
     private BufferStream(String absolutePath, boolean cleanWhenRestart, int dataFileMaxSize, int offsetFileMaxSize,
-        Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        boolean mappedFile, int replayThreads, Parser<MESSAGE_TYPE> parser,
+        DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
         this.absolutePath = absolutePath;
         this.cleanWhenRestart = cleanWhenRestart;
         this.dataFileMaxSize = dataFileMaxSize;
         this.offsetFileMaxSize = offsetFileMaxSize;
+        this.mappedFile = mappedFile;
+        this.replayThreads = replayThreads;
         this.parser = parser;
         this.callBack = callBack;
     }
@@ -54,7 +65,16 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         FileUtils.forceMkdir(directory);
         tryLock(directory);
 
-        dataStream = new DataStream<>(directory, dataFileMaxSize, offsetFileMaxSize, parser, callBack);
+        if (mappedFile) {
+            mappedDataStream = new MappedDataStream<>(directory, dataFileMaxSize, replayThreads, parser, callBack);
+            if (cleanWhenRestart) {
+                mappedDataStream.clean();
+            }
+            mappedDataStream.initialize();
+            return;
+        }
+
+        dataStream = new DataStream<>(directory, dataFileMaxSize, offsetFileMaxSize, replayThreads, parser, callBack);
 
         if (cleanWhenRestart) {
             dataStream.clean();
@@ -64,7 +84,22 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
     }
 
     public synchronized void write(AbstractMessageLite messageLite) {
-        dataStream.getWriter().write(messageLite);
+        if (mappedFile) {
+            mappedDataStream.write(messageLite);
+        } else {
+            dataStream.getWriter().write(messageLite);
+        }
+    }
+
+    /**
+     * Write the messages as one batch, the memory mapped backend commits them together.
+     */
+    public synchronized void write(List<? extends AbstractMessageLite> messageLites) {
+        if (mappedFile) {
+            mappedDataStream.write(messageLites);
+        } else {
+            messageLites.forEach(dataStream.getWriter()::write);
+        }
     }
 
     private void tryLock(File directory) {
@@ -90,6 +125,8 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         private boolean cleanWhenRestart;
         private int dataFileMaxSize;
         private int offsetFileMaxSize;
+        private boolean mappedFile;
+        private int replayThreads = 1;
         private Parser<MESSAGE_TYPE> parser;
         private DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
 
@@ -98,7 +135,7 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         }
 
         public BufferStream<MESSAGE_TYPE> build() {
-            return new BufferStream<>(absolutePath, cleanWhenRestart, dataFileMaxSize, offsetFileMaxSize, parser, callBack);
+            return new BufferStream<>(absolutePath, cleanWhenRestart, dataFileMaxSize, offsetFileMaxSize, mappedFile, replayThreads, parser, callBack);
         }
 
         public Builder<MESSAGE_TYPE> cleanWhenRestart(boolean cleanWhenRestart) {
@@ -116,6 +153,19 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
             return this;
         }
 
+        public Builder<MESSAGE_TYPE> mappedFile(boolean mappedFile) {
+            this.mappedFile = mappedFile;
+            return this;
+        }
+
+        /**
+         * The number of threads replaying the buffered data.
+         */
+        public Builder<MESSAGE_TYPE> replayThreads(int replayThreads) {
+            this.replayThreads = replayThreads;
+            return this;
+        }
+
         public Builder<MESSAGE_TYPE> parser(Parser<MESSAGE_TYPE> parser) {
             this.parser = parser;
             return this;
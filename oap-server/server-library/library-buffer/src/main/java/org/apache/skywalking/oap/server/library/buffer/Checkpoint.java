@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.*;
+
+/**
+ * The read position of {@link MappedDataStream}, saved in binary. There are two slots in the file, which are written
+ * in turn, each slot is the version, the sequence of the data file, the position in it and the CRC32 of them. The
+ * valid slot with the bigger version is loaded, so a torn write only loses the last checkpoint.
+ */
+class Checkpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(Checkpoint.class);
+
+    private static final int SLOT_SIZE = 28;
+
+    private final File file;
+    private final ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+    private final CRC32 crc32 = new CRC32();
+    private FileChannel channel;
+    private long version = 0;
+    private MappedDataStream.Position lastSaved;
+
+    Checkpoint(File file) {
+        this.file = file;
+    }
+
+    void clean() throws IOException {
+        if (file.exists()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Delete buffer checkpoint file: {}", file.getAbsolutePath());
+            }
+            FileUtils.forceDelete(file);
+        }
+    }
+
+    void initialize() throws IOException {
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        for (int i = 0; i < 2; i++) {
+            MappedDataStream.Position position = readSlot(i);
+            if (position != null) {
+                lastSaved = position;
+            }
+        }
+    }
+
+    /**
+     * @return the last saved position, null if there isn't any.
+     */
+    MappedDataStream.Position load() {
+        return lastSaved;
+    }
+
+    void save(MappedDataStream.Position position) throws IOException {
+        if (lastSaved != null && lastSaved.getSequence() == position.getSequence() && lastSaved.getPosition() == position.getPosition()) {
+            return;
+        }
+
+        version++;
+        slot.clear();
+        slot.putLong(version);
+        slot.putLong(position.getSequence());
+        slot.putLong(position.getPosition());
+        crc32.reset();
+        crc32.update(slot.array(), 0, SLOT_SIZE - 4);
+        slot.putInt((int)crc32.getValue());
+        slot.flip();
+
+        long offset = (version % 2) * SLOT_SIZE;
+        while (slot.hasRemaining()) {
+            offset += channel.write(slot, offset);
+        }
+        channel.force(false);
+        lastSaved = position;
+    }
+
+    private MappedDataStream.Position readSlot(int index) throws IOException {
+        slot.clear();
+        long offset = (long)index * SLOT_SIZE;
+        while (slot.hasRemaining()) {
+            int read = channel.read(slot, offset);
+            if (read < 0) {
+                return null;
+            }
+            offset += read;
+        }
+
+        if (slot.getLong(0) == 0) {
+            // never written
+            return null;
+        }
+
+        crc32.reset();
+        crc32.update(slot.array(), 0, SLOT_SIZE - 4);
+        if (slot.getInt(SLOT_SIZE - 4) != (int)crc32.getValue()) {
+            logger.warn("Slot {} of the buffer checkpoint file {} is broken, ignore it.", index, file.getAbsolutePath());
+            return null;
+        }
+
+        long slotVersion = slot.getLong(0);
+        if (slotVersion <= version) {
+            return null;
+        }
+        version = slotVersion;
+        return new MappedDataStream.Position(slot.getLong(8), slot.getLong(16));
+    }
+}
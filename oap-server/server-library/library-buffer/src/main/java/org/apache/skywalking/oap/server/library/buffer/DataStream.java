@@ -38,12 +38,12 @@ class DataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
     @Getter private final DataStreamWriter<MESSAGE_TYPE> writer;
     private boolean initialized = false;
 
-    DataStream(File directory, int dataFileMaxSize, int offsetFileMaxSize, Parser<MESSAGE_TYPE> parser,
-        DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+    DataStream(File directory, int dataFileMaxSize, int offsetFileMaxSize, int replayThreads,
+        Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
         this.directory = directory;
         this.offsetStream = new OffsetStream(directory, offsetFileMaxSize);
         this.writer = new DataStreamWriter<>(directory, offsetStream.getOffset().getWriteOffset(), dataFileMaxSize);
-        this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), parser, callBack);
+        this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), replayThreads, parser, callBack);
     }
 
     void clean() throws IOException {
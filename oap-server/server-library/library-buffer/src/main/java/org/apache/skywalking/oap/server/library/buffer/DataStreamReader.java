@@ -28,6 +28,9 @@ import org.apache.skywalking.apm.util.*;
 import org.slf4j.*;
 
 /**
+ * Read the buffer data ahead, and replay them by the {@link BufferDataReplayer}. The read offset only moves past the
+ * contiguous replayed records, and a data file is deleted after all its records have been replayed.
+ *
  * @author peng-yongsheng
  */
 public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
@@ -37,19 +40,20 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
     private final File directory;
     private final Offset.ReadOffset readOffset;
     private final Parser<MESSAGE_TYPE> parser;
-    private final CallBack<MESSAGE_TYPE> callBack;
-    private final int collectionSize = 100;
-    private final BufferDataCollection<MESSAGE_TYPE> bufferDataCollection;
+    private final int readAhead = 1000;
+    private final BufferDataReplayer<MESSAGE_TYPE, FilePosition> replayer;
+    private final Deque<FinishedFile> finishedFiles = new LinkedList<>();
     private File readingFile;
+    private long readingPosition;
+    private long submitted;
     private InputStream inputStream;
 
-    DataStreamReader(File directory, Offset.ReadOffset readOffset, Parser<MESSAGE_TYPE> parser,
+    DataStreamReader(File directory, Offset.ReadOffset readOffset, int replayThreads, Parser<MESSAGE_TYPE> parser,
         CallBack<MESSAGE_TYPE> callBack) {
         this.directory = directory;
         this.readOffset = readOffset;
         this.parser = parser;
-        this.callBack = callBack;
-        this.bufferDataCollection = new BufferDataCollection<>(collectionSize);
+        this.replayer = new BufferDataReplayer<>("DataStreamReader-" + directory.getName(), replayThreads, readAhead, callBack);
     }
 
     void initialize() {
@@ -63,30 +67,29 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
     private void preRead() {
         String fileName = readOffset.getFileName();
         if (StringUtil.isEmpty(fileName)) {
-            openInputStream(readEarliestDataFile());
+            openInputStream(readEarliestDataFile(), 0);
         } else {
             File readingFile = new File(directory, fileName);
             if (readingFile.exists()) {
-                openInputStream(readingFile);
-                try {
-                    inputStream.skip(readOffset.getOffset());
-                } catch (IOException e) {
-                    logger.error(e.getMessage(), e);
-                }
+                openInputStream(readingFile, readOffset.getOffset());
             } else {
-                openInputStream(readEarliestDataFile());
+                openInputStream(readEarliestDataFile(), 0);
             }
         }
     }
 
-    private void openInputStream(File readingFile) {
+    private void openInputStream(File readingFile, long position) {
         try {
             this.readingFile = readingFile;
+            this.readingPosition = position;
             if (Objects.nonNull(inputStream)) {
                 inputStream.close();
             }
 
             inputStream = new FileInputStream(readingFile);
+            if (position > 0) {
+                inputStream.skip(position);
+            }
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
         }
@@ -105,80 +108,100 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
         }
     }
 
+    private File readNextDataFile() {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.DATA_FILE_PREFIX));
+
+        if (fileNames != null) {
+            BufferFileUtils.sort(fileNames);
+            long readingFileTime = BufferFileUtils.parseSequence(readingFile.getName());
+            for (String fileName : fileNames) {
+                if (BufferFileUtils.parseSequence(fileName) > readingFileTime) {
+                    return new File(directory, fileName);
+                }
+            }
+        }
+        return null;
+    }
+
     private void read() {
         if (logger.isDebugEnabled()) {
             logger.debug("Read buffer data");
         }
 
         try {
-            if (readOffset.getOffset() == readingFile.length() && !readOffset.isCurrentWriteFile()) {
-                FileUtils.forceDelete(readingFile);
-                openInputStream(readEarliestDataFile());
+            if (readingPosition == readingFile.length() && !readOffset.isCurrentWriteFile(readingFile.getName())) {
+                File nextFile = readNextDataFile();
+                if (nextFile != null) {
+                    finishedFiles.add(new FinishedFile(readingFile, submitted));
+                    openInputStream(nextFile, 0);
+                }
             }
 
-            while (readOffset.getOffset() < readingFile.length()) {
-                BufferData<MESSAGE_TYPE> bufferData = new BufferData<>(parser.parseDelimitedFrom(inputStream));
-
-                if (bufferData.getMessageType() != null) {
-                    boolean isComplete = callBack.call(bufferData);
-                    final int serialized = bufferData.getMessageType().getSerializedSize();
-                    final int offset = CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized;
-                    readOffset.setOffset(readOffset.getOffset() + offset);
-
-                    if (!isComplete) {
-                        if (bufferDataCollection.size() == collectionSize) {
-                            reCall();
-                        }
-                        bufferDataCollection.add(bufferData);
-                    }
-
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("collection size: {}, max size: {}", bufferDataCollection.size(), collectionSize);
-                    }
-                } else if (bufferDataCollection.size() > 0) {
-                    reCall();
-                } else {
-                    try {
-                        TimeUnit.SECONDS.sleep(5);
-                    } catch (InterruptedException e) {
-                        logger.error(e.getMessage(), e);
-                    }
+            while (readingPosition < readingFile.length()) {
+                MESSAGE_TYPE message;
+                try {
+                    message = parser.parseDelimitedFrom(inputStream);
+                } catch (InvalidProtocolBufferException e) {
+                    // The record is being written, read it again next time.
+                    openInputStream(readingFile, readingPosition);
+                    break;
+                }
+                if (message == null) {
+                    break;
                 }
-            }
 
-            if (bufferDataCollection.size() > 0) {
-                reCall();
+                final int serialized = message.getSerializedSize();
+                readingPosition += CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized;
+                submitted = replayer.submit(new BufferData<>(message), new FilePosition(readingFile.getName(), readingPosition));
+                moveReadOffset();
             }
+            moveReadOffset();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void reCall() {
-        int maxCycle = 10;
-        for (int i = 1; i <= maxCycle; i++) {
-            if (bufferDataCollection.size() > 0) {
-                List<BufferData<MESSAGE_TYPE>> bufferDataList = bufferDataCollection.export();
-                for (BufferData<MESSAGE_TYPE> data : bufferDataList) {
-                    if (!callBack.call(data)) {
-                        if (i != maxCycle) {
-                            bufferDataCollection.add(data);
-                        }
-                    }
-                }
+    private void moveReadOffset() throws IOException {
+        FilePosition position = replayer.replayedPosition();
+        if (position != null) {
+            readOffset.setFileName(position.fileName);
+            readOffset.setOffset(position.offset);
+        }
 
-                try {
-                    TimeUnit.MILLISECONDS.sleep(500);
-                } catch (InterruptedException e) {
-                    logger.error(e.getMessage(), e);
-                }
-            } else {
-                break;
+        long replayedCount = replayer.replayedCount();
+        while (!finishedFiles.isEmpty() && finishedFiles.peek().submitted <= replayedCount) {
+            File file = finishedFiles.poll().file;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Delete replayed buffer data file: {}", file.getAbsolutePath());
             }
+            FileUtils.forceDelete(file);
         }
     }
 
     public interface CallBack<MESSAGE_TYPE extends GeneratedMessageV3> {
         boolean call(BufferData<MESSAGE_TYPE> bufferData);
     }
+
+    private static class FilePosition {
+        private final String fileName;
+        private final long offset;
+
+        private FilePosition(String fileName, long offset) {
+            this.fileName = fileName;
+            this.offset = offset;
+        }
+    }
+
+    private static class FinishedFile {
+        private final File file;
+        private final long submitted;
+
+        private FinishedFile(File file, long submitted) {
+            this.file = file;
+            this.submitted = submitted;
+        }
+    }
 }
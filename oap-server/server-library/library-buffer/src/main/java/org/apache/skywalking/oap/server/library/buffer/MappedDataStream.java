@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.*;
+import java.io.*;
+import java.util.List;
+import lombok.Getter;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.PrefixFileFilter;
+import org.slf4j.*;
+
+/**
+ * The memory mapped backend of {@link BufferStream}. The data files are pre-allocated to the max size and named by a
+ * sequence, each record is the length of the message, the CRC32 of the message and the message itself. The reader
+ * keeps its position in a binary checkpoint file.
+ *
+ * The writer always starts a new data file when the OAP starts, so a record torn by a crash is only in a file which
+ * won't be written again, the reader stops reading that file at the torn record.
+ */
+class MappedDataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedDataStream.class);
+
+    static final int HEADER_SIZE = 8;
+
+    private final File directory;
+    private final Checkpoint checkpoint;
+    @Getter private final MappedDataStreamWriter writer;
+    @Getter private final MappedDataStreamReader<MESSAGE_TYPE> reader;
+    private boolean initialized = false;
+
+    MappedDataStream(File directory, int dataFileMaxSize, int replayThreads, Parser<MESSAGE_TYPE> parser,
+        DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        if (dataFileMaxSize <= 0 || dataFileMaxSize >= 2048) {
+            throw new IllegalArgumentException("The max size of the memory mapped buffer file must be between 1 and 2047 MB, but it is " + dataFileMaxSize);
+        }
+        this.directory = directory;
+        this.checkpoint = new Checkpoint(new File(directory, BufferFileUtils.CHECKPOINT_FILE_NAME));
+        this.writer = new MappedDataStreamWriter(directory, (int)(FileUtils.ONE_MB * dataFileMaxSize));
+        this.reader = new MappedDataStreamReader<>(directory, writer, checkpoint, replayThreads, parser, callBack);
+    }
+
+    void clean() throws IOException {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.MAPPED_DATA_FILE_PREFIX));
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                File file = new File(directory, fileName);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Delete buffer data file: {}", file.getAbsolutePath());
+                }
+                FileUtils.forceDelete(file);
+            }
+        }
+
+        checkpoint.clean();
+    }
+
+    synchronized void initialize() throws IOException {
+        if (!initialized) {
+            checkpoint.initialize();
+            writer.initialize();
+            reader.initialize();
+            initialized = true;
+        }
+    }
+
+    void write(AbstractMessageLite messageLite) {
+        writer.write(messageLite);
+    }
+
+    void write(List<? extends AbstractMessageLite> messageLites) {
+        writer.write(messageLites);
+    }
+
+    static String[] listDataFiles(File directory) {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.MAPPED_DATA_FILE_PREFIX));
+        if (fileNames == null) {
+            return new String[0];
+        }
+        BufferFileUtils.sort(fileNames);
+        return fileNames;
+    }
+
+    /**
+     * The sequence of the data file and the position in it.
+     */
+    @Getter
+    static class Position {
+        private final long sequence;
+        private final long position;
+
+        Position(long sequence, long position) {
+            this.sequence = sequence;
+            this.position = position;
+        }
+    }
+}
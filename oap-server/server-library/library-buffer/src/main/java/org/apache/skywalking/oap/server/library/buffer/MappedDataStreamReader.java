@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.*;
+
+/**
+ * Read the records from the memory mapped data files in sequence, and replay them by the {@link BufferDataReplayer}.
+ * The reader waits for the writer when there isn't any committed record, instead of polling the file. The replayed
+ * position is saved in the {@link Checkpoint} at most once a second, and a data file is deleted after all its records
+ * have been replayed.
+ */
+class MappedDataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedDataStreamReader.class);
+
+    private static final long WAIT_TIMEOUT = 1000;
+    private static final long CHECKPOINT_INTERVAL = 1000;
+
+    private final File directory;
+    private final MappedDataStreamWriter writer;
+    private final Checkpoint checkpoint;
+    private final Parser<MESSAGE_TYPE> parser;
+    private final int readAhead = 1000;
+    private final BufferDataReplayer<MESSAGE_TYPE, MappedDataStream.Position> replayer;
+    private final Deque<FinishedFile> finishedFiles = new LinkedList<>();
+    private final CRC32 crc32 = new CRC32();
+    private File readingFile;
+    private long readingSequence;
+    private MappedByteBuffer buffer;
+    private long submitted;
+    private long lastCheckpointTime;
+
+    MappedDataStreamReader(File directory, MappedDataStreamWriter writer, Checkpoint checkpoint, int replayThreads,
+        Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        this.directory = directory;
+        this.writer = writer;
+        this.checkpoint = checkpoint;
+        this.parser = parser;
+        this.replayer = new BufferDataReplayer<>("MappedDataStreamReader-" + directory.getName(), replayThreads, readAhead, callBack);
+    }
+
+    void initialize() throws IOException {
+        MappedDataStream.Position position = checkpoint.load();
+        if (position != null && new File(directory, BufferFileUtils.buildFileName(BufferFileUtils.MAPPED_DATA_FILE_PREFIX, position.getSequence())).exists()) {
+            openFile(position.getSequence());
+            buffer.position((int)Math.min(position.getPosition(), buffer.capacity()));
+        } else {
+            openFile(nextSequence(0));
+        }
+
+        // The files before the checkpoint have been read.
+        for (String fileName : MappedDataStream.listDataFiles(directory)) {
+            if (BufferFileUtils.parseSequence(fileName) < readingSequence) {
+                deleteFile(new File(directory, fileName));
+            }
+        }
+
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    read();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable t) {
+                    logger.error("Buffer data read failure.", t);
+                    try {
+                        TimeUnit.SECONDS.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }, "MappedDataStreamReader-" + directory.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void read() throws IOException, InterruptedException {
+        MappedDataStream.Position committed = writer.committed();
+        boolean isWritingFile = readingSequence == committed.getSequence();
+        int limit = isWritingFile ? (int)committed.getPosition() : buffer.capacity();
+
+        int count = 0;
+        boolean isEnd = false;
+        while (!isEnd && buffer.position() + MappedDataStream.HEADER_SIZE <= limit) {
+            isEnd = !readRecord(limit);
+            count++;
+        }
+
+        if (!isWritingFile) {
+            // The writer has moved on, so this file is finished.
+            finishedFiles.add(new FinishedFile(readingFile, submitted));
+            openFile(nextSequence(readingSequence));
+        } else if (isEnd) {
+            logger.error("Skip the broken records in the buffer data file {}, from position {} to {}.",
+                readingFile.getAbsolutePath(), buffer.position(), limit);
+            buffer.position(limit);
+        }
+
+        if (System.currentTimeMillis() - lastCheckpointTime >= CHECKPOINT_INTERVAL) {
+            saveCheckpoint();
+        }
+        if (isWritingFile && count == 0) {
+            writer.awaitAppend(committed, WAIT_TIMEOUT);
+        }
+    }
+
+    /**
+     * @return false if there isn't a valid record at the current position.
+     */
+    private boolean readRecord(int limit) throws InterruptedException {
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > limit - start - MappedDataStream.HEADER_SIZE) {
+            return false;
+        }
+
+        buffer.position(start + MappedDataStream.HEADER_SIZE);
+        ByteBuffer payload = buffer.slice();
+        payload.limit(length);
+        crc32.reset();
+        crc32.update(payload.duplicate());
+        if (buffer.getInt(start + 4) != (int)crc32.getValue()) {
+            logger.warn("The record at position {} of the buffer data file {} is torn.", start, readingFile.getAbsolutePath());
+            buffer.position(start);
+            return false;
+        }
+        buffer.position(start + MappedDataStream.HEADER_SIZE + length);
+
+        MESSAGE_TYPE message;
+        try {
+            message = parser.parseFrom(CodedInputStream.newInstance(payload));
+        } catch (InvalidProtocolBufferException e) {
+            logger.error("Ignore the record which can't be parsed at position " + start + " of the buffer data file " + readingFile.getAbsolutePath(), e);
+            return true;
+        }
+
+        submitted = replayer.submit(new BufferData<>(message), new MappedDataStream.Position(readingSequence, buffer.position()));
+        return true;
+    }
+
+    private long nextSequence(long sequence) {
+        for (String fileName : MappedDataStream.listDataFiles(directory)) {
+            long fileSequence = BufferFileUtils.parseSequence(fileName);
+            if (fileSequence > sequence) {
+                return fileSequence;
+            }
+        }
+        // The writer creates its file before the reader starts, so it never happens.
+        throw new IllegalStateException("There isn't any buffer data file after sequence " + sequence + " in " + directory.getAbsolutePath());
+    }
+
+    private void openFile(long sequence) throws IOException {
+        File file = new File(directory, BufferFileUtils.buildFileName(BufferFileUtils.MAPPED_DATA_FILE_PREFIX, sequence));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        }
+        readingFile = file;
+        readingSequence = sequence;
+    }
+
+    private void saveCheckpoint() throws IOException {
+        MappedDataStream.Position position = replayer.replayedPosition();
+        if (position != null) {
+            checkpoint.save(position);
+        }
+        lastCheckpointTime = System.currentTimeMillis();
+
+        long replayedCount = replayer.replayedCount();
+        while (!finishedFiles.isEmpty() && finishedFiles.peek().submitted <= replayedCount) {
+            deleteFile(finishedFiles.poll().file);
+        }
+    }
+
+    private void deleteFile(File file) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Delete buffer data file: {}", file.getAbsolutePath());
+        }
+        // The file is still mapped until the buffer is collected, it can't be deleted in some systems until then.
+        if (!FileUtils.deleteQuietly(file)) {
+            logger.warn("Buffer data file {} delete failure, delete it when exit.", file.getAbsolutePath());
+            file.deleteOnExit();
+        }
+    }
+
+    private static class FinishedFile {
+        private final File file;
+        private final long submitted;
+
+        private FinishedFile(File file, long submitted) {
+            this.file = file;
+            this.submitted = submitted;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.slf4j.*;
+
+/**
+ * Append the records into the memory mapped data file. A batch of records is committed together, then the reader is
+ * woke up. The data file is forced to the disk at most once a second, and when it is full.
+ */
+class MappedDataStreamWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedDataStreamWriter.class);
+
+    private static final long FORCE_INTERVAL = 1000;
+
+    private final File directory;
+    private final int dataFileSize;
+    private final CRC32 crc32 = new CRC32();
+    private final Object appendSignal = new Object();
+    private volatile MappedDataStream.Position committed;
+    private long sequence;
+    private MappedByteBuffer buffer;
+    private long lastForceTime;
+    private boolean initialized = false;
+
+    MappedDataStreamWriter(File directory, int dataFileSize) {
+        this.directory = directory;
+        this.dataFileSize = dataFileSize;
+    }
+
+    synchronized void initialize() throws IOException {
+        if (!initialized) {
+            long lastSequence = 0;
+            for (String fileName : MappedDataStream.listDataFiles(directory)) {
+                lastSequence = Math.max(lastSequence, BufferFileUtils.parseSequence(fileName));
+            }
+
+            // The files written before restart are left to the reader.
+            nextFile(lastSequence + 1, dataFileSize);
+            commit();
+            initialized = true;
+        }
+    }
+
+    synchronized void write(AbstractMessageLite messageLite) {
+        try {
+            append(messageLite);
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+        commit();
+    }
+
+    synchronized void write(List<? extends AbstractMessageLite> messageLites) {
+        for (AbstractMessageLite messageLite : messageLites) {
+            try {
+                append(messageLite);
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+        commit();
+    }
+
+    MappedDataStream.Position committed() {
+        return committed;
+    }
+
+    /**
+     * Wait until any record is committed after the given position, or the timeout.
+     */
+    void awaitAppend(MappedDataStream.Position position, long timeoutInMillis) throws InterruptedException {
+        synchronized (appendSignal) {
+            if (committed == position) {
+                appendSignal.wait(timeoutInMillis);
+            }
+        }
+    }
+
+    private void append(AbstractMessageLite messageLite) throws IOException {
+        int size = messageLite.getSerializedSize();
+        if (buffer.remaining() < MappedDataStream.HEADER_SIZE + size) {
+            buffer.force();
+            nextFile(sequence + 1, Math.max(dataFileSize, MappedDataStream.HEADER_SIZE + size));
+        }
+
+        int start = buffer.position();
+        buffer.position(start + MappedDataStream.HEADER_SIZE);
+        ByteBuffer payload = buffer.slice();
+        payload.limit(size);
+        try {
+            CodedOutputStream outputStream = CodedOutputStream.newInstance(payload);
+            messageLite.writeTo(outputStream);
+            outputStream.flush();
+        } catch (IOException e) {
+            buffer.position(start);
+            throw e;
+        }
+
+        payload.flip();
+        crc32.reset();
+        crc32.update(payload);
+        buffer.putInt(start, size);
+        buffer.putInt(start + 4, (int)crc32.getValue());
+        buffer.position(start + MappedDataStream.HEADER_SIZE + size);
+    }
+
+    private void commit() {
+        committed = new MappedDataStream.Position(sequence, buffer.position());
+
+        long now = System.currentTimeMillis();
+        if (now - lastForceTime >= FORCE_INTERVAL) {
+            buffer.force();
+            lastForceTime = now;
+        }
+
+        synchronized (appendSignal) {
+            appendSignal.notifyAll();
+        }
+    }
+
+    private void nextFile(long nextSequence, int size) throws IOException {
+        File file = new File(directory, BufferFileUtils.buildFileName(BufferFileUtils.MAPPED_DATA_FILE_PREFIX, nextSequence));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        sequence = nextSequence;
+        logger.info("Create a new buffer data file: {}", file.getAbsolutePath());
+    }
+}
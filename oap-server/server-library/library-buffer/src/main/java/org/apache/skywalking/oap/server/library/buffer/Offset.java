@@ -61,8 +61,8 @@ class Offset {
             this.writeOffset = writeOffset;
         }
 
-        boolean isCurrentWriteFile() {
-            return fileName.equals(writeOffset.fileName);
+        boolean isCurrentWriteFile(String readingFileName) {
+            return readingFileName.equals(writeOffset.fileName);
         }
     }
 
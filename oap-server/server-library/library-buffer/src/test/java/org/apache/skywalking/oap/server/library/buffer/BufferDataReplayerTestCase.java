@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.junit.*;
+
+public class BufferDataReplayerTestCase {
+
+    @Test
+    public void testReplayedPositionWaitsForRetry() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        Set<Integer> replayed = ConcurrentHashMap.newKeySet();
+        BufferDataReplayer<TraceSegmentObject, Integer> replayer = new BufferDataReplayer<>("test", 4, 10, bufferData -> {
+            int spanId = bufferData.getMessageType().getSpans(0).getSpanId();
+            if (spanId == 0 && attempts.incrementAndGet() < 3) {
+                return false;
+            }
+            replayed.add(spanId);
+            return true;
+        });
+
+        for (int i = 0; i < 100; i++) {
+            replayer.submit(new BufferData<>(segment(i)), i + 1);
+            if (i == 8) {
+                // The first record is parked in the retry queue, the others are replayed anyway.
+                MappedDataStreamTestCase.waitFor(() -> replayed.size() == 8);
+                Assert.assertNull(replayer.replayedPosition());
+                Assert.assertEquals(0, replayer.replayedCount());
+            }
+        }
+
+        MappedDataStreamTestCase.waitFor(() -> replayer.replayedCount() == 100);
+        Assert.assertEquals(100, replayed.size());
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertEquals(100, replayer.replayedPosition().intValue());
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        BufferDataReplayer<TraceSegmentObject, Integer> replayer = new BufferDataReplayer<>("test", 1, 10, bufferData -> {
+            attempts.incrementAndGet();
+            return false;
+        });
+
+        replayer.submit(new BufferData<>(segment(0)), 1);
+
+        MappedDataStreamTestCase.waitFor(() -> replayer.replayedCount() == 1);
+        Assert.assertEquals(BufferDataReplayer.MAX_ATTEMPTS, attempts.get());
+        Assert.assertEquals(1, replayer.replayedPosition().intValue());
+    }
+
+    private static TraceSegmentObject segment(int spanId) {
+        return TraceSegmentObject.newBuilder().addSpans(SpanObject.newBuilder().setSpanId(spanId)).build();
+    }
+}
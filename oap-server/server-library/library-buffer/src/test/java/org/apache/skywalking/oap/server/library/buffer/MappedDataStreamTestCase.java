@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.commons.io.FileUtils;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedDataStreamTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException, InterruptedException {
+        List<Integer> spanIds = new CopyOnWriteArrayList<>();
+        BufferStream.Builder<TraceSegmentObject> builder = new BufferStream.Builder<>(folder.getRoot().getAbsolutePath());
+        builder.dataFileMaxSize(1);
+        builder.mappedFile(true);
+        builder.parser(TraceSegmentObject.parser());
+        builder.callBack(bufferData -> spanIds.add(bufferData.getMessageType().getSpans(0).getSpanId()));
+        BufferStream<TraceSegmentObject> stream = builder.build();
+        stream.initialize();
+
+        char[] operationName = new char[1000];
+        Arrays.fill(operationName, 'a');
+        List<TraceSegmentObject> segments = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            segments.add(segment(i, new String(operationName)));
+            if (segments.size() == 100) {
+                stream.write(segments);
+                segments.clear();
+            }
+        }
+
+        waitFor(() -> spanIds.size() == 3000);
+        for (int i = 0; i < 3000; i++) {
+            Assert.assertEquals(i, spanIds.get(i).intValue());
+        }
+        // The files which have been read are deleted, only the writing one is left.
+        waitFor(() -> MappedDataStream.listDataFiles(folder.getRoot()).length == 1);
+    }
+
+    @Test
+    public void testStopAtTornRecord() throws IOException, InterruptedException {
+        MappedDataStreamWriter writer = new MappedDataStreamWriter(folder.getRoot(), (int)FileUtils.ONE_MB);
+        writer.initialize();
+        writer.write(Arrays.asList(segment(0, "a"), segment(1, "b"), segment(2, "c")));
+
+        File dataFile = new File(folder.getRoot(), MappedDataStream.listDataFiles(folder.getRoot())[0]);
+        long lastRecord = 2L * (MappedDataStream.HEADER_SIZE + segment(0, "a").getSerializedSize());
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) {
+            file.seek(lastRecord + MappedDataStream.HEADER_SIZE + 1);
+            file.write(0xff);
+        }
+
+        List<Integer> spanIds = new CopyOnWriteArrayList<>();
+        MappedDataStream<TraceSegmentObject> stream = new MappedDataStream<>(folder.getRoot(), 1, 1, TraceSegmentObject.parser(),
+            bufferData -> spanIds.add(bufferData.getMessageType().getSpans(0).getSpanId()));
+        stream.initialize();
+        stream.write(segment(3, "d"));
+
+        waitFor(() -> spanIds.size() == 3);
+        Assert.assertEquals(Arrays.asList(0, 1, 3), spanIds);
+        waitFor(() -> !dataFile.exists());
+    }
+
+    @Test
+    public void testCheckpoint() throws IOException {
+        File file = new File(folder.getRoot(), BufferFileUtils.CHECKPOINT_FILE_NAME);
+        Checkpoint checkpoint = new Checkpoint(file);
+        checkpoint.initialize();
+        Assert.assertNull(checkpoint.load());
+        checkpoint.save(new MappedDataStream.Position(1, 10));
+        checkpoint.save(new MappedDataStream.Position(2, 20));
+
+        checkpoint = new Checkpoint(file);
+        checkpoint.initialize();
+        Assert.assertEquals(2, checkpoint.load().getSequence());
+        Assert.assertEquals(20, checkpoint.load().getPosition());
+
+        // Tear the last saved slot, the previous one is loaded.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(20);
+            randomAccessFile.write(0xff);
+        }
+        checkpoint = new Checkpoint(file);
+        checkpoint.initialize();
+        Assert.assertEquals(1, checkpoint.load().getSequence());
+        Assert.assertEquals(10, checkpoint.load().getPosition());
+    }
+
+    private static TraceSegmentObject segment(int spanId, String operationName) {
+        return TraceSegmentObject.newBuilder()
+            .addSpans(SpanObject.newBuilder().setSpanId(spanId).setOperationName(operationName))
+            .build();
+    }
+
+    static void waitFor(Callable<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        try {
+            while (!condition.call()) {
+                Assert.assertTrue("Timeout", System.currentTimeMillis() < deadline);
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+        } catch (InterruptedException | AssertionError e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -313,17 +313,17 @@ public class ElasticSearchClient implements Client {
         return response.getStatusLine().getStatusCode();
     }
 
-    public void synchronousBulk(BulkRequest request) {
+    /**
+     * @return the response of the bulk, the caller should check the failed items of it.
+     */
+    public BulkResponse synchronousBulk(BulkRequest request) throws IOException {
         request.timeout(TimeValue.timeValueMinutes(2));
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
         request.waitForActiveShards(ActiveShardCount.ONE);
-        try {
-            int size = request.requests().size();
-            BulkResponse responses = client.bulk(request);
-            logger.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
-        } catch (IOException e) {
-            logger.error(e.getMessage(), e);
-        }
+        int size = request.requests().size();
+        BulkResponse responses = client.bulk(request);
+        logger.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
+        return responses;
     }
 
     public BulkProcessor createBulkProcessor(int bulkActions, int flushInterval, int concurrentRequests) {
@@ -19,6 +19,7 @@
 package org.apache.skywalking.aop.server.receiver.mesh;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
@@ -54,6 +55,8 @@ public class MeshDataBufferFileCache implements IConsumer<ServiceMeshMetricDataD
         builder.cleanWhenRestart(config.isBufferFileCleanWhenRestart());
         builder.dataFileMaxSize(config.getBufferDataMaxFileSize());
         builder.offsetFileMaxSize(config.getBufferOffsetMaxFileSize());
+        builder.mappedFile(config.isBufferFileMapped());
+        builder.replayThreads(config.getBufferReplayThreads());
         builder.parser(ServiceMeshMetric.parser());
         builder.callBack(this);
 
@@ -75,14 +78,18 @@ public class MeshDataBufferFileCache implements IConsumer<ServiceMeshMetricDataD
      * @param data
      */
     @Override public void consume(List<ServiceMeshMetricDataDecorator> data) {
+        List<ServiceMeshMetric> metrics = new ArrayList<>();
         for (ServiceMeshMetricDataDecorator decorator : data) {
             if (decorator.tryMetaDataRegister()) {
                 TelemetryDataDispatcher.doDispatch(decorator);
             } else {
                 meshBufferFileIn.inc();
-                stream.write(decorator.getMetric());
+                metrics.add(decorator.getMetric());
             }
         }
+        if (!metrics.isEmpty()) {
+            stream.write(metrics);
+        }
     }
 
     @Override public void onError(List<ServiceMeshMetricDataDecorator> data, Throwable t) {
@@ -30,4 +30,6 @@ public class MeshModuleConfig extends ModuleConfig {
     @Setter @Getter private int bufferOffsetMaxFileSize;
     @Setter @Getter private int bufferDataMaxFileSize;
     @Setter @Getter private boolean bufferFileCleanWhenRestart;
+    @Setter @Getter private boolean bufferFileMapped;
+    @Setter @Getter private int bufferReplayThreads = 4;
 }
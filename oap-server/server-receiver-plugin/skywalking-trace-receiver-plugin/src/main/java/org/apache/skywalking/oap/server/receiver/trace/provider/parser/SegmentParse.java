@@ -84,7 +84,7 @@ public class SegmentParse {
 
             SegmentDecorator segmentDecorator = new SegmentDecorator(segmentObject);
 
-            if (!preBuild(traceIds, segmentDecorator)) {
+            if (!preBuild(traceIds, upstreamSegment, segmentDecorator)) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("This segment id exchange not success, write to buffer file, id: {}", segmentCoreInfo.getSegmentId());
                 }
@@ -115,7 +115,7 @@ public class SegmentParse {
         return TraceSegmentObject.parseFrom(segment.getSegment());
     }
 
-    private boolean preBuild(List<UniqueId> traceIds, SegmentDecorator segmentDecorator) {
+    private boolean preBuild(List<UniqueId> traceIds, UpstreamSegment upstreamSegment, SegmentDecorator segmentDecorator) {
         StringBuilder segmentIdBuilder = new StringBuilder();
 
         for (int i = 0; i < segmentDecorator.getTraceSegmentId().getIdPartsList().size(); i++) {
@@ -133,7 +133,8 @@ public class SegmentParse {
         segmentCoreInfo.setSegmentId(segmentIdBuilder.toString());
         segmentCoreInfo.setServiceId(segmentDecorator.getServiceId());
         segmentCoreInfo.setServiceInstanceId(segmentDecorator.getServiceInstanceId());
-        segmentCoreInfo.setDataBinary(segmentDecorator.toByteArray());
+        // The ids exchanged below are not written back, the names sent by the agent are shown when querying.
+        segmentCoreInfo.setDataBinary(upstreamSegment.getSegment().toByteArray());
         segmentCoreInfo.setV2(false);
 
         boolean exchanged = true;
@@ -39,6 +39,9 @@ import org.slf4j.*;
 /**
  * SegmentParseV2 is a replication of SegmentParse, but be compatible with v2 trace protocol.
  *
+ * The instance and its span listeners are reused by all segments parsed in the same thread, see {@link Producer}. The
+ * listeners are grouped by {@link SpanListener.Point} once, when the instance is created.
+ *
  * @author wusheng
  */
 public class SegmentParseV2 {
@@ -46,10 +49,13 @@ public class SegmentParseV2 {
     private static final Logger logger = LoggerFactory.getLogger(SegmentParseV2.class);
 
     private final ModuleManager moduleManager;
-    private final List<SpanListener> spanListeners;
-    private final SegmentParserListenerManager listenerManager;
+    private final SpanListener[] spanListeners;
+    private final EntrySpanListener[] entrySpanListeners;
+    private final ExitSpanListener[] exitSpanListeners;
+    private final LocalSpanListener[] localSpanListeners;
+    private final FirstSpanListener[] firstSpanListeners;
+    private final GlobalTraceIdsListener[] globalTraceIdsListeners;
     private final SegmentCoreInfo segmentCoreInfo;
-    private final TraceServiceModuleConfig config;
     private final ServiceInstanceInventoryCache serviceInstanceInventoryCache;
     @Setter private SegmentStandardizationWorker standardizationWorker;
     private volatile static CounterMetrics TRACE_BUFFER_FILE_RETRY;
@@ -58,13 +64,39 @@ public class SegmentParseV2 {
 
     private SegmentParseV2(ModuleManager moduleManager, SegmentParserListenerManager listenerManager, TraceServiceModuleConfig config) {
         this.moduleManager = moduleManager;
-        this.listenerManager = listenerManager;
-        this.spanListeners = new LinkedList<>();
         this.segmentCoreInfo = new SegmentCoreInfo();
-        this.segmentCoreInfo.setStartTime(Long.MAX_VALUE);
-        this.segmentCoreInfo.setEndTime(Long.MIN_VALUE);
-        this.segmentCoreInfo.setV2(true);
-        this.config = config;
+
+        List<SpanListener> listeners = new ArrayList<>();
+        List<EntrySpanListener> entryListeners = new ArrayList<>();
+        List<ExitSpanListener> exitListeners = new ArrayList<>();
+        List<LocalSpanListener> localListeners = new ArrayList<>();
+        List<FirstSpanListener> firstListeners = new ArrayList<>();
+        List<GlobalTraceIdsListener> globalTraceIdsListeners = new ArrayList<>();
+        for (SpanListenerFactory spanListenerFactory : listenerManager.getSpanListenerFactories()) {
+            SpanListener listener = spanListenerFactory.create(moduleManager, config);
+            listeners.add(listener);
+            if (listener.containsPoint(SpanListener.Point.Entry)) {
+                entryListeners.add((EntrySpanListener)listener);
+            }
+            if (listener.containsPoint(SpanListener.Point.Exit)) {
+                exitListeners.add((ExitSpanListener)listener);
+            }
+            if (listener.containsPoint(SpanListener.Point.Local)) {
+                localListeners.add((LocalSpanListener)listener);
+            }
+            if (listener.containsPoint(SpanListener.Point.First)) {
+                firstListeners.add((FirstSpanListener)listener);
+            }
+            if (listener.containsPoint(SpanListener.Point.TraceIds)) {
+                globalTraceIdsListeners.add((GlobalTraceIdsListener)listener);
+            }
+        }
+        this.spanListeners = listeners.toArray(new SpanListener[0]);
+        this.entrySpanListeners = entryListeners.toArray(new EntrySpanListener[0]);
+        this.exitSpanListeners = exitListeners.toArray(new ExitSpanListener[0]);
+        this.localSpanListeners = localListeners.toArray(new LocalSpanListener[0]);
+        this.firstSpanListeners = firstListeners.toArray(new FirstSpanListener[0]);
+        this.globalTraceIdsListeners = globalTraceIdsListeners.toArray(new GlobalTraceIdsListener[0]);
 
         if (TRACE_BUFFER_FILE_RETRY == null) {
             MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
@@ -80,7 +112,7 @@ public class SegmentParseV2 {
     }
 
     public boolean parse(BufferData<UpstreamSegment> bufferData, SegmentSource source) {
-        createSpanListeners();
+        reset();
 
         try {
             UpstreamSegment upstreamSegment = bufferData.getMessageType();
@@ -101,7 +133,7 @@ public class SegmentParseV2 {
 
             SegmentDecorator segmentDecorator = new SegmentDecorator(segmentObject);
 
-            if (!preBuild(traceIds, segmentDecorator)) {
+            if (!preBuild(traceIds, upstreamSegment, segmentDecorator)) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("This segment id exchange not success, write to buffer file, id: {}", segmentCoreInfo.getSegmentId());
                 }
@@ -132,7 +164,7 @@ public class SegmentParseV2 {
         return SegmentObject.parseFrom(segment.getSegment());
     }
 
-    private boolean preBuild(List<UniqueId> traceIds, SegmentDecorator segmentDecorator) {
+    private boolean preBuild(List<UniqueId> traceIds, UpstreamSegment upstreamSegment, SegmentDecorator segmentDecorator) {
         StringBuilder segmentIdBuilder = new StringBuilder();
 
         for (int i = 0; i < segmentDecorator.getTraceSegmentId().getIdPartsList().size(); i++) {
@@ -150,7 +182,8 @@ public class SegmentParseV2 {
         segmentCoreInfo.setSegmentId(segmentIdBuilder.toString());
         segmentCoreInfo.setServiceId(segmentDecorator.getServiceId());
         segmentCoreInfo.setServiceInstanceId(segmentDecorator.getServiceInstanceId());
-        segmentCoreInfo.setDataBinary(segmentDecorator.toByteArray());
+        // The ids exchanged below are not written back, the names sent by the agent are shown when querying.
+        segmentCoreInfo.setDataBinary(upstreamSegment.getSegment().toByteArray());
         segmentCoreInfo.setV2(true);
 
         boolean exchanged = true;
@@ -215,75 +248,75 @@ public class SegmentParseV2 {
         standardizationWorker.in(standardization);
     }
 
+    private void reset() {
+        segmentCoreInfo.setSegmentId(null);
+        segmentCoreInfo.setServiceId(0);
+        segmentCoreInfo.setServiceInstanceId(0);
+        segmentCoreInfo.setStartTime(Long.MAX_VALUE);
+        segmentCoreInfo.setEndTime(Long.MIN_VALUE);
+        segmentCoreInfo.setError(false);
+        segmentCoreInfo.setMinuteTimeBucket(0);
+        segmentCoreInfo.setDataBinary(null);
+        segmentCoreInfo.setV2(true);
+
+        for (SpanListener listener : spanListeners) {
+            listener.reset();
+        }
+    }
+
     private void notifyListenerToBuild() {
-        spanListeners.forEach(SpanListener::build);
+        for (SpanListener listener : spanListeners) {
+            listener.build();
+        }
     }
 
     private void notifyExitListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.Exit)) {
-                ((ExitSpanListener)listener).parseExit(spanDecorator, segmentCoreInfo);
-            }
-        });
+        for (ExitSpanListener listener : exitSpanListeners) {
+            listener.parseExit(spanDecorator, segmentCoreInfo);
+        }
     }
 
     private void notifyEntryListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.Entry)) {
-                ((EntrySpanListener)listener).parseEntry(spanDecorator, segmentCoreInfo);
-            }
-        });
+        for (EntrySpanListener listener : entrySpanListeners) {
+            listener.parseEntry(spanDecorator, segmentCoreInfo);
+        }
     }
 
     private void notifyLocalListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.Local)) {
-                ((LocalSpanListener)listener).parseLocal(spanDecorator, segmentCoreInfo);
-            }
-        });
+        for (LocalSpanListener listener : localSpanListeners) {
+            listener.parseLocal(spanDecorator, segmentCoreInfo);
+        }
     }
 
     private void notifyFirstListener(SpanDecorator spanDecorator) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.First)) {
-                ((FirstSpanListener)listener).parseFirst(spanDecorator, segmentCoreInfo);
-            }
-        });
+        for (FirstSpanListener listener : firstSpanListeners) {
+            listener.parseFirst(spanDecorator, segmentCoreInfo);
+        }
     }
 
     private void notifyGlobalsListener(UniqueId uniqueId) {
-        spanListeners.forEach(listener -> {
-            if (listener.containsPoint(SpanListener.Point.TraceIds)) {
-                ((GlobalTraceIdsListener)listener).parseGlobalTraceId(uniqueId, segmentCoreInfo);
-            }
-        });
-    }
-
-    private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> spanListeners.add(spanListenerFactory.create(moduleManager, config)));
+        for (GlobalTraceIdsListener listener : globalTraceIdsListeners) {
+            listener.parseGlobalTraceId(uniqueId, segmentCoreInfo);
+        }
     }
 
     public static class Producer implements DataStreamReader.CallBack<UpstreamSegment> {
 
         @Setter private SegmentStandardizationWorker standardizationWorker;
-        private final ModuleManager moduleManager;
-        private final SegmentParserListenerManager listenerManager;
-        private final TraceServiceModuleConfig config;
+        private final ThreadLocal<SegmentParseV2> segmentParses;
 
         public Producer(ModuleManager moduleManager, SegmentParserListenerManager listenerManager, TraceServiceModuleConfig config) {
-            this.moduleManager = moduleManager;
-            this.listenerManager = listenerManager;
-            this.config = config;
+            this.segmentParses = ThreadLocal.withInitial(() -> new SegmentParseV2(moduleManager, listenerManager, config));
         }
 
         public void send(UpstreamSegment segment, SegmentSource source) {
-            SegmentParseV2 segmentParse = new SegmentParseV2(moduleManager, listenerManager, config);
+            SegmentParseV2 segmentParse = segmentParses.get();
             segmentParse.setStandardizationWorker(standardizationWorker);
             segmentParse.parse(new BufferData<>(segment), source);
         }
 
         @Override public boolean call(BufferData<UpstreamSegment> bufferData) {
-            SegmentParseV2 segmentParse = new SegmentParseV2(moduleManager, listenerManager, config);
+            SegmentParseV2 segmentParse = segmentParses.get();
             segmentParse.setStandardizationWorker(standardizationWorker);
             boolean parseResult = segmentParse.parse(bufferData, SegmentSource.Buffer);
             if (parseResult) {
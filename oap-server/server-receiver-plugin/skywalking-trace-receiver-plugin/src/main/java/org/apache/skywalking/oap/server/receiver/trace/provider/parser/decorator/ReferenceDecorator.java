@@ -26,213 +26,115 @@ import org.apache.skywalking.apm.network.language.agent.v2.SegmentReference;
 /**
  * @author peng-yongsheng
  */
-public class ReferenceDecorator implements StandardBuilder {
+public class ReferenceDecorator {
 
-    private boolean isOrigin = true;
-    private StandardBuilder standardBuilder;
     private TraceSegmentReference referenceObject;
-    private TraceSegmentReference.Builder referenceBuilder;
     private final boolean isV2;
     private SegmentReference referenceObjectV2;
-    private SegmentReference.Builder referenceBuilderV2;
-
-    public ReferenceDecorator(TraceSegmentReference referenceObject, StandardBuilder standardBuilder) {
+    private Integer entryEndpointId;
+    private String entryEndpointName;
+    private Integer parentEndpointId;
+    private String parentEndpointName;
+    private Integer networkAddressId;
+    private String networkAddress;
+
+    public ReferenceDecorator(TraceSegmentReference referenceObject) {
         this.referenceObject = referenceObject;
-        this.standardBuilder = standardBuilder;
-        isV2 = false;
-    }
-
-    public ReferenceDecorator(TraceSegmentReference.Builder referenceBuilder, StandardBuilder standardBuilder) {
-        this.referenceBuilder = referenceBuilder;
-        this.standardBuilder = standardBuilder;
-        this.isOrigin = false;
         isV2 = false;
     }
 
-    public ReferenceDecorator(SegmentReference referenceObject, StandardBuilder standardBuilder) {
+    public ReferenceDecorator(SegmentReference referenceObject) {
         this.referenceObjectV2 = referenceObject;
-        this.standardBuilder = standardBuilder;
-        isV2 = true;
-    }
-
-    public ReferenceDecorator(SegmentReference.Builder referenceBuilder, StandardBuilder standardBuilder) {
-        this.referenceBuilderV2 = referenceBuilder;
-        this.standardBuilder = standardBuilder;
-        this.isOrigin = false;
         isV2 = true;
     }
 
     public RefType getRefType() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getRefType() : referenceObject.getRefType();
-        } else {
-            return isV2 ? referenceBuilderV2.getRefType() : referenceBuilder.getRefType();
-        }
+        return isV2 ? referenceObjectV2.getRefType() : referenceObject.getRefType();
     }
 
     public int getRefTypeValue() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getRefTypeValue() : referenceObject.getRefTypeValue();
-        } else {
-            return isV2 ? referenceBuilderV2.getRefTypeValue() : referenceBuilder.getRefTypeValue();
-        }
+        return isV2 ? referenceObjectV2.getRefTypeValue() : referenceObject.getRefTypeValue();
     }
 
     public int getEntryEndpointId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getEntryEndpointId() : referenceObject.getEntryServiceId();
-        } else {
-            return isV2 ? referenceBuilderV2.getEntryEndpointId() : referenceBuilder.getEntryServiceId();
+        if (entryEndpointId != null) {
+            return entryEndpointId;
         }
+        return isV2 ? referenceObjectV2.getEntryEndpointId() : referenceObject.getEntryServiceId();
     }
 
     public void setEntryEndpointId(int value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            referenceBuilderV2.setEntryEndpointId(value);
-        } else {
-            referenceBuilder.setEntryServiceId(value);
-        }
+        this.entryEndpointId = value;
     }
 
     public String getEntryEndpointName() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getEntryEndpoint() : referenceObject.getEntryServiceName();
-        } else {
-            return isV2 ? referenceBuilderV2.getEntryEndpoint() : referenceBuilder.getEntryServiceName();
+        if (entryEndpointName != null) {
+            return entryEndpointName;
         }
+        return isV2 ? referenceObjectV2.getEntryEndpoint() : referenceObject.getEntryServiceName();
     }
 
     public void setEntryEndpointName(String value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            referenceBuilderV2.setEntryEndpoint(value);
-        } else {
-            referenceBuilder.setEntryServiceName(value);
-        }
+        this.entryEndpointName = value;
     }
 
     public int getEntryServiceInstanceId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getEntryServiceInstanceId() : referenceObject.getEntryApplicationInstanceId();
-        } else {
-            return isV2 ? referenceBuilderV2.getEntryServiceInstanceId() : referenceBuilder.getEntryApplicationInstanceId();
-        }
+        return isV2 ? referenceObjectV2.getEntryServiceInstanceId() : referenceObject.getEntryApplicationInstanceId();
     }
 
     public int getParentServiceInstanceId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getParentServiceInstanceId() : referenceObject.getParentApplicationInstanceId();
-        } else {
-            return isV2 ? referenceBuilderV2.getParentServiceInstanceId() : referenceBuilder.getParentApplicationInstanceId();
-        }
+        return isV2 ? referenceObjectV2.getParentServiceInstanceId() : referenceObject.getParentApplicationInstanceId();
     }
 
     public int getParentEndpointId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getParentEndpointId() : referenceObject.getParentServiceId();
-        } else {
-            return isV2 ? referenceBuilderV2.getParentEndpointId() : referenceBuilder.getParentServiceId();
+        if (parentEndpointId != null) {
+            return parentEndpointId;
         }
+        return isV2 ? referenceObjectV2.getParentEndpointId() : referenceObject.getParentServiceId();
     }
 
     public void setParentEndpointId(int value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            referenceBuilderV2.setParentEndpointId(value);
-        } else {
-            referenceBuilder.setParentServiceId(value);
-        }
+        this.parentEndpointId = value;
     }
 
     public int getParentSpanId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getParentSpanId() : referenceObject.getParentSpanId();
-        } else {
-            return isV2 ? referenceBuilderV2.getParentSpanId() : referenceBuilder.getParentSpanId();
-        }
+        return isV2 ? referenceObjectV2.getParentSpanId() : referenceObject.getParentSpanId();
     }
 
     public String getParentEndpointName() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getParentEndpoint() : referenceObject.getParentServiceName();
-        } else {
-            return isV2 ? referenceBuilderV2.getParentEndpoint() : referenceBuilder.getParentServiceName();
+        if (parentEndpointName != null) {
+            return parentEndpointName;
         }
+        return isV2 ? referenceObjectV2.getParentEndpoint() : referenceObject.getParentServiceName();
     }
 
     public void setParentEndpointName(String value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            referenceBuilderV2.setParentEndpoint(value);
-        } else {
-            referenceBuilder.setParentServiceName(value);
-        }
+        this.parentEndpointName = value;
     }
 
     public UniqueId getParentTraceSegmentId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getParentTraceSegmentId() : referenceObject.getParentTraceSegmentId();
-        } else {
-            return isV2 ? referenceBuilderV2.getParentTraceSegmentId() : referenceBuilder.getParentTraceSegmentId();
-        }
+        return isV2 ? referenceObjectV2.getParentTraceSegmentId() : referenceObject.getParentTraceSegmentId();
     }
 
     public int getNetworkAddressId() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getNetworkAddressId() : referenceObject.getNetworkAddressId();
-        } else {
-            return isV2 ? referenceBuilderV2.getNetworkAddressId() : referenceBuilder.getNetworkAddressId();
+        if (networkAddressId != null) {
+            return networkAddressId;
         }
+        return isV2 ? referenceObjectV2.getNetworkAddressId() : referenceObject.getNetworkAddressId();
     }
 
     public void setNetworkAddressId(int value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            referenceBuilderV2.setNetworkAddressId(value);
-        } else {
-            referenceBuilder.setNetworkAddressId(value);
-        }
+        this.networkAddressId = value;
     }
 
     public String getNetworkAddress() {
-        if (isOrigin) {
-            return isV2 ? referenceObjectV2.getNetworkAddress() : referenceObject.getNetworkAddress();
-        } else {
-            return isV2 ? referenceBuilderV2.getNetworkAddress() : referenceBuilder.getNetworkAddress();
+        if (networkAddress != null) {
+            return networkAddress;
         }
+        return isV2 ? referenceObjectV2.getNetworkAddress() : referenceObject.getNetworkAddress();
     }
 
     public void setNetworkAddress(String value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            referenceBuilderV2.setNetworkAddress(value);
-        } else {
-            referenceBuilder.setNetworkAddress(value);
-        }
-    }
-
-    @Override public void toBuilder() {
-        if (this.isOrigin) {
-            this.isOrigin = false;
-            if (isV2) {
-                referenceBuilderV2 = referenceObjectV2.toBuilder();
-            } else {
-                referenceBuilder = referenceObject.toBuilder();
-            }
-            standardBuilder.toBuilder();
-        }
+        this.networkAddress = value;
     }
 }
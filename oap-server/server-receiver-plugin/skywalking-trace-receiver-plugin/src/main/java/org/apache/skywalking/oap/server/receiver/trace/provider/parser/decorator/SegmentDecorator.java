@@ -27,13 +27,10 @@ import static java.util.Objects.isNull;
 /**
  * @author peng-yongsheng
  */
-public class SegmentDecorator implements StandardBuilder {
-    private boolean isOrigin = true;
+public class SegmentDecorator {
     private final TraceSegmentObject segmentObject;
-    private TraceSegmentObject.Builder segmentBuilder;
     private final boolean isV2;
     private final SegmentObject segmentObjectV2;
-    private SegmentObject.Builder segmentBuilderV2;
     private final SpanDecorator[] spanDecorators;
 
     public SegmentDecorator(TraceSegmentObject segmentObject) {
@@ -68,39 +65,12 @@ public class SegmentDecorator implements StandardBuilder {
 
     public SpanDecorator getSpans(int index) {
         if (isNull(spanDecorators[index])) {
-            if (isOrigin) {
-                if (isV2) {
-                    spanDecorators[index] = new SpanDecorator(segmentObjectV2.getSpans(index), this);
-                } else {
-                    spanDecorators[index] = new SpanDecorator(segmentObject.getSpans(index), this);
-                }
-            } else {
-                if (isV2) {
-                    spanDecorators[index] = new SpanDecorator(segmentBuilderV2.getSpansBuilder(index), this);
-                } else {
-                    spanDecorators[index] = new SpanDecorator(segmentBuilder.getSpansBuilder(index), this);
-                }
-            }
-        }
-        return spanDecorators[index];
-    }
-
-    public byte[] toByteArray() {
-        if (isOrigin) {
-            return isV2 ? segmentObjectV2.toByteArray() : segmentObject.toByteArray();
-        } else {
-            return segmentBuilder.build().toByteArray();
-        }
-    }
-
-    @Override public void toBuilder() {
-        if (isOrigin) {
-            this.isOrigin = false;
             if (isV2) {
-                this.segmentBuilderV2 = segmentObjectV2.toBuilder();
+                spanDecorators[index] = new SpanDecorator(segmentObjectV2.getSpans(index));
             } else {
-                this.segmentBuilder = segmentObject.toBuilder();
+                spanDecorators[index] = new SpanDecorator(segmentObject.getSpans(index));
             }
         }
+        return spanDecorators[index];
     }
 }
@@ -26,279 +26,154 @@ import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
 import static java.util.Objects.isNull;
 
 /**
+ * The ids exchanged from the names are kept beside the span, the span itself is never rebuilt, because the segment is
+ * stored as the bytes sent by the agent.
+ *
  * @author peng-yongsheng
  */
-public class SpanDecorator implements StandardBuilder {
+public class SpanDecorator {
     private final boolean isV2;
-    private boolean isOrigin = true;
-    private StandardBuilder standardBuilder;
     private SpanObject spanObject;
     private SpanObjectV2 spanObjectV2;
-    private SpanObject.Builder spanBuilder;
-    private SpanObjectV2.Builder spanBuilderV2;
     private final ReferenceDecorator[] referenceDecorators;
-
-    public SpanDecorator(SpanObject spanObject, StandardBuilder standardBuilder) {
+    private Integer componentId;
+    private String component;
+    private Integer peerId;
+    private String peer;
+    private Integer operationNameId;
+    private String operationName;
+
+    public SpanDecorator(SpanObject spanObject) {
         this.spanObject = spanObject;
-        this.standardBuilder = standardBuilder;
         this.referenceDecorators = new ReferenceDecorator[spanObject.getRefsCount()];
         this.isV2 = false;
     }
 
-    public SpanDecorator(SpanObject.Builder spanBuilder, StandardBuilder standardBuilder) {
-        this.spanBuilder = spanBuilder;
-        this.standardBuilder = standardBuilder;
-        this.isOrigin = false;
-        this.referenceDecorators = new ReferenceDecorator[spanBuilder.getRefsCount()];
-        this.isV2 = false;
-    }
-
-    public SpanDecorator(SpanObjectV2 spanObject, StandardBuilder standardBuilder) {
+    public SpanDecorator(SpanObjectV2 spanObject) {
         this.spanObjectV2 = spanObject;
-        this.standardBuilder = standardBuilder;
         this.referenceDecorators = new ReferenceDecorator[spanObject.getRefsCount()];
         this.isV2 = true;
     }
 
-    public SpanDecorator(SpanObjectV2.Builder spanBuilder, StandardBuilder standardBuilder) {
-        this.spanBuilderV2 = spanBuilder;
-        this.standardBuilder = standardBuilder;
-        this.isOrigin = false;
-        this.referenceDecorators = new ReferenceDecorator[spanBuilder.getRefsCount()];
-        this.isV2 = true;
-    }
-
     public int getSpanId() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getSpanId() : spanObject.getSpanId();
-        } else {
-            return isV2 ? spanBuilderV2.getSpanId() : spanBuilder.getSpanId();
-        }
+        return isV2 ? spanObjectV2.getSpanId() : spanObject.getSpanId();
     }
 
     public int getParentSpanId() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getParentSpanId() : spanObject.getParentSpanId();
-        } else {
-            return isV2 ? spanBuilderV2.getParentSpanId() : spanBuilder.getParentSpanId();
-        }
+        return isV2 ? spanObjectV2.getParentSpanId() : spanObject.getParentSpanId();
     }
 
     public SpanType getSpanType() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getSpanType() : spanObject.getSpanType();
-        } else {
-            return isV2 ? spanBuilderV2.getSpanType() : spanBuilder.getSpanType();
-        }
+        return isV2 ? spanObjectV2.getSpanType() : spanObject.getSpanType();
     }
 
     public int getSpanTypeValue() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getSpanTypeValue() : spanObject.getSpanTypeValue();
-        } else {
-            return isV2 ? spanBuilderV2.getSpanTypeValue() : spanBuilder.getSpanTypeValue();
-        }
+        return isV2 ? spanObjectV2.getSpanTypeValue() : spanObject.getSpanTypeValue();
     }
 
     public SpanLayer getSpanLayer() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getSpanLayer() : spanObject.getSpanLayer();
-        } else {
-            return isV2 ? spanBuilderV2.getSpanLayer() : spanBuilder.getSpanLayer();
-        }
+        return isV2 ? spanObjectV2.getSpanLayer() : spanObject.getSpanLayer();
     }
 
     public int getSpanLayerValue() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getSpanLayerValue() : spanObject.getSpanLayerValue();
-        } else {
-            return isV2 ? spanBuilderV2.getSpanLayerValue() : spanBuilder.getSpanLayerValue();
-        }
+        return isV2 ? spanObjectV2.getSpanLayerValue() : spanObject.getSpanLayerValue();
     }
 
     public long getStartTime() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getStartTime() : spanObject.getStartTime();
-        } else {
-            return isV2 ? spanBuilderV2.getStartTime() : spanBuilder.getStartTime();
-        }
+        return isV2 ? spanObjectV2.getStartTime() : spanObject.getStartTime();
     }
 
     public long getEndTime() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getEndTime() : spanObject.getEndTime();
-        } else {
-            return isV2 ? spanBuilderV2.getEndTime() : spanBuilder.getEndTime();
-        }
+        return isV2 ? spanObjectV2.getEndTime() : spanObject.getEndTime();
     }
 
     public int getComponentId() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getComponentId() : spanObject.getComponentId();
-        } else {
-            return isV2 ? spanBuilderV2.getComponentId() : spanBuilder.getComponentId();
+        if (componentId != null) {
+            return componentId;
         }
+        return isV2 ? spanObjectV2.getComponentId() : spanObject.getComponentId();
     }
 
     public void setComponentId(int value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            spanBuilderV2.setComponentId(value);
-        } else {
-            spanBuilder.setComponentId(value);
-        }
+        this.componentId = value;
     }
 
     public String getComponent() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getComponent() : spanObject.getComponent();
-        } else {
-            return isV2 ? spanBuilderV2.getComponent() : spanBuilder.getComponent();
+        if (component != null) {
+            return component;
         }
+        return isV2 ? spanObjectV2.getComponent() : spanObject.getComponent();
     }
 
     public void setComponent(String value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            spanBuilderV2.setComponent(value);
-        } else {
-            spanBuilder.setComponent(value);
-        }
+        this.component = value;
     }
 
     public int getPeerId() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getPeerId() : spanObject.getPeerId();
-        } else {
-            return isV2 ? spanBuilderV2.getPeerId() : spanBuilder.getPeerId();
+        if (peerId != null) {
+            return peerId;
         }
+        return isV2 ? spanObjectV2.getPeerId() : spanObject.getPeerId();
     }
 
-    public void setPeerId(int peerId) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            spanBuilderV2.setPeerId(peerId);
-        } else {
-            spanBuilder.setPeerId(peerId);
-        }
+    public void setPeerId(int value) {
+        this.peerId = value;
     }
 
     public String getPeer() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getPeer() : spanObject.getPeer();
-        } else {
-            return isV2 ? spanBuilderV2.getPeer() : spanBuilder.getPeer();
+        if (peer != null) {
+            return peer;
         }
+        return isV2 ? spanObjectV2.getPeer() : spanObject.getPeer();
     }
 
-    public void setPeer(String peer) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            spanBuilderV2.setPeer(peer);
-        } else {
-            spanBuilder.setPeer(peer);
-        }
+    public void setPeer(String value) {
+        this.peer = value;
     }
 
     public int getOperationNameId() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getOperationNameId() : spanObject.getOperationNameId();
-        } else {
-            return isV2 ? spanBuilderV2.getOperationNameId() : spanBuilder.getOperationNameId();
+        if (operationNameId != null) {
+            return operationNameId;
         }
+        return isV2 ? spanObjectV2.getOperationNameId() : spanObject.getOperationNameId();
     }
 
     public void setOperationNameId(int value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            spanBuilderV2.setOperationNameId(value);
-        } else {
-            spanBuilder.setOperationNameId(value);
-        }
+        this.operationNameId = value;
     }
 
     public String getOperationName() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getOperationName() : spanObject.getOperationName();
-        } else {
-            return isV2 ? spanBuilderV2.getOperationName() : spanBuilder.getOperationName();
+        if (operationName != null) {
+            return operationName;
         }
+        return isV2 ? spanObjectV2.getOperationName() : spanObject.getOperationName();
     }
 
     public void setOperationName(String value) {
-        if (isOrigin) {
-            toBuilder();
-        }
-        if (isV2) {
-            spanBuilderV2.setOperationName(value);
-        } else {
-            spanBuilder.setOperationName(value);
-        }
+        this.operationName = value;
     }
 
     public boolean getIsError() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getIsError() : spanObject.getIsError();
-        } else {
-            return isV2 ? spanBuilderV2.getIsError() : spanBuilder.getIsError();
-        }
+        return isV2 ? spanObjectV2.getIsError() : spanObject.getIsError();
     }
 
     public int getRefsCount() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getRefsCount() : spanObject.getRefsCount();
-        } else {
-            return isV2 ? spanBuilderV2.getRefsCount() : spanBuilder.getRefsCount();
-        }
+        return isV2 ? spanObjectV2.getRefsCount() : spanObject.getRefsCount();
     }
 
     public ReferenceDecorator getRefs(int index) {
         if (isNull(referenceDecorators[index])) {
-            if (isOrigin) {
-                if (isV2) {
-                    referenceDecorators[index] = new ReferenceDecorator(spanObjectV2.getRefs(index), this);
-                } else {
-                    referenceDecorators[index] = new ReferenceDecorator(spanObject.getRefs(index), this);
-                }
+            if (isV2) {
+                referenceDecorators[index] = new ReferenceDecorator(spanObjectV2.getRefs(index));
             } else {
-                if (isV2) {
-                    referenceDecorators[index] = new ReferenceDecorator(spanBuilderV2.getRefsBuilder(index), this);
-                } else {
-                    referenceDecorators[index] = new ReferenceDecorator(spanBuilder.getRefsBuilder(index), this);
-                }
+                referenceDecorators[index] = new ReferenceDecorator(spanObject.getRefs(index));
             }
         }
         return referenceDecorators[index];
     }
 
     public List<KeyStringValuePair> getAllTags() {
-        if (isOrigin) {
-            return isV2 ? spanObjectV2.getTagsList() : convert(spanObject.getTagsList());
-        } else {
-            return isV2 ? spanBuilderV2.getTagsList() : convert(spanBuilder.getTagsList());
-        }
-    }
-
-    @Override public void toBuilder() {
-        if (this.isOrigin) {
-            this.isOrigin = false;
-            if (isV2) {
-                spanBuilderV2 = spanObjectV2.toBuilder();
-            } else {
-                spanBuilder = spanObject.toBuilder();
-            }
-            standardBuilder.toBuilder();
-        }
+        return isV2 ? spanObjectV2.getTagsList() : convert(spanObject.getTagsList());
     }
 
     private List<KeyStringValuePair> convert(List<KeyWithStringValue> list) {
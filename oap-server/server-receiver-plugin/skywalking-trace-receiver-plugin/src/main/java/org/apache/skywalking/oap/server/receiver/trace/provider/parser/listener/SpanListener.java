@@ -26,6 +26,12 @@ public interface SpanListener {
 
     boolean containsPoint(Point point);
 
+    /**
+     * Clear the status of the previous segment. The listener is reused by the next segment parsed in the same thread,
+     * so the sources handed to the receiver must not be reused, create new ones instead.
+     */
+    void reset();
+
     enum Point {
         Entry, Exit, Local, First, TraceIds
     }
@@ -265,6 +265,15 @@ public class MultiScopesSpanListener implements EntrySpanListener, ExitSpanListe
         }
     }
 
+    @Override public void reset() {
+        entrySourceBuilders.clear();
+        exitSourceBuilders.clear();
+        slowDatabaseAccesses.clear();
+        entrySpanDecorator = null;
+        minuteTimeBucket = 0;
+        traceId = null;
+    }
+
     public static class Factory implements SpanListenerFactory {
 
         @Override
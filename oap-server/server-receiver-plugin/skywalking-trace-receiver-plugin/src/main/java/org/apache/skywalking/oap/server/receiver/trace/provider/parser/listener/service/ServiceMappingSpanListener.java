@@ -39,7 +39,7 @@ public class ServiceMappingSpanListener implements EntrySpanListener {
 
     private final IServiceInventoryRegister serviceInventoryRegister;
     private final ServiceInventoryCache serviceInventoryCache;
-    private List<ServiceMapping> serviceMappings = new LinkedList<>();
+    private final List<ServiceMapping> serviceMappings = new LinkedList<>();
 
     private ServiceMappingSpanListener(ModuleManager moduleManager) {
         this.serviceInventoryCache = moduleManager.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class);
@@ -80,6 +80,10 @@ public class ServiceMappingSpanListener implements EntrySpanListener {
         });
     }
 
+    @Override public void reset() {
+        serviceMappings.clear();
+    }
+
     public static class Factory implements SpanListenerFactory {
 
         @Override public SpanListener create(ModuleManager moduleManager, TraceServiceModuleConfig config) {
@@ -18,11 +18,9 @@
 
 package org.apache.skywalking.oap.server.receiver.trace.provider.parser.standardization;
 
-import org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator.StandardBuilder;
-
 /**
  * @author peng-yongsheng
  */
-public interface IdExchanger<T extends StandardBuilder> {
+public interface IdExchanger<T> {
     boolean exchange(T standardBuilder, int serviceId);
 }
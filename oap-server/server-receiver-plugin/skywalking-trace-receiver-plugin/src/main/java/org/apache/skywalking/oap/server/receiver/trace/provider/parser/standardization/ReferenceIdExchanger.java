@@ -66,7 +66,6 @@ public class ReferenceIdExchanger implements IdExchanger<ReferenceDecorator> {
 
                 exchanged = false;
             } else {
-                standardBuilder.toBuilder();
                 standardBuilder.setEntryEndpointId(entryEndpointId);
                 standardBuilder.setEntryEndpointName(Const.EMPTY_STRING);
             }
@@ -84,7 +83,6 @@ public class ReferenceIdExchanger implements IdExchanger<ReferenceDecorator> {
 
                 exchanged = false;
             } else {
-                standardBuilder.toBuilder();
                 standardBuilder.setParentEndpointId(parentEndpointId);
                 standardBuilder.setParentEndpointName(Const.EMPTY_STRING);
             }
@@ -100,7 +98,6 @@ public class ReferenceIdExchanger implements IdExchanger<ReferenceDecorator> {
 
                 exchanged = false;
             } else {
-                standardBuilder.toBuilder();
                 standardBuilder.setNetworkAddressId(networkAddressId);
                 standardBuilder.setNetworkAddress(Const.EMPTY_STRING);
             }
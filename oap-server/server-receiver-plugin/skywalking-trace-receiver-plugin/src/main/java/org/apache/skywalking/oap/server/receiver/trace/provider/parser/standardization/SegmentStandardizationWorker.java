@@ -19,7 +19,7 @@
 package org.apache.skywalking.oap.server.receiver.trace.provider.parser.standardization;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
@@ -42,13 +42,15 @@ public class SegmentStandardizationWorker extends AbstractWorker<SegmentStandard
 
     public SegmentStandardizationWorker(ModuleDefineHolder moduleDefineHolder,
         DataStreamReader.CallBack<UpstreamSegment> segmentParse, String path, int offsetFileMaxSize,
-        int dataFileMaxSize, boolean cleanWhenRestart, boolean isV6) throws IOException {
+        int dataFileMaxSize, boolean cleanWhenRestart, boolean mappedFile, int replayThreads, boolean isV6) throws IOException {
         super(moduleDefineHolder);
 
         BufferStream.Builder<UpstreamSegment> builder = new BufferStream.Builder<>(path);
         builder.cleanWhenRestart(cleanWhenRestart);
         builder.dataFileMaxSize(dataFileMaxSize);
         builder.offsetFileMaxSize(offsetFileMaxSize);
+        builder.mappedFile(mappedFile);
+        builder.replayThreads(replayThreads);
         builder.parser(UpstreamSegment.parser());
         builder.callBack(segmentParse);
 
@@ -83,10 +85,12 @@ public class SegmentStandardizationWorker extends AbstractWorker<SegmentStandard
 
         @Override
         public void consume(List<SegmentStandardization> data) {
+            List<UpstreamSegment> segments = new ArrayList<>(data.size());
             for (SegmentStandardization aData : data) {
                 traceBufferFileIn.inc();
-                stream.write(aData.getUpstreamSegment());
+                segments.add(aData.getUpstreamSegment());
             }
+            stream.write(segments);
         }
 
         @Override
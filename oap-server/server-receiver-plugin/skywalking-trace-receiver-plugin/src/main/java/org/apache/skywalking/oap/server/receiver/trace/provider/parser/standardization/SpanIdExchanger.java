@@ -75,7 +75,6 @@ public class SpanIdExchanger implements IdExchanger<SpanDecorator> {
 
                 exchanged = false;
             } else {
-                standardBuilder.toBuilder();
                 standardBuilder.setComponentId(componentId);
                 standardBuilder.setComponent(Const.EMPTY_STRING);
             }
@@ -92,7 +91,6 @@ public class SpanIdExchanger implements IdExchanger<SpanDecorator> {
 
                 exchanged = false;
             } else {
-                standardBuilder.toBuilder();
                 standardBuilder.setPeerId(peerId);
                 standardBuilder.setPeer(Const.EMPTY_STRING);
             }
@@ -129,7 +127,6 @@ public class SpanIdExchanger implements IdExchanger<SpanDecorator> {
 
                 exchanged = false;
             } else {
-                standardBuilder.toBuilder();
                 standardBuilder.setOperationNameId(endpointId);
                 standardBuilder.setOperationName(Const.EMPTY_STRING);
             }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
+
+import org.apache.skywalking.apm.network.language.agent.SpanLayer;
+import org.apache.skywalking.apm.network.language.agent.SpanType;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.cache.EndpointInventoryCache;
+import org.apache.skywalking.oap.server.core.cache.ServiceInstanceInventoryCache;
+import org.apache.skywalking.oap.server.core.cache.ServiceInventoryCache;
+import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
+import org.apache.skywalking.oap.server.core.register.EndpointInventory;
+import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
+import org.apache.skywalking.oap.server.core.register.ServiceInventory;
+import org.apache.skywalking.oap.server.core.register.service.IEndpointInventoryRegister;
+import org.apache.skywalking.oap.server.core.register.service.INetworkAddressInventoryRegister;
+import org.apache.skywalking.oap.server.core.register.service.IServiceInventoryRegister;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModuleConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.endpoint.MultiScopesSpanListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.segment.SegmentSpanListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.service.ServiceMappingSpanListener;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Segments parsed per second by the thread reused {@link SegmentParseV2}, compared with a new parser and new listeners
+ * for every segment. Run with the GC profiler, gc.alloc.rate.norm is the bytes allocated per segment.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class SegmentParseV2Benchmark {
+
+    @State(Scope.Benchmark)
+    public static class ParserState {
+        private ModuleManager moduleManager;
+        private SegmentParserListenerManager listenerManager;
+        private TraceServiceModuleConfig config;
+        private SegmentParseV2.Producer producer;
+        private UpstreamSegment segment;
+
+        @Setup
+        public void setup() {
+            ServiceInventory service = new ServiceInventory();
+            service.setName("service");
+            ServiceInstanceInventory instance = new ServiceInstanceInventory();
+            instance.setName("instance");
+            instance.setServiceId(2);
+            EndpointInventory endpoint = new EndpointInventory();
+            endpoint.setName("endpoint");
+
+            ServiceInventoryCache serviceInventoryCache = mock(ServiceInventoryCache.class);
+            when(serviceInventoryCache.get(anyInt())).thenReturn(service);
+            ServiceInstanceInventoryCache instanceInventoryCache = mock(ServiceInstanceInventoryCache.class);
+            when(instanceInventoryCache.get(anyInt())).thenReturn(instance);
+            EndpointInventoryCache endpointInventoryCache = mock(EndpointInventoryCache.class);
+            when(endpointInventoryCache.get(anyInt())).thenReturn(endpoint);
+
+            ModuleServiceHolder coreServices = mock(ModuleServiceHolder.class);
+            when(coreServices.getService(ServiceInventoryCache.class)).thenReturn(serviceInventoryCache);
+            when(coreServices.getService(ServiceInstanceInventoryCache.class)).thenReturn(instanceInventoryCache);
+            when(coreServices.getService(EndpointInventoryCache.class)).thenReturn(endpointInventoryCache);
+            when(coreServices.getService(SourceReceiver.class)).thenReturn(mock(SourceReceiver.class));
+            when(coreServices.getService(IServiceInventoryRegister.class)).thenReturn(mock(IServiceInventoryRegister.class));
+            when(coreServices.getService(IEndpointInventoryRegister.class)).thenReturn(mock(IEndpointInventoryRegister.class));
+            when(coreServices.getService(INetworkAddressInventoryRegister.class)).thenReturn(mock(INetworkAddressInventoryRegister.class));
+            when(coreServices.getService(IComponentLibraryCatalogService.class)).thenReturn(mock(IComponentLibraryCatalogService.class));
+            ModuleServiceHolder telemetryServices = mock(ModuleServiceHolder.class);
+            when(telemetryServices.getService(MetricsCreator.class)).thenReturn(new MetricsCreatorNoop());
+
+            moduleManager = mock(ModuleManager.class);
+            ModuleProviderHolder core = mock(ModuleProviderHolder.class);
+            when(core.provider()).thenReturn(coreServices);
+            when(moduleManager.find(CoreModule.NAME)).thenReturn(core);
+            ModuleProviderHolder telemetry = mock(ModuleProviderHolder.class);
+            when(telemetry.provider()).thenReturn(telemetryServices);
+            when(moduleManager.find(TelemetryModule.NAME)).thenReturn(telemetry);
+
+            config = new TraceServiceModuleConfig();
+            listenerManager = new SegmentParserListenerManager();
+            listenerManager.add(new MultiScopesSpanListener.Factory());
+            listenerManager.add(new ServiceMappingSpanListener.Factory());
+            listenerManager.add(new SegmentSpanListener.Factory(10000));
+            producer = new SegmentParseV2.Producer(moduleManager, listenerManager, config);
+
+            long startTime = System.currentTimeMillis();
+            SegmentObject.Builder segmentObject = SegmentObject.newBuilder();
+            segmentObject.setTraceSegmentId(UniqueId.newBuilder().addIdParts(1).addIdParts(2).addIdParts(3));
+            segmentObject.setServiceId(2);
+            segmentObject.setServiceInstanceId(3);
+            segmentObject.addSpans(SpanObjectV2.newBuilder().setSpanId(0).setParentSpanId(-1)
+                .setSpanType(SpanType.Entry).setSpanLayer(SpanLayer.Http).setComponentId(1).setOperationNameId(4)
+                .setStartTime(startTime).setEndTime(startTime + 100));
+            segmentObject.addSpans(SpanObjectV2.newBuilder().setSpanId(1).setParentSpanId(0)
+                .setSpanType(SpanType.Local).setOperationNameId(5)
+                .setStartTime(startTime + 10).setEndTime(startTime + 90));
+            segmentObject.addSpans(SpanObjectV2.newBuilder().setSpanId(2).setParentSpanId(1)
+                .setSpanType(SpanType.Exit).setSpanLayer(SpanLayer.RPCFramework).setComponentId(3).setOperationNameId(6)
+                .setPeerId(7).setStartTime(startTime + 20).setEndTime(startTime + 80));
+
+            segment = UpstreamSegment.newBuilder()
+                .addGlobalTraceIds(UniqueId.newBuilder().addIdParts(1).addIdParts(2).addIdParts(3))
+                .setSegment(segmentObject.build().toByteString())
+                .build();
+        }
+    }
+
+    @Benchmark
+    public void reusedParser(ParserState state) {
+        state.producer.send(state.segment, SegmentSource.Agent);
+    }
+
+    @Benchmark
+    public void parserPerSegment(ParserState state) {
+        new SegmentParseV2.Producer(state.moduleManager, state.listenerManager, state.config).send(state.segment, SegmentSource.Agent);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(SegmentParseV2Benchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator;
+
+import org.apache.skywalking.apm.network.language.agent.v2.*;
+import org.junit.*;
+
+public class SpanDecoratorTest {
+
+    @Test
+    public void testExchangedIdsKeptBesideSpan() {
+        SpanObjectV2 span = SpanObjectV2.newBuilder().setSpanId(1).setOperationName("/test").setPeer("localhost:8080")
+            .addRefs(SegmentReference.newBuilder().setParentEndpoint("/parent")).build();
+        SegmentObject segment = SegmentObject.newBuilder().addSpans(span).build();
+
+        SegmentDecorator segmentDecorator = new SegmentDecorator(segment);
+        SpanDecorator spanDecorator = segmentDecorator.getSpans(0);
+        Assert.assertEquals(0, spanDecorator.getOperationNameId());
+        Assert.assertEquals("/test", spanDecorator.getOperationName());
+
+        spanDecorator.setOperationNameId(10);
+        spanDecorator.setOperationName("");
+        spanDecorator.setPeerId(20);
+        ReferenceDecorator referenceDecorator = spanDecorator.getRefs(0);
+        referenceDecorator.setParentEndpointId(30);
+        referenceDecorator.setParentEndpointName("");
+
+        Assert.assertSame(spanDecorator, segmentDecorator.getSpans(0));
+        Assert.assertEquals(10, spanDecorator.getOperationNameId());
+        Assert.assertEquals("", spanDecorator.getOperationName());
+        Assert.assertEquals(20, spanDecorator.getPeerId());
+        Assert.assertEquals("localhost:8080", spanDecorator.getPeer());
+        Assert.assertEquals(30, spanDecorator.getRefs(0).getParentEndpointId());
+        Assert.assertEquals("", spanDecorator.getRefs(0).getParentEndpointName());
+
+        // The segment sent by the agent is untouched.
+        Assert.assertEquals(segment, SegmentObject.newBuilder().addSpans(span).build());
+        Assert.assertEquals("/test", segment.getSpans(0).getOperationName());
+    }
+}
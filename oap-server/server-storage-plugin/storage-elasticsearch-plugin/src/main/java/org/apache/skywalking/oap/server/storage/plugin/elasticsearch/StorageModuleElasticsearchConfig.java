@@ -35,7 +35,12 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     @Setter private int bulkActions = 2000;
     @Setter private int flushInterval = 10;
     @Setter private int concurrentRequests = 2;
-    @Setter private int syncBulkActions = 3;
+    @Setter private int syncBulkActions = 1000;
+    /**
+     * The max size in MB of one synchronous bulk.
+     */
+    @Setter private int syncBulkSize = 5;
+    @Setter private int syncConcurrentRequests = 2;
     @Setter private String user;
     @Setter private String password;
     @Setter private int metadataQueryMaxSize = 5000;
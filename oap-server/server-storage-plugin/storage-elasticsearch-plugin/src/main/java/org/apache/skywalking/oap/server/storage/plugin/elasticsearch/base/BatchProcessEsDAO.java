@@ -18,11 +18,12 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
-import java.util.List;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.client.request.*;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.*;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
@@ -39,13 +40,15 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     private final int bulkActions;
     private final int flushInterval;
     private final int concurrentRequests;
+    private final SyncBulkExecutor syncBulkExecutor;
 
     public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int flushInterval,
-        int concurrentRequests) {
+        int concurrentRequests, SyncBulkExecutor syncBulkExecutor) {
         super(client);
         this.bulkActions = bulkActions;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
+        this.syncBulkExecutor = syncBulkExecutor;
     }
 
     @Override public void asynchronous(InsertRequest insertRequest) {
@@ -56,18 +59,22 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
         this.bulkProcessor.add((IndexRequest)insertRequest);
     }
 
-    @Override public void synchronous(List<PrepareRequest> prepareRequests) {
+    @Override public List<PrepareRequest> synchronous(List<PrepareRequest> prepareRequests) {
+        List<PrepareRequest> failedRequests = new ArrayList<>();
         if (CollectionUtils.isNotEmpty(prepareRequests)) {
-            BulkRequest request = new BulkRequest();
+            List<DocWriteRequest> requests = new ArrayList<>(prepareRequests.size());
 
             for (PrepareRequest prepareRequest : prepareRequests) {
                 if (prepareRequest instanceof InsertRequest) {
-                    request.add((IndexRequest)prepareRequest);
+                    requests.add((IndexRequest)prepareRequest);
                 } else {
-                    request.add((UpdateRequest)prepareRequest);
+                    requests.add((UpdateRequest)prepareRequest);
                 }
             }
-            getClient().synchronousBulk(request);
+            for (DocWriteRequest request : syncBulkExecutor.execute(requests)) {
+                failedRequests.add((PrepareRequest)request);
+            }
         }
+        return failedRequests;
     }
 }
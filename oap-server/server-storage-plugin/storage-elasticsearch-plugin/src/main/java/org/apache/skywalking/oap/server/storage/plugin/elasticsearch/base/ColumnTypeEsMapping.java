@@ -18,7 +18,8 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
-import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHistogram;
+import org.apache.skywalking.oap.server.core.analysis.metrics.QuantileSketch;
 import org.apache.skywalking.oap.server.core.storage.model.DataTypeMapping;
 
 /**
@@ -35,9 +36,9 @@ public class ColumnTypeEsMapping implements DataTypeMapping {
             return "double";
         } else if (String.class.equals(type)) {
             return "keyword";
-        } else if (IntKeyLongValueHashMap.class.equals(type)) {
+        } else if (IntKeyLongValueHistogram.class.equals(type)) {
             return "text";
-        } else if (byte[].class.equals(type)) {
+        } else if (byte[].class.equals(type) || QuantileSketch.class.equals(type)) {
             return "binary";
         } else {
             throw new IllegalArgumentException("Unsupported data type: " + type.getName());
@@ -22,7 +22,7 @@ import java.io.IOException;
 import java.util.Map;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.query.sql.Where;
-import org.apache.skywalking.oap.server.core.storage.AbstractDAO;
+import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.elasticsearch.common.xcontent.*;
@@ -58,6 +58,18 @@ public abstract class EsDAO extends AbstractDAO<ElasticSearchClient> {
         sourceBuilder.size(0);
     }
 
+    /**
+     * Write the fields straight into the builder when the storage builder supports it, through the map otherwise.
+     */
+    protected XContentBuilder data2builder(StorageBuilder storageBuilder, StorageData storageData) throws IOException {
+        if (storageBuilder instanceof StorageStreamBuilder) {
+            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+            ((StorageStreamBuilder)storageBuilder).data2Stream(storageData, new XContentStreamWriter(builder));
+            return builder.endObject();
+        }
+        return map2builder(storageBuilder.data2Map(storageData));
+    }
+
     protected XContentBuilder map2builder(Map<String, Object> objectMap) throws IOException {
         XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
         for (String key : objectMap.keySet()) {
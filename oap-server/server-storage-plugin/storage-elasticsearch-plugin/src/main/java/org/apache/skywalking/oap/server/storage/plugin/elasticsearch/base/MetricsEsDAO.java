@@ -51,13 +51,13 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
     }
 
     @Override public ElasticSearchInsertRequest prepareBatchInsert(Model model, Metrics metrics) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
+        XContentBuilder builder = data2builder(storageBuilder, metrics);
         String modelName = TimeSeriesUtils.timeSeries(model, metrics.getTimeBucket());
         return getClient().prepareInsert(modelName, metrics.id(), builder);
     }
 
     @Override public ElasticSearchUpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
+        XContentBuilder builder = data2builder(storageBuilder, metrics);
         String modelName = TimeSeriesUtils.timeSeries(model, metrics.getTimeBucket());
         return getClient().prepareUpdate(modelName, metrics.id(), builder);
     }
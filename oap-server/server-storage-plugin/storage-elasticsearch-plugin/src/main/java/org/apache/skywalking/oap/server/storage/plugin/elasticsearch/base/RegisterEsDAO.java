@@ -47,12 +47,12 @@ public class RegisterEsDAO extends EsDAO implements IRegisterDAO {
     }
 
     @Override public void forceInsert(String modelName, RegisterSource source) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(source));
+        XContentBuilder builder = data2builder(storageBuilder, source);
         getClient().forceInsert(modelName, source.id(), builder);
     }
 
     @Override public void forceUpdate(String modelName, RegisterSource source) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(source));
+        XContentBuilder builder = data2builder(storageBuilder, source);
         getClient().forceUpdate(modelName, source.id(), builder);
     }
 }
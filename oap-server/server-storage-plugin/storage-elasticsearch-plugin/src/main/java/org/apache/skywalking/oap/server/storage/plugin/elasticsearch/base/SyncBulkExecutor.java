@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.*;
+
+/**
+ * Execute the synchronous requests of the persistence timer. The requests are split into bulks limited by the number of
+ * actions and the estimated size in bytes, at most `concurrentRequests` bulks are executing at the same time, and the
+ * caller is blocked until one of them finishes when all are busy. The items failed by the rejection of the write queue
+ * or by a server error are retried in a new bulk, the others are logged.
+ */
+public class SyncBulkExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncBulkExecutor.class);
+
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final ElasticSearchClient client;
+    private final ModuleDefineHolder moduleDefineHolder;
+    private final int bulkActions;
+    private final long bulkSizeInBytes;
+    private final Semaphore permits;
+    private final ExecutorService executorService;
+    private HistogramMetrics bulkSizeHistogram;
+    private HistogramMetrics bulkLatency;
+    private CounterMetrics rejectedCounter;
+    private CounterMetrics failedCounter;
+
+    public SyncBulkExecutor(ElasticSearchClient client, ModuleDefineHolder moduleDefineHolder, int bulkActions,
+        int bulkSizeInMB, int concurrentRequests) {
+        this.client = client;
+        this.moduleDefineHolder = moduleDefineHolder;
+        this.bulkActions = Math.max(bulkActions, 1);
+        this.bulkSizeInBytes = Math.max(bulkSizeInMB, 1) * 1024L * 1024L;
+        int concurrency = Math.max(concurrentRequests, 1);
+        this.permits = new Semaphore(concurrency);
+        this.executorService = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder()
+            .setDaemon(true).setNameFormat("es-sync-bulk-%s").build());
+    }
+
+    /**
+     * Return after all the requests are executed, or failed after retries.
+     *
+     * @return the requests failed after retries.
+     */
+    public List<DocWriteRequest> execute(List<DocWriteRequest> requests) {
+        initMetrics();
+
+        List<BulkRequest> bulkRequests = new ArrayList<>();
+        List<Future<List<DocWriteRequest>>> futures = new ArrayList<>();
+        BulkRequest bulkRequest = new BulkRequest();
+        for (DocWriteRequest request : requests) {
+            bulkRequest.add(request);
+            if (bulkRequest.numberOfActions() >= bulkActions || bulkRequest.estimatedSizeInBytes() >= bulkSizeInBytes) {
+                bulkRequests.add(bulkRequest);
+                futures.add(submit(bulkRequest));
+                bulkRequest = new BulkRequest();
+            }
+        }
+        if (bulkRequest.numberOfActions() > 0) {
+            bulkRequests.add(bulkRequest);
+            futures.add(submit(bulkRequest));
+        }
+
+        List<DocWriteRequest> failedRequests = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                failedRequests.addAll(futures.get(i).get());
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error(e.getMessage(), e);
+                failedRequests.addAll(bulkRequests.get(i).requests());
+            }
+        }
+        return failedRequests;
+    }
+
+    private Future<List<DocWriteRequest>> submit(BulkRequest bulkRequest) {
+        permits.acquireUninterruptibly();
+        try {
+            return executorService.submit(() -> {
+                try {
+                    return execute(bulkRequest);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the requests of the bulk failed after retries.
+     */
+    private List<DocWriteRequest> execute(BulkRequest bulkRequest) {
+        List<DocWriteRequest> failedRequests = new ArrayList<>();
+        int retries = 0;
+        while (bulkRequest != null) {
+            bulkSizeHistogram.observe(bulkRequest.numberOfActions());
+
+            BulkResponse response = null;
+            HistogramMetrics.Timer timer = bulkLatency.createTimer();
+            try {
+                response = client.synchronousBulk(bulkRequest);
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            } finally {
+                timer.finish();
+            }
+
+            if (response == null) {
+                // The whole bulk failed, it is safe to send again, the documents are written as a whole.
+                if (retries >= MAX_RETRIES) {
+                    failedCounter.inc(bulkRequest.numberOfActions());
+                    failedRequests.addAll(bulkRequest.requests());
+                    return failedRequests;
+                }
+            } else {
+                bulkRequest = retriableItems(bulkRequest, response, retries >= MAX_RETRIES, failedRequests);
+            }
+
+            if (bulkRequest != null) {
+                retries++;
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS << retries);
+                } catch (InterruptedException e) {
+                    logger.warn("thread wake up");
+                }
+            }
+        }
+        return failedRequests;
+    }
+
+    /**
+     * @param failedRequests to collect the failed items which are not retried.
+     * @return the bulk of the failed items which are worth retrying, or null if there is none.
+     */
+    private BulkRequest retriableItems(BulkRequest bulkRequest, BulkResponse response, boolean noMoreRetry,
+        List<DocWriteRequest> failedRequests) {
+        if (!response.hasFailures()) {
+            return null;
+        }
+
+        BulkRequest retryRequest = new BulkRequest();
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                continue;
+            }
+            if (RestStatus.TOO_MANY_REQUESTS.equals(item.status())) {
+                rejectedCounter.inc();
+            }
+            if (!noMoreRetry && isRetriable(item.status())) {
+                retryRequest.add(bulkRequest.requests().get(item.getItemId()));
+            } else {
+                failedCounter.inc();
+                failedRequests.add(bulkRequest.requests().get(item.getItemId()));
+                logger.error("Bulk item failure, index: {}, id: {}, message: {}", item.getIndex(), item.getId(), item.getFailureMessage());
+            }
+        }
+        return retryRequest.numberOfActions() > 0 ? retryRequest : null;
+    }
+
+    private boolean isRetriable(RestStatus status) {
+        return RestStatus.TOO_MANY_REQUESTS.equals(status) || status.getStatus() >= 500;
+    }
+
+    private synchronized void initMetrics() {
+        if (bulkLatency != null) {
+            return;
+        }
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        bulkSizeHistogram = metricsCreator.createHistogramMetric("es_sync_bulk_size", "The number of actions in the synchronous bulk of elasticsearch",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE, 10, 100, 500, 1000, 2000, 5000);
+        rejectedCounter = metricsCreator.createCounter("es_sync_bulk_rejected_count", "The number of items rejected by elasticsearch in the synchronous bulk",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        failedCounter = metricsCreator.createCounter("es_sync_bulk_failed_count", "The number of items failed after retries in the synchronous bulk",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        bulkLatency = metricsCreator.createHistogramMetric("es_sync_bulk_latency", "The latency of the synchronous bulk of elasticsearch",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.storage.StorageStreamWriter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+/**
+ * Write the fields into the current object of the builder.
+ */
+class XContentStreamWriter implements StorageStreamWriter {
+
+    private final XContentBuilder builder;
+
+    XContentStreamWriter(XContentBuilder builder) {
+        this.builder = builder;
+    }
+
+    @Override public void writeInt(String column, int value) throws IOException {
+        builder.field(column, value);
+    }
+
+    @Override public void writeLong(String column, long value) throws IOException {
+        builder.field(column, value);
+    }
+
+    @Override public void writeDouble(String column, double value) throws IOException {
+        builder.field(column, value);
+    }
+
+    @Override public void writeString(String column, String value) throws IOException {
+        builder.field(column, value);
+    }
+
+    /**
+     * The JSON builder writes the binary value as Base64 while writing the field.
+     */
+    @Override public void writeBinary(String column, byte[] value) throws IOException {
+        builder.field(column, value);
+    }
+
+    @Override public void writeStorageData(String column, StorageDataType value) throws IOException {
+        builder.field(column, value == null ? null : value.toStorageData());
+    }
+}
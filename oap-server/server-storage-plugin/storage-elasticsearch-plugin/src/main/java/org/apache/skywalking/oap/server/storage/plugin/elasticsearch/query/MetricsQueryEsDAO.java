@@ -121,6 +121,37 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         return intValues;
     }
 
+    @Override public IntValues[] getMultipleLinearIntValues(String indName, Downsampling downsampling, List<String> ids,
+        int numOfLinear, String valueCName) throws IOException {
+        String indexName = ModelName.build(downsampling, indName);
+
+        SearchResponse response = getClient().ids(indexName, ids.toArray(new String[0]));
+        Map<String, Map<String, Object>> idMap = toMap(response);
+
+        IntValues[] intValuesArray = new IntValues[numOfLinear];
+        for (int i = 0; i < intValuesArray.length; i++) {
+            intValuesArray[i] = new IntValues();
+        }
+
+        for (String id : ids) {
+            IntKeyLongValueHistogram multipleValues = new IntKeyLongValueHistogram(5);
+            if (idMap.containsKey(id)) {
+                Map<String, Object> source = idMap.get(id);
+                multipleValues.toObject((String)source.getOrDefault(valueCName, ""));
+            }
+
+            int[] keys = multipleValues.sortedKeys();
+            for (int i = 0; i < intValuesArray.length; i++) {
+                KVInt kvInt = new KVInt();
+                kvInt.setId(id);
+                kvInt.setValue(i < keys.length ? multipleValues.get(keys[i]) : 0);
+                intValuesArray[i].getValues().add(kvInt);
+            }
+        }
+
+        return intValuesArray;
+    }
+
     @Override public Thermodynamic getThermodynamic(String indName, Downsampling downsampling, List<String> ids, String valueCName) throws IOException {
         String indexName = ModelName.build(downsampling, indName);
 
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.action.index.*;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.*;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.*;
+
+public class SyncBulkExecutorTestCase {
+
+    private ElasticSearchClient client;
+    private ModuleDefineHolder moduleDefineHolder;
+
+    @Before
+    public void setUp() {
+        client = mock(ElasticSearchClient.class);
+        moduleDefineHolder = mock(ModuleDefineHolder.class, RETURNS_DEEP_STUBS);
+        when(moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)).thenReturn(new MetricsCreatorNoop());
+    }
+
+    @Test
+    public void testSplitByActions() throws Exception {
+        when(client.synchronousBulk(any(BulkRequest.class))).thenAnswer(invocation -> response((BulkRequest)invocation.getArguments()[0]));
+
+        SyncBulkExecutor executor = new SyncBulkExecutor(client, moduleDefineHolder, 2, 5, 2);
+        Assert.assertTrue(executor.execute(requests(5)).isEmpty());
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(3)).synchronousBulk(captor.capture());
+
+        int actions = 0;
+        for (BulkRequest request : captor.getAllValues()) {
+            Assert.assertTrue(request.numberOfActions() <= 2);
+            actions += request.numberOfActions();
+        }
+        Assert.assertEquals(5, actions);
+    }
+
+    @Test
+    public void testRetryRejectedItemsOnly() throws Exception {
+        List<DocWriteRequest> requests = requests(3);
+        List<BulkRequest> executed = new ArrayList<>();
+
+        when(client.synchronousBulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+            BulkRequest request = (BulkRequest)invocation.getArguments()[0];
+            executed.add(request);
+            if (executed.size() == 1) {
+                return response(request, RestStatus.OK, RestStatus.TOO_MANY_REQUESTS, RestStatus.BAD_REQUEST);
+            }
+            return response(request);
+        });
+
+        SyncBulkExecutor executor = new SyncBulkExecutor(client, moduleDefineHolder, 10, 5, 1);
+        List<DocWriteRequest> failed = executor.execute(requests);
+
+        Assert.assertEquals(Collections.singletonList(requests.get(2)), failed);
+        Assert.assertEquals(2, executed.size());
+        Assert.assertEquals(1, executed.get(1).numberOfActions());
+        Assert.assertSame(requests.get(1), executed.get(1).requests().get(0));
+    }
+
+    private List<DocWriteRequest> requests(int count) {
+        List<DocWriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new IndexRequest("metrics", "type", String.valueOf(i)).source("value", i));
+        }
+        return requests;
+    }
+
+    private BulkResponse response(BulkRequest request, RestStatus... statuses) {
+        BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+        for (int i = 0; i < items.length; i++) {
+            DocWriteRequest item = request.requests().get(i);
+            RestStatus status = i < statuses.length ? statuses[i] : RestStatus.OK;
+            if (RestStatus.OK.equals(status)) {
+                IndexResponse indexResponse = new IndexResponse(new ShardId(item.index(), "uuid", 0), item.type(), item.id(), 1, 1, 1, true);
+                items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX, indexResponse);
+            } else {
+                BulkItemResponse.Failure failure = new BulkItemResponse.Failure(item.index(), item.type(), item.id(), new RuntimeException(status.name()), status);
+                items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX, failure);
+            }
+        }
+        return new BulkResponse(items, 1);
+    }
+}
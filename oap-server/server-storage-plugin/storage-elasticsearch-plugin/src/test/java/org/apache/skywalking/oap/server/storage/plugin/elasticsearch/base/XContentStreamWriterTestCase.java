@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.*;
+import org.junit.*;
+
+public class XContentStreamWriterTestCase {
+
+    @Test
+    public void testSameAsMap() throws Exception {
+        byte[] binary = "segment binary".getBytes();
+
+        XContentBuilder streamBuilder = XContentFactory.jsonBuilder().startObject();
+        XContentStreamWriter writer = new XContentStreamWriter(streamBuilder);
+        writer.writeString("name", "service");
+        writer.writeInt("count", 2);
+        writer.writeLong("total", 100L);
+        writer.writeBinary("data_binary", binary);
+        writer.writeStorageData("detail", null);
+        streamBuilder.endObject();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "service");
+        map.put("count", 2);
+        map.put("total", 100L);
+        map.put("data_binary", Base64.getEncoder().encodeToString(binary));
+        map.put("detail", null);
+        XContentBuilder mapBuilder = new MetricsEsDAO(null, null).map2builder(map);
+
+        Assert.assertEquals(Strings.toString(mapBuilder), Strings.toString(streamBuilder));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.io.IOException;
+import java.sql.*;
+import org.apache.skywalking.oap.server.core.storage.StorageStreamReader;
+
+/**
+ * Read the columns of the current row of the result of `SELECT *` by index, the first column is the id.
+ */
+public class ResultSetReader implements StorageStreamReader {
+
+    private final String modelName;
+    private final ResultSet resultSet;
+
+    public ResultSetReader(String modelName, ResultSet resultSet) {
+        this.modelName = modelName;
+        this.resultSet = resultSet;
+    }
+
+    @Override public int readInt(String column) throws IOException {
+        try {
+            return resultSet.getInt(index(column));
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override public long readLong(String column) throws IOException {
+        try {
+            return resultSet.getLong(index(column));
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override public double readDouble(String column) throws IOException {
+        try {
+            return resultSet.getDouble(index(column));
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override public String readString(String column) throws IOException {
+        try {
+            return resultSet.getString(index(column));
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private int index(String column) throws IOException {
+        int index = TableMetaInfo.columnIndex(modelName, column);
+        if (index < 0) {
+            throw new IOException("Column " + column + " doesn't exist in " + modelName);
+        }
+        // JDBC column index starts from 1, and the first one is the id.
+        return index + 2;
+    }
+}
@@ -20,11 +20,13 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc;
 
 import java.sql.*;
 import java.util.List;
+import lombok.Getter;
 import org.apache.skywalking.oap.server.library.client.request.*;
 import org.slf4j.*;
 
 /**
- * A SQL executor.
+ * A SQL executor. The executors of the same SQL could be executed in one JDBC batch, see {@link
+ * #setParameters(PreparedStatement)}.
  *
  * @author wusheng
  */
@@ -32,8 +34,8 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
 
     private static final Logger logger = LoggerFactory.getLogger(SQLExecutor.class);
 
-    private String sql;
-    private List<Object> param;
+    @Getter private String sql;
+    @Getter private List<Object> param;
 
     public SQLExecutor(String sql, List<Object> param) {
         this.sql = sql;
@@ -41,13 +43,20 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
     }
 
     public void invoke(Connection connection) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            setParameters(preparedStatement);
 
+            logger.debug("execute aql in batch: {}", sql);
+            preparedStatement.execute();
+        }
+    }
+
+    /**
+     * Set the parameters of this executor into a statement prepared by the same SQL.
+     */
+    public void setParameters(PreparedStatement preparedStatement) throws SQLException {
         for (int i = 0; i < param.size(); i++) {
             preparedStatement.setObject(i + 1, param.get(i));
         }
-
-        logger.debug("execute aql in batch: {}", sql);
-        preparedStatement.execute();
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.util.Base64;
+import org.apache.skywalking.oap.server.core.storage.StorageStreamWriter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * Put the fields into the parameters of the SQL by the index of the columns in the table, the columns which the model
+ * doesn't have are ignored, the same as the map.
+ */
+public class SQLParamWriter implements StorageStreamWriter {
+
+    private final String modelName;
+    private final Object[] params;
+    private final int offset;
+
+    /**
+     * @param offset the index of the parameter of the first column.
+     */
+    public SQLParamWriter(String modelName, Object[] params, int offset) {
+        this.modelName = modelName;
+        this.params = params;
+        this.offset = offset;
+    }
+
+    @Override public void writeInt(String column, int value) {
+        write(column, value);
+    }
+
+    @Override public void writeLong(String column, long value) {
+        write(column, value);
+    }
+
+    @Override public void writeDouble(String column, double value) {
+        write(column, value);
+    }
+
+    @Override public void writeString(String column, String value) {
+        write(column, value);
+    }
+
+    @Override public void writeBinary(String column, byte[] value) {
+        write(column, value == null ? null : Base64.getEncoder().encodeToString(value));
+    }
+
+    @Override public void writeStorageData(String column, StorageDataType value) {
+        write(column, value == null ? null : value.toStorageData());
+    }
+
+    private void write(String column, Object value) {
+        int index = TableMetaInfo.columnIndex(modelName, column);
+        if (index >= 0) {
+            params[offset + index] = value;
+        }
+    }
+}
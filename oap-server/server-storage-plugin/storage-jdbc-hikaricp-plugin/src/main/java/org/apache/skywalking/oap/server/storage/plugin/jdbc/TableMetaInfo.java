@@ -18,21 +18,37 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc;
 
-import java.util.HashMap;
-import java.util.Map;
-import org.apache.skywalking.oap.server.core.storage.model.Model;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
 
 /**
  * @author wusheng
  */
 public class TableMetaInfo {
     private static Map<String, Model> TABLES = new HashMap<>();
+    private static Map<String, Map<String, Integer>> COLUMN_INDEXES = new HashMap<>();
 
     public static void addModel(Model model) {
         TABLES.put(model.getName(), model);
+
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        List<ModelColumn> columns = model.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndexes.put(columns.get(i).getColumnName().getName(), i);
+        }
+        COLUMN_INDEXES.put(model.getName(), columnIndexes);
     }
 
     public static Model get(String moduleName) {
         return TABLES.get(moduleName);
     }
+
+    /**
+     * @return the index of the column in {@link Model#getColumns()}, which is also the order of the columns in the
+     * table after the id, or -1 if the model doesn't have it.
+     */
+    public static int columnIndex(String modelName, String columnName) {
+        Integer index = COLUMN_INDEXES.get(modelName).get(columnName);
+        return index == null ? -1 : index;
+    }
 }
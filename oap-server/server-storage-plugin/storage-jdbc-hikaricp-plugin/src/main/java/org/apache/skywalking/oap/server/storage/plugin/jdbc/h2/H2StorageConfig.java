@@ -33,4 +33,8 @@ public class H2StorageConfig extends ModuleConfig {
     private String user = "";
     private String password = "";
     private int metadataQueryMaxSize = 5000;
+    /**
+     * The number of threads executing the asynchronous batch requests, such as segment and alarm records.
+     */
+    private int asyncBatchPersistentPoolSize = 1;
 }
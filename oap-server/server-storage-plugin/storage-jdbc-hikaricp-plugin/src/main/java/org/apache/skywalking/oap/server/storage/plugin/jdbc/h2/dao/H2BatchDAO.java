@@ -19,10 +19,9 @@
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.sql.*;
-import java.util.List;
+import java.util.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
-import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
-import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
@@ -41,42 +40,84 @@ public class H2BatchDAO implements IBatchDAO {
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
 
-    public H2BatchDAO(JDBCHikariCPClient h2Client) {
+    public H2BatchDAO(JDBCHikariCPClient h2Client, int asyncBatchPersistentPoolSize) {
         this.h2Client = h2Client;
 
-        String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, 1, 20);
-        try {
-            ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
-        } catch (Exception e) {
-            throw new UnexpectedException(e.getMessage(), e);
-        }
-
-        this.dataCarrier = new DataCarrier<>(1, 10000);
-        this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new H2BatchDAO.H2BatchConsumer(this));
+        // One consumer thread per channel, a bulk consume pool would consume all the channels of a carrier by one thread.
+        int size = Math.max(asyncBatchPersistentPoolSize, 1);
+        this.dataCarrier = new DataCarrier<>("H2_ASYNCHRONOUS_BATCH_PERSISTENT", size, 10000);
+        this.dataCarrier.consume(new H2BatchDAO.H2BatchConsumer(this), size);
     }
 
-    @Override public void synchronous(List<PrepareRequest> prepareRequests) {
+    @Override public List<PrepareRequest> synchronous(List<PrepareRequest> prepareRequests) {
         if (CollectionUtils.isEmpty(prepareRequests)) {
-            return;
+            return Collections.emptyList();
         }
 
         if (logger.isDebugEnabled()) {
             logger.debug("batch sql statements execute, data size: {}", prepareRequests.size());
         }
 
-        try (Connection connection = h2Client.getConnection()) {
-            for (PrepareRequest prepareRequest : prepareRequests) {
+        Map<String, List<SQLExecutor>> batchRequests = new LinkedHashMap<>();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            SQLExecutor sqlExecutor = (SQLExecutor)prepareRequest;
+            batchRequests.computeIfAbsent(sqlExecutor.getSql(), sql -> new ArrayList<>()).add(sqlExecutor);
+        }
+
+        List<PrepareRequest> failedRequests = new ArrayList<>();
+        try (Connection connection = h2Client.getTransactionConnection()) {
+            for (Map.Entry<String, List<SQLExecutor>> batchRequest : batchRequests.entrySet()) {
+                executeBatch(connection, batchRequest.getKey(), batchRequest.getValue(), failedRequests);
+            }
+        } catch (SQLException | JDBCClientException e) {
+            logger.error(e.getMessage(), e);
+            // Not sure which of them are committed.
+            return prepareRequests;
+        }
+        return failedRequests;
+    }
+
+    /**
+     * Execute the statements of the same SQL in one JDBC batch and transaction. If the batch fails, execute them one by
+     * one to find out the failed ones.
+     *
+     * @param failedRequests to collect the statements failed.
+     */
+    private void executeBatch(Connection connection, String sql, List<SQLExecutor> sqlExecutors,
+        List<PrepareRequest> failedRequests) {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            for (SQLExecutor sqlExecutor : sqlExecutors) {
+                sqlExecutor.setParameters(preparedStatement);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(connection);
+            logger.warn("batch sql statements execute failure, execute them one by one, sql: {}, cause: {}", sql, e.getMessage());
+
+            for (SQLExecutor sqlExecutor : sqlExecutors) {
                 try {
-                    SQLExecutor sqlExecutor = (SQLExecutor)prepareRequest;
                     sqlExecutor.invoke(connection);
-                } catch (SQLException e) {
+                    connection.commit();
+                } catch (SQLException ex) {
                     // Just avoid one execution failure makes the rest of batch failure.
-                    logger.error(e.getMessage(), e);
+                    rollback(connection);
+                    failedRequests.add(sqlExecutor);
+                    logger.error(ex.getMessage(), ex);
                 }
             }
-        } catch (SQLException | JDBCClientException e) {
-            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A failed rollback is only logged, so the rest of the statements and batches are still executed.
+     */
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("rollback failure: {}", e.getMessage(), e);
         }
     }
 
@@ -129,6 +129,48 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
         return orderWithDefault0(intValues, ids);
     }
 
+    @Override public IntValues[] getMultipleLinearIntValues(String indName, Downsampling downsampling, List<String> ids,
+        int numOfLinear, String valueCName) throws IOException {
+        String tableName = ModelName.build(downsampling, indName);
+
+        StringBuilder idValues = new StringBuilder();
+        for (int valueIdx = 0; valueIdx < ids.size(); valueIdx++) {
+            if (valueIdx != 0) {
+                idValues.append(",");
+            }
+            idValues.append("'").append(ids.get(valueIdx)).append("'");
+        }
+
+        IntValues[] intValuesArray = new IntValues[numOfLinear];
+        for (int i = 0; i < intValuesArray.length; i++) {
+            intValuesArray[i] = new IntValues();
+        }
+
+        try (Connection connection = h2Client.getConnection()) {
+            try (ResultSet resultSet = h2Client.executeQuery(connection, "select id, " + valueCName + " from " + tableName + " where id in (" + idValues.toString() + ")")) {
+                while (resultSet.next()) {
+                    String id = resultSet.getString("id");
+
+                    IntKeyLongValueHistogram multipleValues = new IntKeyLongValueHistogram(resultSet.getString(valueCName));
+                    int[] keys = multipleValues.sortedKeys();
+                    for (int i = 0; i < intValuesArray.length; i++) {
+                        KVInt kv = new KVInt();
+                        kv.setId(id);
+                        kv.setValue(i < keys.length ? multipleValues.get(keys[i]) : 0);
+                        intValuesArray[i].addKVInt(kv);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+
+        for (int i = 0; i < intValuesArray.length; i++) {
+            intValuesArray[i] = orderWithDefault0(intValuesArray[i], ids);
+        }
+        return intValuesArray;
+    }
+
     /**
      * Make sure the order is same as the expected order, and keep default value as 0.
      *
@@ -88,8 +88,12 @@ public class H2SQLExecutor {
         }
     }
 
-    protected StorageData toStorageData(ResultSet rs, String modelName, StorageBuilder storageBuilder) throws SQLException {
+    protected StorageData toStorageData(ResultSet rs, String modelName,
+        StorageBuilder storageBuilder) throws SQLException, IOException {
         if (rs.next()) {
+            if (storageBuilder instanceof StorageStreamBuilder) {
+                return ((StorageStreamBuilder)storageBuilder).stream2Data(new ResultSetReader(modelName, rs));
+            }
             Map data = new HashMap();
             List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
             for (ModelColumn column : columns) {
@@ -114,55 +118,61 @@ public class H2SQLExecutor {
     }
 
     protected SQLExecutor getInsertExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder) throws IOException {
-        Map<String, Object> objectMap = storageBuilder.data2Map(metrics);
-
         SQLBuilder sqlBuilder = new SQLBuilder("INSERT INTO " + modelName + " VALUES");
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
-        List<Object> param = new ArrayList<>();
         sqlBuilder.append("(?,");
-        param.add(metrics.id());
         for (int i = 0; i < columns.size(); i++) {
-            ModelColumn column = columns.get(i);
             sqlBuilder.append("?");
             if (i != columns.size() - 1) {
                 sqlBuilder.append(",");
             }
-
-            Object value = objectMap.get(column.getColumnName().getName());
-            if (value instanceof StorageDataType) {
-                param.add(((StorageDataType)value).toStorageData());
-            } else {
-                param.add(value);
-            }
         }
         sqlBuilder.append(")");
 
-        return new SQLExecutor(sqlBuilder.toString(), param);
+        Object[] param = new Object[columns.size() + 1];
+        param[0] = metrics.id();
+        writeColumns(modelName, columns, metrics, storageBuilder, param, 1);
+
+        return new SQLExecutor(sqlBuilder.toString(), Arrays.asList(param));
     }
 
     protected SQLExecutor getUpdateExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder) throws IOException {
-        Map<String, Object> objectMap = storageBuilder.data2Map(metrics);
-
         SQLBuilder sqlBuilder = new SQLBuilder("UPDATE " + modelName + " SET ");
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
-        List<Object> param = new ArrayList<>();
         for (int i = 0; i < columns.size(); i++) {
             ModelColumn column = columns.get(i);
             sqlBuilder.append(column.getColumnName().getStorageName() + "= ?");
             if (i != columns.size() - 1) {
                 sqlBuilder.append(",");
             }
+        }
+        sqlBuilder.append(" WHERE id = ?");
+
+        Object[] param = new Object[columns.size() + 1];
+        writeColumns(modelName, columns, metrics, storageBuilder, param, 0);
+        param[columns.size()] = metrics.id();
 
-            Object value = objectMap.get(column.getColumnName().getName());
+        return new SQLExecutor(sqlBuilder.toString(), Arrays.asList(param));
+    }
+
+    /**
+     * Put the values of the columns into the params from the offset, in the order of the columns.
+     */
+    private void writeColumns(String modelName, List<ModelColumn> columns, StorageData storageData,
+        StorageBuilder storageBuilder, Object[] param, int offset) throws IOException {
+        if (storageBuilder instanceof StorageStreamBuilder) {
+            ((StorageStreamBuilder)storageBuilder).data2Stream(storageData, new SQLParamWriter(modelName, param, offset));
+            return;
+        }
+
+        Map<String, Object> objectMap = storageBuilder.data2Map(storageData);
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = objectMap.get(columns.get(i).getColumnName().getName());
             if (value instanceof StorageDataType) {
-                param.add(((StorageDataType)value).toStorageData());
+                param[offset + i] = ((StorageDataType)value).toStorageData();
             } else {
-                param.add(value);
+                param[offset + i] = value;
             }
         }
-        sqlBuilder.append(" WHERE id = ?");
-        param.add(metrics.id());
-
-        return new SQLExecutor(sqlBuilder.toString(), param);
     }
 }
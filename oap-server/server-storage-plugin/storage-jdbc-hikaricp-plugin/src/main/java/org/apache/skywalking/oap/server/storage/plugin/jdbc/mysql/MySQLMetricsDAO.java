@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.*;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2MetricsDAO;
+
+/**
+ * Insert and update the metrics by the same `INSERT ... ON DUPLICATE KEY UPDATE` statement of the model, so all of them
+ * are executed in one JDBC batch, which is sent as multi-row inserts by the `rewriteBatchedStatements` of the MySQL
+ * driver.
+ */
+public class MySQLMetricsDAO extends H2MetricsDAO {
+
+    private final Map<String, String> upsertClauses = new ConcurrentHashMap<>();
+
+    public MySQLMetricsDAO(JDBCHikariCPClient h2Client, StorageBuilder<Metrics> storageBuilder) {
+        super(h2Client, storageBuilder);
+    }
+
+    @Override public SQLExecutor prepareBatchInsert(Model model, Metrics metrics) throws IOException {
+        SQLExecutor insertExecutor = super.prepareBatchInsert(model, metrics);
+        return new SQLExecutor(insertExecutor.getSql() + upsertClause(model.getName()), insertExecutor.getParam());
+    }
+
+    @Override public SQLExecutor prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
+        return prepareBatchInsert(model, metrics);
+    }
+
+    private String upsertClause(String modelName) {
+        return upsertClauses.computeIfAbsent(modelName, name -> {
+            SQLBuilder sqlBuilder = new SQLBuilder(" ON DUPLICATE KEY UPDATE ");
+            List<ModelColumn> columns = TableMetaInfo.get(name).getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                String columnName = columns.get(i).getColumnName().getStorageName();
+                sqlBuilder.append(columnName + "=VALUES(" + columnName + ")");
+                if (i != columns.size() - 1) {
+                    sqlBuilder.append(",");
+                }
+            }
+            return sqlBuilder.toString();
+        });
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.junit.*;
+
+public class H2BatchDAOTestCase {
+
+    private JDBCHikariCPClient h2Client;
+
+    @Before
+    public void before() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:batch-dao-test;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        settings.setProperty("dataSource.password", "");
+        h2Client = new JDBCHikariCPClient(settings);
+        h2Client.connect();
+
+        try (Connection connection = h2Client.getConnection()) {
+            h2Client.execute(connection, "DROP TABLE IF EXISTS batch_test");
+            h2Client.execute(connection, "CREATE TABLE batch_test (id VARCHAR(20) PRIMARY KEY, value BIGINT)");
+        }
+    }
+
+    @Test
+    public void testSynchronous() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(h2Client, 1);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            prepareRequests.add(insert("id" + i, i));
+        }
+        prepareRequests.add(new SQLExecutor("UPDATE batch_test SET value = ? WHERE id = ?", Arrays.asList(100L, "id0")));
+        Assert.assertTrue(batchDAO.synchronous(prepareRequests).isEmpty());
+
+        Assert.assertEquals(5, count());
+        Assert.assertEquals(100L, valueOf("id0"));
+        Assert.assertEquals(4L, valueOf("id4"));
+    }
+
+    @Test
+    public void testFailureInBatch() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(h2Client, 1);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        prepareRequests.add(insert("id0", 0));
+        prepareRequests.add(insert("id1", 1));
+        prepareRequests.add(insert("id0", 2));
+        prepareRequests.add(insert("id2", 3));
+        List<PrepareRequest> failedRequests = batchDAO.synchronous(prepareRequests);
+
+        Assert.assertEquals(Collections.singletonList(prepareRequests.get(2)), failedRequests);
+
+        Assert.assertEquals(3, count());
+        Assert.assertEquals(0L, valueOf("id0"));
+        Assert.assertEquals(3L, valueOf("id2"));
+    }
+
+    private SQLExecutor insert(String id, long value) {
+        return new SQLExecutor("INSERT INTO batch_test VALUES(?,?)", Arrays.asList(id, value));
+    }
+
+    private int count() throws Exception {
+        try (Connection connection = h2Client.getConnection()) {
+            try (ResultSet rs = h2Client.executeQuery(connection, "SELECT count(1) FROM batch_test")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private long valueOf(String id) throws Exception {
+        try (Connection connection = h2Client.getConnection()) {
+            try (ResultSet rs = h2Client.executeQuery(connection, "SELECT value FROM batch_test WHERE id = ?", id)) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.storage.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.*;
+import org.junit.*;
+
+public class H2SQLExecutorTestCase {
+
+    private static final String MODEL_NAME = "stream_test";
+
+    private JDBCHikariCPClient h2Client;
+    private H2SQLExecutor executor;
+
+    @Before
+    public void before() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:sql-executor-test;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        settings.setProperty("dataSource.password", "");
+        h2Client = new JDBCHikariCPClient(settings);
+        h2Client.connect();
+
+        List<ModelColumn> columns = new ArrayList<>();
+        columns.add(new ModelColumn(new ColumnName(TestData.NAME), String.class, false, false));
+        columns.add(new ModelColumn(new ColumnName(TestData.COUNT), int.class, false, false));
+        columns.add(new ModelColumn(new ColumnName(TestData.TOTAL), long.class, false, false));
+        columns.add(new ModelColumn(new ColumnName(TestData.RATE), double.class, false, false));
+        TableMetaInfo.addModel(new Model(MODEL_NAME, columns, false, false, 0, Downsampling.None, false));
+
+        try (Connection connection = h2Client.getConnection()) {
+            h2Client.execute(connection, "DROP TABLE IF EXISTS " + MODEL_NAME);
+            h2Client.execute(connection, "CREATE TABLE " + MODEL_NAME + " (id VARCHAR(20) PRIMARY KEY, name VARCHAR(20), count INT, total BIGINT, rate DOUBLE)");
+        }
+        executor = new H2SQLExecutor();
+    }
+
+    @Test
+    public void testStreamInsertAndUpdate() throws Exception {
+        StreamBuilder builder = new StreamBuilder();
+        try (Connection connection = h2Client.getConnection()) {
+            executor.getInsertExecutor(MODEL_NAME, new TestData("id1", "service", 2, 100L, 0.5), builder).invoke(connection);
+        }
+        assertData(new TestData("id1", "service", 2, 100L, 0.5), (TestData)executor.getByID(h2Client, MODEL_NAME, "id1", builder));
+
+        try (Connection connection = h2Client.getConnection()) {
+            executor.getUpdateExecutor(MODEL_NAME, new TestData("id1", "service", 3, 200L, 1.5), builder).invoke(connection);
+        }
+        assertData(new TestData("id1", "service", 3, 200L, 1.5), (TestData)executor.getByID(h2Client, MODEL_NAME, "id1", builder));
+    }
+
+    @Test
+    public void testSameParamsAsMap() throws Exception {
+        TestData data = new TestData("id1", null, 2, 100L, 0.5);
+        StreamBuilder streamBuilder = new StreamBuilder();
+        MapBuilder mapBuilder = new MapBuilder();
+
+        Assert.assertEquals(executor.getInsertExecutor(MODEL_NAME, data, mapBuilder).getParam(), executor.getInsertExecutor(MODEL_NAME, data, streamBuilder).getParam());
+        Assert.assertEquals(executor.getUpdateExecutor(MODEL_NAME, data, mapBuilder).getParam(), executor.getUpdateExecutor(MODEL_NAME, data, streamBuilder).getParam());
+    }
+
+    private void assertData(TestData expected, TestData actual) {
+        Assert.assertEquals(expected.name, actual.name);
+        Assert.assertEquals(expected.count, actual.count);
+        Assert.assertEquals(expected.total, actual.total);
+        Assert.assertEquals(expected.rate, actual.rate, 0);
+    }
+
+    private static class TestData implements StorageData {
+        private static final String NAME = "name";
+        private static final String COUNT = "count";
+        private static final String TOTAL = "total";
+        private static final String RATE = "rate";
+
+        private final String id;
+        private final String name;
+        private final int count;
+        private final long total;
+        private final double rate;
+
+        private TestData(String id, String name, int count, long total, double rate) {
+            this.id = id;
+            this.name = name;
+            this.count = count;
+            this.total = total;
+            this.rate = rate;
+        }
+
+        @Override public String id() {
+            return id;
+        }
+    }
+
+    private static class MapBuilder implements StorageBuilder<TestData> {
+
+        @Override public TestData map2Data(Map<String, Object> dbMap) {
+            return new TestData(null, (String)dbMap.get(TestData.NAME), ((Number)dbMap.get(TestData.COUNT)).intValue(),
+                ((Number)dbMap.get(TestData.TOTAL)).longValue(), ((Number)dbMap.get(TestData.RATE)).doubleValue());
+        }
+
+        @Override public Map<String, Object> data2Map(TestData storageData) {
+            Map<String, Object> map = new HashMap<>();
+            map.put(TestData.NAME, storageData.name);
+            map.put(TestData.COUNT, storageData.count);
+            map.put(TestData.TOTAL, storageData.total);
+            map.put(TestData.RATE, storageData.rate);
+            return map;
+        }
+    }
+
+    private static class StreamBuilder extends MapBuilder implements StorageStreamBuilder<TestData> {
+
+        @Override public void data2Stream(TestData storageData, StorageStreamWriter writer) throws IOException {
+            writer.writeString(TestData.NAME, storageData.name);
+            writer.writeInt(TestData.COUNT, storageData.count);
+            writer.writeLong(TestData.TOTAL, storageData.total);
+            writer.writeDouble(TestData.RATE, storageData.rate);
+        }
+
+        @Override public TestData stream2Data(StorageStreamReader reader) throws IOException {
+            return new TestData(null, reader.readString(TestData.NAME), reader.readInt(TestData.COUNT),
+                reader.readLong(TestData.TOTAL), reader.readDouble(TestData.RATE));
+        }
+    }
+}